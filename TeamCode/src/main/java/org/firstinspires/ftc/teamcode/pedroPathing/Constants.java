@@ -17,6 +17,9 @@ import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
 
 
 public class Constants {
+    // Pinpoint + Limelight EKF (FusedLocalizer) instead of the plain Pinpoint localizer.
+    // Off = the old Pinpoint-only follower; teleop then falls back to its offset-based vision blend.
+    public static boolean USE_FUSED_LOCALIZER = true;
 
     /* public static FollowerConstants followerConstants = new FollowerConstants()
             .mass(12.106)
@@ -69,11 +72,16 @@ public class Constants {
     );
 
     public static Follower createFollower(HardwareMap hardwareMap) {
-        return new FollowerBuilder(followerConstants, hardwareMap)
+        FollowerBuilder builder = new FollowerBuilder(followerConstants, hardwareMap)
                 .mecanumDrivetrain(driveConstants)
-                .pinpointLocalizer(localizerConstants)
-                .pathConstraints(pathConstraints)
-                .build();
+                .pathConstraints(pathConstraints);
+        if (USE_FUSED_LOCALIZER) {
+            builder.setLocalizer(new FusedLocalizer(hardwareMap, localizerConstants));
+        } else {
+            FusedLocalizer.clearActive();
+            builder.pinpointLocalizer(localizerConstants);
+        }
+        return builder.build();
     }
 }
 
@@ -0,0 +1,367 @@
+package org.firstinspires.ftc.teamcode.pedroPathing;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.teamcode.subsystems.ShooterSubsystem;
+
+import java.io.File;
+
+import dev.nextftc.core.components.SubsystemComponent;
+import dev.nextftc.ftc.NextFTCOpMode;
+import dev.nextftc.ftc.components.BulkReadComponent;
+
+/**
+ * Flywheel feedforward identification. Press start with the shooter clear and
+ * no balls loaded; the opmode then runs, open loop on shooter_motor1/2:
+ *   1. quasistatic: power ramps slowly from 0 so acceleration stays ~0 and the
+ *      samples pin down kS and kV;
+ *   2. coast until the wheel is nearly stopped;
+ *   3. dynamic: a power step, whose acceleration transient pins down kA.
+ * Every loop's (time, power, RPM) goes into preallocated arrays. When the
+ * sequence ends, power u is fit by least squares to
+ *   u * V_batt / V_nominal = kS * sign(w) + kV * w + kA * a
+ * over the samples above SYSID_MIN_FIT_RPM, integrated over short windows so
+ * encoder noise does not swamp the acceleration term. Power is normalized to
+ * VOLTAGE_COMP_NOMINAL_V so the gains match what ShooterSubsystem's voltage
+ * compensation assumes.
+ *
+ * Results show on telemetry; gamepad1 A writes them to
+ * ShooterSubsystem.FEEDFORWARD_CONFIG_PATH (and applies them to the running
+ * statics), which ShooterSubsystem.initialize() loads on every later init.
+ * Gamepad1 B aborts the run at any point.
+ */
+@Configurable
+@TeleOp(name = "Flywheel SysId", group = "Test")
+public class FlywheelSysIdOpMode extends NextFTCOpMode {
+    public FlywheelSysIdOpMode() {
+        addComponents(
+                new SubsystemComponent(ShooterSubsystem.INSTANCE),
+                BulkReadComponent.INSTANCE
+        );
+    }
+
+    public static double SYSID_QUASISTATIC_RAMP_PER_SEC = 0.05;
+    public static double SYSID_QUASISTATIC_MAX_POWER = 0.8;
+    public static double SYSID_COAST_STOP_RPM = 100.0;
+    public static double SYSID_COAST_TIMEOUT_SEC = 8.0;
+    public static double SYSID_DYNAMIC_STEP_POWER = 0.7;
+    public static double SYSID_DYNAMIC_DURATION_SEC = 3.0;
+    // Below this the wheel is in stiction / encoder-quantization territory.
+    public static double SYSID_MIN_FIT_RPM = 300.0;
+    // Length of each integral-form regression window (see fit()).
+    public static double SYSID_FIT_WINDOW_SEC = 0.6;
+
+    // ~20 s quasistatic + 8 s coast + 3 s dynamic at ~50 Hz, with headroom.
+    private static final int MAX_SAMPLES = 4096;
+    private static final String TAG = "FlywheelSysId";
+
+    private enum Phase {
+        WAITING,
+        QUASISTATIC,
+        COAST,
+        DYNAMIC,
+        DONE,
+        ABORTED
+    }
+
+    private final double[] sampleTimeSec = new double[MAX_SAMPLES];
+    private final double[] samplePower = new double[MAX_SAMPLES];
+    private final double[] sampleRpm = new double[MAX_SAMPLES];
+    private final boolean[] sampleFit = new boolean[MAX_SAMPLES];
+    private int sampleCount = 0;
+
+    private Phase phase = Phase.WAITING;
+    private double phaseStartSec = 0.0;
+    private double startSec = 0.0;
+    // Power commanded last loop, i.e. what the motors saw over the interval
+    // the current RPM reading covers.
+    private double lastCommandedPower = 0.0;
+
+    private boolean fitValid = false;
+    private double fitKs = Double.NaN;
+    private double fitKv = Double.NaN;
+    private double fitKa = Double.NaN;
+    private double fitRSquared = Double.NaN;
+    private int fitSamples = 0;
+    private String saveStatus = "";
+
+    private boolean prevA = false;
+    private boolean prevB = false;
+
+    @Override
+    public void onInit() {
+        sampleCount = 0;
+        phase = Phase.WAITING;
+        fitValid = false;
+        saveStatus = "";
+        ShooterSubsystem.INSTANCE.stop();
+    }
+
+    @Override
+    public void onStartButtonPressed() {
+        startSec = nowSeconds();
+        beginPhase(Phase.QUASISTATIC, startSec);
+        lastCommandedPower = 0.0;
+        ShooterSubsystem.INSTANCE.setOpenLoopPower(0.0);
+    }
+
+    @Override
+    public void onUpdate() {
+        double nowSec = nowSeconds();
+        boolean aPressed = gamepad1.a;
+        boolean bPressed = gamepad1.b;
+
+        if (bPressed && !prevB && isRunning()) {
+            ShooterSubsystem.INSTANCE.stop();
+            phase = Phase.ABORTED;
+        }
+
+        if (isRunning()) {
+            recordSample(nowSec);
+            double power = stepPhase(nowSec);
+            lastCommandedPower = power;
+            if (phase == Phase.DONE) {
+                ShooterSubsystem.INSTANCE.stop();
+                fit();
+            } else {
+                ShooterSubsystem.INSTANCE.setOpenLoopPower(power);
+            }
+        }
+
+        if (aPressed && !prevA && phase == Phase.DONE && fitValid) {
+            saveFit();
+        }
+        prevA = aPressed;
+        prevB = bPressed;
+
+        telemetry.addData("phase", phase.name());
+        telemetry.addData("t", "%.1f s", isRunning() ? nowSec - startSec : 0.0);
+        telemetry.addData("power", "%.3f", lastCommandedPower);
+        telemetry.addData("rpm", "%.0f", ShooterSubsystem.INSTANCE.getAverageRpmDelta());
+        telemetry.addData("samples", "%d / %d", sampleCount, MAX_SAMPLES);
+        telemetry.addData("current kS/kV/kA", "%.5f / %.8f / %.8f",
+                ShooterSubsystem.kS, ShooterSubsystem.kV, ShooterSubsystem.kA);
+        if (phase == Phase.DONE) {
+            if (fitValid) {
+                telemetry.addData("fit kS", "%.5f", fitKs);
+                telemetry.addData("fit kV", "%.8f", fitKv);
+                telemetry.addData("fit kA", "%.8f", fitKa);
+                telemetry.addData("fit R^2", "%.4f (%d windows)", fitRSquared, fitSamples);
+                telemetry.addLine("g1 A: save + apply fitted gains");
+            } else {
+                telemetry.addLine("Fit failed: not enough usable samples (see RobotLog)");
+            }
+            if (!saveStatus.isEmpty()) {
+                telemetry.addLine(saveStatus);
+            }
+        } else {
+            telemetry.addLine("g1 B: abort");
+        }
+        telemetry.update();
+    }
+
+    @Override
+    public void onStop() {
+        ShooterSubsystem.INSTANCE.stop();
+        super.onStop();
+    }
+
+    private boolean isRunning() {
+        return phase == Phase.QUASISTATIC || phase == Phase.COAST || phase == Phase.DYNAMIC;
+    }
+
+    private void beginPhase(Phase next, double nowSec) {
+        phase = next;
+        phaseStartSec = nowSec;
+    }
+
+    /** Advances the phase machine and returns the power for the next interval. */
+    private double stepPhase(double nowSec) {
+        double inPhaseSec = nowSec - phaseStartSec;
+        if (sampleCount >= MAX_SAMPLES) {
+            phase = Phase.DONE;
+            return 0.0;
+        }
+        switch (phase) {
+            case QUASISTATIC: {
+                double power = inPhaseSec * Math.max(1e-3, SYSID_QUASISTATIC_RAMP_PER_SEC);
+                if (power >= SYSID_QUASISTATIC_MAX_POWER) {
+                    beginPhase(Phase.COAST, nowSec);
+                    return 0.0;
+                }
+                return power;
+            }
+            case COAST:
+                if (ShooterSubsystem.INSTANCE.getAverageRpmDelta() <= SYSID_COAST_STOP_RPM
+                        || inPhaseSec >= SYSID_COAST_TIMEOUT_SEC) {
+                    beginPhase(Phase.DYNAMIC, nowSec);
+                    return SYSID_DYNAMIC_STEP_POWER;
+                }
+                return 0.0;
+            case DYNAMIC:
+                if (inPhaseSec >= SYSID_DYNAMIC_DURATION_SEC) {
+                    phase = Phase.DONE;
+                    return 0.0;
+                }
+                return SYSID_DYNAMIC_STEP_POWER;
+            default:
+                return 0.0;
+        }
+    }
+
+    private void recordSample(double nowSec) {
+        if (sampleCount >= MAX_SAMPLES) {
+            return;
+        }
+        double voltage = ShooterSubsystem.INSTANCE.getBatteryVoltageFiltered();
+        double voltageScale = Double.isFinite(voltage)
+                ? voltage / Math.max(0.1, ShooterSubsystem.VOLTAGE_COMP_NOMINAL_V)
+                : 1.0;
+        sampleTimeSec[sampleCount] = nowSec - startSec;
+        samplePower[sampleCount] = lastCommandedPower * voltageScale;
+        sampleRpm[sampleCount] = ShooterSubsystem.INSTANCE.getAverageRpmDelta();
+        // Coasting samples have u = 0 while friction still acts; they do not fit
+        // the positive-power model and are skipped.
+        sampleFit[sampleCount] = phase != Phase.COAST && lastCommandedPower > 0.0;
+        sampleCount++;
+    }
+
+    /**
+     * Least squares on the integral form of the model over sliding windows of
+     * SYSID_FIT_WINDOW_SEC:
+     *   integral(u dt) = kS * T + kV * integral(w dt) + kA * (w_end - w_start).
+     * Differentiating RPM instead (u = kS + kV * w + kA * a) puts encoder noise
+     * straight into the acceleration regressor and biases kA toward zero; over a
+     * window the noise only enters through the two endpoint readings. Windows
+     * must lie entirely in powered samples above SYSID_MIN_FIT_RPM. Normal
+     * equations are 3x3, solved by Gaussian elimination.
+     */
+    private void fit() {
+        double[] ata = new double[9];
+        double[] atb = new double[3];
+        double window = Math.max(0.05, SYSID_FIT_WINDOW_SEC);
+        int used = 0;
+        double sumY = 0.0;
+        double sumYY = 0.0;
+        for (int i = 0; i < sampleCount - 1; i++) {
+            double integralU = 0.0;
+            double integralW = 0.0;
+            int end = -1;
+            for (int j = i + 1; j < sampleCount; j++) {
+                if (!sampleFit[j] || sampleRpm[j - 1] < SYSID_MIN_FIT_RPM) {
+                    break;
+                }
+                double dt = sampleTimeSec[j] - sampleTimeSec[j - 1];
+                // samplePower[j] is what was applied over (j - 1, j].
+                integralU += samplePower[j] * dt;
+                integralW += 0.5 * (sampleRpm[j] + sampleRpm[j - 1]) * dt;
+                if (sampleTimeSec[j] - sampleTimeSec[i] >= window) {
+                    end = j;
+                    break;
+                }
+            }
+            if (end < 0) {
+                continue;
+            }
+            double r0 = sampleTimeSec[end] - sampleTimeSec[i];
+            double r1 = integralW;
+            double r2 = sampleRpm[end] - sampleRpm[i];
+            double y = integralU;
+            ata[0] += r0 * r0; ata[1] += r0 * r1; ata[2] += r0 * r2;
+            ata[4] += r1 * r1; ata[5] += r1 * r2;
+            ata[8] += r2 * r2;
+            atb[0] += r0 * y; atb[1] += r1 * y; atb[2] += r2 * y;
+            sumY += y;
+            sumYY += y * y;
+            used++;
+        }
+        ata[3] = ata[1];
+        ata[6] = ata[2];
+        ata[7] = ata[5];
+        fitSamples = used;
+        fitValid = false;
+        // Keep the unsolved normal equations for R^2: SSres = y'y - 2 b'A'y + b'A'Ab.
+        double aty0 = atb[0], aty1 = atb[1], aty2 = atb[2];
+        double[] ataCopy = ata.clone();
+        if (used < 20 || !solve3(ata, atb)) {
+            RobotLog.ww(TAG, "Fit failed: " + used + " usable windows from " + sampleCount + " samples");
+            return;
+        }
+        fitKs = atb[0];
+        fitKv = atb[1];
+        fitKa = atb[2];
+
+        double bAty = fitKs * aty0 + fitKv * aty1 + fitKa * aty2;
+        double bAtAb = 0.0;
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 3; c++) {
+                bAtAb += atb[r] * ataCopy[3 * r + c] * atb[c];
+            }
+        }
+        double ssRes = sumYY - 2.0 * bAty + bAtAb;
+        double ssTot = sumYY - sumY * sumY / used;
+        fitRSquared = ssTot > 0.0 ? 1.0 - ssRes / ssTot : Double.NaN;
+        fitValid = Double.isFinite(fitKs) && Double.isFinite(fitKv) && Double.isFinite(fitKa)
+                && fitKv > 0.0;
+        RobotLog.ii(TAG, String.format("Fit kS=%.5f kV=%.8f kA=%.8f R^2=%.4f over %d windows",
+                fitKs, fitKv, fitKa, fitRSquared, used));
+    }
+
+    private void saveFit() {
+        // A slightly negative kA is noise around zero; never persist it.
+        double kA = Math.max(0.0, fitKa);
+        File saved = ShooterSubsystem.savePersistedFeedforward(
+                fitKs, fitKv, kA,
+                String.format("FlywheelSysId R^2=%.4f windows=%d", fitRSquared, fitSamples));
+        if (saved != null) {
+            ShooterSubsystem.kS = fitKs;
+            ShooterSubsystem.kV = fitKv;
+            ShooterSubsystem.kA = kA;
+            saveStatus = "Saved: " + saved.getAbsolutePath();
+            RobotLog.ii(TAG, "Feedforward saved: " + saved.getAbsolutePath());
+        } else {
+            saveStatus = "Save FAILED (see RobotLog)";
+        }
+    }
+
+    /** Solves the 3x3 system m * x = b in place (x returned in b). False if singular. */
+    private static boolean solve3(double[] m, double[] b) {
+        for (int col = 0; col < 3; col++) {
+            int pivot = col;
+            for (int r = col + 1; r < 3; r++) {
+                if (Math.abs(m[3 * r + col]) > Math.abs(m[3 * pivot + col])) pivot = r;
+            }
+            if (Math.abs(m[3 * pivot + col]) < 1e-12) {
+                return false;
+            }
+            if (pivot != col) {
+                for (int c = 0; c < 3; c++) {
+                    double tmp = m[3 * col + c];
+                    m[3 * col + c] = m[3 * pivot + c];
+                    m[3 * pivot + c] = tmp;
+                }
+                double tmp = b[col];
+                b[col] = b[pivot];
+                b[pivot] = tmp;
+            }
+            for (int r = 0; r < 3; r++) {
+                if (r == col) continue;
+                double f = m[3 * r + col] / m[3 * col + col];
+                for (int c = col; c < 3; c++) {
+                    m[3 * r + c] -= f * m[3 * col + c];
+                }
+                b[r] -= f * b[col];
+            }
+        }
+        for (int i = 0; i < 3; i++) {
+            b[i] /= m[3 * i + i];
+        }
+        return true;
+    }
+
+    private static double nowSeconds() {
+        return System.nanoTime() / 1e9;
+    }
+}
@@ -0,0 +1,362 @@
+package org.firstinspires.ftc.teamcode.pedroPathing;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.pedropathing.ftc.localization.constants.PinpointConstants;
+import com.pedropathing.ftc.localization.localizers.PinpointLocalizer;
+import com.pedropathing.geometry.Pose;
+import com.pedropathing.localization.Localizer;
+import com.pedropathing.math.Vector;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.teamcode.util.PoseEkf;
+import org.firstinspires.ftc.teamcode.util.PoseHistory;
+
+/**
+ * Pedro localizer that fuses Pinpoint odometry with Limelight poses through a
+ * {@link PoseEkf}. Pinpoint drives the process model every update(); vision
+ * frames come in through {@link #addVisionMeasurement} and are applied
+ * against the fused pose at frame capture time (kept in a {@link PoseHistory}).
+ *
+ * Because this is the follower's localizer, everything that reads
+ * follower.getPose() (path following, turret field-point aim, SOTM) gets the
+ * fused pose. setPose() / setStartPose() reset both Pinpoint and the filter.
+ *
+ * Measurement noise grows with tag distance, robot speed and yaw rate, so a
+ * close tag seen while parked pulls hard and a far tag seen mid-spin barely
+ * moves the estimate. Frames failing the Mahalanobis gate are dropped; after
+ * {@link #EKF_RELOCALIZE_AFTER_REJECTS} full-pose (MT1) rejections in a row
+ * the covariance is inflated so the estimate can re-converge on vision (the
+ * automatic version of the old dpad-up MT1 relocalization).
+ *
+ * Only one follower exists at a time; the opmode gets at this instance via
+ * {@link #active()}.
+ */
+@Configurable
+public class FusedLocalizer implements Localizer {
+    private static final String TAG = "FusedLocalizer";
+
+    // Process noise (1-sigma): inches per inch travelled / radians per radian turned, plus a
+    // per-update floor.
+    public static double EKF_ODOMETRY_POSITION_NOISE_PER_IN = 0.02;
+    public static double EKF_ODOMETRY_POSITION_NOISE_BASE_IN = 0.002;
+    public static double EKF_ODOMETRY_HEADING_NOISE_PER_RAD = 0.01;
+    public static double EKF_ODOMETRY_HEADING_NOISE_BASE_RAD = 0.0002;
+    // Vision noise (1-sigma) = base + per tag-distance inch + per in/s + per deg/s.
+    public static double EKF_VISION_POSITION_SIGMA_BASE_IN = 1.0;
+    public static double EKF_VISION_POSITION_SIGMA_PER_TAG_IN = 0.02;
+    public static double EKF_VISION_POSITION_SIGMA_PER_SPEED = 0.05;
+    public static double EKF_VISION_POSITION_SIGMA_PER_OMEGA_DEG = 0.02;
+    public static double EKF_VISION_HEADING_SIGMA_BASE_DEG = 2.0;
+    public static double EKF_VISION_HEADING_SIGMA_PER_TAG_IN = 0.02;
+    public static double EKF_VISION_HEADING_SIGMA_PER_OMEGA_DEG = 0.05;
+    // Mahalanobis gates (chi-square, 99%).
+    public static double EKF_POSITION_GATE = PoseEkf.CHI2_99_2DOF;
+    public static double EKF_POSE_GATE = PoseEkf.CHI2_99_3DOF;
+    public static int EKF_RELOCALIZE_AFTER_REJECTS = 15;
+    public static double EKF_RELOCALIZE_POSITION_SIGMA_IN = 24.0;
+    public static double EKF_RELOCALIZE_HEADING_SIGMA_DEG = 20.0;
+    // Covariance after setPose(): how well the start pose is known.
+    public static double EKF_INITIAL_POSITION_SIGMA_IN = 1.0;
+    public static double EKF_INITIAL_HEADING_SIGMA_DEG = 1.0;
+
+    // The capture-time history has to reach back past the worst vision
+    // latency at the fastest loop rate, or lookups fall off its old end:
+    // 1 s of history at 2 ms loops.
+    private static final double HISTORY_WINDOW_SEC = 1.0;
+    private static final double HISTORY_MIN_LOOP_PERIOD_SEC = 0.002;
+    private static final int HISTORY_CAPACITY =
+            (int) Math.ceil(HISTORY_WINDOW_SEC / HISTORY_MIN_LOOP_PERIOD_SEC) + 1;
+    private static final long UNCOMPENSATED_LOG_PERIOD_NS = 1_000_000_000L;
+
+    private static FusedLocalizer active;
+
+    private final PinpointLocalizer odometry;
+    private final PoseEkf ekf = new PoseEkf();
+    private final PoseHistory history = new PoseHistory(HISTORY_CAPACITY);
+    private final PoseHistory.Sample captureSample = new PoseHistory.Sample();
+
+    private double lastOdoX;
+    private double lastOdoY;
+    private double lastOdoHeading;
+    private int consecutivePoseRejects = 0;
+    private boolean lastMeasurementCompensated = false;
+    private double lastReferenceHeading = Double.NaN;
+    private long lastUncompensatedLogNs = 0L;
+    private long measurementsAccepted = 0L;
+    private long measurementsRejected = 0L;
+
+    public FusedLocalizer(HardwareMap hardwareMap, PinpointConstants constants) {
+        this(hardwareMap, constants, new Pose());
+    }
+
+    public FusedLocalizer(HardwareMap hardwareMap, PinpointConstants constants, Pose startPose) {
+        odometry = new PinpointLocalizer(hardwareMap, constants, startPose);
+        resetTo(startPose);
+        active = this;
+    }
+
+    /** The localizer of the most recently built follower, or null if none uses one. */
+    public static FusedLocalizer active() {
+        return active;
+    }
+
+    /** Forgets the active instance when a follower is built without one. */
+    public static void clearActive() {
+        active = null;
+    }
+
+    // =========================
+    // Localizer
+    // =========================
+
+    @Override
+    public void update() {
+        odometry.update();
+        Pose odo = odometry.getPose();
+        double odoHeading = odo.getHeading();
+        ekf.predict(
+                odo.getX() - lastOdoX,
+                odo.getY() - lastOdoY,
+                wrapRadians(odoHeading - lastOdoHeading),
+                lastOdoHeading,
+                EKF_ODOMETRY_POSITION_NOISE_BASE_IN,
+                EKF_ODOMETRY_POSITION_NOISE_PER_IN,
+                EKF_ODOMETRY_HEADING_NOISE_BASE_RAD,
+                EKF_ODOMETRY_HEADING_NOISE_PER_RAD
+        );
+        lastOdoX = odo.getX();
+        lastOdoY = odo.getY();
+        lastOdoHeading = odoHeading;
+        history.add(System.nanoTime(), ekf.getX(), ekf.getY(), ekf.getHeading());
+    }
+
+    @Override
+    public Pose getPose() {
+        return new Pose(ekf.getX(), ekf.getY(), ekf.getHeading());
+    }
+
+    /** Pinpoint's velocity, rotated by the heading correction vision has applied. */
+    @Override
+    public Pose getVelocity() {
+        Pose v = odometry.getVelocity();
+        double correction = headingCorrection();
+        double c = Math.cos(correction);
+        double s = Math.sin(correction);
+        return new Pose(
+                (c * v.getX()) - (s * v.getY()),
+                (s * v.getX()) + (c * v.getY()),
+                v.getHeading()
+        );
+    }
+
+    @Override
+    public Vector getVelocityVector() {
+        Pose v = getVelocity();
+        Vector vector = new Vector();
+        vector.setOrthogonalComponents(v.getX(), v.getY());
+        return vector;
+    }
+
+    @Override
+    public void setStartPose(Pose setStart) {
+        odometry.setStartPose(setStart);
+        resetTo(setStart);
+    }
+
+    @Override
+    public void setPose(Pose setPose) {
+        odometry.setPose(setPose);
+        resetTo(setPose);
+    }
+
+    @Override
+    public double getTotalHeading() {
+        return odometry.getTotalHeading() + headingCorrection();
+    }
+
+    @Override
+    public double getForwardMultiplier() {
+        return odometry.getForwardMultiplier();
+    }
+
+    @Override
+    public double getLateralMultiplier() {
+        return odometry.getLateralMultiplier();
+    }
+
+    @Override
+    public double getTurningMultiplier() {
+        return odometry.getTurningMultiplier();
+    }
+
+    @Override
+    public void resetIMU() throws InterruptedException {
+        odometry.resetIMU();
+    }
+
+    @Override
+    public double getIMUHeading() {
+        return odometry.getIMUHeading();
+    }
+
+    @Override
+    public boolean isNAN() {
+        return odometry.isNAN() || ekf.isNaN();
+    }
+
+    // =========================
+    // Vision
+    // =========================
+
+    /**
+     * Fuses one vision pose (field inches / radians, Pedro frame). Pass NaN for
+     * {@code headingRad} to use position only (MT2, whose heading is our own
+     * yaw fed back). {@code captureTimeNs} is System.nanoTime() at frame
+     * capture. Returns true if the frame passed the gate and was applied.
+     */
+    public boolean addVisionMeasurement(
+            double x,
+            double y,
+            double headingRad,
+            long captureTimeNs,
+            double tagDistanceIn,
+            double speedInPerSec,
+            double omegaRadPerSec
+    ) {
+        double refX = ekf.getX();
+        double refY = ekf.getY();
+        double refHeading = ekf.getHeading();
+        lastMeasurementCompensated = history.getAt(captureTimeNs, captureSample);
+        if (lastMeasurementCompensated) {
+            refX = captureSample.x;
+            refY = captureSample.y;
+            refHeading = captureSample.headingRad;
+        } else {
+            logUncompensated(captureTimeNs);
+        }
+        lastReferenceHeading = refHeading;
+
+        double tagIn = Double.isFinite(tagDistanceIn) ? Math.max(0.0, tagDistanceIn) : 0.0;
+        double omegaDeg = Math.abs(Math.toDegrees(omegaRadPerSec));
+        double positionSigma = EKF_VISION_POSITION_SIGMA_BASE_IN
+                + (EKF_VISION_POSITION_SIGMA_PER_TAG_IN * tagIn)
+                + (EKF_VISION_POSITION_SIGMA_PER_SPEED * Math.abs(speedInPerSec))
+                + (EKF_VISION_POSITION_SIGMA_PER_OMEGA_DEG * omegaDeg);
+        double positionVariance = positionSigma * positionSigma;
+
+        double beforeX = ekf.getX();
+        double beforeY = ekf.getY();
+        double beforeHeading = ekf.getHeading();
+        boolean fullPose = Double.isFinite(headingRad);
+        boolean accepted;
+        if (fullPose) {
+            double headingSigma = Math.toRadians(EKF_VISION_HEADING_SIGMA_BASE_DEG
+                    + (EKF_VISION_HEADING_SIGMA_PER_TAG_IN * tagIn)
+                    + (EKF_VISION_HEADING_SIGMA_PER_OMEGA_DEG * omegaDeg));
+            accepted = ekf.correctPose(
+                    x - refX,
+                    y - refY,
+                    headingRad - refHeading,
+                    positionVariance,
+                    headingSigma * headingSigma,
+                    EKF_POSE_GATE
+            );
+            consecutivePoseRejects = accepted ? 0 : consecutivePoseRejects + 1;
+            if (consecutivePoseRejects >= Math.max(1, EKF_RELOCALIZE_AFTER_REJECTS)) {
+                double relocalizeHeadingSigma = Math.toRadians(EKF_RELOCALIZE_HEADING_SIGMA_DEG);
+                ekf.inflate(
+                        EKF_RELOCALIZE_POSITION_SIGMA_IN * EKF_RELOCALIZE_POSITION_SIGMA_IN,
+                        relocalizeHeadingSigma * relocalizeHeadingSigma
+                );
+                consecutivePoseRejects = 0;
+            }
+        } else {
+            accepted = ekf.correctPosition(x - refX, y - refY, positionVariance, EKF_POSITION_GATE);
+        }
+
+        if (accepted) {
+            measurementsAccepted++;
+            // Keep later capture-time lookups consistent with the corrected estimate.
+            history.shift(
+                    ekf.getX() - beforeX,
+                    ekf.getY() - beforeY,
+                    wrapRadians(ekf.getHeading() - beforeHeading)
+            );
+        } else {
+            measurementsRejected++;
+        }
+        return accepted;
+    }
+
+    public boolean wasLastMeasurementLatencyCompensated() {
+        return lastMeasurementCompensated;
+    }
+
+    /**
+     * Fused heading the last measurement was compared against: at capture
+     * time when compensated, else the current one.
+     */
+    public double getLastReferenceHeading() {
+        return lastReferenceHeading;
+    }
+
+    public PoseEkf getFilter() {
+        return ekf;
+    }
+
+    public long getMeasurementsAccepted() {
+        return measurementsAccepted;
+    }
+
+    public long getMeasurementsRejected() {
+        return measurementsRejected;
+    }
+
+    /** Raw Pinpoint pose, for logging against the fused one. */
+    public Pose getOdometryPose() {
+        return odometry.getPose();
+    }
+
+    private void resetTo(Pose pose) {
+        double positionSigma = EKF_INITIAL_POSITION_SIGMA_IN;
+        double headingSigma = Math.toRadians(EKF_INITIAL_HEADING_SIGMA_DEG);
+        ekf.reset(pose.getX(), pose.getY(), pose.getHeading(),
+                positionSigma * positionSigma, headingSigma * headingSigma);
+        lastOdoX = pose.getX();
+        lastOdoY = pose.getY();
+        lastOdoHeading = pose.getHeading();
+        history.clear();
+        consecutivePoseRejects = 0;
+    }
+
+    /**
+     * A frame older than the history was compared against the current pose,
+     * which turns motion during the latency into error. Say so, at most once
+     * a second.
+     */
+    private void logUncompensated(long captureTimeNs) {
+        long now = System.nanoTime();
+        if (lastUncompensatedLogNs != 0L && now - lastUncompensatedLogNs < UNCOMPENSATED_LOG_PERIOD_NS) {
+            return;
+        }
+        lastUncompensatedLogNs = now;
+        RobotLog.ww(TAG, String.format(
+                "Vision frame not latency compensated: latency %.1f ms, history %d samples over %.1f ms",
+                (now - captureTimeNs) / 1e6,
+                history.size(),
+                history.getSpanMs()
+        ));
+    }
+
+    /** Fused heading minus Pinpoint heading. */
+    private double headingCorrection() {
+        return wrapRadians(ekf.getHeading() - lastOdoHeading);
+    }
+
+    private static double wrapRadians(double angle) {
+        while (angle > Math.PI) angle -= 2.0 * Math.PI;
+        while (angle < -Math.PI) angle += 2.0 * Math.PI;
+        return angle;
+    }
+}
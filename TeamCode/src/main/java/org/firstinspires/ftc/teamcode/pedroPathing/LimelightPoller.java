@@ -0,0 +1,352 @@
+package org.firstinspires.ftc.teamcode.pedroPathing;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.pedropathing.ftc.InvertedFTCCoordinates;
+import com.pedropathing.ftc.PoseConverter;
+import com.pedropathing.geometry.Pose;
+import com.qualcomm.hardware.limelightvision.LLResult;
+import com.qualcomm.hardware.limelightvision.LLResultTypes;
+import com.qualcomm.hardware.limelightvision.Limelight3A;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.Pose2D;
+import org.firstinspires.ftc.robotcore.external.navigation.Pose3D;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Polls the Limelight on its own thread so its transport time stays out of
+ * the control loop.
+ *
+ * Limelight3A already fetches results on the SDK's own thread, so
+ * getLatestResult() only hands back the cached LLResult. The expensive call is
+ * updateRobotOrientation(), a synchronous HTTP write of the yaw MegaTag 2
+ * needs; in the loop it showed up as multi-millisecond spikes in turret and
+ * flywheel timing. Here a daemon thread makes that write every
+ * {@link #LIMELIGHT_POLL_PERIOD_MS}, picks up the cached result and, when it
+ * is a new camera frame, converts it to Pedro field coordinates and
+ * publishes it as an immutable {@link Sample} through one AtomicReference.
+ * The loop calls {@link #getLatest()} (a volatile read) and publishes the
+ * yaw with {@link #setRobotYawDegrees} (a volatile write); nothing else is
+ * shared.
+ *
+ * A frame is published once. {@link Sample#frameSequence} increases by one
+ * per new frame, so a consumer that must not use a frame twice (the EKF)
+ * remembers the last sequence it used. Each sample carries its capture time
+ * on the System.nanoTime() clock, taken when the frame was first seen, so
+ * latency compensation keeps working no matter how long it sits before the
+ * loop reads it.
+ */
+@Configurable
+public class LimelightPoller {
+    private static final String TAG = "LimelightPoller";
+    private static final long JOIN_TIMEOUT_MS = 250L;
+
+    public static long LIMELIGHT_POLL_PERIOD_MS = 10L;
+    // A sample older than this is treated as "no result" (thread stalled in
+    // the camera's HTTP stack, cable pulled, ...).
+    public static long LIMELIGHT_MAX_SAMPLE_AGE_MS = 250L;
+
+    private static final int RED_GOAL_TAG_ID = 24;
+    private static final int BLUE_GOAL_TAG_ID = 20;
+
+    /** One preconverted Limelight result. Immutable; safe to read from any thread. */
+    public static final class Sample {
+        /** Poller-assigned frame number, +1 per new camera frame. */
+        public final long frameSequence;
+        /** LLResult.getTimestamp() of the frame; NaN if there was no result. */
+        public final double frameTimestamp;
+        /** System.nanoTime() when the frame was first polled. */
+        public final long polledNs;
+        /** System.nanoTime() of frame capture (poll time minus staleness and pipeline latency). */
+        public final long captureNs;
+        /** getLatestResult() returned something. */
+        public final boolean present;
+        /** ... and it had a target. */
+        public final boolean valid;
+        public final double txDeg;
+        public final double tyDeg;
+        public final double ta;
+        /** Mean camera-to-tag distance of the botpose solve, inches. */
+        public final double botposeAvgDistIn;
+
+        public final boolean mt1Valid;
+        public final double mt1X;
+        public final double mt1Y;
+        public final double mt1HeadingDeg;
+        public final Pose mt1Pose;
+
+        public final boolean mt2Valid;
+        public final double mt2X;
+        public final double mt2Y;
+        public final double mt2HeadingDeg;
+
+        // Raw MT2 botpose (Limelight field frame, meters / degrees) for telemetry.
+        public final boolean mt2RawPresent;
+        public final double mt2RawXM;
+        public final double mt2RawYM;
+        public final double mt2RawYawDeg;
+
+        // Goal tags for the legacy heading-assist block.
+        public final boolean redGoalTagSeen;
+        public final double redGoalTagTxDeg;
+        public final double redGoalTagTyDeg;
+        public final boolean blueGoalTagSeen;
+        public final double blueGoalTagTxDeg;
+        public final double blueGoalTagTyDeg;
+
+        Sample(LLResult result, long frameSequence, long polledNs) {
+            this.frameSequence = frameSequence;
+            this.polledNs = polledNs;
+            present = result != null;
+            frameTimestamp = present ? result.getTimestamp() : Double.NaN;
+            valid = present && result.isValid();
+
+            long capture = polledNs;
+            if (present) {
+                double latencyMs = result.getStaleness() + result.getCaptureLatency() + result.getTargetingLatency();
+                if (Double.isFinite(latencyMs)) {
+                    capture -= (long) (Math.max(0.0, latencyMs) * 1e6);
+                }
+            }
+            captureNs = capture;
+
+            double tx = Double.NaN, ty = Double.NaN, area = Double.NaN, avgDistIn = Double.NaN;
+            boolean m1 = false, m2 = false, m2Raw = false;
+            double m1x = Double.NaN, m1y = Double.NaN, m1h = Double.NaN;
+            double m2x = Double.NaN, m2y = Double.NaN, m2h = Double.NaN;
+            double rawX = Double.NaN, rawY = Double.NaN, rawYaw = Double.NaN;
+            Pose m1Pose = null;
+            boolean red = false, blue = false;
+            double redTx = Double.NaN, redTy = Double.NaN, blueTx = Double.NaN, blueTy = Double.NaN;
+
+            if (valid) {
+                tx = result.getTx();
+                ty = result.getTy();
+                area = result.getTa();
+                avgDistIn = DistanceUnit.METER.toInches(result.getBotposeAvgDist());
+
+                Pose3D mt1 = result.getBotpose();
+                if (mt1 != null) {
+                    Pose candidate = convertBotposeToPedro(mt1);
+                    double headingDeg = Math.toDegrees(candidate.getHeading());
+                    if (Double.isFinite(candidate.getX()) && Double.isFinite(candidate.getY()) && Double.isFinite(headingDeg)) {
+                        m1 = true;
+                        m1x = candidate.getX();
+                        m1y = candidate.getY();
+                        m1h = normalizeDegrees(headingDeg);
+                        m1Pose = candidate;
+                    }
+                }
+
+                Pose3D mt2 = result.getBotpose_MT2();
+                if (mt2 != null) {
+                    m2Raw = true;
+                    rawX = mt2.getPosition().x;
+                    rawY = mt2.getPosition().y;
+                    rawYaw = mt2.getOrientation().getYaw();
+                    Pose candidate = convertBotposeToPedro(mt2);
+                    double headingDeg = Math.toDegrees(candidate.getHeading());
+                    if (Double.isFinite(candidate.getX()) && Double.isFinite(candidate.getY()) && Double.isFinite(headingDeg)) {
+                        m2 = true;
+                        m2x = candidate.getX();
+                        m2y = candidate.getY();
+                        m2h = normalizeDegrees(headingDeg);
+                    }
+                }
+
+                List<LLResultTypes.FiducialResult> fiducials = result.getFiducialResults();
+                if (fiducials != null) {
+                    for (LLResultTypes.FiducialResult f : fiducials) {
+                        if (!red && f.getFiducialId() == RED_GOAL_TAG_ID) {
+                            red = true;
+                            redTx = f.getTargetXDegrees();
+                            redTy = f.getTargetYDegrees();
+                        } else if (!blue && f.getFiducialId() == BLUE_GOAL_TAG_ID) {
+                            blue = true;
+                            blueTx = f.getTargetXDegrees();
+                            blueTy = f.getTargetYDegrees();
+                        }
+                    }
+                }
+            }
+
+            txDeg = tx;
+            tyDeg = ty;
+            ta = area;
+            botposeAvgDistIn = avgDistIn;
+            mt1Valid = m1;
+            mt1X = m1x;
+            mt1Y = m1y;
+            mt1HeadingDeg = m1h;
+            mt1Pose = m1Pose;
+            mt2Valid = m2;
+            mt2X = m2x;
+            mt2Y = m2y;
+            mt2HeadingDeg = m2h;
+            mt2RawPresent = m2Raw;
+            mt2RawXM = rawX;
+            mt2RawYM = rawY;
+            mt2RawYawDeg = rawYaw;
+            redGoalTagSeen = red;
+            redGoalTagTxDeg = redTx;
+            redGoalTagTyDeg = redTy;
+            blueGoalTagSeen = blue;
+            blueGoalTagTxDeg = blueTx;
+            blueGoalTagTyDeg = blueTy;
+        }
+
+        /** Milliseconds since this sample's frame was first polled. */
+        public double ageMs(long nowNs) {
+            return (nowNs - polledNs) / 1e6;
+        }
+    }
+
+    private final Limelight3A limelight;
+    private final AtomicReference<Sample> latest = new AtomicReference<>();
+    private volatile double robotYawDeg = Double.NaN;
+    private volatile boolean running = false;
+    private volatile double lastPollDurationMs = 0.0;
+    private volatile long pollCount = 0L;
+    private volatile long frameCount = 0L;
+    private volatile long errorCount = 0L;
+    private Thread thread;
+
+    public LimelightPoller(Limelight3A limelight) {
+        this.limelight = limelight;
+    }
+
+    public void start() {
+        if (thread != null) {
+            return;
+        }
+        latest.set(null);
+        running = true;
+        thread = new Thread(this::run, TAG);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Stops the thread and waits briefly for an in-flight poll to finish. */
+    public void stop() {
+        Thread t = thread;
+        if (t == null) {
+            return;
+        }
+        thread = null;
+        running = false;
+        LockSupport.unpark(t);
+        try {
+            t.join(JOIN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (t.isAlive()) {
+            RobotLog.ww(TAG, "Limelight poll thread did not finish within " + JOIN_TIMEOUT_MS + " ms");
+        }
+    }
+
+    /** Robot yaw in FTC-standard field degrees, sent to the camera for MegaTag 2 on the next poll. */
+    public void setRobotYawDegrees(double yawDeg) {
+        robotYawDeg = yawDeg;
+    }
+
+    /**
+     * Latest frame, or null if none has been polled yet or the newest is
+     * older than {@link #LIMELIGHT_MAX_SAMPLE_AGE_MS}. Returns the same
+     * Sample on every call until the camera produces a new frame.
+     */
+    public Sample getLatest() {
+        Sample sample = latest.get();
+        if (sample == null || sample.ageMs(System.nanoTime()) > Math.max(1L, LIMELIGHT_MAX_SAMPLE_AGE_MS)) {
+            return null;
+        }
+        return sample;
+    }
+
+    /** Wall time of the last orientation update + result fetch, ms. */
+    public double getLastPollDurationMs() {
+        return lastPollDurationMs;
+    }
+
+    public long getPollCount() {
+        return pollCount;
+    }
+
+    /** Distinct camera frames published so far. */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    private void run() {
+        double lastFrameTimestamp = Double.NaN;
+        while (running) {
+            long startNs = System.nanoTime();
+            try {
+                double yaw = robotYawDeg;
+                if (Double.isFinite(yaw)) {
+                    limelight.updateRobotOrientation(yaw);
+                }
+                LLResult result = limelight.getLatestResult();
+                pollCount++;
+                // getLatestResult() returns the SDK's cached frame; only a new
+                // one becomes a new Sample. An absent result is not published,
+                // so the last frame simply ages out in getLatest().
+                if (result != null) {
+                    double frameTimestamp = result.getTimestamp();
+                    if (frameTimestamp != lastFrameTimestamp) {
+                        lastFrameTimestamp = frameTimestamp;
+                        long sequence = frameCount + 1L;
+                        latest.set(new Sample(result, sequence, System.nanoTime()));
+                        frameCount = sequence;
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Keep polling; one bad response must not kill vision for the match.
+                if (errorCount == 0L) {
+                    RobotLog.ee(TAG, e, "Limelight poll failed");
+                }
+                errorCount++;
+            }
+            long elapsedNs = System.nanoTime() - startNs;
+            lastPollDurationMs = elapsedNs / 1e6;
+            long sleepNs = (Math.max(1L, LIMELIGHT_POLL_PERIOD_MS) * 1_000_000L) - elapsedNs;
+            if (sleepNs > 0L && running) {
+                LockSupport.parkNanos(sleepNs);
+            }
+        }
+    }
+
+    /** Limelight botpose (meters, FTC field frame) to Pedro field inches / radians. */
+    public static Pose convertBotposeToPedro(Pose3D botpose) {
+        double xInches = DistanceUnit.METER.toInches(botpose.getPosition().x);
+        double yInches = DistanceUnit.METER.toInches(botpose.getPosition().y);
+        Pose2D pose2d = new Pose2D(
+                DistanceUnit.INCH,
+                xInches,
+                yInches,
+                AngleUnit.DEGREES,
+                botpose.getOrientation().getYaw()
+        );
+        Pose ftcStandardPose = PoseConverter.pose2DToPose(pose2d, InvertedFTCCoordinates.INSTANCE);
+        return new Pose(
+                (ftcStandardPose.getY() + 72),
+                (-(ftcStandardPose.getX()) + 72),
+                ftcStandardPose.getHeading() - Math.toRadians(90)
+        );
+    }
+
+    private static double normalizeDegrees(double angleDegrees) {
+        while (angleDegrees >= 180.0) angleDegrees -= 360.0;
+        while (angleDegrees < -180.0) angleDegrees += 360.0;
+        return angleDegrees;
+    }
+}
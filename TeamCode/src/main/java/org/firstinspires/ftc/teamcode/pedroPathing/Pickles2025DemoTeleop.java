@@ -187,6 +187,7 @@ public class Pickles2025DemoTeleop extends NextFTCOpMode {
         }
 
         // Seed turret target from current measured position so it doesn't jump on first loop
+        // (re-seeded in the loop until the sampled calibration above finishes).
         demoTurretTargetDeg = TurretSubsystem.INSTANCE.getMeasuredAngleDegrees();
 
         PedroComponent.follower().setStartingPose(startingPose);
@@ -253,6 +254,9 @@ public class Pickles2025DemoTeleop extends NextFTCOpMode {
         // Integrate stick position into a target angle each loop.
         // setTargetAngleDegrees() clamps to [-130°, +130°]; read-back prevents
         // the accumulator from winding past the end-stops.
+        if (!TurretSubsystem.INSTANCE.isStartupCalibrationComplete()) {
+            demoTurretTargetDeg = TurretSubsystem.INSTANCE.getMeasuredAngleDegrees();
+        }
         double turretStickX = gamepad2.left_stick_x;
         if (Math.abs(turretStickX) > DEMO_STICK_DEADBAND) {
             demoTurretTargetDeg += turretStickX * DEMO_TURRET_RATE_DEG_PER_SEC * LOOP_TIME_SEC;
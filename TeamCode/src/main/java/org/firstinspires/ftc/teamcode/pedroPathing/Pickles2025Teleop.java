@@ -1,43 +1,50 @@
 package org.firstinspires.ftc.teamcode.pedroPathing;
 
 import com.qualcomm.robotcore.util.RobotLog;
+import org.firstinspires.ftc.teamcode.util.BinaryLogger;
+import org.firstinspires.ftc.teamcode.util.BinarySignalSink;
 import org.firstinspires.ftc.teamcode.util.CsvLogger;
+import org.firstinspires.ftc.teamcode.util.CsvSignalSink;
+import org.firstinspires.ftc.teamcode.util.HardwareWriteCache;
+import org.firstinspires.ftc.teamcode.util.LoopProfiler;
+import org.firstinspires.ftc.teamcode.util.PoseHistory;
+import org.firstinspires.ftc.teamcode.util.SignalBus;
+import org.firstinspires.ftc.teamcode.util.SlidingMedian;
+import org.firstinspires.ftc.teamcode.util.SubsystemScheduler;
+import org.firstinspires.ftc.teamcode.util.TelemetryOutput;
+import org.firstinspires.ftc.teamcode.util.TelemetrySignalSink;
+import org.firstinspires.ftc.teamcode.util.TieredTelemetry;
+import org.firstinspires.ftc.teamcode.util.WpiLogSignalSink;
+import org.firstinspires.ftc.teamcode.util.WpiLogWriter;
 import java.io.File;
 
 import com.bylazar.configurables.annotations.Configurable;
 import com.bylazar.telemetry.PanelsTelemetry;
 import com.bylazar.telemetry.TelemetryManager;
 import com.bylazar.utils.LoopTimer;
-import com.pedropathing.ftc.InvertedFTCCoordinates;
-import com.pedropathing.ftc.PoseConverter;
 import com.pedropathing.geometry.BezierPoint;
 import com.pedropathing.geometry.Pose;
 import com.pedropathing.localization.PoseTracker;
 import com.pedropathing.math.Vector;
 import com.pedropathing.paths.PathChain;
-import com.qualcomm.hardware.limelightvision.LLResult;
-import com.qualcomm.hardware.limelightvision.LLResultTypes;
 import com.qualcomm.hardware.limelightvision.Limelight3A;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
 
-import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
-import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
-import org.firstinspires.ftc.robotcore.external.navigation.Pose2D;
-import org.firstinspires.ftc.robotcore.external.navigation.Pose3D;
 import org.firstinspires.ftc.teamcode.GlobalRobotData;
 import org.firstinspires.ftc.teamcode.subsystems.LEDControlSubsystem;
 import org.firstinspires.ftc.teamcode.subsystems.IntakeWithSensorsSubsystem;
 import org.firstinspires.ftc.teamcode.subsystems.ShooterSubsystem;
 import org.firstinspires.ftc.teamcode.subsystems.TurretSubsystem;
+import org.firstinspires.ftc.teamcode.subsystems.shot.MutableShotSolution;
+import org.firstinspires.ftc.teamcode.subsystems.shot.ShotBallistics;
+import org.firstinspires.ftc.teamcode.subsystems.shot.ShotCalibrationProfiles;
 import org.firstinspires.ftc.teamcode.subsystems.shot.ShotCalibrationTable;
+import org.firstinspires.ftc.teamcode.subsystems.shot.ShotOnTheMoveSolver;
 import org.firstinspires.ftc.teamcode.subsystems.shot.ShotSample;
 import org.firstinspires.ftc.teamcode.subsystems.shot.ShotSolution;
 import org.firstinspires.ftc.teamcode.subsystems.shot.ShootingZones;
 
-import java.util.Arrays;
-import java.util.List;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 import dev.nextftc.core.components.SubsystemComponent;
 import dev.nextftc.extensions.pedro.PedroComponent;
@@ -69,11 +76,27 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
     // logging variables
     private CsvLogger turretLogger;
     private CsvLogger shotInfoLogger;
-    private CsvLogger sotmLogger;
+    private WpiLogWriter wpiLog;
+    private int wpiRobotPose = -1;
+    private int wpiShootTarget = -1;
+    private int wpiTurretMeasuredPose = -1;
+    // SignalBus slots for loop-local values (see registerTeleopSignals).
+    private int sigTimeMs, sigMatchTimeMs, sigSotmFireRequestActive, sigSotmControlActive;
+    private int sigRightBumperActive, sigRightTriggerActive, sigBotX, sigBotY, sigLlLatencyMs, sigLlLatencyCompensated;
+    private int sigLlPollMs;
+    private int sigBotHeadingDeg, sigMt1Valid, sigMt1X, sigMt1Y;
+    private int sigMt1HeadingDeg, sigMt2Valid, sigMt2X, sigMt2Y;
+    private int sigMt2HeadingDeg, sigLlBlendSource, sigLlPoseValid, sigLlPoseAccepted;
+    private int sigLlPoseApplied, sigLlGateReason, sigLlRawDxIn, sigLlRawDyIn;
+    private int sigLlRawDistIn, sigLlRawHeadingErrDeg, sigLlBlendAlpha, sigTargetX;
+    private int sigTargetY, sigFieldAngleDeg, sigAngleErrorDeg, sigSotmVx;
+    private int sigSotmVy, sigSotmOmegaRawDegPerSec, sigSotmOmegaDegPerSec, sigSotmTurretGate;
+    private int sigSotmTurretGoalErrorDeg, sigSotmTurretConstraintErrorDeg, sigSotmTurretReachable, sigSotmTurretSpeedDegPerSec;
+    private int sigSotmTurretSpeedGate, sigSotmFireGate, sigSotmCanShootGate, sigShooterAtSpeed75;
+    private int sigDriveCmd, sigStrafeCmd, sigRotateCmd, sigLoopTimeMs;
     private CsvLogger dumbShootRpmLogger;
     private CsvLogger shotTuningLogger;
     private long lastTurretLogMs = 0L;
-    private long lastSotmLogMs = 0L;
     private long lastDumbShootRpmLogMs = 0L;
     public static boolean ENABLE_TURRET_LOGGING = false;
     public static long TURRET_LOG_PERIOD_MS = 25;
@@ -85,6 +108,46 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
     public static long TURRET_DIAG_STICTION_MIN_TIME_MS = 120;
     public static boolean ENABLE_SOTM_LOGGING = true;
     public static long SOTM_LOG_PERIOD_MS = 25;
+    // Write the SOTM log with BinaryLogger every loop instead of CSV every
+    // SOTM_LOG_PERIOD_MS. Decode with scripts/decode_binary_log.py.
+    public static boolean SOTM_LOG_BINARY = true;
+    // Native WPILOG for AdvantageScope with every SignalBus signal, written every
+    // loop (see startWpiLog).
+    public static boolean ENABLE_WPILOG_LOGGING = true;
+    // Panels view of every signal on the bus, refreshed at SIGNAL_TELEMETRY_PERIOD_MS.
+    public static boolean SHOW_SIGNAL_TELEMETRY = false;
+    public static long SIGNAL_TELEMETRY_PERIOD_MS = 100;
+    // SOTM log columns, in the order the analysis scripts expect. Each name is a
+    // SignalBus signal published by a subsystem or by registerTeleopSignals.
+    private static final String[] SOTM_LOG_SIGNALS = {
+            "t_ms", "match_t_ms", "sotm_fire_request_active", "sotm_control_active",
+            "right_bumper_active", "right_trigger_active", "bot_x", "bot_y", "bot_heading_deg",
+            "mt1_valid", "mt1_x", "mt1_y", "mt1_heading_deg", "mt2_valid", "mt2_x", "mt2_y",
+            "mt2_heading_deg", "ll_blend_enabled", "ll_blend_source", "ll_pose_valid",
+            "ll_pose_accepted", "ll_pose_applied", "ll_gate_reason", "ll_consecutive_accepts",
+            "ll_loops_since_apply", "ll_raw_dx_in", "ll_raw_dy_in", "ll_raw_dist_in",
+            "ll_raw_heading_err_deg", "ll_bias_x_in", "ll_bias_y_in", "ll_bias_heading_deg",
+            "ll_nudge_x_in", "ll_nudge_y_in", "ll_nudge_heading_deg", "ll_blend_alpha", "target_x",
+            "target_y", "field_angle_deg", "angle_error_deg", "real_distance_in", "sotm_valid",
+            "sotm_lead_applied", "sotm_speed_in_s", "sotm_vx_in_s", "sotm_vy_in_s",
+            "sotm_omega_raw_deg_s", "sotm_omega_deg_s", "sotm_total_tof_s", "sotm_lead_x_in",
+            "sotm_lead_y_in", "sotm_radial_vel_in_s", "sotm_effective_dist_in",
+            "sotm_ballistic_dist_in", "sotm_turret_aim_deg", "sotm_turret_lag_comp_deg",
+            "turret_target_deg", "turret_measured_deg", "turret_ready", "sotm_turret_gate",
+            "sotm_turret_goal_error_deg", "sotm_turret_constraint_error_deg",
+            "sotm_turret_reachable", "sotm_turret_speed_deg_s", "sotm_turret_speed_gate",
+            "sotm_fire_gate", "sotm_can_shoot_gate", "shooter_target_rpm", "shooter_rpm1",
+            "shooter_rpm2", "shooter_at_speed_75", "shooter_battery_v",
+            "shooter_battery_v_filtered", "shooter_voltage_comp_gain", "shooter_cmd_pre_vcomp",
+            "shooter_cmd_post_vcomp", "shooter_cmd_saturated", "dumbshoot_timer_active",
+            "ball_count", "intake_m1_ticks", "intake_m3_ticks", "hold_state", "drive_cmd",
+            "strafe_cmd", "rotate_cmd", "loop_time_ms", "ll_latency_ms", "ll_latency_compensated",
+            "ll_poll_ms"
+    };
+    private static final String[] LIMELIGHT_GATE_REASONS = {
+            "accept", "no_tag", "disabled", "translation", "heading", "history",
+            "throttle", "streak", "speed", "omega", "ekf_gate", "repeat_frame"
+    };
     public static boolean ENABLE_DUMBSHOOT_RPM_LOGGING = false;
     public static long DUMBSHOOT_RPM_LOG_PERIOD_MS = 5;
     public static boolean DUMBSHOOT_RPM_LOG_EVERY_LOOP = true;
@@ -290,17 +353,25 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
     public static double SHOT_ZONE_B_RPM_OFFSET = 0.0;
     public static double SHOT_ZONE_B_TARGET_X_OFFSET_IN = 0.0;
     public static double SHOT_ZONE_B_TARGET_Y_OFFSET_IN = 0.0;
+    // Reused every loop by lookupShotForAllianceInto so the table lookup
+    // stays allocation-free.
+    private final MutableShotSolution tableShotSol = new MutableShotSolution();
+    // Reused every loop by ShotOnTheMoveSolver.solve().
+    private final ShotOnTheMoveSolver.Result sotmResult = new ShotOnTheMoveSolver.Result();
 
     private boolean rpmLimitEnabled = true;
     private boolean prevX = false;
     private boolean prevX2 = false;
     Pose MT1PedroPose = new Pose();
+    // Accepted vision deltas; the window is LIMELIGHT_VISION_BIAS_WINDOW (at most the capacity).
     private static final int LIMELIGHT_VISION_HISTORY_CAPACITY = 8;
-    private final double[] limelightVisionDxHistory = new double[LIMELIGHT_VISION_HISTORY_CAPACITY];
-    private final double[] limelightVisionDyHistory = new double[LIMELIGHT_VISION_HISTORY_CAPACITY];
-    private final double[] limelightVisionDhHistoryDeg = new double[LIMELIGHT_VISION_HISTORY_CAPACITY];
-    private int limelightVisionHistoryNextIdx = 0;
-    private int limelightVisionHistoryFill = 0;
+    private final SlidingMedian limelightVisionDxHistory = new SlidingMedian(LIMELIGHT_VISION_HISTORY_CAPACITY);
+    private final SlidingMedian limelightVisionDyHistory = new SlidingMedian(LIMELIGHT_VISION_HISTORY_CAPACITY);
+    private final SlidingMedian limelightVisionDhHistoryDeg = new SlidingMedian(LIMELIGHT_VISION_HISTORY_CAPACITY);
+    // ~1 s of loops; must cover the worst Limelight latency.
+    private static final int POSE_HISTORY_CAPACITY = 64;
+    private final PoseHistory poseHistory = new PoseHistory(POSE_HISTORY_CAPACITY);
+    private final PoseHistory.Sample limelightCapturePose = new PoseHistory.Sample();
     private double limelightVisionBiasXIn = 0.0;
     private double limelightVisionBiasYIn = 0.0;
     private double limelightVisionBiasHeadingDeg = 0.0;
@@ -316,6 +387,15 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
     public static boolean SHOW_SMOOTHED = false;
     public static int SMOOTH_WINDOW = 8;           // samples for moving average
     private final LoopTimer timer = new LoopTimer();
+
+    // LoopProfiler sections for the opmode's own work; the subsystems and the
+    // follower/framework gap are profiled separately.
+    private static final int PROFILE_BODY = LoopProfiler.INSTANCE.section("teleop_body");
+    private static final int PROFILE_LIMELIGHT = LoopProfiler.INSTANCE.section("teleop_limelight");
+    private static final int PROFILE_SOTM = LoopProfiler.INSTANCE.section("teleop_sotm");
+    private static final int PROFILE_TURRET_LOG = LoopProfiler.INSTANCE.section("teleop_turret_log");
+    private static final int PROFILE_SIGNALS = LoopProfiler.INSTANCE.section("teleop_signals");
+    private static final int PROFILE_TELEMETRY = LoopProfiler.INSTANCE.section("teleop_telemetry");
     private double rpmShooter1Smoothed = 0.0;
     private double rpmShooter2Smoothed = 0.0;
     private double rpmOuttakeSmoothed = 0.0;
@@ -333,6 +413,35 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
     private boolean automatedDrive;
     private Supplier<PathChain> pathChain;
     private TelemetryManager telemetryM;
+    // Bound once in init so flushing does not allocate an adapter per loop.
+    private TelemetryOutput dsOutput;
+    private TelemetryOutput panelsOutput;
+
+    // Driver Station lines, registered in registerTelemetryLines().
+    private TieredTelemetry dsTelemetry = new TieredTelemetry();
+    private int tlmTurretReady, tlmSOTMTurretGate, tlmSOTMFireGate, tlmSOTMCanShootGate, tlmSOTMShooterAtSpeed75, tlmSOTMTooCloseBlock;
+    private int tlmSOTMShotGateLedState, tlmINTIsIntaking, tlmINTShooting, tlmTheNoteRenyLeft, tlmINTSingleBallFeedActive, tlmINTMultiSingleShotActive;
+    private int tlmINTShootSeqActive, tlmINTShotInProgress, tlmINTM1Enabled, tlmINTM2Enabled, tlmINTM3Enabled, tlmINTDirection;
+    private int tlmINTMultiReq, tlmINTMultiDone, tlmBotX, tlmBotY, tlmBotHeadingDeg, tlmRpmTarget;
+    private int tlmHoodTarget, tlmTargetX, tlmTargetY, tlmTurretDeg, tlmTableRpm, tlmTableHood;
+    private int tlmTableTarget, tlmRotate, tlmTurretTargetDeg, tlmTurretMeasuredDeg, tlmFieldAngleDeg, tlmAngleErrorDeg;
+    private int tlmBoostActive, tlmShooterFollowEnabled, tlmSOTMActive, tlmSOTMValid, tlmSHOOTBatteryV, tlmSHOOTBatteryVFiltered;
+    private int tlmSHOOTVoltageCompGain, tlmSHOOTCmdPreVComp, tlmSHOOTCmdPostVComp, tlmSHOOTCmdSaturated, tlmSHOOTBoostMult1, tlmSHOOTBoostMult2;
+    private int tlmSHOOTBurstProfileId, tlmTABLEProfile, tlmTABLERpm, tlmTABLEHood, tlmTABLEAim, tlmTABLENearestIn;
+    private int tlmTABLEExtrapolated, tlmShooterKp, tlmShooterKi, tlmShooterKd, tlmShooterKs, tlmShooterKv;
+    private int tlmShooterKa, tlmShooterHeadroom, tlmShooterSlewPerSecond, tlmShooterIZone, tlmLimelight, tlmLLBlendSource;
+    private int tlmLLBlendValid, tlmLLBlendAccepted, tlmLLBlendApplied, tlmLLBlendGate, tlmODODistance, tlmODOXLocation;
+    private int tlmODOYLocation, tlmODOAngle, tlmSOTMLeadApplied, tlmSOTMSpeed, tlmSOTMTotalTofSec, tlmSOTMTofIterations;
+    private int tlmSOTMTofConverged, tlmSOTMBallisticTof, tlmSOTMLeadX, tlmSOTMLeadY, tlmSOTMRadialVel, tlmSOTMOmegaRawDegS;
+    private int tlmSOTMOmegaFiltDegS, tlmSOTMEffectiveDist, tlmSOTMTurretAimDeg, tlmSOTMTurretLagCompDeg, tlmSOTMTurretGoalErrDeg, tlmSOTMTurretConstraintErrDeg;
+    private int tlmSOTMTurretReachable, tlmSOTMTurretSpeedDegS, tlmSOTMTurretSpeedGate, tlmHYBRIDFeedBoostActive, tlmHYBRIDPhase, tlmHYBRIDTSinceShotFeedStartMs;
+    private int tlmHYBRIDExpectedContactMs, tlmHYBRIDPreBoostAmountActive, tlmHYBRIDLastAdvanceReason, tlmHYBRIDLastAdvanceRelMs, tlmTx, tlmTa;
+    private int tlmTy, tlmLLDistance, tlmMT2RawAngle, tlmMT2RawX, tlmMT2RawY, tlmMT1Valid;
+    private int tlmMT1PedroX, tlmMT1PedroY, tlmMT1PedroHeading, tlmMT2Valid, tlmMT2PedroX, tlmMT2PedroY;
+    private int tlmMT2PedroHeading, tlmLLBlendDX, tlmLLBlendDY, tlmLLBlendDist, tlmLLBlendDH, tlmLLOffsetXCum;
+    private int tlmLLOffsetYCum, tlmLLOffsetHCum, tlmLLNudgeX, tlmLLNudgeY, tlmLLNudgeH, tlmLLApplied;
+    private int tlmLLStreak, tlmLLLoopsSinceApply, tlmLLBlendAlpha;
+    private int tlmHwWritesPerLoop, tlmSchedDeferred;
     boolean goToTargetAngle;
     double targetAngleDeg = -135.0;
     double targetAngleRad;
@@ -346,6 +455,9 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
     public static double normDrivePower = 1;
     public static double slowedDrivePower = 0.5;
     private Limelight3A limelight;
+    private LimelightPoller limelightPoller;
+    // Frame sequence last handed to the EKF; -1 before the first frame.
+    private long limelightEkfLastFrameSequence = -1L;
     private double cameraHeightFromTags = 18.25;
 
     private double xOffset;
@@ -361,17 +473,9 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
     public static double minDisatanceForShooting = 0.0; //was 42", but set to 0 for testing
 
     // SOTM Stage 3 (turret + distance-based time of flight)
+    // Lead / TOF / turret-lag tunables live in ShotOnTheMoveSolver.
     public static boolean SOTM_ENABLED = true;
-    public static double SOTM_MIN_SPEED_IN_PER_SEC = 2.0;
-    public static double SOTM_LEAD_GAIN = 1.25;
-    public static double SOTM_MAX_LEAD_IN = 36.0;
-    public static double SOTM_ANGULAR_LEAD_GAIN = 0.6;
     public static double SOTM_OMEGA_FILTER_ALPHA = 0.2;
-    // Separate turret-lag feedforward layer (independent from SOTM lead-point math).
-    // Equivalent concept to: turretTarget += angularVelocity * kVF.
-    public static boolean SOTM_TURRET_LAG_COMP_ENABLED = true;
-    public static double SOTM_TURRET_LAG_COMP_SEC = 0.15;
-    public static double SOTM_TURRET_LAG_COMP_MAX_DEG = 25.0;
     // When true, keep SOTM solution (turret + ballistic distance) live all the time.
     public static boolean SOTM_ALWAYS_TRACK_TARGETS = true;
     // Legacy toggle (intentionally unused now): flywheel enable is controlled only by
@@ -381,12 +485,6 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
     public static double SOTM_FIRE_MAX_TURRET_SPEED_DEG_PER_SEC = 220.0;
     public static boolean SOTM_REQUIRE_TURRET_READY_FOR_FIRE = false;
     public static double SOTM_REACHABILITY_TOLERANCE_DEG = 1.0;
-    public static boolean SOTM_USE_TOF_LOOKUP = true;
-    public static double SOTM_MECHANICAL_DELAY_SEC = 0.08;
-    public static double SOTM_BALL_TRANSFER_TIME_SEC = 0.0;
-    public static double SOTM_ESTIMATED_BALL_SPEED_IN_PER_SEC = 300.0;
-    private static final double[] SOTM_TOF_DISTANCE_IN = {60.0, 80.0, 100.0, 120.0};
-    private static final double[] SOTM_TOF_FLIGHT_TIME_SEC = {0.15, 0.20, 0.27, 0.35};
 
     public static boolean SOTM_RPM_DIRECTION_COMP_ENABLED = true;
     public static double SOTM_RPM_TOWARD_GOAL_MULT = 0.80;
@@ -416,6 +514,12 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
     public static double LIMELIGHT_VISION_MAX_TRANSLATION_ERROR_IN = 24.0;
     public static double LIMELIGHT_VISION_MAX_HEADING_ERROR_DEG = 10.0;
     public static double LIMELIGHT_VISION_MAX_DELTA_FROM_HISTORY_IN = 10.0;
+    // Hampel test on top of the fixed history cap: a frame whose dx or dy is
+    // more than this many robust sigmas (1.4826 * MAD of the history) from the
+    // history median is rejected. The sigma floor keeps a tight history from
+    // rejecting ordinary jitter. 0 disables.
+    public static double LIMELIGHT_VISION_HAMPEL_THRESHOLD = 3.5;
+    public static double LIMELIGHT_VISION_HAMPEL_MIN_SIGMA_IN = 1.5;
     public static double LIMELIGHT_VISION_BLEND_ALPHA_MOVING = 0.05;
     public static double LIMELIGHT_VISION_BLEND_ALPHA_SLOW = 0.15;
     public static double LIMELIGHT_VISION_BLEND_ALPHA_STATIONARY = 0.35;
@@ -448,6 +552,24 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
     public static int LIMELIGHT_VISION_BLEND_MIN_CONSECUTIVE_ACCEPTS = 2;
     public static double LIMELIGHT_VISION_BLEND_MAX_APPLY_SPEED_IN_PER_SEC = 16.0;
     public static double LIMELIGHT_VISION_BLEND_MAX_APPLY_OMEGA_DEG_PER_SEC = 60.0;
+    // Latency compensation. The vision pose is compared against the Pedro pose
+    // at frame capture time (from poseHistory, using the LimelightPoller
+    // sample's capture timestamp) instead of the current pose, so motion
+    // during the latency no longer shows up as error. The correction is then
+    // applied as a PoseTracker offset, which carries it forward through the
+    // odometry since capture. With a compensated sample the looser
+    // *_COMPENSATED apply caps are used instead of the speed/omega caps above.
+    public static boolean LIMELIGHT_VISION_LATENCY_COMP_ENABLED = true;
+    public static double LIMELIGHT_EXTRA_LATENCY_MS = 0.0;
+    public static double LIMELIGHT_VISION_BLEND_MAX_APPLY_SPEED_COMPENSATED_IN_PER_SEC = 40.0;
+    public static double LIMELIGHT_VISION_BLEND_MAX_APPLY_OMEGA_COMPENSATED_DEG_PER_SEC = 180.0;
+    // When the follower runs on FusedLocalizer (Constants.USE_FUSED_LOCALIZER),
+    // every valid frame goes to its EKF instead of the offset blend above: the
+    // filter weighs it by tag distance / speed / yaw rate and gates it on
+    // Mahalanobis distance, so the translation/history/throttle/streak/speed
+    // gates and the PoseTracker offsets are bypassed. LIMELIGHT_VISION_BLEND_ENABLED,
+    // _SOURCE and _USE_HEADING (MT1 only) still apply.
+    public static boolean LIMELIGHT_VISION_USE_EKF = true;
 
     // Auto-stop shooter timeout after starting a dumbShoot burst (ms)
     public static long DUMBSHOOT_SHOOTER_TIMEOUT_MS = 1200;
@@ -547,10 +669,23 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
         targetRPM = SHOOTER_IDLE_RPM;
         shooterIdleMode = true;
         shooterFollowEnabled = false;
+        // Pick up any shot profiles dropped under FIRST/shot_profiles, then
+        // bake the dense shot grid (when enabled) here rather than on the
+        // first teleop loop.
+        ShotCalibrationProfiles.loadFromStorage();
+        ShotCalibrationProfiles.loadOverlays();
+        ShotCalibrationTable.active().prepare();
+        if (ShotOnTheMoveSolver.SOTM_USE_BALLISTIC_TOF) {
+            ShotBallistics.prepare();
+        }
 
         limelight = ActiveOpMode.hardwareMap().get(Limelight3A.class, "limelight");
         limelight.pipelineSwitch(0);
         limelight.start();
+        // From here on only the poll thread talks to the camera.
+        limelightPoller = new LimelightPoller(limelight);
+        limelightPoller.start();
+        limelightEkfLastFrameSequence = -1L;
 
         TurretSubsystem.INSTANCE.inTeleop = true;
         TurretSubsystem.INSTANCE.turretCenterDelayComplete = false;
@@ -610,6 +745,9 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
         //PedroComponent.follower().setStartingPose(startingPose);
 
         telemetryM = PanelsTelemetry.INSTANCE.getTelemetry();
+        dsOutput = telemetry::addData;
+        panelsOutput = telemetryM::addData;
+        registerTelemetryLines();
         windowShooter1 = new double[Math.max(1, SMOOTH_WINDOW)];
         windowShooter2 = new double[Math.max(1, SMOOTH_WINDOW)];
         windowOuttake = new double[Math.max(1, SMOOTH_WINDOW)];
@@ -690,103 +828,25 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
                         "loop_time_ms"
         );
 
-        if (ENABLE_SOTM_LOGGING) {
-            sotmLogger = new CsvLogger("pickles2025_sotm");
-            sotmLogger.start(
-                    "t_ms," +
-                            "match_t_ms," +
-                            "sotm_fire_request_active," +
-                            "sotm_control_active," +
-                            "right_bumper_active," +
-                            "right_trigger_active," +
-                            "bot_x," +
-                            "bot_y," +
-                            "bot_heading_deg," +
-                            "mt1_valid," +
-                            "mt1_x," +
-                            "mt1_y," +
-                            "mt1_heading_deg," +
-                            "mt2_valid," +
-                            "mt2_x," +
-                            "mt2_y," +
-                            "mt2_heading_deg," +
-                            "ll_blend_enabled," +
-                            "ll_blend_source," +
-                            "ll_pose_valid," +
-                            "ll_pose_accepted," +
-                            "ll_pose_applied," +
-                            "ll_gate_reason," +
-                            "ll_consecutive_accepts," +
-                            "ll_loops_since_apply," +
-                            "ll_raw_dx_in," +
-                            "ll_raw_dy_in," +
-                            "ll_raw_dist_in," +
-                            "ll_raw_heading_err_deg," +
-                            "ll_bias_x_in," +
-                            "ll_bias_y_in," +
-                            "ll_bias_heading_deg," +
-                            "ll_nudge_x_in," +
-                            "ll_nudge_y_in," +
-                            "ll_nudge_heading_deg," +
-                            "ll_blend_alpha," +
-                            "target_x," +
-                            "target_y," +
-                            "field_angle_deg," +
-                            "angle_error_deg," +
-                            "real_distance_in," +
-                            "sotm_valid," +
-                            "sotm_lead_applied," +
-                            "sotm_speed_in_s," +
-                            "sotm_vx_in_s," +
-                            "sotm_vy_in_s," +
-                            "sotm_omega_raw_deg_s," +
-                            "sotm_omega_deg_s," +
-                            "sotm_total_tof_s," +
-                            "sotm_lead_x_in," +
-                            "sotm_lead_y_in," +
-                            "sotm_radial_vel_in_s," +
-                            "sotm_effective_dist_in," +
-                            "sotm_ballistic_dist_in," +
-                            "sotm_turret_aim_deg," +
-                            "sotm_turret_lag_comp_deg," +
-                            "turret_target_deg," +
-                            "turret_measured_deg," +
-                            "turret_ready," +
-                            "sotm_turret_gate," +
-                            "sotm_turret_goal_error_deg," +
-                            "sotm_turret_constraint_error_deg," +
-                            "sotm_turret_reachable," +
-                            "sotm_turret_speed_deg_s," +
-                            "sotm_turret_speed_gate," +
-                            "sotm_fire_gate," +
-                            "sotm_can_shoot_gate," +
-                            "shooter_target_rpm," +
-                            "shooter_rpm1," +
-                            "shooter_rpm2," +
-                            "shooter_at_speed_75," +
-                            "shooter_battery_v," +
-                            "shooter_battery_v_filtered," +
-                            "shooter_voltage_comp_gain," +
-                            "shooter_cmd_pre_vcomp," +
-                            "shooter_cmd_post_vcomp," +
-                            "shooter_cmd_saturated," +
-                            "dumbshoot_timer_active," +
-                            "ball_count," +
-                            "intake_m1_ticks," +
-                            "intake_m3_ticks," +
-                            "hold_state," +
-                            "drive_cmd," +
-                            "strafe_cmd," +
-                            "rotate_cmd," +
-                            "loop_time_ms"
-            );
-        } else {
-            sotmLogger = null;
+        // Subsystems published their signals in initialize(); everything the
+        // opmode registers from here on is dropped again in onStop.
+        SignalBus.INSTANCE.beginSession();
+        registerTeleopSignals();
+        startWpiLog();
+        if (ENABLE_SOTM_LOGGING && SOTM_LOG_BINARY) {
+            SignalBus.INSTANCE.addSink(
+                    new BinarySignalSink(new BinaryLogger("pickles2025_sotm"), SOTM_LOG_SIGNALS), 0L);
+        } else if (ENABLE_SOTM_LOGGING) {
+            SignalBus.INSTANCE.addSink(
+                    new CsvSignalSink(new CsvLogger("pickles2025_sotm"), SOTM_LOG_SIGNALS), SOTM_LOG_PERIOD_MS);
+        }
+        if (SHOW_SIGNAL_TELEMETRY) {
+            SignalBus.INSTANCE.addSink(
+                    new TelemetrySignalSink(panelsOutput, (String[]) null), SIGNAL_TELEMETRY_PERIOD_MS);
         }
 
         logStartMs = 0L;
         lastTurretLogMs = 0L;
-        lastSotmLogMs = 0L;
         lastDumbShootRpmLogMs = 0L;
         prevTurretLogTargetDeg = Double.NaN;
         prevTurretLogMeasuredDeg = Double.NaN;
@@ -923,6 +983,11 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
                             "shooter_current_delta_from_baseline_a," +
                             "current_spike_candidate_baseline_delta," +
                             "current_spike_candidate_derivative," +
+                            "obs_rpm," +
+                            "obs_accel_rpm_per_sec," +
+                            "obs_disturbance_rpm_per_sec," +
+                            "obs_disturbance_delta_from_baseline," +
+                            "obs_contact_candidate," +
                             "bb0," +
                             "bb1," +
                             "bb2," +
@@ -1045,6 +1110,10 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
     @Override
     public void onStartButtonPressed() {
         matchHasStarted = true;
+        // Init-loop timings are not representative of the match.
+        LoopProfiler.INSTANCE.reset();
+        HardwareWriteCache.resetCounters();
+        SubsystemScheduler.INSTANCE.reset();
         //TurretSubsystem.INSTANCE.beginStartupCentering();
         TurretSubsystem.INSTANCE.beginStartupCalibrationWithoutCentering();
         TurretSubsystem.INSTANCE.turretResetDelayTotalTime = 0.0;
@@ -1093,6 +1162,8 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
         }
         SHOT_TUNING_TARGET_X_IN = shootingTargetLocation.getX();
         SHOT_TUNING_TARGET_Y_IN = shootingTargetLocation.getY();
+        ShotCalibrationProfiles.selectForAlliance(GlobalRobotData.allianceSide == GlobalRobotData.COLOR.RED);
+        ShotCalibrationTable.active().prepare();
         sotmOmegaFilterInitialized = false;
         sotmFilteredOmegaRadPerSec = 0.0;
         prevTurretLogTargetDeg = Double.NaN;
@@ -1165,6 +1236,11 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
 //        }
         //Call this once per loop
         timer.start();
+        LoopProfiler profiler = LoopProfiler.INSTANCE;
+        profiler.beginLoop();
+        HardwareWriteCache.markLoop();
+        SubsystemScheduler.INSTANCE.beginLoop();
+        long bodyStartNs = profiler.start();
         long nowMs = System.currentTimeMillis();
         TurretSubsystem.INSTANCE.setPeriodicAbsoluteEncoderReadEnabled(ENABLE_TURRET_LOGGING);
 
@@ -1203,6 +1279,7 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
         }
 
         Pose rawBotPose = PedroComponent.follower().getPose();
+        poseHistory.add(System.nanoTime(), rawBotPose.getX(), rawBotPose.getY(), rawBotPose.getHeading());
         Pose currentBotPose = getTurretSafePose(rawBotPose);
         double botHeadingRad = currentBotPose.getHeading();
         double botxvalue = currentBotPose.getX(); //gettingxvalue :D
@@ -1212,7 +1289,7 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
         // In this codebase, Pedro heading is offset from FTC-standard by -90 deg,
         // so the inverse transform for the yaw we feed Limelight is +90 deg.
         double limelightRobotYawDeg = normalizeDegrees(Math.toDegrees(botHeadingRad) + 90.0);
-        limelight.updateRobotOrientation(limelightRobotYawDeg);
+        limelightPoller.setRobotYawDegrees(limelightRobotYawDeg);
 
         boolean dpadUpPressed = gamepad2.dpad_up;
         if (dpadUpPressed && !prevX) {
@@ -1254,8 +1331,11 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
         }
         prevGamepad2DpadRight = dpadRightPressed;
 
-        LLResult result = limelight.getLatestResult();
-        boolean limelightMissing = (result == null);
+        long limelightStartNs = profiler.start();
+        // Volatile read of the poll thread's latest preconverted sample; null
+        // when nothing has been polled recently.
+        LimelightPoller.Sample limelightSample = limelightPoller.getLatest();
+        boolean limelightMissing = (limelightSample == null || !limelightSample.present);
 
         if (limelightMissing) {
             LEDControlSubsystem.INSTANCE.startStrobe(
@@ -1281,43 +1361,31 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
         double limelightBlendRawDistIn = Double.NaN;
         double limelightBlendRawHeadingErrDeg = Double.NaN;
         double limelightBlendAlpha = 0.0;
+        double limelightLatencyMs = Double.NaN;
+        boolean limelightLatencyCompensated = false;
         // Per-loop reason string surfaced to log + telemetry so the team can see
         // at a glance why a frame was (or was not) accepted/applied. Default is
         // "disabled" until we flow through the gate logic below.
         String limelightBlendGateReason = LIMELIGHT_VISION_BLEND_ENABLED ? "no_tag" : "disabled";
-        if (result != null && result.isValid()) {
-            xOffset = result.getTx();
-            yOffset = result.getTy();
-            areaOffset = result.getTa();
+        boolean limelightValid = limelightSample != null && limelightSample.valid;
+        if (limelightValid) {
+            xOffset = limelightSample.txDeg;
+            yOffset = limelightSample.tyDeg;
+            areaOffset = limelightSample.ta;
             distanceLL = cameraHeightFromTags / (Math.tan(Math.toRadians(yOffset)));
 
-            Pose3D mt1Pose = result.getBotpose();
-            if (mt1Pose != null) {
-                Pose mt1PedroPoseCandidate = convertLimelightBotposeToPedro(mt1Pose);
-                double candidateX = mt1PedroPoseCandidate.getPose().getX();
-                double candidateY = mt1PedroPoseCandidate.getPose().getY();
-                double candidateHeadingDeg = normalizeDegrees(Math.toDegrees(mt1PedroPoseCandidate.getPose().getHeading()));
-                if (Double.isFinite(candidateX) && Double.isFinite(candidateY) && Double.isFinite(candidateHeadingDeg)) {
-                    mt1Valid = true;
-                    mt1PedroX = candidateX;
-                    mt1PedroY = candidateY;
-                    mt1PedroHeadingDeg = candidateHeadingDeg;
-                    MT1PedroPose = mt1PedroPoseCandidate;
-                }
+            if (limelightSample.mt1Valid) {
+                mt1Valid = true;
+                mt1PedroX = limelightSample.mt1X;
+                mt1PedroY = limelightSample.mt1Y;
+                mt1PedroHeadingDeg = limelightSample.mt1HeadingDeg;
+                MT1PedroPose = limelightSample.mt1Pose;
             }
-
-            Pose3D mt2Pose = result.getBotpose_MT2();
-            if (mt2Pose != null) {
-                Pose mt2PedroPoseCandidate = convertLimelightBotposeToPedro(mt2Pose);
-                double candidateX = mt2PedroPoseCandidate.getPose().getX();
-                double candidateY = mt2PedroPoseCandidate.getPose().getY();
-                double candidateHeadingDeg = normalizeDegrees(Math.toDegrees(mt2PedroPoseCandidate.getPose().getHeading()));
-                if (Double.isFinite(candidateX) && Double.isFinite(candidateY) && Double.isFinite(candidateHeadingDeg)) {
-                    mt2Valid = true;
-                    mt2PedroX = candidateX;
-                    mt2PedroY = candidateY;
-                    mt2PedroHeadingDeg = candidateHeadingDeg;
-                }
+            if (limelightSample.mt2Valid) {
+                mt2Valid = true;
+                mt2PedroX = limelightSample.mt2X;
+                mt2PedroY = limelightSample.mt2Y;
+                mt2PedroHeadingDeg = limelightSample.mt2HeadingDeg;
             }
         }
         Vector limelightVisionVelocity = PedroComponent.follower().getVelocity();
@@ -1340,25 +1408,47 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
             selectedVisionHeadingDeg = mt2PedroHeadingDeg;
         }
 
-        if (limelightBlendPoseValid) {
-            limelightBlendRawDxIn = selectedVisionX - botxvalue;
-            limelightBlendRawDyIn = selectedVisionY - botyvalue;
+        FusedLocalizer fusedLocalizer = LIMELIGHT_VISION_USE_EKF ? FusedLocalizer.active() : null;
+        if (fusedLocalizer == null && limelightBlendPoseValid) {
+            // Compare against where odometry had the robot when the frame was
+            // captured, not where it is now.
+            double referenceX = botxvalue;
+            double referenceY = botyvalue;
+            double referenceHeadingRad = botHeadingRad;
+            long captureNs = limelightCaptureNs(limelightSample);
+            limelightLatencyMs = (System.nanoTime() - captureNs) / 1e6;
+            if (LIMELIGHT_VISION_LATENCY_COMP_ENABLED) {
+                limelightLatencyCompensated = poseHistory.getAt(captureNs, limelightCapturePose);
+                if (limelightLatencyCompensated) {
+                    referenceX = limelightCapturePose.x;
+                    referenceY = limelightCapturePose.y;
+                    referenceHeadingRad = limelightCapturePose.headingRad;
+                }
+            }
+            limelightBlendRawDxIn = selectedVisionX - referenceX;
+            limelightBlendRawDyIn = selectedVisionY - referenceY;
             limelightBlendRawDistIn = Math.hypot(limelightBlendRawDxIn, limelightBlendRawDyIn);
             limelightBlendRawHeadingErrDeg =
-                    normalizeDegrees(selectedVisionHeadingDeg - Math.toDegrees(botHeadingRad));
+                    normalizeDegrees(selectedVisionHeadingDeg - Math.toDegrees(referenceHeadingRad));
 
             boolean translationOk = limelightBlendRawDistIn <= Math.max(0.0, LIMELIGHT_VISION_MAX_TRANSLATION_ERROR_IN);
             boolean headingOk = Math.abs(limelightBlendRawHeadingErrDeg) <=
                     Math.max(0.0, LIMELIGHT_VISION_MAX_HEADING_ERROR_DEG);
             boolean historyOk = true;
-            if (limelightVisionHistoryFill >= 3) {
-                double historyDx = getRecentVisionHistoryMedian(limelightVisionDxHistory);
-                double historyDy = getRecentVisionHistoryMedian(limelightVisionDyHistory);
+            if (limelightVisionDxHistory.size() >= Math.min(3, limelightVisionDxHistory.getWindow())) {
+                double historyDx = limelightVisionDxHistory.getMedian();
+                double historyDy = limelightVisionDyHistory.getMedian();
                 double historyDeltaDist = Math.hypot(
                         limelightBlendRawDxIn - historyDx,
                         limelightBlendRawDyIn - historyDy
                 );
                 historyOk = historyDeltaDist <= Math.max(0.0, LIMELIGHT_VISION_MAX_DELTA_FROM_HISTORY_IN);
+                if (historyOk && LIMELIGHT_VISION_HAMPEL_THRESHOLD > 0.0) {
+                    historyOk = limelightVisionDxHistory.score(limelightBlendRawDxIn, LIMELIGHT_VISION_HAMPEL_MIN_SIGMA_IN)
+                            <= LIMELIGHT_VISION_HAMPEL_THRESHOLD
+                            && limelightVisionDyHistory.score(limelightBlendRawDyIn, LIMELIGHT_VISION_HAMPEL_MIN_SIGMA_IN)
+                            <= LIMELIGHT_VISION_HAMPEL_THRESHOLD;
+                }
             }
 
             limelightBlendPoseAccepted =
@@ -1425,10 +1515,14 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
                 Math.max(1, LIMELIGHT_VISION_BLEND_MIN_LOOPS_BETWEEN_APPLIES);
         boolean streakOk = limelightVisionConsecutiveAccepts >=
                 Math.max(1, LIMELIGHT_VISION_BLEND_MIN_CONSECUTIVE_ACCEPTS);
-        boolean speedOk = limelightVisionSpeedInPerSec <=
-                Math.max(0.0, LIMELIGHT_VISION_BLEND_MAX_APPLY_SPEED_IN_PER_SEC);
-        boolean omegaOk = Math.abs(limelightVisionOmegaDegPerSec) <=
-                Math.max(0.0, LIMELIGHT_VISION_BLEND_MAX_APPLY_OMEGA_DEG_PER_SEC);
+        double maxApplySpeedInPerSec = limelightLatencyCompensated
+                ? LIMELIGHT_VISION_BLEND_MAX_APPLY_SPEED_COMPENSATED_IN_PER_SEC
+                : LIMELIGHT_VISION_BLEND_MAX_APPLY_SPEED_IN_PER_SEC;
+        double maxApplyOmegaDegPerSec = limelightLatencyCompensated
+                ? LIMELIGHT_VISION_BLEND_MAX_APPLY_OMEGA_COMPENSATED_DEG_PER_SEC
+                : LIMELIGHT_VISION_BLEND_MAX_APPLY_OMEGA_DEG_PER_SEC;
+        boolean speedOk = limelightVisionSpeedInPerSec <= Math.max(0.0, maxApplySpeedInPerSec);
+        boolean omegaOk = Math.abs(limelightVisionOmegaDegPerSec) <= Math.max(0.0, maxApplyOmegaDegPerSec);
 
         // Reset per-loop nudge each iteration. Cumulative correction lives in
         // PoseTracker's x/y offsets, not in a code-side variable, so there is
@@ -1452,7 +1546,8 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
             }
         }
 
-        if (LIMELIGHT_VISION_BLEND_ENABLED &&
+        if (fusedLocalizer == null &&
+                LIMELIGHT_VISION_BLEND_ENABLED &&
                 limelightBlendPoseAccepted &&
                 throttleOk && streakOk && speedOk && omegaOk) {
             // Use Pedro's PoseTracker x/y offset as the persistent correction
@@ -1463,9 +1558,9 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
             // same value. PoseTracker offsets are pure post-hoc trims added
             // by applyOffset() in getPose(): the localizer keeps ticking
             // undisturbed, and getPose() returns raw + offset.
-            double filteredDx = getRecentVisionHistoryMedian(limelightVisionDxHistory);
-            double filteredDy = getRecentVisionHistoryMedian(limelightVisionDyHistory);
-            double filteredDh = getRecentVisionHistoryMedian(limelightVisionDhHistoryDeg);
+            double filteredDx = limelightVisionDxHistory.getMedian();
+            double filteredDy = limelightVisionDyHistory.getMedian();
+            double filteredDh = limelightVisionDhHistoryDeg.getMedian();
 
             double nudgeX = limelightBlendAlpha * filteredDx;
             double nudgeY = limelightBlendAlpha * filteredDy;
@@ -1481,6 +1576,12 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
                 if (LIMELIGHT_VISION_BLEND_USE_HEADING) {
                     pt.setHeadingOffset(pt.getHeadingOffset() + Math.toRadians(nudgeHeadingDeg));
                 }
+                // Keep the stored history in the corrected frame.
+                poseHistory.shift(
+                        nudgeX,
+                        nudgeY,
+                        LIMELIGHT_VISION_BLEND_USE_HEADING ? Math.toRadians(nudgeHeadingDeg) : 0.0
+                );
 
                 // Refresh local copies so downstream code in this loop sees
                 // the corrected pose.
@@ -1498,16 +1599,81 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
             }
         }
 
-        // Surface the cumulative PoseTracker offsets (what is actually being
-        // added to every getPose() call) for logging / telemetry. This is the
-        // ground truth of "how much Limelight correction is currently in
-        // effect" because it is the only persistent correction state.
-        {
+        if (fusedLocalizer != null && limelightBlendPoseValid && LIMELIGHT_VISION_BLEND_ENABLED
+                && limelightSample.frameSequence == limelightEkfLastFrameSequence) {
+            // The poller hands back the same frame until the camera produces
+            // a new one. Fusing it again would count one measurement several
+            // times and make the filter overconfident.
+            limelightBlendGateReason = "repeat_frame";
+        } else if (fusedLocalizer != null && limelightBlendPoseValid && LIMELIGHT_VISION_BLEND_ENABLED) {
+            // EKF path. The filter looks up its own pose at capture time, so
+            // only the timestamp is needed here; with compensation off the
+            // frame is treated as current.
+            limelightEkfLastFrameSequence = limelightSample.frameSequence;
+            long captureNs = limelightCaptureNs(limelightSample);
+            limelightLatencyMs = (System.nanoTime() - captureNs) / 1e6;
+            if (!LIMELIGHT_VISION_LATENCY_COMP_ENABLED) {
+                captureNs = System.nanoTime();
+            }
+            // MT2 heading is our own yaw fed back to the camera, so it carries
+            // no information; MT1 heading is used only when opted in.
+            boolean useVisionHeading = LIMELIGHT_VISION_BLEND_SOURCE == 1 && LIMELIGHT_VISION_BLEND_USE_HEADING;
+            double poseBeforeX = botxvalue;
+            double poseBeforeY = botyvalue;
+            double poseBeforeHeadingRad = botHeadingRad;
+            limelightBlendPoseAccepted = fusedLocalizer.addVisionMeasurement(
+                    selectedVisionX,
+                    selectedVisionY,
+                    useVisionHeading ? Math.toRadians(selectedVisionHeadingDeg) : Double.NaN,
+                    captureNs,
+                    limelightSample.botposeAvgDistIn,
+                    limelightVisionSpeedInPerSec,
+                    Math.toRadians(limelightVisionOmegaDegPerSec)
+            );
+            limelightBlendPoseApplied = limelightBlendPoseAccepted;
+            limelightLatencyCompensated = fusedLocalizer.wasLastMeasurementLatencyCompensated();
+            limelightBlendRawDxIn = fusedLocalizer.getFilter().getLastInnovationX();
+            limelightBlendRawDyIn = fusedLocalizer.getFilter().getLastInnovationY();
+            limelightBlendRawDistIn = Math.hypot(limelightBlendRawDxIn, limelightBlendRawDyIn);
+            // Log the heading error the gate saw: the filter's innovation when
+            // heading was fused, else against the same capture-time heading.
+            limelightBlendRawHeadingErrDeg = useVisionHeading
+                    ? Math.toDegrees(fusedLocalizer.getFilter().getLastInnovationHeading())
+                    : normalizeDegrees(selectedVisionHeadingDeg
+                            - Math.toDegrees(fusedLocalizer.getLastReferenceHeading()));
+            limelightBlendGateReason = limelightBlendPoseAccepted ? "accept" : "ekf_gate";
+
+            if (limelightBlendPoseApplied) {
+                rawBotPose = PedroComponent.follower().getPose();
+                currentBotPose = getTurretSafePose(rawBotPose);
+                botxvalue = currentBotPose.getX();
+                botyvalue = currentBotPose.getY();
+                botHeadingRad = currentBotPose.getHeading();
+                limelightVisionLastNudgeXIn = botxvalue - poseBeforeX;
+                limelightVisionLastNudgeYIn = botyvalue - poseBeforeY;
+                limelightVisionLastNudgeHeadingDeg =
+                        normalizeDegrees(Math.toDegrees(botHeadingRad - poseBeforeHeadingRad));
+            }
+        }
+
+        // Surface the cumulative correction (what is actually being added to
+        // every getPose() call) for logging / telemetry. Legacy path: the
+        // PoseTracker offsets, the only persistent correction state. EKF path:
+        // fused pose minus raw Pinpoint pose.
+        if (fusedLocalizer != null) {
+            Pose fusedPose = fusedLocalizer.getPose();
+            Pose odometryPose = fusedLocalizer.getOdometryPose();
+            limelightVisionBiasXIn = fusedPose.getX() - odometryPose.getX();
+            limelightVisionBiasYIn = fusedPose.getY() - odometryPose.getY();
+            limelightVisionBiasHeadingDeg =
+                    normalizeDegrees(Math.toDegrees(fusedPose.getHeading() - odometryPose.getHeading()));
+        } else {
             PoseTracker pt = PedroComponent.follower().poseTracker;
             limelightVisionBiasXIn = pt.getXOffset();
             limelightVisionBiasYIn = pt.getYOffset();
             limelightVisionBiasHeadingDeg = Math.toDegrees(pt.getHeadingOffset());
         }
+        profiler.stop(PROFILE_LIMELIGHT, limelightStartNs);
         ODODistance = PedroComponent.follower().getPose().distanceFrom(shootingTargetLocation);
 
         double driving = (-gamepad1.left_stick_y) * drivePower;
@@ -1558,8 +1724,8 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
         // turret (immediately below), and hood position (near the end of
         // onUpdate). shotSol is guaranteed non-null whenever SHOT_TUNING_MODE
         // is false because lookup() always returns something.
-        ShotSolution tableShotSol = lookupShotForAlliance(botxvalue, botyvalue);
-        ShotSolution shotSol = null;
+        lookupShotForAllianceInto(botxvalue, botyvalue, tableShotSol);
+        MutableShotSolution shotSol = null;
         if (!SHOT_TUNING_MODE) {
             shotSol = tableShotSol;
         }
@@ -1617,7 +1783,8 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
         double sotmOmegaRawRadPerSec = PedroComponent.follower().poseTracker.getAngularVelocity();
         double sotmOmegaRadPerSec = updateSotmFilteredOmega(sotmOmegaRawRadPerSec);
 
-        SOTMResult sotmResult = calculateSotmResult(
+        long sotmStartNs = profiler.start();
+        ShotOnTheMoveSolver.solve(
                 botxvalue,
                 botyvalue,
                 botHeadingRad,
@@ -1627,8 +1794,13 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
                 sotmVy,
                 sotmSpeed,
                 sotmOmegaRadPerSec,
-                sotmControlActive
+                sotmControlActive,
+                minDisatanceForShooting,
+                SHOT_TUNING_MODE ? targetRPM : shotSol.rpm,
+                SHOT_TUNING_MODE ? shooterHoodPos : shotSol.hoodPos,
+                sotmResult
         );
+        profiler.stop(PROFILE_SOTM, sotmStartNs);
 
         if (!SHOT_TUNING_MODE) {
             boolean activelyShootingOrPreparing =
@@ -1647,12 +1819,16 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
             }
         }
 
+        // The turret feeds forward yaw rate and target-bearing rate itself (servo-lag model in
+        // TurretSubsystem), so pass the point being aimed at along with the angle.
         if (sotmResult.valid && (sotmControlActive || SOTM_ALWAYS_TRACK_TARGETS)) {
-            TurretSubsystem.INSTANCE.setTargetAngleFromRobotFrontRelativeDegrees(
-                    sotmResult.turretRobotRelativeAimDeg
+            TurretSubsystem.INSTANCE.trackRobotFrontRelativeDegrees(
+                    sotmResult.turretRobotRelativeAimDeg,
+                    sotmResult.virtualTargetX,
+                    sotmResult.virtualTargetY
             );
         } else {
-            TurretSubsystem.INSTANCE.setTargetAngleFromRobotFrontRelativeDegrees(angleErrorDeg);
+            TurretSubsystem.INSTANCE.trackRobotFrontRelativeDegrees(angleErrorDeg, shootTargetX, shootTargetY);
         }
 
         // Always track with turret. When SOTM is active and moving, this target is lead-compensated.
@@ -1696,7 +1872,7 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
         // MT1 emergency relocalization stays available even when SOTM is enabled.
         // This is the rescue path for cases where odometry / heading become bad
         // enough that MT2 translation-only blending can no longer be trusted.
-        if (dpadUpActive && result != null && result.isValid() && mt1Valid) {
+        if (dpadUpActive && limelightValid && mt1Valid) {
             PedroComponent.follower().setPose(MT1PedroPose);
             currentBotPose = MT1PedroPose;
             botHeadingRad = MT1PedroPose.getHeading();
@@ -1709,20 +1885,16 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
         // Keep it only when SOTM is disabled, otherwise it fights moving-shot turret targeting.
         if (dpadUpActive && !SOTM_ENABLED) {
             adjustLimelight = true;
-            if (result != null && result.isValid()) {
+            if (limelightValid) {
                 // RPM no longer comes from this path; the shot calibration table
                 // drives RPM selection below. This block is kept only for legacy
                 // heading-assist turret rotation.
 
                 if (GlobalRobotData.allianceSide == GlobalRobotData.COLOR.RED) {
-                    List<LLResultTypes.FiducialResult> tag24Results = result.getFiducialResults().stream()
-                            .filter(r -> r.getFiducialId() == 24)
-                            .collect(Collectors.toList());
-
-                    if (!tag24Results.isEmpty()) {
+                    if (limelightSample.redGoalTagSeen) {
                         hasResults = true;
-                        double targetX = tag24Results.get(0).getTargetXDegrees();
-                        if (targetX != 0.5 && tag24Results.get(0).getTargetYDegrees() > 10) {
+                        double targetX = limelightSample.redGoalTagTxDeg;
+                        if (targetX != 0.5 && limelightSample.redGoalTagTyDeg > 10) {
                             rotate = (-targetX) * (shooterTargetkP + 0.01);
                             goToTargetAngle = false;
                         }
@@ -1734,14 +1906,10 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
                         hasResults = false;
                     }
                 } else {
-                    List<LLResultTypes.FiducialResult> tag20Results = result.getFiducialResults().stream()
-                            .filter(r -> r.getFiducialId() == 20)
-                            .collect(Collectors.toList());
-
-                    if (!tag20Results.isEmpty()) {
+                    if (limelightSample.blueGoalTagSeen) {
                         hasResults = true;
-                        double targetX = tag20Results.get(0).getTargetXDegrees();
-                        if (targetX != -0.5 && tag20Results.get(0).getTargetYDegrees() > 10) {
+                        double targetX = limelightSample.blueGoalTagTxDeg;
+                        if (targetX != -0.5 && limelightSample.blueGoalTagTyDeg > 10) {
                             rotate = (-targetX) * (shooterTargetkP + 0.01);
                             goToTargetAngle = false;
                         }
@@ -2026,98 +2194,120 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
         }
 
         // =============================================
-        // DEBUG: Intake state flags for troubleshooting
+        // DRIVER STATION TELEMETRY (tiered, see TieredTelemetry)
         // =============================================
-
-
-        telemetry.addData("INT_isIntaking", IntakeWithSensorsSubsystem.INSTANCE.isIntakingActive());
-        telemetry.addData("INT_shooting", IntakeWithSensorsSubsystem.INSTANCE.isShooting());
-        telemetry.addData("theNoteRenyLeft", GlobalRobotData.endAutonTurretAngleDegrees);
-        telemetry.addData("INT_singleBallFeedActive", IntakeWithSensorsSubsystem.INSTANCE.isSingleBallFeedActive());
-        telemetry.addData("INT_multiSingleShotActive", IntakeWithSensorsSubsystem.INSTANCE.isMultiSingleShotActive());
-        telemetry.addData("INT_shootSeqActive", IntakeWithSensorsSubsystem.INSTANCE.isShootSequenceActive());
-        telemetry.addData("INT_shotInProgress", IntakeWithSensorsSubsystem.INSTANCE.isShotInProgress());
-        telemetry.addData("INT_m1Enabled", IntakeWithSensorsSubsystem.INSTANCE.isMotor1Enabled());
-        telemetry.addData("INT_m2Enabled", IntakeWithSensorsSubsystem.INSTANCE.isMotor2Enabled());
-        telemetry.addData("INT_m3Enabled", IntakeWithSensorsSubsystem.INSTANCE.isMotor3Enabled());
-        telemetry.addData("INT_direction", IntakeWithSensorsSubsystem.INSTANCE.getCurrentDirection());
-        telemetry.addData("INT_multiReq", IntakeWithSensorsSubsystem.INSTANCE.getMultiSingleShotRequested());
-        telemetry.addData("INT_multiDone", IntakeWithSensorsSubsystem.INSTANCE.getMultiSingleShotCompleted());
+        // CRITICAL lines refresh every loop, DIAGNOSTIC at 5 Hz and DEBUG only
+        // when SHOW_DEBUG_TELEMETRY is on. Each isDue() block also skips the
+        // getters behind it on loops where its tier is not refreshed.
+        dsTelemetry.beginLoop(nowMs);
+
+        if (dsTelemetry.isDue(TieredTelemetry.Tier.DIAGNOSTIC)) {
+            dsTelemetry.set(tlmINTIsIntaking, IntakeWithSensorsSubsystem.INSTANCE.isIntakingActive());
+            dsTelemetry.set(tlmINTShooting, IntakeWithSensorsSubsystem.INSTANCE.isShooting());
+            dsTelemetry.set(tlmTheNoteRenyLeft, GlobalRobotData.endAutonTurretAngleDegrees);
+            dsTelemetry.set(tlmINTSingleBallFeedActive, IntakeWithSensorsSubsystem.INSTANCE.isSingleBallFeedActive());
+            dsTelemetry.set(tlmINTMultiSingleShotActive, IntakeWithSensorsSubsystem.INSTANCE.isMultiSingleShotActive());
+            dsTelemetry.set(tlmINTShootSeqActive, IntakeWithSensorsSubsystem.INSTANCE.isShootSequenceActive());
+            dsTelemetry.set(tlmINTShotInProgress, IntakeWithSensorsSubsystem.INSTANCE.isShotInProgress());
+            dsTelemetry.set(tlmINTM1Enabled, IntakeWithSensorsSubsystem.INSTANCE.isMotor1Enabled());
+            dsTelemetry.set(tlmINTM2Enabled, IntakeWithSensorsSubsystem.INSTANCE.isMotor2Enabled());
+            dsTelemetry.set(tlmINTM3Enabled, IntakeWithSensorsSubsystem.INSTANCE.isMotor3Enabled());
+            dsTelemetry.set(tlmINTDirection, IntakeWithSensorsSubsystem.INSTANCE.getCurrentDirection());
+            dsTelemetry.set(tlmINTMultiReq, IntakeWithSensorsSubsystem.INSTANCE.getMultiSingleShotRequested());
+            dsTelemetry.set(tlmINTMultiDone, IntakeWithSensorsSubsystem.INSTANCE.getMultiSingleShotCompleted());
+            dsTelemetry.set(tlmHwWritesPerLoop,
+                    HardwareWriteCache.getLastLoopWritesSent(),
+                    HardwareWriteCache.getLastLoopWritesSkipped());
+            dsTelemetry.set(tlmSchedDeferred, SubsystemScheduler.INSTANCE.getTotalDeferred());
+        }
 
         double loopTimeMs = timer.getMs();
         if (SHOT_TUNING_MODE) {
-            telemetry.addData("bot_x", String.format("%.1f", botxvalue));
-            telemetry.addData("bot_y", String.format("%.1f", botyvalue));
-            telemetry.addData("bot_heading_deg", String.format("%.1f", Math.toDegrees(botHeadingRad)));
-            telemetry.addData("rpm_target", String.format("%.0f", targetRPM));
-            telemetry.addData("hood_target", String.format("%.3f", shooterHoodPos));
-            telemetry.addData("target_x", String.format("%.1f", SHOT_TUNING_TARGET_X_IN));
-            telemetry.addData("target_y", String.format("%.1f", SHOT_TUNING_TARGET_Y_IN));
-            telemetry.addData("turret_deg", String.format("%.1f", TurretSubsystem.INSTANCE.getMeasuredAngleDegrees()));
-            telemetry.addData("table_rpm", String.format("%.0f", tableShotSol.rpm));
-            telemetry.addData("table_hood", String.format("%.3f", tableShotSol.hoodPos));
-            telemetry.addData("table_target", String.format("(%.1f, %.1f)", tableShotSol.aimX, tableShotSol.aimY));
+            if (dsTelemetry.isDue(TieredTelemetry.Tier.DIAGNOSTIC)) {
+                dsTelemetry.set(tlmBotX, botxvalue);
+                dsTelemetry.set(tlmBotY, botyvalue);
+                dsTelemetry.set(tlmBotHeadingDeg, Math.toDegrees(botHeadingRad));
+                dsTelemetry.set(tlmRpmTarget, targetRPM);
+                dsTelemetry.set(tlmHoodTarget, shooterHoodPos);
+                dsTelemetry.set(tlmTargetX, SHOT_TUNING_TARGET_X_IN);
+                dsTelemetry.set(tlmTargetY, SHOT_TUNING_TARGET_Y_IN);
+                dsTelemetry.set(tlmTurretDeg, TurretSubsystem.INSTANCE.getMeasuredAngleDegrees());
+                dsTelemetry.set(tlmTableRpm, tableShotSol.rpm);
+                dsTelemetry.set(tlmTableHood, tableShotSol.hoodPos);
+                dsTelemetry.set(tlmTableTarget, tableShotSol.aimX, tableShotSol.aimY);
+            }
         } else {
             telemetryM.addData("LoopTime_ms", loopTimeMs);
-            telemetry.addData("rotate", rotate);
-            telemetry.addData("turretTargetDeg", TurretSubsystem.INSTANCE.getTargetAngleDegrees());
-            telemetry.addData("turretMeasuredDeg", TurretSubsystem.INSTANCE.getMeasuredAngleDegrees());
-            telemetry.addData("fieldAngleDeg", fieldAngleDeg);
-            telemetry.addData("angleErrorDeg", angleErrorDeg);
-            telemetry.addData("turretReady", TurretSubsystem.INSTANCE.isTurretReady());
-            telemetry.addData("boostActive", ShooterSubsystem.INSTANCE.boostActive);
-            telemetry.addData("shooterFollowEnabled", shooterFollowEnabled);
-            telemetry.addData("SOTM_active", sotmControlActive);
-            telemetry.addData("SOTM_valid", sotmResult.valid);
-            telemetry.addData("SOTM_leadApplied", sotmResult.leadApplied);
-            telemetry.addData("SOTM_speed", sotmResult.speedInPerSec);
-            telemetry.addData("SOTM_totalTofSec", sotmResult.totalTimeSeconds);
-            telemetry.addData("SOTM_leadX", sotmResult.leadXInches);
-            telemetry.addData("SOTM_leadY", sotmResult.leadYInches);
-            telemetry.addData("SOTM_radialVel", sotmResult.radialVelocityInPerSec);
-            telemetry.addData("SOTM_omegaRawDegS", Math.toDegrees(sotmOmegaRawRadPerSec));
-            telemetry.addData("SOTM_omegaFiltDegS", Math.toDegrees(sotmOmegaRadPerSec));
-            telemetry.addData("SOTM_effectiveDist", sotmResult.effectiveDistanceInches);
-            telemetry.addData("SOTM_turretAimDeg", sotmResult.turretRobotRelativeAimDeg);
-            telemetry.addData("SOTM_turretLagCompDeg", sotmResult.turretLagCompensationDeg);
-            telemetry.addData("SOTM_turretGate", turretAimGateSatisfied);
-            telemetry.addData("SOTM_turretGoalErrDeg", turretGoalErrorDeg);
-            telemetry.addData("SOTM_turretConstraintErrDeg", turretConstraintErrorDeg);
-            telemetry.addData("SOTM_turretReachable", turretTargetReachable);
-            telemetry.addData("SOTM_turretSpeedDegS", turretMeasuredVelDegPerSec);
-            telemetry.addData("SOTM_turretSpeedGate", turretSpeedGateSatisfied);
-            telemetry.addData("SOTM_fireGate", sotmFireGateSatisfied);
-            telemetry.addData("SOTM_canShootGate", canShootAtGoal);
-            telemetry.addData("SOTM_shooterAtSpeed75", shooterAtSpeed75);
-            telemetry.addData("SHOOT_batteryV", ShooterSubsystem.INSTANCE.getBatteryVoltageRaw());
-            telemetry.addData("SHOOT_batteryVFiltered", ShooterSubsystem.INSTANCE.getBatteryVoltageFiltered());
-            telemetry.addData("SHOOT_voltageCompGain", ShooterSubsystem.INSTANCE.getVoltageCompGain());
-            telemetry.addData("SHOOT_cmdPreVComp", ShooterSubsystem.INSTANCE.getCommandPreVoltageComp());
-            telemetry.addData("SHOOT_cmdPostVComp", ShooterSubsystem.INSTANCE.getCommandPostVoltageComp());
-            telemetry.addData("SHOOT_cmdSaturated", ShooterSubsystem.INSTANCE.isCommandSaturated());
-            telemetry.addData("SHOOT_boostMult1", ShooterSubsystem.INSTANCE.getActiveBoostMultiplier1());
-            telemetry.addData("SHOOT_boostMult2", ShooterSubsystem.INSTANCE.getActiveBoostMultiplier2());
-            telemetry.addData("SHOOT_burstProfileId", BURST_PROFILE_ID);
-            telemetry.addData("HYBRID_feedBoostActive", ShooterSubsystem.INSTANCE.isHybridShotFeedBoostActive());
-            telemetry.addData("HYBRID_phase", ShooterSubsystem.INSTANCE.getHybridShotFeedBoostPhaseName());
-            telemetry.addData("HYBRID_tSinceShotFeedStartMs",
-                    ShooterSubsystem.INSTANCE.getHybridTimeSinceShotFeedStartMs());
-            telemetry.addData("HYBRID_expectedContactMs", ShooterSubsystem.INSTANCE.getHybridExpectedContactMsForCurrentPhase());
-            telemetry.addData("HYBRID_preBoostAmountActive", ShooterSubsystem.INSTANCE.getActivePreBoostAmount());
-            telemetry.addData("HYBRID_lastAdvanceReason", ShooterSubsystem.INSTANCE.getHybridLastAdvanceReason());
-            telemetry.addData("HYBRID_lastAdvanceRelMs", ShooterSubsystem.INSTANCE.getHybridLastAdvanceAtRelMs());
-            telemetry.addData("SOTM_tooCloseBlock", tooCloseWarningActive);
-            telemetry.addData("SOTM_shotGateLedState", shotGateLedState);
-            if (shotSol != null) {
-                telemetry.addData("TABLE_rpm", String.format("%.0f", shotSol.rpm));
-                telemetry.addData("TABLE_hood", String.format("%.3f", shotSol.hoodPos));
-                telemetry.addData("TABLE_aim", String.format("(%.1f, %.1f)", shotSol.aimX, shotSol.aimY));
-                telemetry.addData("TABLE_nearest_in", String.format("%.2f", shotSol.nearestDistanceIn));
-                telemetry.addData("TABLE_extrapolated", shotSol.extrapolated ? "YES" : "no");
+
+            dsTelemetry.set(tlmTurretReady, TurretSubsystem.INSTANCE.isTurretReady());
+            dsTelemetry.set(tlmSOTMTurretGate, turretAimGateSatisfied);
+            dsTelemetry.set(tlmSOTMFireGate, sotmFireGateSatisfied);
+            dsTelemetry.set(tlmSOTMCanShootGate, canShootAtGoal);
+            dsTelemetry.set(tlmSOTMShooterAtSpeed75, shooterAtSpeed75);
+            dsTelemetry.set(tlmSOTMTooCloseBlock, tooCloseWarningActive);
+            dsTelemetry.set(tlmSOTMShotGateLedState, shotGateLedState);
+
+            if (dsTelemetry.isDue(TieredTelemetry.Tier.DIAGNOSTIC)) {
+                dsTelemetry.set(tlmRotate, rotate);
+                dsTelemetry.set(tlmTurretTargetDeg, TurretSubsystem.INSTANCE.getTargetAngleDegrees());
+                dsTelemetry.set(tlmTurretMeasuredDeg, TurretSubsystem.INSTANCE.getMeasuredAngleDegrees());
+                dsTelemetry.set(tlmFieldAngleDeg, fieldAngleDeg);
+                dsTelemetry.set(tlmAngleErrorDeg, angleErrorDeg);
+                dsTelemetry.set(tlmBoostActive, ShooterSubsystem.INSTANCE.boostActive);
+                dsTelemetry.set(tlmShooterFollowEnabled, shooterFollowEnabled);
+                dsTelemetry.set(tlmSOTMActive, sotmControlActive);
+                dsTelemetry.set(tlmSOTMValid, sotmResult.valid);
+                dsTelemetry.set(tlmSHOOTBatteryV, ShooterSubsystem.INSTANCE.getBatteryVoltageRaw());
+                dsTelemetry.set(tlmSHOOTBatteryVFiltered, ShooterSubsystem.INSTANCE.getBatteryVoltageFiltered());
+                dsTelemetry.set(tlmSHOOTVoltageCompGain, ShooterSubsystem.INSTANCE.getVoltageCompGain());
+                dsTelemetry.set(tlmSHOOTCmdPreVComp, ShooterSubsystem.INSTANCE.getCommandPreVoltageComp());
+                dsTelemetry.set(tlmSHOOTCmdPostVComp, ShooterSubsystem.INSTANCE.getCommandPostVoltageComp());
+                dsTelemetry.set(tlmSHOOTCmdSaturated, ShooterSubsystem.INSTANCE.isCommandSaturated());
+                dsTelemetry.set(tlmSHOOTBoostMult1, ShooterSubsystem.INSTANCE.getActiveBoostMultiplier1());
+                dsTelemetry.set(tlmSHOOTBoostMult2, ShooterSubsystem.INSTANCE.getActiveBoostMultiplier2());
+                dsTelemetry.set(tlmSHOOTBurstProfileId, BURST_PROFILE_ID);
+                dsTelemetry.set(tlmTABLEProfile, ShotCalibrationProfiles.activeName());
+                if (shotSol != null) {
+                    dsTelemetry.set(tlmTABLERpm, shotSol.rpm);
+                    dsTelemetry.set(tlmTABLEHood, shotSol.hoodPos);
+                    dsTelemetry.set(tlmTABLEAim, shotSol.aimX, shotSol.aimY);
+                    dsTelemetry.set(tlmTABLENearestIn, shotSol.nearestDistanceIn);
+                    dsTelemetry.set(tlmTABLEExtrapolated, shotSol.extrapolated ? "YES" : "no");
+                }
+            }
+
+            if (dsTelemetry.isDue(TieredTelemetry.Tier.DEBUG)) {
+                dsTelemetry.set(tlmSOTMLeadApplied, sotmResult.leadApplied);
+                dsTelemetry.set(tlmSOTMSpeed, sotmResult.speedInPerSec);
+                dsTelemetry.set(tlmSOTMTotalTofSec, sotmResult.totalTimeSeconds);
+                dsTelemetry.set(tlmSOTMTofIterations, sotmResult.iterations);
+                dsTelemetry.set(tlmSOTMTofConverged, sotmResult.converged);
+                dsTelemetry.set(tlmSOTMBallisticTof, sotmResult.ballisticTof);
+                dsTelemetry.set(tlmSOTMLeadX, sotmResult.leadXInches);
+                dsTelemetry.set(tlmSOTMLeadY, sotmResult.leadYInches);
+                dsTelemetry.set(tlmSOTMRadialVel, sotmResult.radialVelocityInPerSec);
+                dsTelemetry.set(tlmSOTMOmegaRawDegS, Math.toDegrees(sotmOmegaRawRadPerSec));
+                dsTelemetry.set(tlmSOTMOmegaFiltDegS, Math.toDegrees(sotmOmegaRadPerSec));
+                dsTelemetry.set(tlmSOTMEffectiveDist, sotmResult.effectiveDistanceInches);
+                dsTelemetry.set(tlmSOTMTurretAimDeg, sotmResult.turretRobotRelativeAimDeg);
+                dsTelemetry.set(tlmSOTMTurretLagCompDeg, sotmResult.turretLagCompensationDeg);
+                dsTelemetry.set(tlmSOTMTurretGoalErrDeg, turretGoalErrorDeg);
+                dsTelemetry.set(tlmSOTMTurretConstraintErrDeg, turretConstraintErrorDeg);
+                dsTelemetry.set(tlmSOTMTurretReachable, turretTargetReachable);
+                dsTelemetry.set(tlmSOTMTurretSpeedDegS, turretMeasuredVelDegPerSec);
+                dsTelemetry.set(tlmSOTMTurretSpeedGate, turretSpeedGateSatisfied);
+                dsTelemetry.set(tlmHYBRIDFeedBoostActive, ShooterSubsystem.INSTANCE.isHybridShotFeedBoostActive());
+                dsTelemetry.set(tlmHYBRIDPhase, ShooterSubsystem.INSTANCE.getHybridShotFeedBoostPhaseName());
+                dsTelemetry.set(tlmHYBRIDTSinceShotFeedStartMs, ShooterSubsystem.INSTANCE.getHybridTimeSinceShotFeedStartMs());
+                dsTelemetry.set(tlmHYBRIDExpectedContactMs, ShooterSubsystem.INSTANCE.getHybridExpectedContactMsForCurrentPhase());
+                dsTelemetry.set(tlmHYBRIDPreBoostAmountActive, ShooterSubsystem.INSTANCE.getActivePreBoostAmount());
+                dsTelemetry.set(tlmHYBRIDLastAdvanceReason, ShooterSubsystem.INSTANCE.getHybridLastAdvanceReason());
+                dsTelemetry.set(tlmHYBRIDLastAdvanceRelMs, ShooterSubsystem.INSTANCE.getHybridLastAdvanceAtRelMs());
             }
             telemetryM.addData("targetRPM", ShooterSubsystem.INSTANCE.getTargetRpm());
         }
 
+        long turretLogStartNs = profiler.start();
         if (ENABLE_TURRET_LOGGING && turretLogger != null) {
             long nowLogMs = System.currentTimeMillis();
 
@@ -2261,164 +2451,141 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
                 prevTurretLogMs = nowLogMs;
             }
         }
+        profiler.stop(PROFILE_TURRET_LOG, turretLogStartNs);
+
+        if (wpiLog != null) {
+            // Poses are not scalar signals, so they go to the WPILOG directly; the
+            // WpiLogSignalSink adds every scalar signal alongside them.
+            long t = wpiLog.nowMicros();
+            wpiLog.appendPose2d(wpiRobotPose, t,
+                    pedroToFtcMetersX(botyvalue), pedroToFtcMetersY(botxvalue),
+                    normalizeRadians(botHeadingRad + Math.PI / 2.0));
+            wpiLog.appendTranslation2d(wpiShootTarget, t,
+                    pedroToFtcMetersX(shootTargetY), pedroToFtcMetersY(shootTargetX));
+            wpiLog.appendPose2d(wpiTurretMeasuredPose, t,
+                    pedroToFtcMetersX(botyvalue), pedroToFtcMetersY(botxvalue),
+                    normalizeRadians(botHeadingRad
+                            + Math.toRadians(TurretSubsystem.INSTANCE.getMeasuredAngleDegrees()) + Math.PI / 2.0));
+        }
+
+        // One snapshot per loop: fill the loop-local slots, then sample every
+        // published supplier once and let each sink record at its own rate.
+        SignalBus signals = SignalBus.INSTANCE;
+        long nowSignalMs = System.currentTimeMillis();
+        signals.setLong(sigTimeMs, nowSignalMs);
+        signals.setLong(sigMatchTimeMs, (logStartMs == 0L) ? 0L : (nowSignalMs - logStartMs));
+        signals.setBoolean(sigSotmFireRequestActive, sotmFireRequestActive);
+        signals.setBoolean(sigSotmControlActive, sotmControlActive);
+        signals.setBoolean(sigRightBumperActive, rightBumperActive);
+        signals.setBoolean(sigRightTriggerActive, rightTriggerActive);
+        signals.setDouble(sigBotX, botxvalue);
+        signals.setDouble(sigBotY, botyvalue);
+        signals.setDouble(sigBotHeadingDeg, Math.toDegrees(botHeadingRad));
+        signals.setBoolean(sigMt1Valid, mt1Valid);
+        signals.setDouble(sigMt1X, mt1PedroX);
+        signals.setDouble(sigMt1Y, mt1PedroY);
+        signals.setDouble(sigMt1HeadingDeg, mt1PedroHeadingDeg);
+        signals.setBoolean(sigMt2Valid, mt2Valid);
+        signals.setDouble(sigMt2X, mt2PedroX);
+        signals.setDouble(sigMt2Y, mt2PedroY);
+        signals.setDouble(sigMt2HeadingDeg, mt2PedroHeadingDeg);
+        signals.setEnum(sigLlBlendSource, limelightBlendSource);
+        signals.setBoolean(sigLlPoseValid, limelightBlendPoseValid);
+        signals.setBoolean(sigLlPoseAccepted, limelightBlendPoseAccepted);
+        signals.setBoolean(sigLlPoseApplied, limelightBlendPoseApplied);
+        signals.setEnum(sigLlGateReason, limelightBlendGateReason);
+        signals.setDouble(sigLlRawDxIn, limelightBlendRawDxIn);
+        signals.setDouble(sigLlRawDyIn, limelightBlendRawDyIn);
+        signals.setDouble(sigLlRawDistIn, limelightBlendRawDistIn);
+        signals.setDouble(sigLlRawHeadingErrDeg, limelightBlendRawHeadingErrDeg);
+        signals.setDouble(sigLlBlendAlpha, limelightBlendAlpha);
+        signals.setDouble(sigTargetX, shootTargetX);
+        signals.setDouble(sigTargetY, shootTargetY);
+        signals.setDouble(sigFieldAngleDeg, fieldAngleDeg);
+        signals.setDouble(sigAngleErrorDeg, angleErrorDeg);
+        signals.setDouble(sigSotmVx, sotmVx);
+        signals.setDouble(sigSotmVy, sotmVy);
+        signals.setDouble(sigSotmOmegaRawDegPerSec, Math.toDegrees(sotmOmegaRawRadPerSec));
+        signals.setDouble(sigSotmOmegaDegPerSec, Math.toDegrees(sotmOmegaRadPerSec));
+        signals.setBoolean(sigSotmTurretGate, turretAimGateSatisfied);
+        signals.setDouble(sigSotmTurretGoalErrorDeg, turretGoalErrorDeg);
+        signals.setDouble(sigSotmTurretConstraintErrorDeg, turretConstraintErrorDeg);
+        signals.setBoolean(sigSotmTurretReachable, turretTargetReachable);
+        signals.setDouble(sigSotmTurretSpeedDegPerSec, turretMeasuredVelDegPerSec);
+        signals.setBoolean(sigSotmTurretSpeedGate, turretSpeedGateSatisfied);
+        signals.setBoolean(sigSotmFireGate, sotmFireGateSatisfied);
+        signals.setBoolean(sigSotmCanShootGate, canShootAtGoal);
+        signals.setBoolean(sigShooterAtSpeed75, shooterAtSpeed75);
+        signals.setDouble(sigDriveCmd, driving);
+        signals.setDouble(sigStrafeCmd, strafe);
+        signals.setDouble(sigRotateCmd, rotate);
+        signals.setDouble(sigLoopTimeMs, loopTimeMs);
+        signals.setDouble(sigLlLatencyMs, limelightLatencyMs);
+        signals.setBoolean(sigLlLatencyCompensated, limelightLatencyCompensated);
+        signals.setDouble(sigLlPollMs, limelightPoller.getLastPollDurationMs());
+        long signalsStartNs = profiler.start();
+        signals.update(nowSignalMs);
+        profiler.stop(PROFILE_SIGNALS, signalsStartNs);
 
-        if (ENABLE_SOTM_LOGGING && sotmLogger != null) {
-            long nowSotmLogMs = System.currentTimeMillis();
-            if (nowSotmLogMs - lastSotmLogMs >= SOTM_LOG_PERIOD_MS) {
-                lastSotmLogMs = nowSotmLogMs;
-                long matchT = (logStartMs == 0L) ? 0L : (nowSotmLogMs - logStartMs);
-
-                sotmLogger.addRow(
-                        nowSotmLogMs,
-                        matchT,
-                        sotmFireRequestActive,
-                        sotmControlActive,
-                        rightBumperActive,
-                        rightTriggerActive,
-                        botxvalue,
-                        botyvalue,
-                        Math.toDegrees(botHeadingRad),
-                        mt1Valid,
-                        mt1PedroX,
-                        mt1PedroY,
-                        mt1PedroHeadingDeg,
-                        mt2Valid,
-                        mt2PedroX,
-                        mt2PedroY,
-                        mt2PedroHeadingDeg,
-                        LIMELIGHT_VISION_BLEND_ENABLED,
-                        limelightBlendSource,
-                        limelightBlendPoseValid,
-                        limelightBlendPoseAccepted,
-                        limelightBlendPoseApplied,
-                        limelightBlendGateReason,
-                        limelightVisionConsecutiveAccepts,
-                        limelightVisionLoopsSinceApply,
-                        limelightBlendRawDxIn,
-                        limelightBlendRawDyIn,
-                        limelightBlendRawDistIn,
-                        limelightBlendRawHeadingErrDeg,
-                        limelightVisionBiasXIn,
-                        limelightVisionBiasYIn,
-                        limelightVisionBiasHeadingDeg,
-                        limelightVisionLastNudgeXIn,
-                        limelightVisionLastNudgeYIn,
-                        limelightVisionLastNudgeHeadingDeg,
-                        limelightBlendAlpha,
-                        shootTargetX,
-                        shootTargetY,
-                        fieldAngleDeg,
-                        angleErrorDeg,
-                        ODODistance,
-                        sotmResult.valid,
-                        sotmResult.leadApplied,
-                        sotmResult.speedInPerSec,
-                        sotmVx,
-                        sotmVy,
-                        Math.toDegrees(sotmOmegaRawRadPerSec),
-                        Math.toDegrees(sotmOmegaRadPerSec),
-                        sotmResult.totalTimeSeconds,
-                        sotmResult.leadXInches,
-                        sotmResult.leadYInches,
-                        sotmResult.radialVelocityInPerSec,
-                        sotmResult.effectiveDistanceInches,
-                        shooterDistanceForBallistics,
-                        sotmResult.turretRobotRelativeAimDeg,
-                        sotmResult.turretLagCompensationDeg,
-                        TurretSubsystem.INSTANCE.getTargetAngleDegrees(),
-                        TurretSubsystem.INSTANCE.getMeasuredAngleDegrees(),
-                        TurretSubsystem.INSTANCE.isTurretReady(),
-                        turretAimGateSatisfied,
-                        turretGoalErrorDeg,
-                        turretConstraintErrorDeg,
-                        turretTargetReachable,
-                        turretMeasuredVelDegPerSec,
-                        turretSpeedGateSatisfied,
-                        sotmFireGateSatisfied,
-                        canShootAtGoal,
-                        ShooterSubsystem.INSTANCE.getTargetRpm(),
-                        rpmShooter1,
-                        rpmShooter2,
-                        shooterAtSpeed75,
-                        ShooterSubsystem.INSTANCE.getBatteryVoltageRaw(),
-                        ShooterSubsystem.INSTANCE.getBatteryVoltageFiltered(),
-                        ShooterSubsystem.INSTANCE.getVoltageCompGain(),
-                        ShooterSubsystem.INSTANCE.getCommandPreVoltageComp(),
-                        ShooterSubsystem.INSTANCE.getCommandPostVoltageComp(),
-                        ShooterSubsystem.INSTANCE.isCommandSaturated(),
-                        dumbShootTimerActive,
-                        IntakeWithSensorsSubsystem.INSTANCE.getBallCount(),
-                        IntakeWithSensorsSubsystem.INSTANCE.getMotor1EncoderTicks(),
-                        IntakeWithSensorsSubsystem.INSTANCE.getMotor3EncoderTicks(),
-                        hold,
-                        driving,
-                        strafe,
-                        rotate,
-                        loopTimeMs
-                );
-            }
+        if (testShooter) {
+            dsTelemetry.set(tlmShooterKp, ShooterSubsystem.kP);
+            dsTelemetry.set(tlmShooterKi, ShooterSubsystem.kI);
+            dsTelemetry.set(tlmShooterKd, ShooterSubsystem.kD);
+            dsTelemetry.set(tlmShooterKs, ShooterSubsystem.kS);
+            dsTelemetry.set(tlmShooterKv, ShooterSubsystem.kV);
+            dsTelemetry.set(tlmShooterKa, ShooterSubsystem.kA);
+            dsTelemetry.set(tlmShooterHeadroom, ShooterSubsystem.HEADROOM);
+            dsTelemetry.set(tlmShooterSlewPerSecond, ShooterSubsystem.SLEW_PER_SECOND);
+            dsTelemetry.set(tlmShooterIZone, ShooterSubsystem.I_ZONE);
         }
 
-        if (testShooter) {
-            telemetry.addData("kP", ShooterSubsystem.kP);
-            telemetry.addData("kI", ShooterSubsystem.kI);
-            telemetry.addData("kD", ShooterSubsystem.kD);
-            telemetry.addData("kS", ShooterSubsystem.kS);
-            telemetry.addData("kV", ShooterSubsystem.kV);
-            telemetry.addData("kA", ShooterSubsystem.kA);
-            telemetry.addData("HEADROOM", ShooterSubsystem.HEADROOM);
-            telemetry.addData("SLEW_PER_SECOND", ShooterSubsystem.SLEW_PER_SECOND);
-            telemetry.addData("I_ZONE", ShooterSubsystem.I_ZONE);
-        }
-
-        if (result == null) {
-            telemetry.addData("Limelight", "No result object");
-        } else if (!result.isValid()) {
-            telemetry.addData("Limelight", "No valid target");
+        if (limelightMissing) {
+            dsTelemetry.set(tlmLimelight, "No result object");
+        } else if (!limelightValid) {
+            dsTelemetry.set(tlmLimelight, "No valid target");
         } else {
-            telemetry.addData("Limelight", "Target seen!");
-            telemetry.addData("tx", result.getTx());
-            telemetry.addData("ta", result.getTa());
-            telemetry.addData("ty", result.getTy());
-            telemetry.addData("LL distance", distanceLL);
-            Pose3D MT2Pose = result.getBotpose_MT2();
-            if (MT2Pose != null) {
-                telemetry.addData("MT2 Raw Angle", MT2Pose.getOrientation().getYaw());
-                telemetry.addData("MT2 Raw X", MT2Pose.getPosition().x);
-                telemetry.addData("MT2 Raw Y", MT2Pose.getPosition().y);
+            dsTelemetry.set(tlmLimelight, "Target seen!");
+            dsTelemetry.set(tlmTx, limelightSample.txDeg);
+            dsTelemetry.set(tlmTa, limelightSample.ta);
+            dsTelemetry.set(tlmTy, limelightSample.tyDeg);
+            dsTelemetry.set(tlmLLDistance, distanceLL);
+            if (limelightSample.mt2RawPresent) {
+                dsTelemetry.set(tlmMT2RawAngle, limelightSample.mt2RawYawDeg);
+                dsTelemetry.set(tlmMT2RawX, limelightSample.mt2RawXM);
+                dsTelemetry.set(tlmMT2RawY, limelightSample.mt2RawYM);
             }
         }
-        telemetry.addData("MT1 valid", mt1Valid);
-        telemetry.addData("MT1 Pedro X", mt1PedroX);
-        telemetry.addData("MT1 Pedro Y", mt1PedroY);
-        telemetry.addData("MT1 Pedro Heading", mt1PedroHeadingDeg);
-        telemetry.addData("MT2 valid", mt2Valid);
-        telemetry.addData("MT2 Pedro X", mt2PedroX);
-        telemetry.addData("MT2 Pedro Y", mt2PedroY);
-        telemetry.addData("MT2 Pedro Heading", mt2PedroHeadingDeg);
-        telemetry.addData("LL Blend Source", limelightBlendSource);
-        telemetry.addData("LL Blend Valid", limelightBlendPoseValid);
-        telemetry.addData("LL Blend Accepted", limelightBlendPoseAccepted);
-        telemetry.addData("LL Blend Applied", limelightBlendPoseApplied);
-        telemetry.addData("LL Blend Gate", limelightBlendGateReason);
-        telemetry.addData("LL Blend dX", limelightBlendRawDxIn);
-        telemetry.addData("LL Blend dY", limelightBlendRawDyIn);
-        telemetry.addData("LL Blend Dist", limelightBlendRawDistIn);
-        telemetry.addData("LL Blend dH", limelightBlendRawHeadingErrDeg);
-        telemetry.addData("LL Offset X (cum)", limelightVisionBiasXIn);
-        telemetry.addData("LL Offset Y (cum)", limelightVisionBiasYIn);
-        telemetry.addData("LL Offset H (cum)", limelightVisionBiasHeadingDeg);
-        telemetry.addData("LL Nudge X", limelightVisionLastNudgeXIn);
-        telemetry.addData("LL Nudge Y", limelightVisionLastNudgeYIn);
-        telemetry.addData("LL Nudge H", limelightVisionLastNudgeHeadingDeg);
-        telemetry.addData("LL Applied", limelightBlendPoseApplied);
-        telemetry.addData("LL Streak", limelightVisionConsecutiveAccepts);
-        telemetry.addData("LL Loops Since Apply", limelightVisionLoopsSinceApply);
-        telemetry.addData("LL Blend Alpha", limelightBlendAlpha);
-        telemetry.addData("ODO distance", ODODistance);
-        telemetry.addData("ODO X-Location", botxvalue);
-        telemetry.addData("ODO Y-Location", botyvalue);
-        telemetry.addData("ODO Angle", Math.toDegrees(botHeadingRad));
+        dsTelemetry.set(tlmMT1Valid, mt1Valid);
+        dsTelemetry.set(tlmMT1PedroX, mt1PedroX);
+        dsTelemetry.set(tlmMT1PedroY, mt1PedroY);
+        dsTelemetry.set(tlmMT1PedroHeading, mt1PedroHeadingDeg);
+        dsTelemetry.set(tlmMT2Valid, mt2Valid);
+        dsTelemetry.set(tlmMT2PedroX, mt2PedroX);
+        dsTelemetry.set(tlmMT2PedroY, mt2PedroY);
+        dsTelemetry.set(tlmMT2PedroHeading, mt2PedroHeadingDeg);
+        dsTelemetry.set(tlmLLBlendSource, limelightBlendSource);
+        dsTelemetry.set(tlmLLBlendValid, limelightBlendPoseValid);
+        dsTelemetry.set(tlmLLBlendAccepted, limelightBlendPoseAccepted);
+        dsTelemetry.set(tlmLLBlendApplied, limelightBlendPoseApplied);
+        dsTelemetry.set(tlmLLBlendGate, limelightBlendGateReason);
+        dsTelemetry.set(tlmLLBlendDX, limelightBlendRawDxIn);
+        dsTelemetry.set(tlmLLBlendDY, limelightBlendRawDyIn);
+        dsTelemetry.set(tlmLLBlendDist, limelightBlendRawDistIn);
+        dsTelemetry.set(tlmLLBlendDH, limelightBlendRawHeadingErrDeg);
+        dsTelemetry.set(tlmLLOffsetXCum, limelightVisionBiasXIn);
+        dsTelemetry.set(tlmLLOffsetYCum, limelightVisionBiasYIn);
+        dsTelemetry.set(tlmLLOffsetHCum, limelightVisionBiasHeadingDeg);
+        dsTelemetry.set(tlmLLNudgeX, limelightVisionLastNudgeXIn);
+        dsTelemetry.set(tlmLLNudgeY, limelightVisionLastNudgeYIn);
+        dsTelemetry.set(tlmLLNudgeH, limelightVisionLastNudgeHeadingDeg);
+        dsTelemetry.set(tlmLLApplied, limelightBlendPoseApplied);
+        dsTelemetry.set(tlmLLStreak, limelightVisionConsecutiveAccepts);
+        dsTelemetry.set(tlmLLLoopsSinceApply, limelightVisionLoopsSinceApply);
+        dsTelemetry.set(tlmLLBlendAlpha, limelightBlendAlpha);
+        dsTelemetry.set(tlmODODistance, ODODistance);
+        dsTelemetry.set(tlmODOXLocation, botxvalue);
+        dsTelemetry.set(tlmODOYLocation, botyvalue);
+        dsTelemetry.set(tlmODOAngle, Math.toDegrees(botHeadingRad));
 
 
 
@@ -2730,14 +2897,24 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
         }
         ShooterSubsystem.INSTANCE.shooterHoodDrive(this.shooterHoodPos);
 
+        profiler.updateTelemetry(dsTelemetry);
+        long telemetryStartNs = profiler.start();
+        dsTelemetry.flush(dsOutput);
         telemetryM.update(telemetry);
         telemetry.update();
+        profiler.stop(PROFILE_TELEMETRY, telemetryStartNs);
+        profiler.stop(PROFILE_BODY, bodyStartNs);
         timer.end();
+        profiler.endLoop();
     }
 
     @Override
     public void onStop() {
         super.onStop();
+        if (limelightPoller != null) {
+            limelightPoller.stop();
+            limelightPoller = null;
+        }
         matchHasStarted = false;
         ShooterSubsystem.INSTANCE.stop();
         targetRPM = 0.0;
@@ -2752,15 +2929,15 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
             }
         }
 
-        if (ENABLE_SOTM_LOGGING && sotmLogger != null) {
-            File savedFile = sotmLogger.save();
-            if (savedFile != null) {
-                RobotLog.ii("Pickles2025Teleop", "SOTM CSV saved: " + savedFile.getAbsolutePath());
-            } else {
-                RobotLog.ww("Pickles2025Teleop", "SOTM CSV was not saved (logger not started, empty, or save failed).");
-            }
+        if (LoopProfiler.LOOP_PROFILER_ENABLED) {
+            LoopProfiler.INSTANCE.logSummary("pickles2025_loop_profile");
         }
 
+        // Saves the SOTM log and the WPILOG (the bus sinks) and drops this
+        // opmode's signals.
+        SignalBus.INSTANCE.endSession();
+        wpiLog = null;
+
         if (ENABLE_SHOT_INFO_LOGGING && shotInfoLogger != null) {
             // Ensure an in-progress sequence is not lost.
             if (shotLogSequenceActive) {
@@ -2794,6 +2971,270 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
                 RobotLog.ww("Pickles2025Teleop", "Shot tuning CSV was not saved (logger not started, empty, or save failed).");
             }
         }
+
+        // Persist whatever the shot-table overlay learned from KEEP labels so
+        // the next session starts from it.
+        ShotCalibrationProfiles.saveOverlays();
+    }
+
+    /**
+     * Opens the WPILOG and declares its entries. Poses are converted the same
+     * way scripts/convert_logs_to_advantagescope.py does (FTC DECODE field
+     * frame, meters), so old and new logs line up in AdvantageScope.
+     */
+    private void startWpiLog() {
+        wpiLog = null;
+        if (!ENABLE_WPILOG_LOGGING) {
+            return;
+        }
+        WpiLogWriter log = new WpiLogWriter("pickles2025");
+        if (!log.start("Pickles2025Teleop")) {
+            return;
+        }
+        wpiRobotPose = log.startEntry("/Robot/Pose", WpiLogWriter.TYPE_POSE2D);
+        wpiShootTarget = log.startEntry("/Robot/ShootTarget", WpiLogWriter.TYPE_TRANSLATION2D);
+        wpiTurretMeasuredPose = log.startEntry("/Turret/MeasuredPose", WpiLogWriter.TYPE_POSE2D);
+        SignalBus.INSTANCE.addSink(new WpiLogSignalSink(log, "/Signals/", (String[]) null), 0L);
+        wpiLog = log;
+    }
+
+    // Pedro (origin bottom-left, inches) -> FTC DECODE field frame (origin
+    // center, rotated +90 deg), meters. FTC x comes from Pedro y and vice versa.
+    private static double pedroToFtcMetersX(double pedroYIn) {
+        return -(pedroYIn - 72.0) * 0.0254;
+    }
+
+    private static double pedroToFtcMetersY(double pedroXIn) {
+        return (pedroXIn - 72.0) * 0.0254;
+    }
+
+    /**
+     * Registers every Driver Station line once. Registration order is display
+     * order, so the match-critical gates come first.
+     */
+    private void registerTelemetryLines() {
+        dsTelemetry = new TieredTelemetry();
+        tlmTurretReady = dsTelemetry.line(TieredTelemetry.Tier.CRITICAL, "turretReady");
+        tlmSOTMTurretGate = dsTelemetry.line(TieredTelemetry.Tier.CRITICAL, "SOTM_turretGate");
+        tlmSOTMFireGate = dsTelemetry.line(TieredTelemetry.Tier.CRITICAL, "SOTM_fireGate");
+        tlmSOTMCanShootGate = dsTelemetry.line(TieredTelemetry.Tier.CRITICAL, "SOTM_canShootGate");
+        tlmSOTMShooterAtSpeed75 = dsTelemetry.line(TieredTelemetry.Tier.CRITICAL, "SOTM_shooterAtSpeed75");
+        tlmSOTMTooCloseBlock = dsTelemetry.line(TieredTelemetry.Tier.CRITICAL, "SOTM_tooCloseBlock");
+        tlmSOTMShotGateLedState = dsTelemetry.line(TieredTelemetry.Tier.CRITICAL, "SOTM_shotGateLedState");
+
+        tlmINTIsIntaking = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "INT_isIntaking");
+        tlmINTShooting = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "INT_shooting");
+        tlmTheNoteRenyLeft = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "theNoteRenyLeft");
+        tlmINTSingleBallFeedActive = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "INT_singleBallFeedActive");
+        tlmINTMultiSingleShotActive = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "INT_multiSingleShotActive");
+        tlmINTShootSeqActive = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "INT_shootSeqActive");
+        tlmINTShotInProgress = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "INT_shotInProgress");
+        tlmINTM1Enabled = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "INT_m1Enabled");
+        tlmINTM2Enabled = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "INT_m2Enabled");
+        tlmINTM3Enabled = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "INT_m3Enabled");
+        tlmINTDirection = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "INT_direction");
+        tlmINTMultiReq = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "INT_multiReq");
+        tlmINTMultiDone = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "INT_multiDone");
+        tlmHwWritesPerLoop = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "HW_writesPerLoop", "%.0f sent / %.0f skipped");
+        tlmSchedDeferred = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "SCHED_deferredTotal");
+        tlmBotX = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "bot_x", "%.1f");
+        tlmBotY = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "bot_y", "%.1f");
+        tlmBotHeadingDeg = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "bot_heading_deg", "%.1f");
+        tlmRpmTarget = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "rpm_target", "%.0f");
+        tlmHoodTarget = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "hood_target", "%.3f");
+        tlmTargetX = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "target_x", "%.1f");
+        tlmTargetY = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "target_y", "%.1f");
+        tlmTurretDeg = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "turret_deg", "%.1f");
+        tlmTableRpm = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "table_rpm", "%.0f");
+        tlmTableHood = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "table_hood", "%.3f");
+        tlmTableTarget = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "table_target", "(%.1f, %.1f)");
+        tlmRotate = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "rotate");
+        tlmTurretTargetDeg = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "turretTargetDeg");
+        tlmTurretMeasuredDeg = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "turretMeasuredDeg");
+        tlmFieldAngleDeg = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "fieldAngleDeg");
+        tlmAngleErrorDeg = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "angleErrorDeg");
+        tlmBoostActive = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "boostActive");
+        tlmShooterFollowEnabled = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "shooterFollowEnabled");
+        tlmSOTMActive = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "SOTM_active");
+        tlmSOTMValid = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "SOTM_valid");
+        tlmSHOOTBatteryV = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "SHOOT_batteryV");
+        tlmSHOOTBatteryVFiltered = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "SHOOT_batteryVFiltered");
+        tlmSHOOTVoltageCompGain = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "SHOOT_voltageCompGain");
+        tlmSHOOTCmdPreVComp = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "SHOOT_cmdPreVComp");
+        tlmSHOOTCmdPostVComp = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "SHOOT_cmdPostVComp");
+        tlmSHOOTCmdSaturated = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "SHOOT_cmdSaturated");
+        tlmSHOOTBoostMult1 = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "SHOOT_boostMult1");
+        tlmSHOOTBoostMult2 = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "SHOOT_boostMult2");
+        tlmSHOOTBurstProfileId = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "SHOOT_burstProfileId");
+        tlmTABLEProfile = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "TABLE_profile");
+        tlmTABLERpm = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "TABLE_rpm", "%.0f");
+        tlmTABLEHood = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "TABLE_hood", "%.3f");
+        tlmTABLEAim = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "TABLE_aim", "(%.1f, %.1f)");
+        tlmTABLENearestIn = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "TABLE_nearest_in", "%.2f");
+        tlmTABLEExtrapolated = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "TABLE_extrapolated");
+        tlmShooterKp = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "kP");
+        tlmShooterKi = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "kI");
+        tlmShooterKd = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "kD");
+        tlmShooterKs = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "kS");
+        tlmShooterKv = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "kV");
+        tlmShooterKa = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "kA");
+        tlmShooterHeadroom = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "HEADROOM");
+        tlmShooterSlewPerSecond = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "SLEW_PER_SECOND");
+        tlmShooterIZone = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "I_ZONE");
+        tlmLimelight = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "Limelight");
+        tlmLLBlendSource = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "LL Blend Source");
+        tlmLLBlendValid = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "LL Blend Valid");
+        tlmLLBlendAccepted = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "LL Blend Accepted");
+        tlmLLBlendApplied = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "LL Blend Applied");
+        tlmLLBlendGate = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "LL Blend Gate");
+        tlmODODistance = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "ODO distance");
+        tlmODOXLocation = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "ODO X-Location");
+        tlmODOYLocation = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "ODO Y-Location");
+        tlmODOAngle = dsTelemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "ODO Angle");
+
+        tlmSOTMLeadApplied = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "SOTM_leadApplied");
+        tlmSOTMSpeed = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "SOTM_speed");
+        tlmSOTMTotalTofSec = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "SOTM_totalTofSec");
+        tlmSOTMTofIterations = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "SOTM_tofIterations");
+        tlmSOTMTofConverged = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "SOTM_tofConverged");
+        tlmSOTMBallisticTof = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "SOTM_ballisticTof");
+        tlmSOTMLeadX = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "SOTM_leadX");
+        tlmSOTMLeadY = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "SOTM_leadY");
+        tlmSOTMRadialVel = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "SOTM_radialVel");
+        tlmSOTMOmegaRawDegS = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "SOTM_omegaRawDegS");
+        tlmSOTMOmegaFiltDegS = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "SOTM_omegaFiltDegS");
+        tlmSOTMEffectiveDist = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "SOTM_effectiveDist");
+        tlmSOTMTurretAimDeg = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "SOTM_turretAimDeg");
+        tlmSOTMTurretLagCompDeg = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "SOTM_turretLagCompDeg");
+        tlmSOTMTurretGoalErrDeg = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "SOTM_turretGoalErrDeg");
+        tlmSOTMTurretConstraintErrDeg = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "SOTM_turretConstraintErrDeg");
+        tlmSOTMTurretReachable = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "SOTM_turretReachable");
+        tlmSOTMTurretSpeedDegS = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "SOTM_turretSpeedDegS");
+        tlmSOTMTurretSpeedGate = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "SOTM_turretSpeedGate");
+        tlmHYBRIDFeedBoostActive = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "HYBRID_feedBoostActive");
+        tlmHYBRIDPhase = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "HYBRID_phase");
+        tlmHYBRIDTSinceShotFeedStartMs = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "HYBRID_tSinceShotFeedStartMs");
+        tlmHYBRIDExpectedContactMs = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "HYBRID_expectedContactMs");
+        tlmHYBRIDPreBoostAmountActive = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "HYBRID_preBoostAmountActive");
+        tlmHYBRIDLastAdvanceReason = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "HYBRID_lastAdvanceReason");
+        tlmHYBRIDLastAdvanceRelMs = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "HYBRID_lastAdvanceRelMs");
+        tlmTx = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "tx");
+        tlmTa = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "ta");
+        tlmTy = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "ty");
+        tlmLLDistance = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "LL distance");
+        tlmMT2RawAngle = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "MT2 Raw Angle");
+        tlmMT2RawX = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "MT2 Raw X");
+        tlmMT2RawY = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "MT2 Raw Y");
+        tlmMT1Valid = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "MT1 valid");
+        tlmMT1PedroX = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "MT1 Pedro X");
+        tlmMT1PedroY = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "MT1 Pedro Y");
+        tlmMT1PedroHeading = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "MT1 Pedro Heading");
+        tlmMT2Valid = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "MT2 valid");
+        tlmMT2PedroX = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "MT2 Pedro X");
+        tlmMT2PedroY = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "MT2 Pedro Y");
+        tlmMT2PedroHeading = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "MT2 Pedro Heading");
+        tlmLLBlendDX = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "LL Blend dX");
+        tlmLLBlendDY = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "LL Blend dY");
+        tlmLLBlendDist = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "LL Blend Dist");
+        tlmLLBlendDH = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "LL Blend dH");
+        tlmLLOffsetXCum = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "LL Offset X (cum)");
+        tlmLLOffsetYCum = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "LL Offset Y (cum)");
+        tlmLLOffsetHCum = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "LL Offset H (cum)");
+        tlmLLNudgeX = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "LL Nudge X");
+        tlmLLNudgeY = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "LL Nudge Y");
+        tlmLLNudgeH = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "LL Nudge H");
+        tlmLLApplied = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "LL Applied");
+        tlmLLStreak = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "LL Streak");
+        tlmLLLoopsSinceApply = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "LL Loops Since Apply");
+        tlmLLBlendAlpha = dsTelemetry.line(TieredTelemetry.Tier.DEBUG, "LL Blend Alpha");
+    }
+
+    /**
+     * Registers the opmode's own signals for this session: suppliers over
+     * fields and the SOTM result, and slots for loop-local values that onUpdate
+     * sets before SignalBus.update. Subsystem signals are published by the
+     * subsystems themselves.
+     */
+    private void registerTeleopSignals() {
+        SignalBus bus = SignalBus.INSTANCE;
+        bus.publishBoolean("ll_blend_enabled", () -> LIMELIGHT_VISION_BLEND_ENABLED);
+        bus.publishLong("ll_consecutive_accepts", () -> limelightVisionConsecutiveAccepts);
+        bus.publishLong("ll_loops_since_apply", () -> limelightVisionLoopsSinceApply);
+        bus.publishDouble("ll_bias_x_in", () -> limelightVisionBiasXIn);
+        bus.publishDouble("ll_bias_y_in", () -> limelightVisionBiasYIn);
+        bus.publishDouble("ll_bias_heading_deg", () -> limelightVisionBiasHeadingDeg);
+        bus.publishDouble("ll_nudge_x_in", () -> limelightVisionLastNudgeXIn);
+        bus.publishDouble("ll_nudge_y_in", () -> limelightVisionLastNudgeYIn);
+        bus.publishDouble("ll_nudge_heading_deg", () -> limelightVisionLastNudgeHeadingDeg);
+        bus.publishDouble("real_distance_in", () -> ODODistance);
+        bus.publishLong("hw_writes_sent_per_loop", HardwareWriteCache::getLastLoopWritesSent);
+        bus.publishLong("hw_writes_skipped_per_loop", HardwareWriteCache::getLastLoopWritesSkipped);
+        bus.publishBoolean("sotm_valid", () -> sotmResult.valid);
+        bus.publishBoolean("sotm_lead_applied", () -> sotmResult.leadApplied);
+        bus.publishDouble("sotm_speed_in_s", () -> sotmResult.speedInPerSec);
+        bus.publishDouble("sotm_total_tof_s", () -> sotmResult.totalTimeSeconds);
+        bus.publishDouble("sotm_lead_x_in", () -> sotmResult.leadXInches);
+        bus.publishDouble("sotm_lead_y_in", () -> sotmResult.leadYInches);
+        bus.publishDouble("sotm_radial_vel_in_s", () -> sotmResult.radialVelocityInPerSec);
+        bus.publishDouble("sotm_effective_dist_in", () -> sotmResult.effectiveDistanceInches);
+        bus.publishDouble("sotm_ballistic_dist_in", () -> sotmResult.distanceForBallisticsInches);
+        bus.publishDouble("sotm_turret_aim_deg", () -> sotmResult.turretRobotRelativeAimDeg);
+        bus.publishDouble("sotm_turret_lag_comp_deg", () -> sotmResult.turretLagCompensationDeg);
+        bus.publishLong("sotm_tof_iterations", () -> sotmResult.iterations);
+        bus.publishBoolean("sotm_tof_converged", () -> sotmResult.converged);
+        bus.publishBoolean("dumbshoot_timer_active", () -> dumbShootTimerActive);
+        bus.publishBoolean("hold_state", () -> hold);
+        sigTimeMs = bus.longSlot("t_ms");
+        sigMatchTimeMs = bus.longSlot("match_t_ms");
+        sigSotmFireRequestActive = bus.booleanSlot("sotm_fire_request_active");
+        sigSotmControlActive = bus.booleanSlot("sotm_control_active");
+        sigRightBumperActive = bus.booleanSlot("right_bumper_active");
+        sigRightTriggerActive = bus.booleanSlot("right_trigger_active");
+        sigBotX = bus.doubleSlot("bot_x");
+        sigBotY = bus.doubleSlot("bot_y");
+        sigBotHeadingDeg = bus.doubleSlot("bot_heading_deg");
+        sigMt1Valid = bus.booleanSlot("mt1_valid");
+        sigMt1X = bus.doubleSlot("mt1_x");
+        sigMt1Y = bus.doubleSlot("mt1_y");
+        sigMt1HeadingDeg = bus.doubleSlot("mt1_heading_deg");
+        sigMt2Valid = bus.booleanSlot("mt2_valid");
+        sigMt2X = bus.doubleSlot("mt2_x");
+        sigMt2Y = bus.doubleSlot("mt2_y");
+        sigMt2HeadingDeg = bus.doubleSlot("mt2_heading_deg");
+        sigLlBlendSource = bus.enumSlot("ll_blend_source", "MT1", "MT2");
+        sigLlPoseValid = bus.booleanSlot("ll_pose_valid");
+        sigLlPoseAccepted = bus.booleanSlot("ll_pose_accepted");
+        sigLlPoseApplied = bus.booleanSlot("ll_pose_applied");
+        sigLlGateReason = bus.enumSlot("ll_gate_reason", LIMELIGHT_GATE_REASONS);
+        sigLlRawDxIn = bus.doubleSlot("ll_raw_dx_in");
+        sigLlRawDyIn = bus.doubleSlot("ll_raw_dy_in");
+        sigLlRawDistIn = bus.doubleSlot("ll_raw_dist_in");
+        sigLlRawHeadingErrDeg = bus.doubleSlot("ll_raw_heading_err_deg");
+        sigLlBlendAlpha = bus.doubleSlot("ll_blend_alpha");
+        sigTargetX = bus.doubleSlot("target_x");
+        sigTargetY = bus.doubleSlot("target_y");
+        sigFieldAngleDeg = bus.doubleSlot("field_angle_deg");
+        sigAngleErrorDeg = bus.doubleSlot("angle_error_deg");
+        sigSotmVx = bus.doubleSlot("sotm_vx_in_s");
+        sigSotmVy = bus.doubleSlot("sotm_vy_in_s");
+        sigSotmOmegaRawDegPerSec = bus.doubleSlot("sotm_omega_raw_deg_s");
+        sigSotmOmegaDegPerSec = bus.doubleSlot("sotm_omega_deg_s");
+        sigSotmTurretGate = bus.booleanSlot("sotm_turret_gate");
+        sigSotmTurretGoalErrorDeg = bus.doubleSlot("sotm_turret_goal_error_deg");
+        sigSotmTurretConstraintErrorDeg = bus.doubleSlot("sotm_turret_constraint_error_deg");
+        sigSotmTurretReachable = bus.booleanSlot("sotm_turret_reachable");
+        sigSotmTurretSpeedDegPerSec = bus.doubleSlot("sotm_turret_speed_deg_s");
+        sigSotmTurretSpeedGate = bus.booleanSlot("sotm_turret_speed_gate");
+        sigSotmFireGate = bus.booleanSlot("sotm_fire_gate");
+        sigSotmCanShootGate = bus.booleanSlot("sotm_can_shoot_gate");
+        sigShooterAtSpeed75 = bus.booleanSlot("shooter_at_speed_75");
+        sigDriveCmd = bus.doubleSlot("drive_cmd");
+        sigStrafeCmd = bus.doubleSlot("strafe_cmd");
+        sigRotateCmd = bus.doubleSlot("rotate_cmd");
+        sigLoopTimeMs = bus.doubleSlot("loop_time_ms");
+        sigLlLatencyMs = bus.doubleSlot("ll_latency_ms");
+        sigLlLatencyCompensated = bus.booleanSlot("ll_latency_compensated");
+        sigLlPollMs = bus.doubleSlot("ll_poll_ms");
     }
 
     private boolean isShooterReadyForFeed(double toleranceRpm, double rpmShooter1, double rpmShooter2) {
@@ -2806,8 +3247,14 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
     }
 
     private void labelShotTuningSample(String label, String labelReason) {
-        if (!ENABLE_SHOT_TUNING_LOGGING || shotTuningLogger == null) return;
         if (!shotTuningPendingLabel) return;
+        if ("KEEP".equals(label)) {
+            learnFromKeptShotTuningSample();
+        }
+        if (!ENABLE_SHOT_TUNING_LOGGING || shotTuningLogger == null) {
+            shotTuningPendingLabel = false;
+            return;
+        }
 
         long nowMs = System.currentTimeMillis();
         long matchT = (logStartMs == 0L) ? 0L : (nowMs - logStartMs);
@@ -2857,6 +3304,24 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
         shotTuningPendingLabel = false;
     }
 
+    /**
+     * Fold a KEEP-labeled shot into the active table's learned overlay. The
+     * overlay lives in blue-authored calibration space, so red poses are
+     * mirrored first, exactly like lookupShotForAllianceInto.
+     */
+    private void learnFromKeptShotTuningSample() {
+        double calX = shotTuningPendingBotX;
+        if (GlobalRobotData.allianceSide == GlobalRobotData.COLOR.RED) {
+            calX = FIELD_WIDTH_IN - calX;
+        }
+        ShotCalibrationTable.active().learnFromKeptShot(
+                calX,
+                shotTuningPendingBotY,
+                shotTuningPendingTargetRpm,
+                shotTuningPendingHoodPos
+        );
+    }
+
     private int startDumbShootRpmLogSequence(
             long nowMs,
             int expectedShots,
@@ -2995,6 +3460,11 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
                 ShooterSubsystem.INSTANCE.getCurrentDeltaFromBaselineA(),
                 ShooterSubsystem.INSTANCE.isCurrentSpikeCandidateBaselineDelta(),
                 ShooterSubsystem.INSTANCE.isCurrentSpikeCandidateDerivative(),
+                ShooterSubsystem.INSTANCE.getObserverVelocityRpm(),
+                ShooterSubsystem.INSTANCE.getObserverAccelerationRpmPerSec(),
+                ShooterSubsystem.INSTANCE.getObserverDisturbanceRpmPerSec(),
+                ShooterSubsystem.INSTANCE.getObserverDisturbanceDeltaFromBaseline(),
+                ShooterSubsystem.INSTANCE.isObserverContactCandidate(),
                 bb0,
                 bb1,
                 bb2,
@@ -3277,178 +3747,6 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
         shotSequenceLinkedDumbShootRpmSequenceId = -1;
     }
 
-    private static class SOTMResult {
-        final boolean valid;
-        final boolean leadApplied;
-        final double speedInPerSec;
-        final double totalTimeSeconds;
-        final double leadXInches;
-        final double leadYInches;
-        final double radialVelocityInPerSec;
-        final double effectiveDistanceInches;
-        final double distanceForBallisticsInches;
-        final double turretRobotRelativeAimDeg;
-        final double turretLagCompensationDeg;
-
-        SOTMResult(
-                boolean valid,
-                boolean leadApplied,
-                double speedInPerSec,
-                double totalTimeSeconds,
-                double leadXInches,
-                double leadYInches,
-                double radialVelocityInPerSec,
-                double effectiveDistanceInches,
-                double distanceForBallisticsInches,
-                double turretRobotRelativeAimDeg,
-                double turretLagCompensationDeg
-        ) {
-            this.valid = valid;
-            this.leadApplied = leadApplied;
-            this.speedInPerSec = speedInPerSec;
-            this.totalTimeSeconds = totalTimeSeconds;
-            this.leadXInches = leadXInches;
-            this.leadYInches = leadYInches;
-            this.radialVelocityInPerSec = radialVelocityInPerSec;
-            this.effectiveDistanceInches = effectiveDistanceInches;
-            this.distanceForBallisticsInches = distanceForBallisticsInches;
-            this.turretRobotRelativeAimDeg = turretRobotRelativeAimDeg;
-            this.turretLagCompensationDeg = turretLagCompensationDeg;
-        }
-    }
-
-    private SOTMResult calculateSotmResult(
-            double botX,
-            double botY,
-            double botHeadingRad,
-            double targetX,
-            double targetY,
-            double vxInPerSec,
-            double vyInPerSec,
-            double speedInPerSec,
-            double omegaRadPerSec,
-            boolean sotmControlActive
-    ) {
-        double dx = targetX - botX;
-        double dy = targetY - botY;
-        double realDistance = Math.hypot(dx, dy);
-        if (!Double.isFinite(realDistance) || realDistance < 1e-6) {
-            return new SOTMResult(
-                    false,
-                    false,
-                    speedInPerSec,
-                    0.0,
-                    0.0,
-                    0.0,
-                    0.0,
-                    0.0,
-                    minDisatanceForShooting,
-                    0.0,
-                    0.0
-            );
-        }
-
-        double totalTimeSec = getSotmTotalTimeSeconds(realDistance);
-        double leadX = 0.0;
-        double leadY = 0.0;
-        boolean leadApplied = sotmControlActive && speedInPerSec > SOTM_MIN_SPEED_IN_PER_SEC;
-        if (leadApplied) {
-            leadX = vxInPerSec * totalTimeSec * SOTM_LEAD_GAIN;
-            leadY = vyInPerSec * totalTimeSec * SOTM_LEAD_GAIN;
-            double leadMagnitude = Math.hypot(leadX, leadY);
-            if (leadMagnitude > SOTM_MAX_LEAD_IN && leadMagnitude > 1e-6) {
-                double scale = SOTM_MAX_LEAD_IN / leadMagnitude;
-                leadX *= scale;
-                leadY *= scale;
-            }
-        }
-
-        double virtualTargetX = targetX - leadX;
-        double virtualTargetY = targetY - leadY;
-        double virtualFieldAngleRad = Math.atan2(virtualTargetY - botY, virtualTargetX - botX);
-        double turretRobotRelativeAimDeg = Math.toDegrees(normalizeRadians(virtualFieldAngleRad - botHeadingRad));
-        if (leadApplied) {
-            turretRobotRelativeAimDeg += Math.toDegrees(
-                    omegaRadPerSec * totalTimeSec * SOTM_ANGULAR_LEAD_GAIN
-            );
-        }
-
-        double turretLagCompensationDeg = 0.0;
-        if (sotmControlActive && SOTM_TURRET_LAG_COMP_ENABLED) {
-            turretLagCompensationDeg = Math.toDegrees(omegaRadPerSec) * SOTM_TURRET_LAG_COMP_SEC;
-            double maxLagCompDeg = Math.max(0.0, SOTM_TURRET_LAG_COMP_MAX_DEG);
-            turretLagCompensationDeg = Math.max(
-                    -maxLagCompDeg,
-                    Math.min(maxLagCompDeg, turretLagCompensationDeg)
-            );
-            turretRobotRelativeAimDeg += turretLagCompensationDeg;
-        }
-
-        // Keep effective distance tied to real target vector (Stage 3 guidance, avoids double-counting).
-        double radialVelocityInPerSec = (vxInPerSec * dx + vyInPerSec * dy) / realDistance;
-        double effectiveDistance = Math.max(0.0, realDistance - (radialVelocityInPerSec * totalTimeSec));
-        double distanceForBallistics = leadApplied
-                ? Math.max(minDisatanceForShooting, effectiveDistance)
-                : realDistance;
-
-        boolean valid =
-                Double.isFinite(totalTimeSec) &&
-                        Double.isFinite(leadX) &&
-                        Double.isFinite(leadY) &&
-                        Double.isFinite(radialVelocityInPerSec) &&
-                        Double.isFinite(effectiveDistance) &&
-                        Double.isFinite(distanceForBallistics) &&
-                        Double.isFinite(turretRobotRelativeAimDeg);
-
-        return new SOTMResult(
-                valid,
-                leadApplied,
-                speedInPerSec,
-                totalTimeSec,
-                leadX,
-                leadY,
-                radialVelocityInPerSec,
-                effectiveDistance,
-                distanceForBallistics,
-                turretRobotRelativeAimDeg,
-                turretLagCompensationDeg
-        );
-    }
-
-    private double getSotmTotalTimeSeconds(double distanceInches) {
-        return SOTM_MECHANICAL_DELAY_SEC +
-                SOTM_BALL_TRANSFER_TIME_SEC +
-                getSotmFlightTimeSeconds(distanceInches);
-    }
-
-    private double getSotmFlightTimeSeconds(double distanceInches) {
-        if (SOTM_USE_TOF_LOOKUP) {
-            return interpolateSotmLookup(
-                    distanceInches,
-                    SOTM_TOF_DISTANCE_IN,
-                    SOTM_TOF_FLIGHT_TIME_SEC
-            );
-        }
-        return distanceInches / Math.max(1e-6, SOTM_ESTIMATED_BALL_SPEED_IN_PER_SEC);
-    }
-
-    private static double interpolateSotmLookup(double x, double[] xs, double[] ys) {
-        if (xs.length == 0 || ys.length == 0 || xs.length != ys.length) return 0.0;
-        if (x <= xs[0]) return ys[0];
-        int last = xs.length - 1;
-        if (x >= xs[last]) return ys[last];
-
-        for (int i = 0; i < last; i++) {
-            double x0 = xs[i];
-            double x1 = xs[i + 1];
-            if (x >= x0 && x <= x1) {
-                double t = (x - x0) / Math.max(1e-6, x1 - x0);
-                return ys[i] + (t * (ys[i + 1] - ys[i]));
-            }
-        }
-        return ys[last];
-    }
-
     private double updateSotmFilteredOmega(double rawOmegaRadPerSec) {
         double alpha = Math.max(0.0, Math.min(1.0, SOTM_OMEGA_FILTER_ALPHA));
         if (!sotmOmegaFilterInitialized) {
@@ -3473,6 +3771,15 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
         return delta;
     }
 
+    /**
+     * Capture time of a Limelight frame on our nanoTime clock. The poller
+     * already backs the camera's own latency out of captureNs; the extra
+     * tunable covers anything the camera doesn't report.
+     */
+    private static long limelightCaptureNs(LimelightPoller.Sample sample) {
+        return sample.captureNs - (long) (LIMELIGHT_EXTRA_LATENCY_MS * 1e6);
+    }
+
     private static double normalizeDegrees(double angleDegrees) {
         while (angleDegrees >= 180.0) angleDegrees -= 360.0;
         while (angleDegrees < -180.0) angleDegrees += 360.0;
@@ -3487,40 +3794,25 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
      * pose across the field centerline before lookup. Zone offsets are applied
      * in that same blue-authored calibration space, then the returned aim point
      * is reflected back, so the same table and trims drive both sides.
-     * Uses Pedro's {@link Pose#mirror(double)} so the mirror axis stays
-     * consistent with everywhere else we flip red/blue poses, and the
+     * The reflection is the (x, y) half of Pedro's {@link Pose#mirror(double)},
+     * done in place on primitives so nothing is allocated per loop; the
      * field-width argument lets us retune if an event's field is sized
      * slightly differently than the nominal 144".
      * RPM and hood position are invariant under the mirror (distance to the
      * mirrored goal equals distance to the real goal), so they pass through
      * unchanged.
      */
-    private static ShotSolution lookupShotForAlliance(double botX, double botY) {
+    private static void lookupShotForAllianceInto(double botX, double botY, MutableShotSolution out) {
         boolean isRed = GlobalRobotData.allianceSide == GlobalRobotData.COLOR.RED;
         if (!isRed) {
-            return applyShotZoneOffsets(
-                    botX,
-                    botY,
-                    ShotCalibrationTable.active().lookup(botX, botY)
-            );
+            ShotCalibrationTable.active().lookupInto(botX, botY, out);
+            applyShotZoneOffsets(botX, botY, out);
+            return;
         }
-        Pose mirroredBot = new Pose(botX, botY, 0.0).mirror(FIELD_WIDTH_IN);
-        ShotSolution sol = applyShotZoneOffsets(
-                mirroredBot.getX(),
-                mirroredBot.getY(),
-                ShotCalibrationTable.active().lookup(mirroredBot.getX(), mirroredBot.getY())
-        );
-        Pose mirroredAim = new Pose(sol.aimX, sol.aimY, 0.0).mirror(FIELD_WIDTH_IN);
-        return new ShotSolution(
-                sol.rpm,
-                sol.hoodPos,
-                mirroredAim.getX(),
-                mirroredAim.getY(),
-                sol.sourceIdxs,
-                sol.weights,
-                sol.extrapolated,
-                sol.nearestDistanceIn
-        );
+        double mirroredBotX = FIELD_WIDTH_IN - botX;
+        ShotCalibrationTable.active().lookupInto(mirroredBotX, botY, out);
+        applyShotZoneOffsets(mirroredBotX, botY, out);
+        out.mirrorAim(FIELD_WIDTH_IN);
     }
 
     /**
@@ -3528,63 +3820,25 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
      * legal shooting zone that contains the current robot pose. OUT-of-zone
      * poses are left unchanged so diagnostics near boundaries do not get an
      * unexpected trim. Callers pass blue-side coordinates, so the same offsets
-     * are mirror-safe for both alliances.
+     * are mirror-safe for both alliances. Modifies {@code sol} in place.
      */
-    private static ShotSolution applyShotZoneOffsets(double botX, double botY, ShotSolution baseSol) {
+    private static void applyShotZoneOffsets(double botX, double botY, MutableShotSolution sol) {
         String zone = ShootingZones.zoneLabel(botX, botY);
-        double rpmOffset = 0.0;
-        double aimXOffset = 0.0;
-        double aimYOffset = 0.0;
         if ("A".equals(zone)) {
-            rpmOffset = SHOT_ZONE_A_RPM_OFFSET;
-            aimXOffset = SHOT_ZONE_A_TARGET_X_OFFSET_IN;
-            aimYOffset = SHOT_ZONE_A_TARGET_Y_OFFSET_IN;
+            sol.rpm += SHOT_ZONE_A_RPM_OFFSET;
+            sol.aimX += SHOT_ZONE_A_TARGET_X_OFFSET_IN;
+            sol.aimY += SHOT_ZONE_A_TARGET_Y_OFFSET_IN;
         } else if ("B".equals(zone)) {
-            rpmOffset = SHOT_ZONE_B_RPM_OFFSET;
-            aimXOffset = SHOT_ZONE_B_TARGET_X_OFFSET_IN;
-            aimYOffset = SHOT_ZONE_B_TARGET_Y_OFFSET_IN;
-        }
-        if (Math.abs(rpmOffset) < 1e-6 &&
-                Math.abs(aimXOffset) < 1e-6 &&
-                Math.abs(aimYOffset) < 1e-6) {
-            return baseSol;
-        }
-        return new ShotSolution(
-                baseSol.rpm + rpmOffset,
-                baseSol.hoodPos,
-                baseSol.aimX + aimXOffset,
-                baseSol.aimY + aimYOffset,
-                baseSol.sourceIdxs,
-                baseSol.weights,
-                baseSol.extrapolated,
-                baseSol.nearestDistanceIn
-        );
-    }
-
-    private static Pose convertLimelightBotposeToPedro(Pose3D botpose) {
-        double xInches = DistanceUnit.METER.toInches(botpose.getPosition().x);
-        double yInches = DistanceUnit.METER.toInches(botpose.getPosition().y);
-        Pose2D pose2d = new Pose2D(
-                DistanceUnit.INCH,
-                xInches,
-                yInches,
-                AngleUnit.DEGREES,
-                botpose.getOrientation().getYaw()
-        );
-        Pose ftcStandardPose = PoseConverter.pose2DToPose(pose2d, InvertedFTCCoordinates.INSTANCE);
-        return new Pose(
-                (ftcStandardPose.getY() + 72),
-                (-(ftcStandardPose.getX()) + 72),
-                ftcStandardPose.getHeading() - Math.toRadians(90)
-        );
+            sol.rpm += SHOT_ZONE_B_RPM_OFFSET;
+            sol.aimX += SHOT_ZONE_B_TARGET_X_OFFSET_IN;
+            sol.aimY += SHOT_ZONE_B_TARGET_Y_OFFSET_IN;
+        }
     }
 
     private void resetLimelightVisionBlendState() {
-        Arrays.fill(limelightVisionDxHistory, 0.0);
-        Arrays.fill(limelightVisionDyHistory, 0.0);
-        Arrays.fill(limelightVisionDhHistoryDeg, 0.0);
-        limelightVisionHistoryNextIdx = 0;
-        limelightVisionHistoryFill = 0;
+        limelightVisionDxHistory.clear();
+        limelightVisionDyHistory.clear();
+        limelightVisionDhHistoryDeg.clear();
         limelightVisionBiasXIn = 0.0;
         limelightVisionBiasYIn = 0.0;
         limelightVisionBiasHeadingDeg = 0.0;
@@ -3593,6 +3847,8 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
         limelightVisionLastNudgeHeadingDeg = 0.0;
         limelightVisionLoopsSinceApply = Integer.MAX_VALUE / 2;
         limelightVisionConsecutiveAccepts = 0;
+        // Offsets are cleared below, so poses recorded under them no longer match.
+        poseHistory.clear();
         // Also clear any trim the PoseTracker currently has applied so the
         // next correction starts from a clean slate (important after dpad-up
         // emergency full-pose reset, which already zeroes offsets internally,
@@ -3608,37 +3864,13 @@ public class    Pickles2025Teleop extends NextFTCOpMode {
     }
 
     private void pushLimelightVisionHistory(double dxIn, double dyIn, double dhDeg) {
-        limelightVisionDxHistory[limelightVisionHistoryNextIdx] = dxIn;
-        limelightVisionDyHistory[limelightVisionHistoryNextIdx] = dyIn;
-        limelightVisionDhHistoryDeg[limelightVisionHistoryNextIdx] = dhDeg;
-        limelightVisionHistoryNextIdx =
-                (limelightVisionHistoryNextIdx + 1) % LIMELIGHT_VISION_HISTORY_CAPACITY;
-        limelightVisionHistoryFill = Math.min(
-                LIMELIGHT_VISION_HISTORY_CAPACITY,
-                limelightVisionHistoryFill + 1
-        );
-    }
-
-    private double getRecentVisionHistoryMedian(double[] history) {
-        int count = Math.min(
-                Math.max(1, LIMELIGHT_VISION_BIAS_WINDOW),
-                Math.min(limelightVisionHistoryFill, LIMELIGHT_VISION_HISTORY_CAPACITY)
-        );
-        if (count <= 0) {
-            return 0.0;
-        }
-        double[] values = new double[count];
-        for (int i = 0; i < count; i++) {
-            int historyIdx = limelightVisionHistoryNextIdx - count + i;
-            while (historyIdx < 0) historyIdx += LIMELIGHT_VISION_HISTORY_CAPACITY;
-            values[i] = history[historyIdx % LIMELIGHT_VISION_HISTORY_CAPACITY];
-        }
-        Arrays.sort(values);
-        int mid = count / 2;
-        if ((count & 1) == 1) {
-            return values[mid];
-        }
-        return 0.5 * (values[mid - 1] + values[mid]);
+        int window = Math.max(1, LIMELIGHT_VISION_BIAS_WINDOW);
+        limelightVisionDxHistory.setWindow(window);
+        limelightVisionDyHistory.setWindow(window);
+        limelightVisionDhHistoryDeg.setWindow(window);
+        limelightVisionDxHistory.add(dxIn);
+        limelightVisionDyHistory.add(dyIn);
+        limelightVisionDhHistoryDeg.add(dhDeg);
     }
 
     private double normalizeRadians(double angle) {
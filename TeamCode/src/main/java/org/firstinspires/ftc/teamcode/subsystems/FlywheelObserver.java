@@ -0,0 +1,179 @@
+package org.firstinspires.ftc.teamcode.subsystems;
+
+import com.bylazar.configurables.annotations.Configurable;
+
+/**
+ * Kalman filter over the shooter flywheel, owned by {@link ShooterSubsystem}.
+ *
+ * State is x = [velocity (RPM), acceleration (RPM/s), load disturbance (RPM/s)].
+ * The plant is the same voltage model the feedforward uses,
+ *   u * V / V_nominal = kS * sign(w) + kV * w + kA * (a + d),
+ * so the model's net acceleration is a + d = (u_eff - kS - kV * w) / kA and the
+ * disturbance d is whatever decelerates the wheel beyond that: friction the
+ * gains do not capture and, in bursts, the ball squeezing through.
+ *
+ * Two measurements each loop:
+ * - encoder-delta average RPM, H = [1, 0, 0];
+ * - average motor current, which is proportional to the torque the motors are
+ *   actually producing: I = I_free + AMPS_PER_ACCEL * (a + d), H = [0, k, k].
+ * Current reacts in the same loop a ball touches the wheel, while the encoder
+ * needs a few loops of quantized ticks to show the drop, so together they
+ * separate "the wheel is slowing" from "something is loading it" much sooner
+ * than either EMA-plus-threshold signal alone.
+ *
+ * Ball contact is then a spike in d relative to its value when the shot
+ * sequence started (see {@link ShooterSubsystem#isObserverContactCandidate()}).
+ *
+ * All scalar math on fixed arrays; nothing allocates per update.
+ */
+@Configurable
+public final class FlywheelObserver {
+    // Used when ShooterSubsystem.kA is still 0 (hand-tuned gains). Roughly
+    // (1 - kS - kV * 1750) / 3500 from a ~1 s full-power spin-up to 3500 RPM.
+    public static double FLYWHEEL_OBS_KA_FALLBACK = 0.00018;
+    // Continuous process noise spectral densities (per second).
+    public static double FLYWHEEL_OBS_Q_VELOCITY = 100.0;
+    public static double FLYWHEEL_OBS_Q_ACCEL = 4.0e6;
+    public static double FLYWHEEL_OBS_Q_DISTURBANCE = 4.0e8;
+    // Encoder-delta RPM is quantized to ~145 RPM per tick at a 20 ms loop (~42 RPM
+    // stddev); slightly under that so a real drop pulls the estimate within a loop.
+    public static double FLYWHEEL_OBS_VELOCITY_STDDEV_RPM = 40.0;
+    public static double FLYWHEEL_OBS_CURRENT_STDDEV_A = 0.15;
+    public static double FLYWHEEL_OBS_FREE_CURRENT_A = 0.5;
+    public static double FLYWHEEL_OBS_AMPS_PER_RPM_PER_SEC = 0.002;
+    public static double FLYWHEEL_OBS_NOMINAL_V = 12.0;
+
+    private final double[] x = new double[3];
+    private final double[] p = new double[9];
+    // Scratch for predict().
+    private final double[] fp = new double[9];
+    private boolean initialized = false;
+
+    /** Forgets all state; the next update re-seeds from the measurement. */
+    public void reset() {
+        initialized = false;
+        x[0] = 0.0;
+        x[1] = 0.0;
+        x[2] = 0.0;
+    }
+
+    /**
+     * One filter step.
+     *
+     * @param dt              seconds since the previous step
+     * @param appliedPower    motor power that was applied over that interval
+     * @param batteryVoltage  filtered battery voltage, NaN if unknown
+     * @param measuredRpm     encoder-delta average RPM
+     * @param measuredCurrentA average motor current, NaN to skip the current update
+     */
+    public void update(double dt, double appliedPower, double batteryVoltage,
+                       double measuredRpm, double measuredCurrentA) {
+        if (!initialized) {
+            x[0] = measuredRpm;
+            x[1] = 0.0;
+            x[2] = 0.0;
+            double velVar = square(FLYWHEEL_OBS_VELOCITY_STDDEV_RPM);
+            p[0] = velVar; p[1] = 0.0; p[2] = 0.0;
+            p[3] = 0.0; p[4] = 1.0e6; p[5] = 0.0;
+            p[6] = 0.0; p[7] = 0.0; p[8] = 1.0e6;
+            initialized = true;
+            return;
+        }
+        if (!(dt > 0.0)) {
+            return;
+        }
+        predict(dt, appliedPower, batteryVoltage);
+        correct(1.0, 0.0, 0.0, measuredRpm, square(FLYWHEEL_OBS_VELOCITY_STDDEV_RPM));
+        if (Double.isFinite(measuredCurrentA) && FLYWHEEL_OBS_AMPS_PER_RPM_PER_SEC > 0.0) {
+            double k = FLYWHEEL_OBS_AMPS_PER_RPM_PER_SEC;
+            // I - I_free = k * (a + d)
+            correct(0.0, k, k, measuredCurrentA - FLYWHEEL_OBS_FREE_CURRENT_A,
+                    square(FLYWHEEL_OBS_CURRENT_STDDEV_A));
+        }
+    }
+
+    public double getVelocityRpm() {
+        return x[0];
+    }
+
+    public double getAccelerationRpmPerSec() {
+        return x[1];
+    }
+
+    /** Positive = something is decelerating the wheel beyond the model. */
+    public double getDisturbanceRpmPerSec() {
+        return x[2];
+    }
+
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    private void predict(double dt, double u, double batteryVoltage) {
+        double kA = ShooterSubsystem.kA > 0.0 ? ShooterSubsystem.kA : Math.max(1e-9, FLYWHEEL_OBS_KA_FALLBACK);
+        double a = ShooterSubsystem.kV / kA;
+        double voltageScale = Double.isFinite(batteryVoltage) && batteryVoltage > 1.0
+                ? batteryVoltage / Math.max(0.1, FLYWHEEL_OBS_NOMINAL_V)
+                : 1.0;
+        double staticTerm = ShooterSubsystem.kS * Math.signum(x[0]);
+        double drive = (u * voltageScale - staticTerm) / kA;
+
+        // F = [[1, dt, 0], [-a, 0, -1], [0, 0, 1]]
+        // Acceleration is re-derived from the plant each step (a + d = drive - a*w),
+        // so its own process noise covers model error between steps.
+        double w = x[0];
+        double d = x[2];
+        x[0] = w + x[1] * dt;
+        x[1] = drive - a * w - d;
+        // x[2] is a random walk.
+
+        // fp = F * P
+        for (int c = 0; c < 3; c++) {
+            double p0 = p[c];
+            double p1 = p[3 + c];
+            double p2 = p[6 + c];
+            fp[c] = p0 + dt * p1;
+            fp[3 + c] = -a * p0 - p2;
+            fp[6 + c] = p2;
+        }
+        // P = fp * F^T + Q * dt
+        for (int r = 0; r < 3; r++) {
+            double f0 = fp[3 * r];
+            double f1 = fp[3 * r + 1];
+            double f2 = fp[3 * r + 2];
+            p[3 * r] = f0 + dt * f1;
+            p[3 * r + 1] = -a * f0 - f2;
+            p[3 * r + 2] = f2;
+        }
+        p[0] += FLYWHEEL_OBS_Q_VELOCITY * dt;
+        p[4] += FLYWHEEL_OBS_Q_ACCEL * dt;
+        p[8] += FLYWHEEL_OBS_Q_DISTURBANCE * dt;
+    }
+
+    /** Scalar measurement update z = h . x + noise(r). */
+    private void correct(double h0, double h1, double h2, double z, double r) {
+        // ph = P * h^T
+        double ph0 = p[0] * h0 + p[1] * h1 + p[2] * h2;
+        double ph1 = p[3] * h0 + p[4] * h1 + p[5] * h2;
+        double ph2 = p[6] * h0 + p[7] * h1 + p[8] * h2;
+        double s = h0 * ph0 + h1 * ph1 + h2 * ph2 + Math.max(1e-9, r);
+        double k0 = ph0 / s;
+        double k1 = ph1 / s;
+        double k2 = ph2 / s;
+        double innovation = z - (h0 * x[0] + h1 * x[1] + h2 * x[2]);
+        x[0] += k0 * innovation;
+        x[1] += k1 * innovation;
+        x[2] += k2 * innovation;
+        // P -= K * (h P); h P = ph^T since P is symmetric.
+        for (int c = 0; c < 3; c++) {
+            double hp = c == 0 ? ph0 : (c == 1 ? ph1 : ph2);
+            p[c] -= k0 * hp;
+            p[3 + c] -= k1 * hp;
+            p[6 + c] -= k2 * hp;
+        }
+    }
+
+    private static double square(double v) {
+        return v * v;
+    }
+}
@@ -6,7 +6,14 @@ import com.qualcomm.robotcore.hardware.DcMotor;
 import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.hardware.DcMotorSimple;
 import com.qualcomm.robotcore.hardware.DigitalChannel;
+import com.qualcomm.robotcore.hardware.HardwareMap;
 import com.qualcomm.robotcore.util.ElapsedTime;
+import org.firstinspires.ftc.teamcode.util.CachedCRServo;
+import org.firstinspires.ftc.teamcode.util.CachedMotor;
+import org.firstinspires.ftc.teamcode.util.LoopProfiler;
+import org.firstinspires.ftc.teamcode.util.RobotClock;
+import org.firstinspires.ftc.teamcode.util.SignalBus;
+import org.firstinspires.ftc.teamcode.util.SubsystemScheduler;
 
 import dev.nextftc.core.subsystems.Subsystem;
 import dev.nextftc.ftc.ActiveOpMode;
@@ -31,6 +38,13 @@ import dev.nextftc.ftc.ActiveOpMode;
 public class IntakeWithSensorsSubsystem implements Subsystem {
 
     public static final IntakeWithSensorsSubsystem INSTANCE = new IntakeWithSensorsSubsystem();
+
+    private static final int PROFILE_SECTION = LoopProfiler.INSTANCE.section("intake_periodic");
+    // CRITICAL: periodic() stops the single-ball feed when sensor2 clears and
+    // runs the breakbeam counting / motor-enable checks, so it is never skipped.
+    private static final int SCHEDULE_TASK = SubsystemScheduler.INSTANCE.register(
+            "intake", SubsystemScheduler.Priority.CRITICAL);
+
     private IntakeWithSensorsSubsystem() {}
 
     // =============================================
@@ -102,6 +116,9 @@ public class IntakeWithSensorsSubsystem implements Subsystem {
 
     private DcMotorEx m1, m3;
     private CRServo s2, s3;
+    // All power/velocity writes go through these so repeats are not re-sent.
+    private CachedMotor m1Cached, m3Cached;
+    private CachedCRServo s2Cached, s3Cached;
     private DigitalChannel sensor0, sensor1, sensor2;
 
     // =============================================
@@ -168,6 +185,11 @@ public class IntakeWithSensorsSubsystem implements Subsystem {
 
     @Override
     public void initialize() {
+        initialize(ActiveOpMode.hardwareMap());
+    }
+
+    /** Same as {@link #initialize()}, against an explicit map. */
+    public void initialize(HardwareMap hardwareMap) {
         // IntakeWithSensorsSubsystem is a process-wide singleton (INSTANCE), so every
         // non-static-final field persists across OpMode runs for the lifetime of the
         // robot-controller app. Without an explicit reset, ballCount,
@@ -179,17 +201,22 @@ public class IntakeWithSensorsSubsystem implements Subsystem {
         resetAllRuntimeState();
 
         // Initialize motors
-        m1 = ActiveOpMode.hardwareMap().get(DcMotorEx.class, "intake_motor");
-        m3 = ActiveOpMode.hardwareMap().get(DcMotorEx.class, "intake_motor2");
+        m1 = hardwareMap.get(DcMotorEx.class, "intake_motor");
+        m3 = hardwareMap.get(DcMotorEx.class, "intake_motor2");
 
         // Initialize servos
-        s2 = ActiveOpMode.hardwareMap().get(CRServo.class, "intake_servo1");
-        s3 = ActiveOpMode.hardwareMap().get(CRServo.class, "intake_servo2");
+        s2 = hardwareMap.get(CRServo.class, "intake_servo1");
+        s3 = hardwareMap.get(CRServo.class, "intake_servo2");
+
+        m1Cached = new CachedMotor(m1);
+        m3Cached = new CachedMotor(m3);
+        s2Cached = new CachedCRServo(s2);
+        s3Cached = new CachedCRServo(s3);
 
         // Initialize sensors
-        sensor0 = ActiveOpMode.hardwareMap().get(DigitalChannel.class, "breakbeam0");
-        sensor1 = ActiveOpMode.hardwareMap().get(DigitalChannel.class, "breakbeam1");
-        sensor2 = ActiveOpMode.hardwareMap().get(DigitalChannel.class, "breakbeam2");
+        sensor0 = hardwareMap.get(DigitalChannel.class, "breakbeam0");
+        sensor1 = hardwareMap.get(DigitalChannel.class, "breakbeam1");
+        sensor2 = hardwareMap.get(DigitalChannel.class, "breakbeam2");
 
         // Configure motors
         m1.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
@@ -216,10 +243,23 @@ public class IntakeWithSensorsSubsystem implements Subsystem {
 
         // Belt-and-suspenders: force hardware to zero now that refs are live. Protects
         // against any path that reads stale commanded power before periodic() runs.
-        m1.setPower(0.0);
-        m3.setPower(0.0);
-        s2.setPower(0.0);
-        s3.setPower(0.0);
+        m1Cached.setPower(0.0);
+        m3Cached.setPower(0.0);
+        s2Cached.setPower(0.0);
+        s3Cached.setPower(0.0);
+
+        publishSignals();
+    }
+
+    /** Registers the intake's loggable state on the SignalBus (CSV column names). */
+    private void publishSignals() {
+        SignalBus bus = SignalBus.INSTANCE;
+        bus.publishLong("ball_count", this::getBallCount);
+        bus.publishLong("intake_m1_ticks", this::getMotor1EncoderTicks);
+        bus.publishLong("intake_m3_ticks", this::getMotor3EncoderTicks);
+        bus.publishBoolean("bb0", this::isSensor0Broken);
+        bus.publishBoolean("bb1", this::isSensor1Broken);
+        bus.publishBoolean("bb2", this::isSensor2Broken);
     }
 
     /**
@@ -275,6 +315,15 @@ public class IntakeWithSensorsSubsystem implements Subsystem {
 
     @Override
     public void periodic() {
+        if (!SubsystemScheduler.INSTANCE.shouldRun(SCHEDULE_TASK, 0L, 0L)) {
+            return;
+        }
+        long profileStartNs = LoopProfiler.INSTANCE.start();
+        runPeriodic();
+        LoopProfiler.INSTANCE.stop(PROFILE_SECTION, profileStartNs);
+    }
+
+    private void runPeriodic() {
         if (dumbShootOpenLoopActive) {
             updateDumbShootOpenLoop();
             return;
@@ -292,7 +341,7 @@ public class IntakeWithSensorsSubsystem implements Subsystem {
         
         // 2) Handle multi-single-shot sequence between feeds
         if (multiSingleShotActive) {
-            long now = System.currentTimeMillis();
+            long now = RobotClock.currentTimeMillis();
 
             // If it's time for the next shot in the sequence, start another single-ball feed
             if (nextMultiSingleShotStartTimeMs == 0L || now >= nextMultiSingleShotStartTimeMs) {
@@ -347,7 +396,7 @@ public class IntakeWithSensorsSubsystem implements Subsystem {
      * Decrements ballCount by 1 (clamped to >= 0).
      */
     private void updateSingleBallFeed() {
-        long now = System.currentTimeMillis();
+        long now = RobotClock.currentTimeMillis();
         boolean currentBroken = isSensor2Broken();
         
         // Check for timeout - if ball hasn't cleared sensor within timeout,
@@ -388,7 +437,7 @@ public class IntakeWithSensorsSubsystem implements Subsystem {
     public void updateShooting() {
         if (!shootSequenceActive) return;
 
-        long now = System.currentTimeMillis();
+        long now = RobotClock.currentTimeMillis();
 
         // 1️⃣ Currently shooting a ball
         if (shotInProgress) {
@@ -436,12 +485,12 @@ public class IntakeWithSensorsSubsystem implements Subsystem {
         shotInProgress = true;
 
         // Start feeder/indexer motors
-        m1.setVelocity(rpmToTicksPerSecond(M1_SHOOT_RPM, m1TicksPerRev));
-        m3.setVelocity(rpmToTicksPerSecond(M3_SHOOT_RPM, m3TicksPerRev));
-        s2.setPower(S2_SHOOT_SPEED);
-        s3.setPower(S3_SHOOT_SPEED);
+        m1Cached.setVelocity(rpmToTicksPerSecond(M1_SHOOT_RPM, m1TicksPerRev));
+        m3Cached.setVelocity(rpmToTicksPerSecond(M3_SHOOT_RPM, m3TicksPerRev));
+        s2Cached.setPower(S2_SHOOT_SPEED);
+        s3Cached.setPower(S3_SHOOT_SPEED);
 
-        shootEndTime = System.currentTimeMillis() + SHOT_TIME;
+        shootEndTime = RobotClock.currentTimeMillis() + SHOT_TIME;
     }
 
     // =============================================
@@ -558,7 +607,7 @@ public class IntakeWithSensorsSubsystem implements Subsystem {
         multiSingleShotActive = false;
         shooting = false;
         
-        dumbShootStartTimeMs = System.currentTimeMillis();
+        dumbShootStartTimeMs = RobotClock.currentTimeMillis();
         updateDumbShootOpenLoop();
         
         ballCount = 0;
@@ -582,10 +631,10 @@ public class IntakeWithSensorsSubsystem implements Subsystem {
         disableDumbShootOpenLoopIfNeeded();
 
         isIntaking = false;
-        m1.setPower(0.0);
-        m3.setPower(0.0);
-        s2.setPower(0.0);
-        s3.setPower(0.0);
+        m1Cached.setPower(0.0);
+        m3Cached.setPower(0.0);
+        s2Cached.setPower(0.0);
+        s3Cached.setPower(0.0);
     }
 
 //    public void setDumbShootDistanceForDelayInches(double distanceInches) {
@@ -666,7 +715,7 @@ public class IntakeWithSensorsSubsystem implements Subsystem {
         shooting = false;
         shotInProgress = false; // start as false
         currentShot = 0;
-        nextShotTime = System.currentTimeMillis() + shotDuration; // start immediately
+        nextShotTime = RobotClock.currentTimeMillis() + shotDuration; // start immediately
         shootTimer.reset();
 
         // Enable motors again for safety
@@ -723,13 +772,13 @@ public class IntakeWithSensorsSubsystem implements Subsystem {
 
         // Start full-power feed
         singleBallFeedActive = true;
-        singleBallFeedStartTimeMs = System.currentTimeMillis();  // Record start time for timeout
+        singleBallFeedStartTimeMs = RobotClock.currentTimeMillis();  // Record start time for timeout
         prevSensor2BrokenForSingleFeed = isSensor2Broken();
 
-        m1.setPower(M1_SINGLE_SHOT_POWER);
-        m3.setPower(M3_SINGLE_SHOT_POWER);
-        s2.setPower(S2_SINGLE_SHOT_POWER);
-        s3.setPower(S3_SINGLE_SHOT_POWER);
+        m1Cached.setPower(M1_SINGLE_SHOT_POWER);
+        m3Cached.setPower(M3_SINGLE_SHOT_POWER);
+        s2Cached.setPower(S2_SINGLE_SHOT_POWER);
+        s3Cached.setPower(S3_SINGLE_SHOT_POWER);
 
         return true;
     }
@@ -905,23 +954,23 @@ public class IntakeWithSensorsSubsystem implements Subsystem {
 
         // Set motors based on enabled state
         if (m1Enabled) {
-            m1.setVelocity(m1Velocity);
+            m1Cached.setVelocity(m1Velocity);
         } else {
-            m1.setVelocity(m1HoldVelocity);
+            m1Cached.setVelocity(m1HoldVelocity);
         }
 
         if (m2Enabled) {
-            s2.setPower(direction * s2IntakeSpeed);
-            s3.setPower(direction * s3IntakeSpeed);
+            s2Cached.setPower(direction * s2IntakeSpeed);
+            s3Cached.setPower(direction * s3IntakeSpeed);
         } else {
-            s2.setPower(S2_HOLD_POWER_OCCUPIED);
-            s3.setPower(S3_HOLD_POWER_OCCUPIED);
+            s2Cached.setPower(S2_HOLD_POWER_OCCUPIED);
+            s3Cached.setPower(S3_HOLD_POWER_OCCUPIED);
         }
 
         if (m3Enabled) {
-            m3.setVelocity(m3Velocity);
+            m3Cached.setVelocity(m3Velocity);
         } else {
-            m3.setVelocity(m3HoldVelocity);
+            m3Cached.setVelocity(m3HoldVelocity);
         }
     }
 
@@ -939,20 +988,24 @@ public class IntakeWithSensorsSubsystem implements Subsystem {
         if (dumbShootOpenLoopActive) return;
         m1.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
         m3.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        m1Cached.invalidate();
+        m3Cached.invalidate();
         dumbShootOpenLoopActive = true;
-        dumbShootStartTimeMs = System.currentTimeMillis();
+        dumbShootStartTimeMs = RobotClock.currentTimeMillis();
     }
 
     private void disableDumbShootOpenLoopIfNeeded() {
         if (!dumbShootOpenLoopActive) return;
         m1.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
         m3.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+        m1Cached.invalidate();
+        m3Cached.invalidate();
         dumbShootOpenLoopActive = false;
         dumbShootStartTimeMs = 0L;
     }
 
     private void updateDumbShootOpenLoop() {
-        long nowMs = System.currentTimeMillis();
+        long nowMs = RobotClock.currentTimeMillis();
 
         boolean usingFixedDelay = dumbShootFixedDelayOverrideMs >= 0L;
 
@@ -977,20 +1030,20 @@ public class IntakeWithSensorsSubsystem implements Subsystem {
         boolean enableFeedM2 = elapsedMs >= effectiveDelayM2Ms;
 
         // Always immediately feed the first ball.
-        m3.setPower(DUMBSHOOT_M3_POWER);
+        m3Cached.setPower(DUMBSHOOT_M3_POWER);
 
         if (enableFeedM1) {
-            m1.setPower(DUMBSHOOT_M1_POWER);
+            m1Cached.setPower(DUMBSHOOT_M1_POWER);
         } else {
-            m1.setPower(0.0);
+            m1Cached.setPower(0.0);
         }
 
         if (enableFeedM2) {
-            s2.setPower(DUMBSHOOT_M2_POWER);
-            s3.setPower(DUMBSHOOT_M2_POWER);
+            s2Cached.setPower(DUMBSHOOT_M2_POWER);
+            s3Cached.setPower(DUMBSHOOT_M2_POWER);
         } else {
-            s2.setPower(0.0);
-            s3.setPower(0.0);
+            s2Cached.setPower(0.0);
+            s3Cached.setPower(0.0);
         }
     }
 
@@ -1,9 +1,13 @@
 package org.firstinspires.ftc.teamcode.subsystems;
 
 import com.bylazar.configurables.annotations.Configurable;
+import com.qualcomm.robotcore.hardware.HardwareMap;
 import com.qualcomm.robotcore.hardware.Servo;
 import com.qualcomm.robotcore.util.ElapsedTime;
 import com.qualcomm.robotcore.util.Range;
+import org.firstinspires.ftc.teamcode.util.CachedServo;
+import org.firstinspires.ftc.teamcode.util.LoopProfiler;
+import org.firstinspires.ftc.teamcode.util.SubsystemScheduler;
 
 import java.util.function.DoubleSupplier;
 
@@ -24,6 +28,11 @@ import dev.nextftc.ftc.ActiveOpMode;
 public class LEDControlSubsystem implements Subsystem {
 
     public static final LEDControlSubsystem INSTANCE = new LEDControlSubsystem();
+
+    private static final int PROFILE_SECTION = LoopProfiler.INSTANCE.section("led_periodic");
+    private static final int SCHEDULE_TASK = SubsystemScheduler.INSTANCE.register(
+            "led", SubsystemScheduler.Priority.LOW);
+
     private LEDControlSubsystem() {}
 
     // =============================================
@@ -38,13 +47,17 @@ public class LEDControlSubsystem implements Subsystem {
     public static double YELLOW_POSITION = 0.36;
     public static double ORANGE_POSITION = 0.33;
     public static double STROBE_INTERVAL_MS = 250.0;
+    // The strobe is the only periodic work; 20 Hz is plenty for it.
+    public static long LED_PERIODIC_PERIOD_MS = 50L;
+    public static long LED_MAX_DEFER_MS = 500L;
 
     // =============================================
     // HARDWARE
     // =============================================
 
-    private Servo led1;
-    private Servo led2;
+    // Cached so the same color is not re-sent every loop.
+    private CachedServo led1;
+    private CachedServo led2;
 
     // =============================================
     // STATE TRACKING
@@ -66,8 +79,13 @@ public class LEDControlSubsystem implements Subsystem {
 
     @Override
     public void initialize() {
-        led1 = ActiveOpMode.hardwareMap().get(Servo.class, "rgb_color_PWM1");
-        led2 = ActiveOpMode.hardwareMap().get(Servo.class, "rgb_color_PWM2");
+        initialize(ActiveOpMode.hardwareMap());
+    }
+
+    /** Same as {@link #initialize()}, against an explicit map. */
+    public void initialize(HardwareMap hardwareMap) {
+        led1 = new CachedServo(hardwareMap.get(Servo.class, "rgb_color_PWM1"));
+        led2 = new CachedServo(hardwareMap.get(Servo.class, "rgb_color_PWM2"));
 
         applyTargets();
         strobeTimer.reset();
@@ -79,6 +97,15 @@ public class LEDControlSubsystem implements Subsystem {
 
     @Override
     public void periodic() {
+        if (!SubsystemScheduler.INSTANCE.shouldRun(SCHEDULE_TASK, LED_PERIODIC_PERIOD_MS, LED_MAX_DEFER_MS)) {
+            return;
+        }
+        long profileStartNs = LoopProfiler.INSTANCE.start();
+        runPeriodic();
+        LoopProfiler.INSTANCE.stop(PROFILE_SECTION, profileStartNs);
+    }
+
+    private void runPeriodic() {
         if (strobing && strobeTimer.milliseconds() >= strobeIntervalMs) {
             toggleStrobeColors();
             strobeTimer.reset();
@@ -1,12 +1,31 @@
 package org.firstinspires.ftc.teamcode.subsystems;
 
+import android.os.Environment;
+
 import com.bylazar.configurables.annotations.Configurable;
 import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.hardware.DcMotorSimple;
+import com.qualcomm.robotcore.hardware.HardwareMap;
 import com.qualcomm.robotcore.hardware.Servo;
 import com.qualcomm.robotcore.hardware.VoltageSensor;
 import com.qualcomm.robotcore.util.Range;
+import com.qualcomm.robotcore.util.RobotLog;
 import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit;
+import org.firstinspires.ftc.teamcode.util.CachedMotor;
+import org.firstinspires.ftc.teamcode.util.CachedServo;
+import org.firstinspires.ftc.teamcode.util.LoopProfiler;
+import org.firstinspires.ftc.teamcode.util.RobotClock;
+import org.firstinspires.ftc.teamcode.util.SignalBus;
+import org.firstinspires.ftc.teamcode.util.SlidingMedian;
+import org.firstinspires.ftc.teamcode.util.SubsystemScheduler;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
 
 import dev.nextftc.core.subsystems.Subsystem;
 import dev.nextftc.ftc.ActiveOpMode;
@@ -22,6 +41,15 @@ import dev.nextftc.ftc.ActiveOpMode;
 public class ShooterSubsystem implements Subsystem {
 
     public static final ShooterSubsystem INSTANCE = new ShooterSubsystem();
+
+    private static final int PROFILE_SECTION = LoopProfiler.INSTANCE.section("shooter_periodic");
+    private static final int SCHEDULE_TASK = SubsystemScheduler.INSTANCE.register(
+            "shooter", SubsystemScheduler.Priority.CRITICAL);
+    // Reading every VoltageSensor is a hub transaction each; the filtered
+    // value (tau VOLTAGE_COMP_FILTER_TAU_SEC) does not need it every loop.
+    private static final int VOLTAGE_SAMPLE_TASK = SubsystemScheduler.INSTANCE.register(
+            "shooter_voltage", SubsystemScheduler.Priority.LOW);
+
     private ShooterSubsystem() {}
 
     // =============================================
@@ -39,6 +67,12 @@ public class ShooterSubsystem implements Subsystem {
     public static double kV = 0.000113; //check voltage needed at about 2500rpm and 4000rpm, and then determine the kV slope required with kS
     public static double kA = 0.00000;
 
+    // kS / kV / kA fitted by FlywheelSysIdOpMode are saved here and loaded over the
+    // values above on every initialize(). Delete the file (or turn this off) to go
+    // back to the hand-tuned gains.
+    public static boolean LOAD_PERSISTED_FEEDFORWARD = true;
+    public static String FEEDFORWARD_CONFIG_PATH = "FIRST/shooter_feedforward.properties";
+
     public static double HEADROOM = 0.10;
     public static double CONTACT_DROOP_RPM = 50.0;
     public static double SLEW_PER_SECOND = 1.5;
@@ -104,6 +138,8 @@ public class ShooterSubsystem implements Subsystem {
     public static double VOLTAGE_COMP_MIN_GAIN = 1.00;
     public static double VOLTAGE_COMP_MAX_GAIN = 1.10;
     public static double VOLTAGE_COMP_MIN_VALID_V = 7.0;
+    public static long VOLTAGE_SAMPLE_PERIOD_MS = 50L;
+    public static long VOLTAGE_SAMPLE_MAX_DEFER_MS = 250L;
 
     // =============================================
     // RPM-DROP OBSERVER (also drives ball-1 composite trigger when enabled)
@@ -151,11 +187,46 @@ public class ShooterSubsystem implements Subsystem {
     // stays under ~8 A/s. 10 A/s gives the earliest reliable fire.
     public static double CURRENT_SPIKE_CANDIDATE_DERIVATIVE_A_PER_SEC = 10.0;
 
+    // =============================================
+    // ROBUST BASELINE INPUT (Hampel filter ahead of both baseline EMAs)
+    // =============================================
+    // A single bad encoder delta or current read used to kick the baselines the
+    // candidates are measured against. Each sample is scored against the median of
+    // the last OBSERVER_HAMPEL_WINDOW samples; one more than THRESHOLD robust sigmas
+    // away is replaced by that median before it reaches the EMA. A real, sustained
+    // change moves the median within half a window, so the baseline still follows
+    // it, just without the one-loop spikes. The derivative signals and the flywheel
+    // observer still see the raw samples. THRESHOLD <= 0 disables the filter.
+    public static int OBSERVER_HAMPEL_WINDOW = 7;
+    public static double OBSERVER_HAMPEL_THRESHOLD = 3.0;
+    // Sigma floors so a quiet window doesn't flag normal jitter.
+    public static double RPM_HAMPEL_MIN_SIGMA_RPM = 30.0;
+    public static double CURRENT_HAMPEL_MIN_SIGMA_A = 0.1;
+
+    // =============================================
+    // FLYWHEEL STATE OBSERVER (Kalman; see FlywheelObserver)
+    // =============================================
+    // Fuses applied voltage, encoder-delta RPM and motor current into velocity,
+    // acceleration and load-disturbance estimates. Runs every loop and is always
+    // logged; HYBRID_USE_OBSERVER_FOR_BALL1 lets the disturbance spike drive the
+    // ball-1 advance ahead of the RPM-drop / current-spike candidates. Off by
+    // default until kA comes from the flywheel sysid opmode rather than the
+    // observer's fallback estimate.
+    public static boolean ENABLE_FLYWHEEL_OBSERVER = true;
+    public static boolean HYBRID_USE_OBSERVER_FOR_BALL1 = false;
+    // Candidate trigger: estimated load disturbance rose this much above its value
+    // at shot-sequence start. Steady-state model error cancels out in the delta.
+    public static double OBSERVER_CONTACT_DISTURBANCE_RPM_PER_SEC = 2500.0;
+
     // =============================================
     // CONSTANTS
     // =============================================
     private static final double SHOOTER_GEAR_RATIO = (17.0 / 23.0);
     private static final double ENCODER_TICKS_PER_MOTOR_REV = 28.0;
+    // Largest usable OBSERVER_HAMPEL_WINDOW.
+    private static final int OBSERVER_HAMPEL_CAPACITY = 15;
+    // Samples needed before the Hampel filter starts replacing outliers.
+    private static final int OBSERVER_HAMPEL_MIN_SAMPLES = 3;
     private static final double TICKS_PER_REV = ENCODER_TICKS_PER_MOTOR_REV * SHOOTER_GEAR_RATIO;
     private static final double INTEGRAL_MIN = -1.0;
     private static final double INTEGRAL_MAX = 1.0;
@@ -166,9 +237,15 @@ public class ShooterSubsystem implements Subsystem {
     // =============================================
     // HARDWARE
     // =============================================
+    // Map the motors came from; the battery voltage is sampled from it too.
+    private HardwareMap hardwareMap;
     private DcMotorEx shooter1;
     private DcMotorEx shooter2;
     private Servo shooterHood;
+    // Power and hood writes go through these so repeats are not re-sent.
+    private CachedMotor shooter1Cached;
+    private CachedMotor shooter2Cached;
+    private CachedServo shooterHoodCached;
 
     // =============================================
     // STATE
@@ -180,6 +257,8 @@ public class ShooterSubsystem implements Subsystem {
     private long lastTimestampNanos = 0L;
     private double lastOutput = 0.0;
     private boolean enabled = false;
+    // Raw motor power while an open-loop test (sysid) owns the flywheel; NaN otherwise.
+    private double openLoopPower = Double.NaN;
 
     // BOOST STATE
     public boolean boostActive = false;
@@ -223,6 +302,7 @@ public class ShooterSubsystem implements Subsystem {
     private double lastRpmDeltaAverage = 0.0;
     private double lastBatteryVoltageRaw = Double.NaN;
     private double lastBatteryVoltageFiltered = Double.NaN;
+    private long lastVoltageSampleNanos = 0L;
     private double lastVoltageCompGain = 1.0;
     private double lastCommandPreVoltageComp = 0.0;
     private double lastCommandPostVoltageComp = 0.0;
@@ -240,6 +320,8 @@ public class ShooterSubsystem implements Subsystem {
     // Snapshot of rpmFilteredBaseline captured at startHybridShotFeedBoostController();
     // NaN when no hybrid sequence is active (or before the first one since reset).
     private double rpmAtShotSequenceStart = Double.NaN;
+    // Recent measured RPM for the baseline's Hampel filter.
+    private final SlidingMedian rpmBaselineInputMedian = new SlidingMedian(OBSERVER_HAMPEL_CAPACITY);
 
     // =============================================
     // CURRENT-SPIKE OBSERVER STATE
@@ -257,12 +339,32 @@ public class ShooterSubsystem implements Subsystem {
     // Snapshot of currentFilteredBaselineA captured at startHybridShotFeedBoostController();
     // NaN when no hybrid sequence is active (or before the first one since reset).
     private double currentAtShotSequenceStartA = Double.NaN;
+    // Recent average current for the baseline's Hampel filter.
+    private final SlidingMedian currentBaselineInputMedian = new SlidingMedian(OBSERVER_HAMPEL_CAPACITY);
+
+    // =============================================
+    // FLYWHEEL STATE OBSERVER STATE
+    // =============================================
+    private final FlywheelObserver flywheelObserver = new FlywheelObserver();
+    // Snapshot of the estimated disturbance at startHybridShotFeedBoostController();
+    // NaN when no hybrid sequence is active or the observer is off.
+    private double disturbanceAtShotSequenceStart = Double.NaN;
 
     // =============================================
     // NEXTFTC HOOKS
     // =============================================
     @Override
     public void initialize() {
+        initialize(ActiveOpMode.hardwareMap());
+    }
+
+    /** Same as {@link #initialize()}, against an explicit map. */
+    public void initialize(HardwareMap hardwareMap) {
+        this.hardwareMap = hardwareMap;
+        if (LOAD_PERSISTED_FEEDFORWARD) {
+            loadPersistedFeedforward();
+        }
+
         // Because ShooterSubsystem is a process-wide singleton (INSTANCE), every
         // non-static-final field persists across OpMode runs for the lifetime of the
         // robot-controller app. If we don't explicitly clear runtime state here, a
@@ -271,9 +373,12 @@ public class ShooterSubsystem implements Subsystem {
         // reset in IntakeWithSensorsSubsystem.initialize().
         resetAllRuntimeState();
 
-        shooter1 = ActiveOpMode.hardwareMap().get(DcMotorEx.class, "shooter_motor1");
-        shooter2 = ActiveOpMode.hardwareMap().get(DcMotorEx.class, "shooter_motor2");
-        shooterHood = ActiveOpMode.hardwareMap().get(Servo.class, "shooter_hood");
+        shooter1 = hardwareMap.get(DcMotorEx.class, "shooter_motor1");
+        shooter2 = hardwareMap.get(DcMotorEx.class, "shooter_motor2");
+        shooterHood = hardwareMap.get(Servo.class, "shooter_hood");
+        shooter1Cached = new CachedMotor(shooter1);
+        shooter2Cached = new CachedMotor(shooter2);
+        shooterHoodCached = new CachedServo(shooterHood);
 
         shooter1.setMode(DcMotorEx.RunMode.RUN_WITHOUT_ENCODER);
         shooter2.setMode(DcMotorEx.RunMode.RUN_WITHOUT_ENCODER);
@@ -287,6 +392,28 @@ public class ShooterSubsystem implements Subsystem {
         // Belt-and-suspenders: ensure the motors are zeroed at the Lynx level even if
         // something else tries to read stale commanded power before update() runs.
         applyPower(0.0);
+
+        publishSignals();
+    }
+
+    /**
+     * Registers the shooter's loggable state on the SignalBus. Names match the
+     * existing CSV columns so logs from either path read the same.
+     */
+    private void publishSignals() {
+        SignalBus bus = SignalBus.INSTANCE;
+        bus.publishDouble("shooter_target_rpm", this::getTargetRpm);
+        bus.publishDouble("shooter_rpm1", this::getShooter1RPM);
+        bus.publishDouble("shooter_rpm2", this::getShooter2RPM);
+        bus.publishDouble("shooter_battery_v", this::getBatteryVoltageRaw);
+        bus.publishDouble("shooter_battery_v_filtered", this::getBatteryVoltageFiltered);
+        bus.publishDouble("shooter_voltage_comp_gain", this::getVoltageCompGain);
+        bus.publishDouble("shooter_cmd_pre_vcomp", this::getCommandPreVoltageComp);
+        bus.publishDouble("shooter_cmd_post_vcomp", this::getCommandPostVoltageComp);
+        bus.publishBoolean("shooter_cmd_saturated", this::isCommandSaturated);
+        bus.publishDouble("obs_rpm", this::getObserverVelocityRpm);
+        bus.publishDouble("obs_disturbance_rpm_per_sec", this::getObserverDisturbanceRpmPerSec);
+        bus.publishBoolean("obs_contact_candidate", this::isObserverContactCandidate);
     }
 
     /**
@@ -297,6 +424,7 @@ public class ShooterSubsystem implements Subsystem {
     private void resetAllRuntimeState() {
         targetRpm = 0.0;
         enabled = false;
+        openLoopPower = Double.NaN;
 
         resetControllerState();
         resetHybridShotFeedBoostController();
@@ -313,6 +441,7 @@ public class ShooterSubsystem implements Subsystem {
         // Voltage-compensation scratch state.
         lastBatteryVoltageRaw = Double.NaN;
         lastBatteryVoltageFiltered = Double.NaN;
+        lastVoltageSampleNanos = 0L;
         lastVoltageCompGain = 1.0;
         lastCommandPreVoltageComp = 0.0;
         lastCommandPostVoltageComp = 0.0;
@@ -324,6 +453,7 @@ public class ShooterSubsystem implements Subsystem {
         rpmBaselineFilterInitialized = false;
         rpmMeasuredDerivativeRpmPerSec = 0.0;
         rpmAtShotSequenceStart = Double.NaN;
+        rpmBaselineInputMedian.clear();
 
         // Current-spike observer state. Same reasoning as RPM observer.
         lastCurrentA1 = 0.0;
@@ -333,10 +463,23 @@ public class ShooterSubsystem implements Subsystem {
         currentDerivativeAPerSec = 0.0;
         lastAverageCurrentA = 0.0;
         currentAtShotSequenceStartA = Double.NaN;
+        currentBaselineInputMedian.clear();
+
+        flywheelObserver.reset();
+        disturbanceAtShotSequenceStart = Double.NaN;
     }
 
     @Override
     public void periodic() {
+        if (!SubsystemScheduler.INSTANCE.shouldRun(SCHEDULE_TASK, 0L, 0L)) {
+            return;
+        }
+        long profileStartNs = LoopProfiler.INSTANCE.start();
+        runPeriodic();
+        LoopProfiler.INSTANCE.stop(PROFILE_SECTION, profileStartNs);
+    }
+
+    private void runPeriodic() {
         update();
     }
 
@@ -344,12 +487,12 @@ public class ShooterSubsystem implements Subsystem {
     // CONTROL LOOP
     // =============================================
     public void update() {
-        long now = System.nanoTime();
-        long nowMs = System.currentTimeMillis();
+        long now = RobotClock.nanoTime();
+        long nowMs = RobotClock.currentTimeMillis();
         double measuredRpm = getAverageRpmInstant();
 
         if (lastTimestampNanos == 0L) {
-            updateBatteryVoltageEstimate(0.0);
+            updateBatteryVoltageEstimate();
             lastTimestampNanos = now;
             lastMeasuredRpm = measuredRpm;
             // Initialize encoder-delta baselines (hardware is expected to be non-null)
@@ -360,11 +503,11 @@ public class ShooterSubsystem implements Subsystem {
 
         double dt = (now - lastTimestampNanos) / 1e9;
         if (dt <= 0.0) {
-            updateBatteryVoltageEstimate(0.0);
+            updateBatteryVoltageEstimate();
             lastTimestampNanos = now;
             return;
         }
-        updateBatteryVoltageEstimate(dt);
+        updateBatteryVoltageEstimate();
 
         // === ENCODER-DELTA RPM MEASUREMENT (uses same dt as PID) ===
         int ticks1 = shooter1.getCurrentPosition();
@@ -389,13 +532,20 @@ public class ShooterSubsystem implements Subsystem {
         rpmMeasuredDerivativeRpmPerSec = (measuredRpm - lastMeasuredRpm) / dt;
         // Single-pole low-pass on measured RPM; alpha derived from tau so the filter is
         // stable across variable loop times.
+        rpmBaselineInputMedian.setWindow(OBSERVER_HAMPEL_WINDOW);
+        double baselineInputRpm = rpmBaselineInputMedian.filter(
+                measuredRpm,
+                OBSERVER_HAMPEL_THRESHOLD,
+                RPM_HAMPEL_MIN_SIGMA_RPM,
+                OBSERVER_HAMPEL_MIN_SAMPLES
+        );
         double baselineTau = Math.max(1e-3, RPM_BASELINE_FILTER_TAU_SEC);
         double baselineAlpha = dt / (baselineTau + dt);
         if (!rpmBaselineFilterInitialized) {
             rpmFilteredBaseline = measuredRpm;
             rpmBaselineFilterInitialized = true;
         } else {
-            rpmFilteredBaseline += baselineAlpha * (measuredRpm - rpmFilteredBaseline);
+            rpmFilteredBaseline += baselineAlpha * (baselineInputRpm - rpmFilteredBaseline);
         }
 
         // === CURRENT-SPIKE OBSERVER (logging-only; runs every loop, even when disabled) ===
@@ -406,17 +556,50 @@ public class ShooterSubsystem implements Subsystem {
             lastCurrentA2 = shooter2.getCurrent(CurrentUnit.AMPS);
             double avgCurrentA = 0.5 * (lastCurrentA1 + lastCurrentA2);
             currentDerivativeAPerSec = (avgCurrentA - lastAverageCurrentA) / dt;
+            currentBaselineInputMedian.setWindow(OBSERVER_HAMPEL_WINDOW);
+            double baselineInputA = currentBaselineInputMedian.filter(
+                    avgCurrentA,
+                    OBSERVER_HAMPEL_THRESHOLD,
+                    CURRENT_HAMPEL_MIN_SIGMA_A,
+                    OBSERVER_HAMPEL_MIN_SAMPLES
+            );
             double currentTau = Math.max(1e-3, CURRENT_BASELINE_FILTER_TAU_SEC);
             double currentAlpha = dt / (currentTau + dt);
             if (!currentBaselineFilterInitialized) {
                 currentFilteredBaselineA = avgCurrentA;
                 currentBaselineFilterInitialized = true;
             } else {
-                currentFilteredBaselineA += currentAlpha * (avgCurrentA - currentFilteredBaselineA);
+                currentFilteredBaselineA += currentAlpha * (baselineInputA - currentFilteredBaselineA);
             }
             lastAverageCurrentA = avgCurrentA;
         }
 
+        // === FLYWHEEL STATE OBSERVER (runs every loop, even when disabled) ===
+        // lastCommandPostVoltageComp is what the motors saw over the dt just measured.
+        if (ENABLE_FLYWHEEL_OBSERVER) {
+            flywheelObserver.update(
+                    dt,
+                    lastCommandPostVoltageComp,
+                    lastBatteryVoltageFiltered,
+                    lastRpmDeltaAverage,
+                    ENABLE_CURRENT_SPIKE_OBSERVER ? lastAverageCurrentA : Double.NaN
+            );
+        }
+
+        if (Double.isFinite(openLoopPower)) {
+            // Open-loop test: no PID, boost, slew or voltage compensation, so the
+            // logged command is exactly what the motors saw.
+            lastVoltageCompGain = 1.0;
+            lastCommandPreVoltageComp = openLoopPower;
+            lastCommandPostVoltageComp = openLoopPower;
+            lastCommandSaturated = openLoopPower >= 0.999;
+            applyPower(openLoopPower);
+            lastOutput = openLoopPower;
+            lastMeasuredRpm = measuredRpm;
+            lastTimestampNanos = now;
+            return;
+        }
+
         if (!enabled) {
             lastVoltageCompGain = computeVoltageCompGain();
             lastCommandPreVoltageComp = 0.0;
@@ -522,6 +705,7 @@ public class ShooterSubsystem implements Subsystem {
     // PUBLIC API
     // =============================================
     public void spinUp(double rpm) {
+        openLoopPower = Double.NaN;
         targetRpm = Math.max(0.0, rpm);
         enabled = targetRpm > 0.0;
         // Caller can optionally start boost timer via setBoostOn()
@@ -539,11 +723,83 @@ public class ShooterSubsystem implements Subsystem {
     public void stop() {
         targetRpm = 0.0;
         enabled = false;
+        openLoopPower = Double.NaN;
         resetHybridShotFeedBoostController();
         resetControllerState();
         applyPower(0.0);
     }
 
+    /**
+     * Drives both flywheel motors at a fixed raw power with the controller bypassed,
+     * for feedforward identification. Encoder / current / observer bookkeeping keeps
+     * running. Cleared by {@link #clearOpenLoopPower()}, stop(), spinUp() or re-init.
+     */
+    public void setOpenLoopPower(double power) {
+        openLoopPower = Range.clip(power, 0.0, 1.0);
+        targetRpm = 0.0;
+        enabled = false;
+    }
+
+    public void clearOpenLoopPower() {
+        openLoopPower = Double.NaN;
+        applyPower(0.0);
+    }
+
+    /**
+     * Reads kS / kV / kA from {@link #FEEDFORWARD_CONFIG_PATH} into the static gains.
+     * Missing file is not an error (hand-tuned gains stay); a bad file is logged and
+     * ignored. Returns true when gains were loaded.
+     */
+    public static boolean loadPersistedFeedforward() {
+        File file = new File(Environment.getExternalStorageDirectory(), FEEDFORWARD_CONFIG_PATH);
+        if (!file.isFile()) {
+            return false;
+        }
+        Properties props = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            props.load(in);
+            double fittedKs = Double.parseDouble(props.getProperty("kS"));
+            double fittedKv = Double.parseDouble(props.getProperty("kV"));
+            double fittedKa = Double.parseDouble(props.getProperty("kA"));
+            if (!Double.isFinite(fittedKs) || !Double.isFinite(fittedKv) || !Double.isFinite(fittedKa)
+                    || fittedKv <= 0.0 || fittedKa < 0.0) {
+                RobotLog.ww("ShooterSubsystem", "Ignoring implausible feedforward in " + file.getAbsolutePath());
+                return false;
+            }
+            kS = fittedKs;
+            kV = fittedKv;
+            kA = fittedKa;
+            RobotLog.ii("ShooterSubsystem", String.format(
+                    "Loaded feedforward kS=%.5f kV=%.8f kA=%.8f from %s",
+                    kS, kV, kA, file.getAbsolutePath()));
+            return true;
+        } catch (IOException | RuntimeException e) {
+            RobotLog.ee("ShooterSubsystem", e, "Failed to load feedforward " + file.getAbsolutePath());
+            return false;
+        }
+    }
+
+    /** Writes the given gains to {@link #FEEDFORWARD_CONFIG_PATH}. Returns the file, or null on failure. */
+    public static File savePersistedFeedforward(double fittedKs, double fittedKv, double fittedKa, String comment) {
+        File file = new File(Environment.getExternalStorageDirectory(), FEEDFORWARD_CONFIG_PATH);
+        File dir = file.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            RobotLog.ee("ShooterSubsystem", "Could not create directory: " + dir.getAbsolutePath());
+            return null;
+        }
+        Properties props = new Properties();
+        props.setProperty("kS", Double.toString(fittedKs));
+        props.setProperty("kV", Double.toString(fittedKv));
+        props.setProperty("kA", Double.toString(fittedKa));
+        try (OutputStream out = new FileOutputStream(file)) {
+            props.store(out, comment);
+            return file;
+        } catch (IOException e) {
+            RobotLog.ee("ShooterSubsystem", e, "Failed to save feedforward " + file.getAbsolutePath());
+            return null;
+        }
+    }
+
     public double getCurrentRpm() {
         return getAverageRpmInstant();
     }
@@ -608,19 +864,19 @@ public class ShooterSubsystem implements Subsystem {
         double currentPosition = shooterHood.getPosition();
         double increment = -joystick * 0.01;
         double newPosition = Range.clip(currentPosition + increment, HOOD_MIN_POS, HOOD_MAX_POS);
-        shooterHood.setPosition(newPosition);
+        shooterHoodCached.setPosition(newPosition);
     }
 
     public void shooterHoodDrive(double hoodPosition) {
-        shooterHood.setPosition(Range.clip(hoodPosition, HOOD_MIN_POS, HOOD_MAX_POS));
+        shooterHoodCached.setPosition(Range.clip(hoodPosition, HOOD_MIN_POS, HOOD_MAX_POS));
     }
 
     public void increaseShooterHoodPosInc() {
-        shooterHood.setPosition(Range.clip(shooterHood.getPosition() + 0.1, HOOD_MIN_POS, HOOD_MAX_POS));
+        shooterHoodCached.setPosition(Range.clip(shooterHood.getPosition() + 0.1, HOOD_MIN_POS, HOOD_MAX_POS));
     }
 
     public void decreaseShooterHoodPosInc() {
-        shooterHood.setPosition(Range.clip(shooterHood.getPosition() - 0.1, HOOD_MIN_POS, HOOD_MAX_POS));
+        shooterHoodCached.setPosition(Range.clip(shooterHood.getPosition() - 0.1, HOOD_MIN_POS, HOOD_MAX_POS));
     }
 
     public void increaseShooterRPMBy10() {
@@ -651,7 +907,7 @@ public class ShooterSubsystem implements Subsystem {
         this.boost2 = farBoost ? BOOST_STAGE2_MULTIPLIER_FAR : BOOST_STAGE2_MULTIPLIER_NEAR;
         boostActive = false;
         secondBoostActive = false;
-        boostStartTimeMs = System.currentTimeMillis();
+        boostStartTimeMs = RobotClock.currentTimeMillis();
     }
 
     public void setFarPID() {
@@ -697,13 +953,13 @@ public class ShooterSubsystem implements Subsystem {
 
     public void startHybridShotFeedBoostController(double shooterDistanceInches) {
         startHybridShotFeedBoostController(
-                System.currentTimeMillis(),
+                RobotClock.currentTimeMillis(),
                 shooterDistanceInches >= Math.max(0.0, HYBRID_NEAR_FAR_DISTANCE_THRESHOLD_IN)
         );
     }
 
     public void startHybridShotFeedBoostController(boolean useFarProfile) {
-        startHybridShotFeedBoostController(System.currentTimeMillis(), useFarProfile);
+        startHybridShotFeedBoostController(RobotClock.currentTimeMillis(), useFarProfile);
     }
 
     public void resetHybridShotFeedBoostController() {
@@ -722,6 +978,7 @@ public class ShooterSubsystem implements Subsystem {
         hybridShotFeedBoostPhase = HybridShotFeedBoostPhase.IDLE;
         rpmAtShotSequenceStart = Double.NaN;
         currentAtShotSequenceStartA = Double.NaN;
+        disturbanceAtShotSequenceStart = Double.NaN;
         boostActive = false;
         secondBoostActive = false;
         boostStartTimeMs = 0L;
@@ -742,7 +999,7 @@ public class ShooterSubsystem implements Subsystem {
 
     public long getHybridTimeSinceShotFeedStartMs() {
         return hybridShotFeedBoostActive
-                ? Math.max(0L, System.currentTimeMillis() - hybridShotFeedStartMs)
+                ? Math.max(0L, RobotClock.currentTimeMillis() - hybridShotFeedStartMs)
                 : -1L;
     }
 
@@ -895,6 +1152,46 @@ public class ShooterSubsystem implements Subsystem {
         return currentDerivativeAPerSec >= CURRENT_SPIKE_CANDIDATE_DERIVATIVE_A_PER_SEC;
     }
 
+    // =============================================
+    // FLYWHEEL STATE OBSERVER GETTERS
+    // =============================================
+    /** Observer velocity estimate in RPM. */
+    public double getObserverVelocityRpm() {
+        return flywheelObserver.getVelocityRpm();
+    }
+
+    /** Observer acceleration estimate in RPM/sec. */
+    public double getObserverAccelerationRpmPerSec() {
+        return flywheelObserver.getAccelerationRpmPerSec();
+    }
+
+    /** Observer load-disturbance estimate in RPM/sec; positive = decelerating load. */
+    public double getObserverDisturbanceRpmPerSec() {
+        return flywheelObserver.getDisturbanceRpmPerSec();
+    }
+
+    /**
+     * Estimated disturbance minus its value at shot-sequence start. NaN when no
+     * baseline has been captured yet.
+     */
+    public double getObserverDisturbanceDeltaFromBaseline() {
+        if (Double.isNaN(disturbanceAtShotSequenceStart)) return Double.NaN;
+        return flywheelObserver.getDisturbanceRpmPerSec() - disturbanceAtShotSequenceStart;
+    }
+
+    /**
+     * Ball-contact candidate from the observer: during an active hybrid sequence the
+     * estimated load disturbance has risen at least
+     * OBSERVER_CONTACT_DISTURBANCE_RPM_PER_SEC above the shot-start baseline.
+     */
+    public boolean isObserverContactCandidate() {
+        if (!ENABLE_FLYWHEEL_OBSERVER) return false;
+        if (!hybridShotFeedBoostActive) return false;
+        double delta = getObserverDisturbanceDeltaFromBaseline();
+        if (Double.isNaN(delta)) return false;
+        return delta >= OBSERVER_CONTACT_DISTURBANCE_RPM_PER_SEC;
+    }
+
     // =============================================
     // HELPERS
     // =============================================
@@ -931,8 +1228,8 @@ public class ShooterSubsystem implements Subsystem {
 
     private void applyPower(double power) {
         double clipped = Range.clip(power, 0.0, 1.0);
-        shooter1.setPower(clipped);
-        shooter2.setPower(clipped);
+        shooter1Cached.setPower(clipped);
+        shooter2Cached.setPower(clipped);
     }
 
     private void startHybridShotFeedBoostController(long nowMs, boolean useFarProfile) {
@@ -959,6 +1256,9 @@ public class ShooterSubsystem implements Subsystem {
         } else {
             currentAtShotSequenceStartA = Double.NaN;
         }
+        disturbanceAtShotSequenceStart = ENABLE_FLYWHEEL_OBSERVER && flywheelObserver.isInitialized()
+                ? flywheelObserver.getDisturbanceRpmPerSec()
+                : Double.NaN;
 
         long dtShotFeedStartToBall1ContactMsEst = hybridShotFeedUsesFarProfile
                 ? Math.max(0L, HYBRID_FAR_DT_SHOT_FEED_START_TO_BALL1_CONTACT_MS_EST)
@@ -1066,6 +1366,10 @@ public class ShooterSubsystem implements Subsystem {
         // (earlier signal); these fire in the "no bb2 edge" cases.
         if (hybridShotFeedBoostPhase == HybridShotFeedBoostPhase.WAIT_BALL1_CONTACT &&
                 sinceShotFeedStartMs >= Math.max(0L, HYBRID_BALL1_MOTOR_TRIGGER_MIN_MS)) {
+            if (HYBRID_USE_OBSERVER_FOR_BALL1 && isObserverContactCandidate()) {
+                advanceHybridShotFeedBoostPhase(nowMs, "BALL1_OBSERVER_DISTURBANCE", false);
+                return;
+            }
             if (HYBRID_USE_RPM_DROP_FOR_BALL1 && isRpmDropCandidateBaselineDelta()) {
                 advanceHybridShotFeedBoostPhase(nowMs, "BALL1_RPM_DROP_BASELINE", false);
                 return;
@@ -1172,7 +1476,7 @@ public class ShooterSubsystem implements Subsystem {
 
     private double sampleBatteryVoltage() {
         double minVoltage = Double.POSITIVE_INFINITY;
-        for (VoltageSensor sensor : ActiveOpMode.hardwareMap().voltageSensor) {
+        for (VoltageSensor sensor : hardwareMap.voltageSensor) {
             if (sensor == null) continue;
             double voltage = sensor.getVoltage();
             if (Double.isFinite(voltage) && voltage >= VOLTAGE_COMP_MIN_VALID_V && voltage < minVoltage) {
@@ -1182,7 +1486,14 @@ public class ShooterSubsystem implements Subsystem {
         return minVoltage == Double.POSITIVE_INFINITY ? Double.NaN : minVoltage;
     }
 
-    private void updateBatteryVoltageEstimate(double dtSeconds) {
+    private void updateBatteryVoltageEstimate() {
+        if (!SubsystemScheduler.INSTANCE.shouldRun(VOLTAGE_SAMPLE_TASK, VOLTAGE_SAMPLE_PERIOD_MS, VOLTAGE_SAMPLE_MAX_DEFER_MS)) {
+            return;
+        }
+        // The filter steps by the time since the previous sample, not the loop dt.
+        long now = RobotClock.nanoTime();
+        double dtSeconds = lastVoltageSampleNanos == 0L ? 0.0 : (now - lastVoltageSampleNanos) / 1e9;
+        lastVoltageSampleNanos = now;
         double rawVoltage = sampleBatteryVoltage();
         lastBatteryVoltageRaw = rawVoltage;
         if (!Double.isFinite(rawVoltage)) {
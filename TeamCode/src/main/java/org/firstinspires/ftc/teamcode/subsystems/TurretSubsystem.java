@@ -1,17 +1,22 @@
 package org.firstinspires.ftc.teamcode.subsystems;
 
-import android.os.SystemClock;
-
 import com.bylazar.configurables.annotations.Configurable;
+import com.pedropathing.follower.Follower;
 import com.pedropathing.geometry.Pose;
+import com.pedropathing.math.Vector;
 import com.qualcomm.robotcore.hardware.AnalogInput;
 import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.HardwareMap;
 import com.qualcomm.robotcore.hardware.Servo;
 import com.qualcomm.robotcore.hardware.ServoImplEx;
 import com.qualcomm.robotcore.util.RobotLog;
 import com.qualcomm.robotcore.util.Range;
-
-import java.util.Arrays;
+import org.firstinspires.ftc.teamcode.util.CachedServo;
+import org.firstinspires.ftc.teamcode.util.CircularAngleEstimator;
+import org.firstinspires.ftc.teamcode.util.LoopProfiler;
+import org.firstinspires.ftc.teamcode.util.RobotClock;
+import org.firstinspires.ftc.teamcode.util.SignalBus;
+import org.firstinspires.ftc.teamcode.util.SubsystemScheduler;
 
 import dev.nextftc.core.subsystems.Subsystem;
 import dev.nextftc.extensions.pedro.PedroComponent;
@@ -24,6 +29,11 @@ import dev.nextftc.ftc.ActiveOpMode;
 @Configurable
 public class TurretSubsystem implements Subsystem {
     public static final TurretSubsystem INSTANCE = new TurretSubsystem();
+
+    private static final int PROFILE_SECTION = LoopProfiler.INSTANCE.section("turret_periodic");
+    private static final int SCHEDULE_TASK = SubsystemScheduler.INSTANCE.register(
+            "turret", SubsystemScheduler.Priority.CRITICAL);
+
     private TurretSubsystem() {}
     private static final String STARTUP_LOG_TAG = "TurretStartup";
 
@@ -49,6 +59,16 @@ public class TurretSubsystem implements Subsystem {
     public static double RATE_LIMIT_DEG_PER_SEC = 1.5 * TURRET_TRAVEL_DEGREES;
     public static double OUTER_LOOP_KP = 0.12;
     public static double OUTER_LOOP_MAX_TRIM_DEGREES = 8.0;
+    // Tracking feedforward: while tracking a field point, lead the command by the turret-frame
+    // target rate (target-bearing rate minus robot yaw rate) times the servo lag. The lag model
+    // is a transport delay plus a first-order time constant; fit both from a turret CSV log with
+    // scripts/identify_turret_lag.py.
+    public static boolean TRACKING_FEEDFORWARD_ENABLED = true;
+    public static double SERVO_LAG_DELAY_SEC = 0.05;
+    public static double SERVO_LAG_TIME_CONSTANT_SEC = 0.08;
+    public static double TRACKING_FEEDFORWARD_MAX_DEGREES = 25.0;
+    // Low-pass on the target rate (1.0 = no filter).
+    public static double TRACKING_RATE_FILTER_ALPHA = 0.5;
     // Split commanded turret angle across servos to add slight opposing preload.
     // Set to 0.0 to disable this behavior.
     public static double SERVO_DIFFERENTIAL_DEGREES = 1.0;
@@ -65,7 +85,18 @@ public class TurretSubsystem implements Subsystem {
     public static int NOT_READY_LOOPS_REQUIRED = 3;
 
     public static double STARTUP_EXPECTED_TURRET_ANGLE_DEGREES = 0.0;
+    // Upper bound on the startup settle: calibration completes as soon as the sampled
+    // absolute reading converges, and only falls back to the current estimate after this.
     public static long STARTUP_CENTER_SETTLE_MS = 2000;
+    // After a centering command, ignore readings this long so the servo has started moving.
+    public static long STARTUP_CENTER_MIN_SETTLE_MS = 150;
+    // Incremental startup sampler: one absolute read per loop into a circular-mean window.
+    // Spread and outlier limits are in raw absolute-encoder degrees (turret deg * ratio).
+    public static int STARTUP_SAMPLE_WINDOW = 8;
+    public static int STARTUP_MIN_SAMPLES = 5;
+    public static double STARTUP_MAX_SAMPLE_SPREAD_RAW_DEGREES = 1.5;
+    public static double STARTUP_OUTLIER_RAW_DEGREES = 6.0;
+    public static int STARTUP_MAX_CONSECUTIVE_OUTLIERS = 3;
     public static boolean STARTUP_SEND_CENTER_COMMAND = true;
     public static double ABSOLUTE_TURRET_ENCODER_MAX_VOLTAGE = 3.255;
     public static double ENCODER_TO_TURRET_RATIO = 4.8;
@@ -86,6 +117,9 @@ public class TurretSubsystem implements Subsystem {
     // =========================
     private ServoImplEx leftTurret;
     private ServoImplEx rightTurret;
+    // Position and PWM writes go through these so repeats are not re-sent.
+    private CachedServo leftTurretCached;
+    private CachedServo rightTurretCached;
     private DcMotor turretEncoder;
     private AnalogInput absoluteTurretEncoder;
 
@@ -136,6 +170,14 @@ public class TurretSubsystem implements Subsystem {
     private long startupCenterCommandTimeMs = 0L;
     private double startupExpectedTurretAngleDegrees = STARTUP_EXPECTED_TURRET_ANGLE_DEGREES;
     private long lastStartupLogTimeMs = 0L;
+    private final CircularAngleEstimator startupSampler = new CircularAngleEstimator();
+    private long startupMinSettleMs = 0L;
+    private long lastStartupSampleTimeMs = 0L;
+    // Set by forceStartupCalibrationFromExpectedSampled(); periodic() then takes the samples.
+    private boolean startupSampledCalibrationPending = false;
+    private double startupSampledExpectedDegrees = STARTUP_EXPECTED_TURRET_ANGLE_DEGREES;
+    private int startupSampledMinSamples = 1;
+    private long startupSampledIntervalMs = 0L;
 
     private enum StartupCalibrationState {
         UNCALIBRATED,
@@ -145,19 +187,31 @@ public class TurretSubsystem implements Subsystem {
 
     private StartupCalibrationState startupCalibrationState = StartupCalibrationState.UNCALIBRATED;
     private boolean fieldPointAimActive = false;
+    private boolean trackingActive = false;
+    private double trackingTargetXIn = 0.0;
+    private double trackingTargetYIn = 0.0;
+    private double trackingTargetRateDegPerSec = 0.0;
+    private double trackingFeedforwardDegrees = 0.0;
     private double fieldPointTargetXIn = 0.0;
     private double fieldPointTargetYIn = 0.0;
 
     @Override
     public void initialize() {
-        leftTurret = ActiveOpMode.hardwareMap().get(ServoImplEx.class, LEFT_TURRET_SERVO_NAME);
-        rightTurret = ActiveOpMode.hardwareMap().get(ServoImplEx.class, RIGHT_TURRET_SERVO_NAME);
-        turretEncoder = ActiveOpMode.hardwareMap().get(DcMotor.class, TURRET_ENCODER_NAME);
+        initialize(ActiveOpMode.hardwareMap());
+    }
+
+    /** Same as {@link #initialize()}, against an explicit map. */
+    public void initialize(HardwareMap hardwareMap) {
+        leftTurret = hardwareMap.get(ServoImplEx.class, LEFT_TURRET_SERVO_NAME);
+        rightTurret = hardwareMap.get(ServoImplEx.class, RIGHT_TURRET_SERVO_NAME);
+        leftTurretCached = new CachedServo(leftTurret);
+        rightTurretCached = new CachedServo(rightTurret);
+        turretEncoder = hardwareMap.get(DcMotor.class, TURRET_ENCODER_NAME);
 
         leftTurret.setDirection(Servo.Direction.FORWARD);
         rightTurret.setDirection(Servo.Direction.FORWARD);
 
-        absoluteTurretEncoder = ActiveOpMode.hardwareMap().get(AnalogInput.class, ABSOLUTE_TURRET_ENCODER_NAME);
+        absoluteTurretEncoder = hardwareMap.get(AnalogInput.class, ABSOLUTE_TURRET_ENCODER_NAME);
 
         targetAngleDegrees = INITIAL_ANGLE_DEGREES;
         correctedTargetAngleDegrees = INITIAL_ANGLE_DEGREES;
@@ -184,10 +238,12 @@ public class TurretSubsystem implements Subsystem {
         startupCenterCommandTimeMs = 0L;
         startupExpectedTurretAngleDegrees = STARTUP_EXPECTED_TURRET_ANGLE_DEGREES;
         lastStartupLogTimeMs = 0L;
+        resetStartupSampler(0L);
         startupCalibrationState = StartupCalibrationState.UNCALIBRATED;
         fieldPointAimActive = false;
         fieldPointTargetXIn = 0.0;
         fieldPointTargetYIn = 0.0;
+        clearTracking();
 
         currentLeftServoPosition = leftTurret.getPosition();
         currentRightServoPosition = rightTurret.getPosition();
@@ -210,10 +266,32 @@ public class TurretSubsystem implements Subsystem {
         measuredAngleDegrees = quadRawAtStartDegrees;
         lastLoopTimeSeconds = nowSeconds();
         logStartupState("initialize", startupExpectedTurretAngleDegrees, 0L);
+
+        publishSignals();
+    }
+
+    /** Registers the turret's loggable state on the SignalBus (CSV column names). */
+    private void publishSignals() {
+        SignalBus bus = SignalBus.INSTANCE;
+        bus.publishDouble("turret_target_deg", this::getTargetAngleDegrees);
+        bus.publishDouble("turret_measured_deg", this::getMeasuredAngleDegrees);
+        bus.publishDouble("turret_measured_vel_deg_s", this::getMeasuredVelocityDegPerSec);
+        bus.publishBoolean("turret_ready", this::isTurretReady);
+        bus.publishDouble("turret_target_rate_deg_s", this::getTrackingTargetRateDegPerSec);
+        bus.publishDouble("turret_feedforward_deg", this::getTrackingFeedforwardDegrees);
     }
 
     @Override
     public void periodic() {
+        if (!SubsystemScheduler.INSTANCE.shouldRun(SCHEDULE_TASK, 0L, 0L)) {
+            return;
+        }
+        long profileStartNs = LoopProfiler.INSTANCE.start();
+        runPeriodic();
+        LoopProfiler.INSTANCE.stop(PROFILE_SECTION, profileStartNs);
+    }
+
+    private void runPeriodic() {
         double now = nowSeconds();
         if (lastLoopTimeSeconds <= 0.0) {
             lastLoopTimeSeconds = now;
@@ -232,6 +310,15 @@ public class TurretSubsystem implements Subsystem {
 
         updateMeasuredAngle(dt);
         if (!isStartupCalibrationComplete()) {
+            if (startupSampledCalibrationPending) {
+                stepStartupSampler(
+                        startupSampledExpectedDegrees,
+                        startupSampledMinSamples,
+                        startupSampledIntervalMs,
+                        STARTUP_CENTER_SETTLE_MS,
+                        "startup_calibrated_sampled"
+                );
+            }
             turretReady = false;
             return;
         }
@@ -239,8 +326,11 @@ public class TurretSubsystem implements Subsystem {
         if (fieldPointAimActive) {
             updateFieldPointAimFromPose(PedroComponent.follower().getPose());
         }
+        updateTrackingFeedforward();
 
-        correctedTargetAngleDegrees = applyTargetBias(targetAngleDegrees);
+        // The feedforward only leads the command; the outer-loop trim and ready check below
+        // still compare against the un-led target.
+        correctedTargetAngleDegrees = applyTargetBias(targetAngleDegrees) + trackingFeedforwardDegrees;
 
         double maxMoveDegrees = Math.max(0.0, RATE_LIMIT_DEG_PER_SEC) * dt;
         double previousCommandedAngleDegrees = commandedAngleDegrees;
@@ -280,6 +370,7 @@ public class TurretSubsystem implements Subsystem {
         fieldPointTargetXIn = fieldXIn;
         fieldPointTargetYIn = fieldYIn;
         fieldPointAimActive = true;
+        setTrackingPoint(fieldXIn, fieldYIn);
     }
 
     public void aimAtFieldPoint(Pose fieldPose) {
@@ -291,12 +382,25 @@ public class TurretSubsystem implements Subsystem {
     }
     public void clearFieldPointAim() {
         fieldPointAimActive = false;
+        clearTracking();
     }
 
     public boolean isFieldPointAimActive() {
         return fieldPointAimActive;
     }
 
+    public boolean isTrackingActive() {
+        return trackingActive;
+    }
+
+    public double getTrackingTargetRateDegPerSec() {
+        return trackingTargetRateDegPerSec;
+    }
+
+    public double getTrackingFeedforwardDegrees() {
+        return trackingFeedforwardDegrees;
+    }
+
     public double getFieldPointTargetXIn() {
         return fieldPointTargetXIn;
     }
@@ -308,6 +412,7 @@ public class TurretSubsystem implements Subsystem {
     private void setTargetAngleDegreesInternal(double angleDegrees, boolean clearFieldPointAim) {
         if (clearFieldPointAim) {
             fieldPointAimActive = false;
+            clearTracking();
         }
         targetAngleDegrees = Range.clip(
                 angleDegrees,
@@ -331,15 +436,17 @@ public class TurretSubsystem implements Subsystem {
         currentServoPosition = centerPosition;
         // Keep startup centering minimal: position-only command, no PWM state toggles.
         // This matches the old stable initialization behavior.
-        leftTurret.setPosition(currentLeftServoPosition);
-        rightTurret.setPosition(currentRightServoPosition);
-        startupCenterCommandTimeMs = System.currentTimeMillis();
+        leftTurretCached.setPosition(currentLeftServoPosition);
+        rightTurretCached.setPosition(currentRightServoPosition);
+        startupCenterCommandTimeMs = RobotClock.currentTimeMillis();
+        resetStartupSampler(STARTUP_CENTER_MIN_SETTLE_MS);
         startupCalibrationState = StartupCalibrationState.WAITING_FOR_SETTLE;
         logStartupState("begin_centering", startupExpectedTurretAngleDegrees, 0L);
     }
 
     public void beginStartupCalibrationWithoutCentering() {
-        startupCenterCommandTimeMs = System.currentTimeMillis();
+        startupCenterCommandTimeMs = RobotClock.currentTimeMillis();
+        resetStartupSampler(0L);
         startupCalibrationState = StartupCalibrationState.WAITING_FOR_SETTLE;
         logStartupState("begin_no_center", startupExpectedTurretAngleDegrees, 0L);
     }
@@ -348,6 +455,10 @@ public class TurretSubsystem implements Subsystem {
         return updateStartupCalibrationFromExpected(expectedTurretAngleDegrees, STARTUP_CENTER_SETTLE_MS);
     }
 
+    /**
+     * Call once per init loop. Takes one absolute-encoder sample per call and completes
+     * calibration once the samples converge, or after {@code settleMs} at the latest.
+     */
     public boolean updateStartupCalibrationFromExpected(double expectedTurretAngleDegrees, long settleMs) {
         if (startupCalibrationState == StartupCalibrationState.CALIBRATED) {
             return true;
@@ -355,32 +466,40 @@ public class TurretSubsystem implements Subsystem {
         if (startupCalibrationState == StartupCalibrationState.UNCALIBRATED) {
             beginStartupCalibrationWithoutCentering();
         }
-
-        long elapsedMs = System.currentTimeMillis() - startupCenterCommandTimeMs;
-        if (elapsedMs < Math.max(0L, settleMs)) {
-            maybeLogStartupWaitState(expectedTurretAngleDegrees, elapsedMs);
-            return false;
-        }
-
-        completeStartupCalibrationFromExpected(expectedTurretAngleDegrees);
-        return true;
+        return stepStartupSampler(
+                expectedTurretAngleDegrees,
+                STARTUP_MIN_SAMPLES,
+                0L,
+                settleMs,
+                "startup_calibrated"
+        );
     }
 
     public void forceStartupCalibrationFromExpected(double expectedTurretAngleDegrees) {
         completeStartupCalibrationFromExpected(expectedTurretAngleDegrees);
     }
 
-    public void forceStartupCalibrationFromExpectedSampled(
+    /**
+     * Starts a sampled calibration without blocking: periodic() then takes one absolute
+     * sample per loop (at most one per {@code sampleIntervalMs}) and completes once at least
+     * {@code sampleCount} samples have converged. Returns true if already calibrated.
+     */
+    public boolean forceStartupCalibrationFromExpectedSampled(
             double expectedTurretAngleDegrees,
             int sampleCount,
             long sampleIntervalMs
     ) {
-        double sampledRawDegrees = sampleAbsoluteEncoderRawDegrees(sampleCount, sampleIntervalMs);
-        completeStartupCalibrationFromRawDegrees(
-                expectedTurretAngleDegrees,
-                sampledRawDegrees,
-                "startup_calibrated_sampled"
-        );
+        if (startupCalibrationState == StartupCalibrationState.CALIBRATED) {
+            return true;
+        }
+        if (startupCalibrationState == StartupCalibrationState.UNCALIBRATED) {
+            beginStartupCalibrationWithoutCentering();
+        }
+        startupSampledCalibrationPending = true;
+        startupSampledExpectedDegrees = expectedTurretAngleDegrees;
+        startupSampledMinSamples = Math.max(1, sampleCount);
+        startupSampledIntervalMs = Math.max(0L, sampleIntervalMs);
+        return false;
     }
 
     public boolean isStartupCalibrationComplete() {
@@ -414,6 +533,23 @@ public class TurretSubsystem implements Subsystem {
         setTargetAngleDegrees(convertRobotFrontRelativeToTurretDegrees(robotFrontRelativeDegrees));
     }
 
+    /**
+     * Like {@link #setTargetAngleFromRobotFrontRelativeDegrees(double)}, but the angle is an aim at
+     * the given field point (e.g. the SOTM virtual target), so periodic() can feed forward the
+     * target's bearing rate and the robot's yaw rate. Call every loop; any plain
+     * setTargetAngle* call turns the feedforward off again.
+     */
+    public void trackRobotFrontRelativeDegrees(
+            double robotFrontRelativeDegrees,
+            double fieldTargetXIn,
+            double fieldTargetYIn
+    ) {
+        fieldPointAimActive = false;
+        // Keep tracking state (and the rate filter) alive across calls.
+        setTargetAngleDegreesInternal(convertRobotFrontRelativeToTurretDegrees(robotFrontRelativeDegrees), false);
+        setTrackingPoint(fieldTargetXIn, fieldTargetYIn);
+    }
+
     public double getTargetAngleDegrees() {
         return Range.clip(targetAngleDegrees, MIN_SERVO_ROTATION_DEGREES, MAX_SERVO_ROTATION_DEGREES);
     }
@@ -514,20 +650,20 @@ public class TurretSubsystem implements Subsystem {
     public void setLeftServoEnabled(boolean enabled) {
         leftServoEnabled = enabled;
         if (enabled) {
-            leftTurret.setPwmEnable();
-            leftTurret.setPosition(currentLeftServoPosition);
+            leftTurretCached.setPwmEnable();
+            leftTurretCached.setPosition(currentLeftServoPosition);
         } else {
-            leftTurret.setPwmDisable();
+            leftTurretCached.setPwmDisable();
         }
     }
 
     public void setRightServoEnabled(boolean enabled) {
         rightServoEnabled = enabled;
         if (enabled) {
-            rightTurret.setPwmEnable();
-            rightTurret.setPosition(currentRightServoPosition);
+            rightTurretCached.setPwmEnable();
+            rightTurretCached.setPosition(currentRightServoPosition);
         } else {
-            rightTurret.setPwmDisable();
+            rightTurretCached.setPwmDisable();
         }
     }
 
@@ -597,6 +733,7 @@ public class TurretSubsystem implements Subsystem {
         correctedTargetAngleDegrees = measuredAngleDegrees;
         commandedAngleDegrees = measuredAngleDegrees;
         fieldPointAimActive = false;
+        clearTracking();
         lastServoCommandAngleDegrees = measuredAngleDegrees;
         lastOuterLoopTrimDegrees = 0.0;
         lastCommandDiffDegrees = 0.0;
@@ -606,6 +743,7 @@ public class TurretSubsystem implements Subsystem {
         turretReady = false;
 
         startupCenterCommandTimeMs = 0L;
+        startupSampledCalibrationPending = false;
         startupCalibrationState = StartupCalibrationState.CALIBRATED;
         logStartupState(logPhase, expectedTurretAngleDegrees, 0L);
     }
@@ -703,15 +841,15 @@ public class TurretSubsystem implements Subsystem {
         );
 
         if (leftServoEnabled) {
-            leftTurret.setPosition(currentLeftServoPosition);
+            leftTurretCached.setPosition(currentLeftServoPosition);
         } else {
-            leftTurret.setPwmDisable();
+            leftTurretCached.setPwmDisable();
         }
 
         if (rightServoEnabled) {
-            rightTurret.setPosition(currentRightServoPosition);
+            rightTurretCached.setPosition(currentRightServoPosition);
         } else {
-            rightTurret.setPwmDisable();
+            rightTurretCached.setPwmDisable();
         }
     }
 
@@ -733,6 +871,64 @@ public class TurretSubsystem implements Subsystem {
         setTargetAngleDegreesInternal(turretTargetDegrees, false);
     }
 
+    private void setTrackingPoint(double fieldXIn, double fieldYIn) {
+        if (!trackingActive) {
+            trackingTargetRateDegPerSec = 0.0;
+        }
+        trackingTargetXIn = fieldXIn;
+        trackingTargetYIn = fieldYIn;
+        trackingActive = true;
+    }
+
+    private void clearTracking() {
+        trackingActive = false;
+        trackingTargetRateDegPerSec = 0.0;
+        trackingFeedforwardDegrees = 0.0;
+    }
+
+    /**
+     * Turret-frame target rate = d(bearing to target)/dt - robot yaw rate. For a ramp at that
+     * rate, a delay-plus-first-order servo settles (delay + time constant) behind the command,
+     * so commanding that much ahead keeps the turret on target.
+     */
+    private void updateTrackingFeedforward() {
+        if (!TRACKING_FEEDFORWARD_ENABLED || !trackingActive) {
+            trackingTargetRateDegPerSec = 0.0;
+            trackingFeedforwardDegrees = 0.0;
+            return;
+        }
+        Follower follower = PedroComponent.follower();
+        Pose robotPose = follower.getPose();
+        Vector robotVelocity = follower.getVelocity();
+        double omegaRadPerSec = follower.poseTracker.getAngularVelocity();
+
+        double dx = trackingTargetXIn - robotPose.getX();
+        double dy = trackingTargetYIn - robotPose.getY();
+        double rangeSquared = (dx * dx) + (dy * dy);
+        double bearingRateRadPerSec = 0.0;
+        if (rangeSquared > 1e-6) {
+            bearingRateRadPerSec =
+                    ((dy * robotVelocity.getXComponent()) - (dx * robotVelocity.getYComponent())) / rangeSquared;
+        }
+        double rawRateDegPerSec =
+                ROBOT_FRONT_RELATIVE_SIGN * Math.toDegrees(bearingRateRadPerSec - omegaRadPerSec);
+        if (!Double.isFinite(rawRateDegPerSec)) {
+            rawRateDegPerSec = 0.0;
+        }
+
+        double alpha = Range.clip(TRACKING_RATE_FILTER_ALPHA, 0.0, 1.0);
+        trackingTargetRateDegPerSec =
+                (alpha * rawRateDegPerSec) + ((1.0 - alpha) * trackingTargetRateDegPerSec);
+
+        double lagSeconds = Math.max(0.0, SERVO_LAG_DELAY_SEC) + Math.max(0.0, SERVO_LAG_TIME_CONSTANT_SEC);
+        double maxFeedforwardDegrees = Math.max(0.0, TRACKING_FEEDFORWARD_MAX_DEGREES);
+        trackingFeedforwardDegrees = Range.clip(
+                trackingTargetRateDegPerSec * lagSeconds,
+                -maxFeedforwardDegrees,
+                maxFeedforwardDegrees
+        );
+    }
+
     private static double angleDegreesToServoPosition(double angleDegrees, double servoCommandOffsetDegrees) {
         double correctedAngleDegrees = angleDegrees - servoCommandOffsetDegrees;
         double unclippedPosition = SERVO_CENTER_POSITION - (correctedAngleDegrees / TURRET_TRAVEL_DEGREES);
@@ -744,37 +940,71 @@ public class TurretSubsystem implements Subsystem {
         return (clippedVoltage / ABSOLUTE_TURRET_ENCODER_MAX_VOLTAGE) * 360.0;
     }
 
-    private double sampleAbsoluteEncoderRawDegrees(int requestedSampleCount, long requestedSampleIntervalMs) {
-        int sampleCount = Math.max(1, requestedSampleCount);
-        long sampleIntervalMs = Math.max(0L, requestedSampleIntervalMs);
+    private void resetStartupSampler(long minSettleMs) {
+        startupSampler.reset(STARTUP_SAMPLE_WINDOW);
+        startupMinSettleMs = Math.max(0L, minSettleMs);
+        lastStartupSampleTimeMs = 0L;
+        startupSampledCalibrationPending = false;
+    }
 
-        double[] unwrappedSamples = new double[sampleCount];
-        double previousRawDegrees = absoluteVoltageToRawDegrees(readAbsoluteEncoderVoltage());
-        double unwrappedRawDegrees = previousRawDegrees;
-        unwrappedSamples[0] = unwrappedRawDegrees;
+    /**
+     * One step of the startup sampler: at most one analog read, then complete calibration
+     * if the circular-mean estimate has converged (or the settle bound ran out).
+     */
+    private boolean stepStartupSampler(
+            double expectedTurretAngleDegrees,
+            int minSamples,
+            long sampleIntervalMs,
+            long maxSettleMs,
+            String logPhase
+    ) {
+        long nowMs = RobotClock.currentTimeMillis();
+        long elapsedMs = nowMs - startupCenterCommandTimeMs;
+        if (elapsedMs < startupMinSettleMs) {
+            maybeLogStartupWaitState(expectedTurretAngleDegrees, elapsedMs);
+            return false;
+        }
 
-        for (int i = 1; i < sampleCount; i++) {
-            if (sampleIntervalMs > 0L) {
-                SystemClock.sleep(sampleIntervalMs);
-            }
-            double currentRawDegrees = absoluteVoltageToRawDegrees(readAbsoluteEncoderVoltage());
-            unwrappedRawDegrees += smallestWrappedDeltaDegrees(currentRawDegrees, previousRawDegrees);
-            unwrappedSamples[i] = unwrappedRawDegrees;
-            previousRawDegrees = currentRawDegrees;
+        if (lastStartupSampleTimeMs == 0L || nowMs - lastStartupSampleTimeMs >= sampleIntervalMs) {
+            lastStartupSampleTimeMs = nowMs;
+            startupSampler.add(
+                    absoluteVoltageToRawDegrees(readAbsoluteEncoderVoltage()),
+                    STARTUP_OUTLIER_RAW_DEGREES,
+                    Math.min(minSamples, STARTUP_SAMPLE_WINDOW),
+                    STARTUP_MAX_CONSECUTIVE_OUTLIERS
+            );
         }
 
-        double[] sortedSamples = Arrays.copyOf(unwrappedSamples, unwrappedSamples.length);
-        Arrays.sort(sortedSamples);
-        double medianUnwrappedDegrees = sortedSamples[sortedSamples.length / 2];
-        if ((sortedSamples.length % 2) == 0) {
-            medianUnwrappedDegrees =
-                    0.5 * (sortedSamples[(sortedSamples.length / 2) - 1] + sortedSamples[sortedSamples.length / 2]);
+        boolean converged = startupSampler.isConverged(minSamples, STARTUP_MAX_SAMPLE_SPREAD_RAW_DEGREES);
+        if (!converged && elapsedMs < Math.max(0L, maxSettleMs)) {
+            maybeLogStartupWaitState(expectedTurretAngleDegrees, elapsedMs);
+            return false;
+        }
+
+        RobotLog.ii(
+                STARTUP_LOG_TAG,
+                "sampler converged=%b samples=%d spreadRawDeg=%.3f rejected=%d restarts=%d settleMs=%d",
+                converged,
+                startupSampler.getCount(),
+                startupSampler.getSpreadDegrees(),
+                startupSampler.getRejectedCount(),
+                startupSampler.getRestartCount(),
+                elapsedMs
+        );
+        if (startupSampler.getCount() == 0) {
+            completeStartupCalibrationFromExpected(expectedTurretAngleDegrees);
+        } else {
+            completeStartupCalibrationFromRawDegrees(
+                    expectedTurretAngleDegrees,
+                    startupSampler.getMeanDegrees(),
+                    converged ? logPhase : logPhase + "_timeout"
+            );
         }
-        return wrapRawDegrees0To360(medianUnwrappedDegrees);
+        return true;
     }
 
     private void maybeLogStartupWaitState(double expectedTurretAngleDegrees, long elapsedMs) {
-        long nowMs = System.currentTimeMillis();
+        long nowMs = RobotClock.currentTimeMillis();
         if (lastStartupLogTimeMs == 0L || nowMs - lastStartupLogTimeMs >= 250L) {
             logStartupState("waiting_for_settle", expectedTurretAngleDegrees, elapsedMs);
         }
@@ -800,7 +1030,7 @@ public class TurretSubsystem implements Subsystem {
                 currentEncoderTicks,
                 settleElapsedMs
         );
-        lastStartupLogTimeMs = System.currentTimeMillis();
+        lastStartupLogTimeMs = RobotClock.currentTimeMillis();
     }
 
     private double readAbsoluteEncoderVoltage() {
@@ -839,7 +1069,7 @@ public class TurretSubsystem implements Subsystem {
     }
 
     private static double nowSeconds() {
-        return System.nanoTime() / 1e9;
+        return RobotClock.nanoTime() / 1e9;
     }
 
     private static double turretCountsPerDegree() {
@@ -0,0 +1,64 @@
+package org.firstinspires.ftc.teamcode.subsystems.shot;
+
+/**
+ * Caller-owned, reusable counterpart of {@link ShotSolution}. Filled in place
+ * by {@link ShotCalibrationTable#lookupInto(double, double, MutableShotSolution)}
+ * so the teleop loop can run a table lookup every iteration without putting
+ * any garbage on the heap.
+ *
+ * Field names match {@link ShotSolution} so call sites can switch between the
+ * two without edits. Only the first {@code sourceCount} entries of
+ * {@code sourceIdxs} / {@code weights} are meaningful; the arrays are sized to
+ * the largest k seen so far and only regrow when CAL_IDW_K is raised.
+ */
+public final class MutableShotSolution {
+    public double rpm;
+    public double hoodPos;
+    public double aimX;
+    public double aimY;
+    public int[] sourceIdxs;
+    public double[] weights;
+    public int sourceCount;
+    public boolean extrapolated;
+    public double nearestDistanceIn;
+
+    public MutableShotSolution() {
+        this(ShotCalibrationTable.CAL_IDW_K);
+    }
+
+    public MutableShotSolution(int capacity) {
+        int cap = Math.max(1, capacity);
+        this.sourceIdxs = new int[cap];
+        this.weights = new double[cap];
+    }
+
+    public int capacity() {
+        return sourceIdxs.length;
+    }
+
+    /** Grows the source arrays only when needed; steady-state calls are free. */
+    void ensureCapacity(int capacity) {
+        if (capacity > sourceIdxs.length) {
+            sourceIdxs = new int[capacity];
+            weights = new double[capacity];
+        }
+    }
+
+    /**
+     * Reflects the aim point across the field centerline in place. Same
+     * transform as Pedro's {@code Pose.mirror(fieldWidth)} on the (x, y)
+     * components; RPM and hood are mirror-invariant and left alone.
+     */
+    public void mirrorAim(double fieldWidthIn) {
+        aimX = fieldWidthIn - aimX;
+    }
+
+    /** Snapshot into an immutable {@link ShotSolution}. Allocates. */
+    public ShotSolution toShotSolution() {
+        int[] idx = new int[sourceCount];
+        double[] w = new double[sourceCount];
+        System.arraycopy(sourceIdxs, 0, idx, 0, sourceCount);
+        System.arraycopy(weights, 0, w, 0, sourceCount);
+        return new ShotSolution(rpm, hoodPos, aimX, aimY, idx, w, extrapolated, nearestDistanceIn);
+    }
+}
@@ -0,0 +1,382 @@
+package org.firstinspires.ftc.teamcode.subsystems.shot;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.teamcode.subsystems.ShooterSubsystem;
+
+/**
+ * Drag-aware projectile model of the shooter. Exit speed is the flywheel
+ * surface speed times {@link #BALLISTIC_EXIT_EFFICIENCY}; launch angle is
+ * linear in hood servo position between {@link #BALLISTIC_LAUNCH_DEG_AT_HOOD_MIN}
+ * and {@link #BALLISTIC_LAUNCH_DEG_AT_HOOD_MAX}; drag is quadratic
+ * (a = -k |v| v, k in 1/in).
+ *
+ * Integrating a trajectory is far too slow for the loop, so every (hood, rpm)
+ * bin is integrated once (RK4) by {@link #prepare()} and sampled at every
+ * distance bin into a precomputed (hood, rpm, distance) table of time of
+ * flight, ball height and flight-path angle, plus the apex per (hood, rpm).
+ * Queries are trilinear and allocation-free. Any tunable change is picked up
+ * by the next {@link #prepare()} (or the first query after it).
+ *
+ * Distances are horizontal, from the launch point. Heights are above the
+ * floor. A distance the ball never reaches (it lands first) reads as NaN, and
+ * so does anything interpolated from such a bin, so callers must fall back.
+ *
+ * Besides feeding SOTM time of flight, {@link #solveRpmForHeight} and
+ * {@link #solveForEntryHeight} invert the model: RPM (and hood) that put the
+ * ball through a given height at a given distance, instead of only reading
+ * RPM / hood out of {@link ShotCalibrationTable}.
+ *
+ * Not thread-safe; every caller is on the opmode thread.
+ */
+@Configurable
+public final class ShotBallistics {
+    private static final String TAG = "ShotBallistics";
+
+    public static double BALLISTIC_FLYWHEEL_RADIUS_IN = 1.89;
+    // Ball speed / wheel surface speed. ~0.5 for a single wheel against a hood;
+    // fit it so TOF / landing distance match video of real shots.
+    public static double BALLISTIC_EXIT_EFFICIENCY = 0.45;
+    public static double BALLISTIC_LAUNCH_DEG_AT_HOOD_MIN = 62.0;
+    public static double BALLISTIC_LAUNCH_DEG_AT_HOOD_MAX = 38.0;
+    public static double BALLISTIC_LAUNCH_HEIGHT_IN = 14.0;
+    // 0.5 * rho * Cd * A / m for a 5" ~75 g ball, in 1/in.
+    public static double BALLISTIC_DRAG_PER_IN = 0.0013;
+    public static double BALLISTIC_GOAL_ENTRY_HEIGHT_IN = 38.75;
+    // solveForEntryHeight() only accepts shots coming down at least this steeply.
+    public static double BALLISTIC_MIN_DESCENT_DEG = 10.0;
+
+    // Table extent / resolution.
+    public static double BALLISTIC_RPM_MIN = 1500.0;
+    public static double BALLISTIC_RPM_MAX = 5000.0;
+    public static double BALLISTIC_RPM_STEP = 100.0;
+    public static int BALLISTIC_HOOD_STEPS = 12;
+    public static double BALLISTIC_MAX_DISTANCE_IN = 168.0;
+    public static double BALLISTIC_DISTANCE_STEP_IN = 4.0;
+    public static double BALLISTIC_DT_SEC = 0.002;
+
+    private static final double GRAVITY_IN_PER_SEC2 = 386.09;
+    private static final double MAX_FLIGHT_SEC = 3.0;
+
+    /** Reusable output of {@link #solveForEntryHeight}. */
+    public static final class Solution {
+        public boolean valid;
+        public double rpm;
+        public double hoodPos;
+        public double timeOfFlightSec;
+        public double entryAngleDeg;
+        public double apexHeightIn;
+    }
+
+    // Flat [hood][rpm][distance] tables; apex is [hood][rpm].
+    private static float[] tof;
+    private static float[] height;
+    private static float[] angle;
+    private static float[] apex;
+    private static int hoodBins;
+    private static int rpmBins;
+    private static int distanceBins;
+    private static double hoodMin;
+    private static double hoodStep;
+    private static double rpmMin;
+    private static double rpmStep;
+    private static double distanceStep;
+
+    // Parameters the current table was baked with; any mismatch forces a rebake.
+    private static final double[] bakedParams = new double[17];
+    private static final double[] currentParams = new double[17];
+
+    private ShotBallistics() {}
+
+    /**
+     * Bakes the table now if it is missing or stale. Call from opmode init so
+     * the first loop does not pay for the integration.
+     */
+    public static void prepare() {
+        if (tof == null || isStale()) {
+            bake();
+        }
+    }
+
+    /** Time of flight to reach {@code distanceIn}, or NaN if the ball lands short. */
+    public static double flightTimeSeconds(double distanceIn, double hoodPos, double rpm) {
+        prepare();
+        return sample(tof, distanceIn, hoodPos, rpm);
+    }
+
+    /** Ball height above the floor when it has travelled {@code distanceIn}. */
+    public static double heightAtDistance(double distanceIn, double hoodPos, double rpm) {
+        prepare();
+        return sample(height, distanceIn, hoodPos, rpm);
+    }
+
+    /** Flight-path angle at {@code distanceIn}; negative while descending. */
+    public static double entryAngleDeg(double distanceIn, double hoodPos, double rpm) {
+        prepare();
+        return sample(angle, distanceIn, hoodPos, rpm);
+    }
+
+    /** Highest point of the trajectory above the floor. */
+    public static double apexHeightIn(double hoodPos, double rpm) {
+        prepare();
+        double h = clampIndex((hoodPos - hoodMin) / hoodStep, hoodBins);
+        double r = clampIndex((rpm - rpmMin) / rpmStep, rpmBins);
+        int h0 = Math.min((int) h, hoodBins - 2);
+        int r0 = Math.min((int) r, rpmBins - 2);
+        double th = h - h0;
+        double tr = r - r0;
+        double a0 = lerp(apex[h0 * rpmBins + r0], apex[h0 * rpmBins + r0 + 1], tr);
+        double a1 = lerp(apex[(h0 + 1) * rpmBins + r0], apex[(h0 + 1) * rpmBins + r0 + 1], tr);
+        return lerp(a0, a1, th);
+    }
+
+    /**
+     * RPM that puts the ball at {@code heightIn} when it reaches
+     * {@code distanceIn} with the hood at {@code hoodPos}, or NaN if no RPM in
+     * the table range does. Height at a fixed distance rises monotonically
+     * with RPM, so this is a bisection over the table. The ball may still be
+     * rising at that RPM; check {@link #entryAngleDeg} if that matters.
+     */
+    public static double solveRpmForHeight(double distanceIn, double hoodPos, double heightIn) {
+        prepare();
+        double lo = rpmMin;
+        double hi = rpmMin + (rpmBins - 1) * rpmStep;
+        double hiHeight = sample(height, distanceIn, hoodPos, hi);
+        if (!(hiHeight >= heightIn)) {
+            return Double.NaN;
+        }
+        double loHeight = sample(height, distanceIn, hoodPos, lo);
+        if (loHeight >= heightIn) {
+            return lo;
+        }
+        // loHeight may be NaN (ball lands short), which bisects the same way
+        // as "too low".
+        for (int i = 0; i < 24 && hi - lo > 1.0; i++) {
+            double mid = 0.5 * (lo + hi);
+            if (sample(height, distanceIn, hoodPos, mid) >= heightIn) {
+                hi = mid;
+            } else {
+                lo = mid;
+            }
+        }
+        return hi;
+    }
+
+    /**
+     * Picks the hood / RPM pair that drops the ball through {@code heightIn}
+     * at {@code distanceIn} coming down at least
+     * {@link #BALLISTIC_MIN_DESCENT_DEG}, preferring the lowest RPM (fastest
+     * spin-up, least recovery between balls). Hood candidates are the table's
+     * hood bins. Returns false and leaves {@code out.valid} false when nothing
+     * in the table qualifies.
+     */
+    public static boolean solveForEntryHeight(double distanceIn, double heightIn, Solution out) {
+        prepare();
+        out.valid = false;
+        double minDescent = -Math.abs(BALLISTIC_MIN_DESCENT_DEG);
+        for (int h = 0; h < hoodBins; h++) {
+            double hoodPos = hoodMin + h * hoodStep;
+            double rpm = solveRpmForHeight(distanceIn, hoodPos, heightIn);
+            if (Double.isNaN(rpm) || (out.valid && rpm >= out.rpm)) {
+                continue;
+            }
+            double entry = sample(angle, distanceIn, hoodPos, rpm);
+            if (!(entry <= minDescent)) {
+                continue;
+            }
+            out.valid = true;
+            out.rpm = rpm;
+            out.hoodPos = hoodPos;
+            out.timeOfFlightSec = sample(tof, distanceIn, hoodPos, rpm);
+            out.entryAngleDeg = entry;
+            out.apexHeightIn = apexHeightIn(hoodPos, rpm);
+        }
+        return out.valid;
+    }
+
+    public static double launchAngleDeg(double hoodPos) {
+        double span = ShooterSubsystem.HOOD_MAX_POS - ShooterSubsystem.HOOD_MIN_POS;
+        double t = span > 1e-9 ? (hoodPos - ShooterSubsystem.HOOD_MIN_POS) / span : 0.0;
+        return BALLISTIC_LAUNCH_DEG_AT_HOOD_MIN
+                + t * (BALLISTIC_LAUNCH_DEG_AT_HOOD_MAX - BALLISTIC_LAUNCH_DEG_AT_HOOD_MIN);
+    }
+
+    public static double exitSpeedInPerSec(double rpm) {
+        return rpm / 60.0 * 2.0 * Math.PI * BALLISTIC_FLYWHEEL_RADIUS_IN * BALLISTIC_EXIT_EFFICIENCY;
+    }
+
+    private static double sample(float[] table, double distanceIn, double hoodPos, double rpm) {
+        double d = distanceIn / distanceStep;
+        if (!(d >= 0.0) || d > distanceBins - 1) {
+            return Double.NaN;
+        }
+        double h = clampIndex((hoodPos - hoodMin) / hoodStep, hoodBins);
+        double r = clampIndex((rpm - rpmMin) / rpmStep, rpmBins);
+        int d0 = Math.min((int) d, distanceBins - 2);
+        int h0 = Math.min((int) h, hoodBins - 2);
+        int r0 = Math.min((int) r, rpmBins - 2);
+        double td = d - d0;
+        double th = h - h0;
+        double tr = r - r0;
+
+        int rowStride = distanceBins;
+        int hoodStride = rpmBins * distanceBins;
+        int base = h0 * hoodStride + r0 * rowStride + d0;
+        double c00 = lerp(table[base], table[base + 1], td);
+        double c01 = lerp(table[base + rowStride], table[base + rowStride + 1], td);
+        double c10 = lerp(table[base + hoodStride], table[base + hoodStride + 1], td);
+        double c11 = lerp(table[base + hoodStride + rowStride], table[base + hoodStride + rowStride + 1], td);
+        // NaN in any corner propagates, so a bin next to "lands short" is
+        // reported as unreachable rather than half-interpolated.
+        return lerp(lerp(c00, c01, tr), lerp(c10, c11, tr), th);
+    }
+
+    private static double clampIndex(double index, int bins) {
+        return Math.max(0.0, Math.min(bins - 1, index));
+    }
+
+    private static double lerp(double a, double b, double t) {
+        return a + t * (b - a);
+    }
+
+    private static void captureParams(double[] p) {
+        p[0] = BALLISTIC_FLYWHEEL_RADIUS_IN;
+        p[1] = BALLISTIC_EXIT_EFFICIENCY;
+        p[2] = BALLISTIC_LAUNCH_DEG_AT_HOOD_MIN;
+        p[3] = BALLISTIC_LAUNCH_DEG_AT_HOOD_MAX;
+        p[4] = BALLISTIC_LAUNCH_HEIGHT_IN;
+        p[5] = BALLISTIC_DRAG_PER_IN;
+        p[6] = BALLISTIC_RPM_MIN;
+        p[7] = BALLISTIC_RPM_MAX;
+        p[8] = BALLISTIC_RPM_STEP;
+        p[9] = BALLISTIC_HOOD_STEPS;
+        p[10] = BALLISTIC_MAX_DISTANCE_IN;
+        p[11] = BALLISTIC_DISTANCE_STEP_IN;
+        p[12] = BALLISTIC_DT_SEC;
+        p[13] = ShooterSubsystem.HOOD_MIN_POS;
+        p[14] = ShooterSubsystem.HOOD_MAX_POS;
+        p[15] = GRAVITY_IN_PER_SEC2;
+        p[16] = MAX_FLIGHT_SEC;
+    }
+
+    private static boolean isStale() {
+        captureParams(currentParams);
+        for (int i = 0; i < currentParams.length; i++) {
+            if (Double.compare(currentParams[i], bakedParams[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void bake() {
+        long startNs = System.nanoTime();
+        captureParams(bakedParams);
+
+        hoodBins = Math.max(2, BALLISTIC_HOOD_STEPS);
+        hoodMin = ShooterSubsystem.HOOD_MIN_POS;
+        hoodStep = Math.max(1e-6, (ShooterSubsystem.HOOD_MAX_POS - hoodMin) / (hoodBins - 1));
+        rpmStep = Math.max(1.0, BALLISTIC_RPM_STEP);
+        rpmMin = Math.max(0.0, BALLISTIC_RPM_MIN);
+        rpmBins = Math.max(2, (int) Math.ceil((BALLISTIC_RPM_MAX - rpmMin) / rpmStep) + 1);
+        distanceStep = Math.max(0.5, BALLISTIC_DISTANCE_STEP_IN);
+        distanceBins = Math.max(2, (int) Math.ceil(BALLISTIC_MAX_DISTANCE_IN / distanceStep) + 1);
+
+        int cells = hoodBins * rpmBins * distanceBins;
+        tof = new float[cells];
+        height = new float[cells];
+        angle = new float[cells];
+        apex = new float[hoodBins * rpmBins];
+
+        for (int h = 0; h < hoodBins; h++) {
+            double launchRad = Math.toRadians(launchAngleDeg(hoodMin + h * hoodStep));
+            for (int r = 0; r < rpmBins; r++) {
+                double speed = exitSpeedInPerSec(rpmMin + r * rpmStep);
+                apex[h * rpmBins + r] = (float) integrate(
+                        speed * Math.cos(launchRad),
+                        speed * Math.sin(launchRad),
+                        (h * rpmBins + r) * distanceBins);
+            }
+        }
+        RobotLog.ii(TAG, "Baked " + hoodBins + "x" + rpmBins + "x" + distanceBins
+                + " ballistic table in " + (System.nanoTime() - startNs) / 1_000_000 + " ms");
+    }
+
+    /**
+     * RK4 integration of one trajectory, writing every distance bin it
+     * crosses into the tables at {@code base}. Bins never reached are NaN.
+     * Returns the apex height.
+     */
+    private static double integrate(double vx, double vy, int base) {
+        double k = Math.max(0.0, BALLISTIC_DRAG_PER_IN);
+        double dt = Math.max(1e-4, BALLISTIC_DT_SEC);
+        double x = 0.0;
+        double y = BALLISTIC_LAUNCH_HEIGHT_IN;
+        double t = 0.0;
+        double apexY = y;
+
+        tof[base] = 0.0f;
+        height[base] = (float) y;
+        angle[base] = (float) Math.toDegrees(Math.atan2(vy, vx));
+        int nextBin = 1;
+
+        while (nextBin < distanceBins && y >= 0.0 && t < MAX_FLIGHT_SEC && vx > 1e-6) {
+            // k1..k4 for (x, y, vx, vy); position derivative is velocity.
+            double s1 = k * Math.hypot(vx, vy);
+            double ax1 = -s1 * vx;
+            double ay1 = -GRAVITY_IN_PER_SEC2 - s1 * vy;
+
+            double vx2 = vx + 0.5 * dt * ax1;
+            double vy2 = vy + 0.5 * dt * ay1;
+            double s2 = k * Math.hypot(vx2, vy2);
+            double ax2 = -s2 * vx2;
+            double ay2 = -GRAVITY_IN_PER_SEC2 - s2 * vy2;
+
+            double vx3 = vx + 0.5 * dt * ax2;
+            double vy3 = vy + 0.5 * dt * ay2;
+            double s3 = k * Math.hypot(vx3, vy3);
+            double ax3 = -s3 * vx3;
+            double ay3 = -GRAVITY_IN_PER_SEC2 - s3 * vy3;
+
+            double vx4 = vx + dt * ax3;
+            double vy4 = vy + dt * ay3;
+            double s4 = k * Math.hypot(vx4, vy4);
+            double ax4 = -s4 * vx4;
+            double ay4 = -GRAVITY_IN_PER_SEC2 - s4 * vy4;
+
+            double nx = x + dt / 6.0 * (vx + 2.0 * vx2 + 2.0 * vx3 + vx4);
+            double ny = y + dt / 6.0 * (vy + 2.0 * vy2 + 2.0 * vy3 + vy4);
+            double nvx = vx + dt / 6.0 * (ax1 + 2.0 * ax2 + 2.0 * ax3 + ax4);
+            double nvy = vy + dt / 6.0 * (ay1 + 2.0 * ay2 + 2.0 * ay3 + ay4);
+
+            // Record every distance bin crossed during this step, linearly
+            // interpolated within the step.
+            while (nextBin < distanceBins && nextBin * distanceStep <= nx) {
+                double f = (nextBin * distanceStep - x) / (nx - x);
+                if (y + f * (ny - y) < 0.0) {
+                    break;
+                }
+                int cell = base + nextBin;
+                tof[cell] = (float) (t + f * dt);
+                height[cell] = (float) (y + f * (ny - y));
+                angle[cell] = (float) Math.toDegrees(Math.atan2(vy + f * (nvy - vy), vx + f * (nvx - vx)));
+                nextBin++;
+            }
+
+            x = nx;
+            y = ny;
+            vx = nvx;
+            vy = nvy;
+            t += dt;
+            apexY = Math.max(apexY, y);
+        }
+
+        for (; nextBin < distanceBins; nextBin++) {
+            tof[base + nextBin] = Float.NaN;
+            height[base + nextBin] = Float.NaN;
+            angle[base + nextBin] = Float.NaN;
+        }
+        return apexY;
+    }
+}
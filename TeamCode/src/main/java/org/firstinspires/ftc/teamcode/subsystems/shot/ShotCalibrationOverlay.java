@@ -0,0 +1,168 @@
+package org.firstinspires.ftc.teamcode.subsystems.shot;
+
+import com.bylazar.configurables.annotations.Configurable;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Learned RPM / hood corrections layered on top of a
+ * {@link ShotCalibrationTable}. A coarse grid of cells over the field (12" by
+ * default, so 144 cells and a few KB regardless of how many shots are
+ * labeled) holds an additive correction per cell. Every KEEP-labeled tuning
+ * shot pulls the four cells around the fire pose toward the difference
+ * between what the operator dialed in and what the base table would have
+ * returned there, weighted bilinearly and by {@link #CAL_OVERLAY_LEARN_RATE}.
+ * Lookups add the bilinear sample of the corrections.
+ *
+ * Corrections decay by {@link #CAL_OVERLAY_SESSION_DECAY} each time they are
+ * reloaded, so stale data from an old ball batch fades instead of fighting new
+ * labels forever. Corrections are clamped so a bad label cannot push the table
+ * somewhere wild.
+ *
+ * Coordinates are blue-authored calibration space, same as the table.
+ */
+@Configurable
+public final class ShotCalibrationOverlay {
+    // Learning always runs on KEEP labels; applying to live lookups is opt-in
+    // until the overlay has been validated on the field.
+    public static boolean CAL_OVERLAY_LEARN = true;
+    public static boolean CAL_OVERLAY_APPLY = false;
+    public static double CAL_OVERLAY_LEARN_RATE = 0.35;
+    public static double CAL_OVERLAY_SESSION_DECAY = 0.9;
+    public static double CAL_OVERLAY_MAX_RPM_CORRECTION = 300.0;
+    public static double CAL_OVERLAY_MAX_HOOD_CORRECTION = 0.08;
+
+    private static final int FILE_MAGIC = 0x534F564C; // "SOVL"
+    private static final int FILE_VERSION = 1;
+
+    private final double cellSizeIn;
+    private final int nodesPerSide;
+    private final double[] rpmCorrection;
+    private final double[] hoodCorrection;
+    // Accumulated bilinear weight of KEEP labels per node. Not used by the
+    // lookup; kept in the saved file so trained cells can be told apart from
+    // untouched ones when reviewing an overlay off-robot.
+    private final double[] confidence;
+    private boolean dirty = false;
+
+    ShotCalibrationOverlay(double fieldSizeIn, double cellSizeIn) {
+        this.cellSizeIn = cellSizeIn;
+        this.nodesPerSide = (int) Math.ceil(fieldSizeIn / cellSizeIn) + 1;
+        int nodes = nodesPerSide * nodesPerSide;
+        rpmCorrection = new double[nodes];
+        hoodCorrection = new double[nodes];
+        confidence = new double[nodes];
+    }
+
+    /** Adds the learned correction at (x, y) to {@code out} in place. */
+    void applyTo(double x, double y, MutableShotSolution out) {
+        int last = nodesPerSide - 1;
+        double gx = Math.max(0.0, Math.min(last, x / cellSizeIn));
+        double gy = Math.max(0.0, Math.min(last, y / cellSizeIn));
+        int ix = Math.min((int) gx, last - 1);
+        int iy = Math.min((int) gy, last - 1);
+        double tx = gx - ix;
+        double ty = gy - iy;
+        int n00 = ix * nodesPerSide + iy;
+        int n01 = n00 + 1;
+        int n10 = n00 + nodesPerSide;
+        int n11 = n10 + 1;
+        double w00 = (1.0 - tx) * (1.0 - ty);
+        double w01 = (1.0 - tx) * ty;
+        double w10 = tx * (1.0 - ty);
+        double w11 = tx * ty;
+        out.rpm += w00 * rpmCorrection[n00] + w01 * rpmCorrection[n01]
+                + w10 * rpmCorrection[n10] + w11 * rpmCorrection[n11];
+        out.hoodPos += w00 * hoodCorrection[n00] + w01 * hoodCorrection[n01]
+                + w10 * hoodCorrection[n10] + w11 * hoodCorrection[n11];
+    }
+
+    /**
+     * Folds one KEEP shot into the four nodes around (x, y). {@code rpmDelta}
+     * and {@code hoodDelta} are operator value minus base-table value.
+     */
+    void learn(double x, double y, double rpmDelta, double hoodDelta) {
+        int last = nodesPerSide - 1;
+        double gx = Math.max(0.0, Math.min(last, x / cellSizeIn));
+        double gy = Math.max(0.0, Math.min(last, y / cellSizeIn));
+        int ix = Math.min((int) gx, last - 1);
+        int iy = Math.min((int) gy, last - 1);
+        double tx = gx - ix;
+        double ty = gy - iy;
+        learnNode(ix * nodesPerSide + iy, (1.0 - tx) * (1.0 - ty), rpmDelta, hoodDelta);
+        learnNode(ix * nodesPerSide + iy + 1, (1.0 - tx) * ty, rpmDelta, hoodDelta);
+        learnNode((ix + 1) * nodesPerSide + iy, tx * (1.0 - ty), rpmDelta, hoodDelta);
+        learnNode((ix + 1) * nodesPerSide + iy + 1, tx * ty, rpmDelta, hoodDelta);
+        dirty = true;
+    }
+
+    private void learnNode(int node, double weight, double rpmDelta, double hoodDelta) {
+        double rate = Math.max(0.0, Math.min(1.0, CAL_OVERLAY_LEARN_RATE)) * weight;
+        rpmCorrection[node] = clamp(
+                rpmCorrection[node] + rate * (rpmDelta - rpmCorrection[node]),
+                CAL_OVERLAY_MAX_RPM_CORRECTION);
+        hoodCorrection[node] = clamp(
+                hoodCorrection[node] + rate * (hoodDelta - hoodCorrection[node]),
+                CAL_OVERLAY_MAX_HOOD_CORRECTION);
+        confidence[node] += weight;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    public void clear() {
+        Arrays.fill(rpmCorrection, 0.0);
+        Arrays.fill(hoodCorrection, 0.0);
+        Arrays.fill(confidence, 0.0);
+        dirty = true;
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(FILE_MAGIC);
+        out.writeInt(FILE_VERSION);
+        out.writeDouble(cellSizeIn);
+        out.writeInt(nodesPerSide);
+        for (int i = 0; i < rpmCorrection.length; i++) {
+            out.writeDouble(rpmCorrection[i]);
+            out.writeDouble(hoodCorrection[i]);
+            out.writeDouble(confidence[i]);
+        }
+        dirty = false;
+    }
+
+    /**
+     * Reads a file written by {@link #write}, applying one session of decay.
+     * A file with a different grid shape is rejected rather than resampled.
+     */
+    void read(DataInputStream in) throws IOException {
+        if (in.readInt() != FILE_MAGIC) {
+            throw new IOException("not a shot overlay file");
+        }
+        int version = in.readInt();
+        if (version != FILE_VERSION) {
+            throw new IOException("unsupported overlay version " + version);
+        }
+        double fileCellSize = in.readDouble();
+        int fileNodes = in.readInt();
+        if (fileCellSize != cellSizeIn || fileNodes != nodesPerSide) {
+            throw new IOException("overlay grid " + fileNodes + "@" + fileCellSize
+                    + " does not match " + nodesPerSide + "@" + cellSizeIn);
+        }
+        double decay = Math.max(0.0, Math.min(1.0, CAL_OVERLAY_SESSION_DECAY));
+        for (int i = 0; i < rpmCorrection.length; i++) {
+            rpmCorrection[i] = decay * in.readDouble();
+            hoodCorrection[i] = decay * in.readDouble();
+            confidence[i] = decay * in.readDouble();
+        }
+        dirty = false;
+    }
+
+    private static double clamp(double value, double limit) {
+        double l = Math.abs(limit);
+        return Math.max(-l, Math.min(l, value));
+    }
+}
@@ -0,0 +1,303 @@
+package org.firstinspires.ftc.teamcode.subsystems.shot;
+
+import android.os.Environment;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Registry of named shot-calibration profiles. The baked-in table is always
+ * registered as {@value #BUILT_IN_PROFILE}; any {@code *.csv} under
+ * {@link #PROFILE_DIR} on the Control Hub is loaded at init and registered
+ * under its file name (without extension), e.g. {@code blue_worlds.csv} ->
+ * {@code blue_worlds}.
+ *
+ * Profiles are swapped by name from Panels via {@link #ACTIVE_PROFILE}; the
+ * swap takes effect on the next {@link ShotCalibrationTable#active()} call, so
+ * per-alliance, per-field, or per-ball-batch tables can be changed at an event
+ * without recompiling. An unknown name keeps the current profile.
+ *
+ * File format is what {@code scripts/build_shot_calibration.py --profile-out}
+ * writes: one header row naming the columns
+ * {@code idx,x,y,rpm,hood,aim_x,aim_y,zone,notes} (any order), one row per
+ * sample, blank lines and {@code #} comments ignored. Fields are CSV-quoted
+ * the way Python's csv module writes them: a field containing a comma is
+ * wrapped in double quotes, and a quote inside it is doubled. Files are streamed line
+ * by line so init cost scales with the file, not with a full read into memory.
+ * Rows are kept in file order; the row position becomes the sample index that
+ * CAL_POINT_INDEX and {@link ShotCalibrationTable#sampleAt(int)} refer to.
+ *
+ * Each profile's learned {@link ShotCalibrationOverlay} persists next to it as
+ * {@code <name>.overlay}: {@link #loadOverlays()} at init,
+ * {@link #saveOverlays()} at stop.
+ */
+@Configurable
+public final class ShotCalibrationProfiles {
+    private static final String TAG = "ShotCalibrationProfiles";
+
+    public static final String BUILT_IN_PROFILE = "default";
+
+    public static String ACTIVE_PROFILE = BUILT_IN_PROFILE;
+    // Optional per-alliance overrides applied by selectForAlliance() at match
+    // start. Leave empty to keep ACTIVE_PROFILE as-is for that alliance.
+    public static String RED_PROFILE = "";
+    public static String BLUE_PROFILE = "";
+    public static String PROFILE_DIR = "FIRST/shot_profiles";
+
+    private static final String OVERLAY_SUFFIX = ".overlay";
+    private static final String[] REQUIRED_COLUMNS = {"x", "y", "rpm", "hood", "aim_x", "aim_y"};
+
+    private static final Map<String, ShotCalibrationTable> PROFILES = new LinkedHashMap<>();
+    private static String activeName = BUILT_IN_PROFILE;
+    private static ShotCalibrationTable activeTable = ShotCalibrationTable.builtIn();
+    // Last requested name we failed to resolve, so a typo in Panels logs once
+    // instead of every loop.
+    private static String missingName = null;
+
+    static {
+        PROFILES.put(BUILT_IN_PROFILE, activeTable);
+    }
+
+    private ShotCalibrationProfiles() {}
+
+    /**
+     * Returns the table named by {@link #ACTIVE_PROFILE}. Cheap enough for
+     * every loop: a string compare against the cached name unless the name
+     * actually changed.
+     */
+    static ShotCalibrationTable active() {
+        String requested = ACTIVE_PROFILE;
+        if (requested == null || requested.equals(activeName) || requested.equals(missingName)) {
+            return activeTable;
+        }
+        ShotCalibrationTable table = PROFILES.get(requested);
+        if (table == null) {
+            missingName = requested;
+            RobotLog.ww(TAG, "Unknown shot profile '%s', keeping '%s'", requested, activeName);
+            return activeTable;
+        }
+        activeName = requested;
+        activeTable = table;
+        missingName = null;
+        RobotLog.ii(TAG, "Active shot profile: %s (%d samples)", requested, table.size());
+        return activeTable;
+    }
+
+    public static String activeName() {
+        return activeName;
+    }
+
+    public static List<String> names() {
+        return new ArrayList<>(PROFILES.keySet());
+    }
+
+    /**
+     * Points {@link #ACTIVE_PROFILE} at {@link #RED_PROFILE} or
+     * {@link #BLUE_PROFILE} when one is configured.
+     */
+    public static void selectForAlliance(boolean isRed) {
+        String name = isRed ? RED_PROFILE : BLUE_PROFILE;
+        if (name != null && !name.isEmpty()) {
+            ACTIVE_PROFILE = name;
+        }
+    }
+
+    /**
+     * (Re)loads every profile file under {@link #PROFILE_DIR}. Safe to call on
+     * every opmode init; a file that fails to parse is logged and skipped, and
+     * the built-in profile is never replaced. Returns the number of profiles
+     * loaded from storage.
+     */
+    public static int loadFromStorage() {
+        File dir = new File(Environment.getExternalStorageDirectory(), PROFILE_DIR);
+        File[] files = dir.listFiles((d, name) -> name.toLowerCase(Locale.US).endsWith(".csv"));
+        if (files == null) {
+            return 0;
+        }
+        Arrays.sort(files);
+
+        int loaded = 0;
+        for (File file : files) {
+            String fileName = file.getName();
+            String name = fileName.substring(0, fileName.length() - ".csv".length());
+            if (BUILT_IN_PROFILE.equals(name)) {
+                RobotLog.ww(TAG, "Skipping %s: name is reserved for the built-in table", fileName);
+                continue;
+            }
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                ShotCalibrationTable table = new ShotCalibrationTable(parse(reader));
+                PROFILES.put(name, table);
+                loaded++;
+                RobotLog.ii(TAG, "Loaded shot profile %s (%d samples)", name, table.size());
+            } catch (IOException | IllegalArgumentException e) {
+                RobotLog.ee(TAG, e, "Failed to load shot profile %s", file.getAbsolutePath());
+            }
+        }
+
+        // Re-resolve against the fresh map so a reloaded file with the same
+        // name replaces the previous instance.
+        activeName = BUILT_IN_PROFILE;
+        activeTable = PROFILES.get(BUILT_IN_PROFILE);
+        missingName = null;
+        active();
+        return loaded;
+    }
+
+    /**
+     * Loads {@code <name>.overlay} for every registered profile that has one.
+     * Call after {@link #loadFromStorage()}.
+     */
+    public static void loadOverlays() {
+        File dir = new File(Environment.getExternalStorageDirectory(), PROFILE_DIR);
+        for (Map.Entry<String, ShotCalibrationTable> entry : PROFILES.entrySet()) {
+            File file = new File(dir, entry.getKey() + OVERLAY_SUFFIX);
+            if (!file.isFile()) {
+                continue;
+            }
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(new FileInputStream(file)))) {
+                entry.getValue().overlay().read(in);
+                RobotLog.ii(TAG, "Loaded shot overlay %s", file.getName());
+            } catch (IOException e) {
+                RobotLog.ee(TAG, e, "Failed to load shot overlay %s", file.getAbsolutePath());
+            }
+        }
+    }
+
+    /** Writes every overlay that learned something this session. */
+    public static void saveOverlays() {
+        File dir = new File(Environment.getExternalStorageDirectory(), PROFILE_DIR);
+        for (Map.Entry<String, ShotCalibrationTable> entry : PROFILES.entrySet()) {
+            ShotCalibrationOverlay overlay = entry.getValue().overlay();
+            if (!overlay.isDirty()) {
+                continue;
+            }
+            if (!dir.exists() && !dir.mkdirs()) {
+                RobotLog.ee(TAG, "Could not create directory: %s", dir.getAbsolutePath());
+                return;
+            }
+            File file = new File(dir, entry.getKey() + OVERLAY_SUFFIX);
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(file)))) {
+                overlay.write(out);
+                RobotLog.ii(TAG, "Saved shot overlay %s", file.getAbsolutePath());
+            } catch (IOException e) {
+                RobotLog.ee(TAG, e, "Failed to save shot overlay %s", file.getAbsolutePath());
+            }
+        }
+    }
+
+    static ShotSample[] parse(BufferedReader reader) throws IOException {
+        int[] columns = null;
+        int notesColumn = -1;
+        int zoneColumn = -1;
+        List<String> f = new ArrayList<>();
+        List<ShotSample> rows = new ArrayList<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            if (columns == null) {
+                splitRow(trimmed, f);
+                columns = new int[REQUIRED_COLUMNS.length];
+                Arrays.fill(columns, -1);
+                for (int i = 0; i < f.size(); i++) {
+                    String col = f.get(i).toLowerCase(Locale.US);
+                    for (int c = 0; c < REQUIRED_COLUMNS.length; c++) {
+                        if (REQUIRED_COLUMNS[c].equals(col)) columns[c] = i;
+                    }
+                    if ("zone".equals(col)) zoneColumn = i;
+                    if ("notes".equals(col)) notesColumn = i;
+                }
+                for (int c = 0; c < REQUIRED_COLUMNS.length; c++) {
+                    if (columns[c] < 0) {
+                        throw new IllegalArgumentException("missing column '" + REQUIRED_COLUMNS[c] + "'");
+                    }
+                }
+                continue;
+            }
+
+            splitRow(trimmed, f);
+            try {
+                rows.add(new ShotSample(
+                        rows.size(),
+                        Double.parseDouble(f.get(columns[0])),
+                        Double.parseDouble(f.get(columns[1])),
+                        Double.parseDouble(f.get(columns[2])),
+                        Double.parseDouble(f.get(columns[3])),
+                        Double.parseDouble(f.get(columns[4])),
+                        Double.parseDouble(f.get(columns[5])),
+                        field(f, zoneColumn),
+                        field(f, notesColumn)
+                ));
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("bad row at line " + lineNumber + ": " + line, e);
+            }
+        }
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("profile has no samples");
+        }
+        return rows.toArray(new ShotSample[0]);
+    }
+
+    private static String field(List<String> fields, int column) {
+        if (column < 0 || column >= fields.size()) {
+            return "";
+        }
+        return fields.get(column);
+    }
+
+    /**
+     * Splits one CSV row into {@code out} (cleared first), honouring double
+     * quotes: commas inside a quoted field do not split it, {@code ""} inside
+     * one is a literal quote, and the quotes themselves are dropped. Fields
+     * are trimmed. An unterminated quote runs to the end of the line.
+     */
+    static void splitRow(String line, List<String> out) {
+        out.clear();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                out.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        out.add(field.toString().trim());
+    }
+}
@@ -2,9 +2,6 @@ package org.firstinspires.ftc.teamcode.subsystems.shot;
 
 import com.bylazar.configurables.annotations.Configurable;
 
-import java.util.Arrays;
-import java.util.Comparator;
-
 /**
  * 2D shot calibration table. Indexed by robot (x, y) in field inches, returns
  * RPM, hood position, and turret aim point via k-nearest inverse-distance
@@ -32,6 +29,22 @@ public final class ShotCalibrationTable {
     public static double CAL_IDW_POWER = 2.0;
     public static double CAL_EXACT_SNAP_IN = 0.5;
     public static double CAL_EXTRAPOLATED_WARN_IN = 24.0;
+    // Interpolation backend: 0 = k-nearest IDW, 1 = Delaunay barycentric.
+    // Barycentric is continuous across the whole hull and clamps to the
+    // nearest hull edge outside it; IDW is the long-standing default.
+    public static int CAL_INTERPOLATION_MODE = 0;
+    // Tables at least this large answer k-nearest queries from a bucket grid
+    // instead of scanning every sample. Below it the scan is cheaper.
+    public static int CAL_SPATIAL_INDEX_MIN_SAMPLES = 48;
+    // Cell size of the learned correction overlay; see ShotCalibrationOverlay.
+    public static double CAL_OVERLAY_CELL_IN = 12.0;
+    // Dense-grid mode: bake the IDW blend onto a regular field grid once and
+    // bilinearly sample it per loop. The grid rebakes lazily on the next
+    // lookup after any IDW knob or the resolution changes. Edited samples
+    // arrive as a new table through a profile reload, which bakes its own.
+    public static boolean CAL_GRID_ENABLED = false;
+    public static double CAL_GRID_RESOLUTION_IN = 2.0;
+    public static double CAL_GRID_FIELD_SIZE_IN = 144.0;
     public double offset = 30;
 
     private static final ShotCalibrationTable DEFAULT = new ShotCalibrationTable(new ShotSample[]{
@@ -81,16 +94,61 @@ public final class ShotCalibrationTable {
 //            new ShotSample(13, 92.19, 86.89, 4420.0, 0.525, -0.4, 129.4, "B", "B right hood-max"),
     });
 
+    /**
+     * Currently selected profile. See {@link ShotCalibrationProfiles} for how
+     * profiles are loaded from storage and swapped at runtime.
+     */
     public static ShotCalibrationTable active() {
+        return ShotCalibrationProfiles.active();
+    }
+
+    /** The baked-in profile, registered as {@link ShotCalibrationProfiles#BUILT_IN_PROFILE}. */
+    static ShotCalibrationTable builtIn() {
         return DEFAULT;
     }
 
     private final ShotSample[] samples;
+    // Scratch for lookupInto's top-k select. Sized to the table so any
+    // CAL_IDW_K set from Panels fits without reallocating.
+    private final int[] nearestIdx;
+    private final double[] nearestDist;
+
+    // Baked grid, row-major over (x, y) with GRID_CHANNELS interleaved values
+    // per node so one bilinear sample touches four contiguous runs.
+    private static final int GRID_RPM = 0;
+    private static final int GRID_HOOD = 1;
+    private static final int GRID_AIM_X = 2;
+    private static final int GRID_AIM_Y = 3;
+    private static final int GRID_NEAREST = 4;
+    private static final int GRID_CHANNELS = 5;
+    private ShotCalibrationOverlay overlay;
+    // Scratch for learnFromKeptShot's base-table lookup.
+    private final MutableShotSolution learnScratch = new MutableShotSolution();
+    private ShotSampleIndex sampleIndex;
+    private int sampleIndexSamplesVersion = -1;
+    private ShotTriangulation triangulation;
+    private int triangulationSamplesVersion = -1;
 
-    private ShotCalibrationTable(ShotSample[] samples) {
-        // Deliberate constructor argument: this is baked-in, one profile. If
-        // red/blue profiles are ever needed, add a registry around active().
+    private double[] grid;
+    private int gridNodesPerSide;
+    private double gridStepIn;
+    private double gridSizeIn;
+    private int samplesVersion;
+    // Parameters the current grid was baked with; any mismatch forces a rebake.
+    private int bakedMode = -1;
+    private int bakedK = -1;
+    private double bakedPower = Double.NaN;
+    private double bakedSnapIn = Double.NaN;
+    private double bakedResolutionIn = Double.NaN;
+    private double bakedFieldSizeIn = Double.NaN;
+    private int bakedSamplesVersion = -1;
+
+    ShotCalibrationTable(ShotSample[] samples) {
+        // Package-private: tables come from DEFAULT or from
+        // ShotCalibrationProfiles loading a file.
         this.samples = samples;
+        this.nearestIdx = new int[samples.length];
+        this.nearestDist = new double[samples.length];
     }
 
     public ShotSample[] samples() {
@@ -109,43 +167,158 @@ public final class ShotCalibrationTable {
         return samples.length;
     }
 
+    /**
+     * Replaces one calibration point in place and marks the baked grid, the
+     * Delaunay triangulation and the bucket index stale.
+     *
+     * Nothing on the robot calls this today: there is no Panels entry point
+     * for editing a sample. Re-tuned points go through the shot-tuning log,
+     * scripts/build_shot_calibration.py and a profile reload
+     * ({@link ShotCalibrationProfiles#loadFromStorage()}), which registers a
+     * fresh table. Anything that does edit samples at runtime must come
+     * through here, not through {@link #samples()}, or lookups keep serving
+     * the old grid.
+     */
+    public void setSample(int index, ShotSample sample) {
+        sampleAt(index);
+        samples[index] = sample;
+        samplesVersion++;
+    }
+
+    /**
+     * Bakes the dense grid now if grid mode is on and it is stale. Call from
+     * opmode init so the first teleop loop does not pay for the bake.
+     */
+    public void prepare() {
+        if (CAL_GRID_ENABLED) {
+            ensureGrid();
+        }
+    }
+
+    /**
+     * Allocating convenience wrapper around
+     * {@link #lookupInto(double, double, MutableShotSolution)}. Fine for
+     * one-off calls (fire-button snapshots, telemetry); the per-loop path
+     * should hold its own {@link MutableShotSolution} and call lookupInto.
+     */
     public ShotSolution lookup(double botX, double botY) {
+        MutableShotSolution out = new MutableShotSolution(CAL_IDW_K);
+        lookupInto(botX, botY, out);
+        return out.toShotSolution();
+    }
+
+    /**
+     * Zero-allocation lookup. Fills {@code out} with the same blend
+     * {@link #lookup(double, double)} returns, using a partial top-k insertion
+     * select over primitive scratch arrays instead of sorting every sample.
+     * Ties keep the lower sample index first, matching the stable sort the
+     * allocating path used to do.
+     *
+     * With {@code CAL_INTERPOLATION_MODE == 1} the blend comes from
+     * {@link ShotTriangulation} instead: barycentric weights on the three
+     * corners of the containing Delaunay triangle.
+     *
+     * With {@link #CAL_GRID_ENABLED} the result is a bilinear sample of the
+     * baked grid instead: O(1) regardless of table size. Grid results carry no
+     * source indexes ({@code sourceCount == 0}), and poses off the field fall
+     * back to the direct blend.
+     *
+     * Not thread-safe: the scratch arrays belong to the table and every caller
+     * is on the opmode thread.
+     */
+    public void lookupInto(double botX, double botY, MutableShotSolution out) {
+        lookupBaseInto(botX, botY, out);
+        if (ShotCalibrationOverlay.CAL_OVERLAY_APPLY) {
+            overlay().applyTo(botX, botY, out);
+        }
+    }
+
+    /** Table value without the learned overlay. */
+    private void lookupBaseInto(double botX, double botY, MutableShotSolution out) {
+        if (CAL_GRID_ENABLED) {
+            ensureGrid();
+            if (botX >= 0.0 && botY >= 0.0 && botX <= gridSizeIn && botY <= gridSizeIn) {
+                sampleGrid(botX, botY, out);
+                return;
+            }
+        }
+        blendInto(botX, botY, out);
+    }
+
+    /**
+     * Feeds one KEEP-labeled tuning shot into the learned overlay: the
+     * operator's RPM / hood at (botX, botY), in blue-authored calibration
+     * coordinates, versus what the base table returns there.
+     */
+    public void learnFromKeptShot(double botX, double botY, double rpm, double hoodPos) {
+        if (!ShotCalibrationOverlay.CAL_OVERLAY_LEARN) {
+            return;
+        }
+        lookupBaseInto(botX, botY, learnScratch);
+        overlay().learn(botX, botY, rpm - learnScratch.rpm, hoodPos - learnScratch.hoodPos);
+    }
+
+    public ShotCalibrationOverlay overlay() {
+        if (overlay == null) {
+            overlay = new ShotCalibrationOverlay(CAL_GRID_FIELD_SIZE_IN, Math.max(1.0, CAL_OVERLAY_CELL_IN));
+        }
+        return overlay;
+    }
+
+    private void blendInto(double botX, double botY, MutableShotSolution out) {
+        if (CAL_INTERPOLATION_MODE == 1) {
+            ShotTriangulation tri = triangulation();
+            if (tri.isUsable()) {
+                tri.blendInto(botX, botY, out);
+                return;
+            }
+        }
+        idwBlendInto(botX, botY, out);
+    }
+
+    private ShotTriangulation triangulation() {
+        if (triangulation == null || triangulationSamplesVersion != samplesVersion) {
+            triangulation = new ShotTriangulation(samples);
+            triangulationSamplesVersion = samplesVersion;
+        }
+        return triangulation;
+    }
+
+    private void idwBlendInto(double botX, double botY, MutableShotSolution out) {
         int k = Math.max(1, Math.min(CAL_IDW_K, samples.length));
         double power = CAL_IDW_POWER;
+        out.ensureCapacity(k);
 
-        // Gather (distance, index) pairs sorted ascending.
-        Entry[] entries = new Entry[samples.length];
-        for (int i = 0; i < samples.length; i++) {
-            entries[i] = new Entry(i, samples[i].distanceTo(botX, botY));
-        }
-        Arrays.sort(entries, Comparator.comparingDouble(e -> e.distance));
+        int found = selectNearest(botX, botY, k);
 
-        double nearestDistance = entries[0].distance;
-        boolean extrapolated = nearestDistance > CAL_EXTRAPOLATED_WARN_IN;
+        double nearestDistance = nearestDist[0];
+        out.extrapolated = nearestDistance > CAL_EXTRAPOLATED_WARN_IN;
+        out.nearestDistanceIn = nearestDistance;
 
         if (nearestDistance < CAL_EXACT_SNAP_IN) {
-            ShotSample s = samples[entries[0].index];
-            return new ShotSolution(
-                    s.rpm, s.hoodPos, s.aimX, s.aimY,
-                    new int[]{s.index},
-                    new double[]{1.0},
-                    extrapolated,
-                    nearestDistance
-            );
-        }
-
-        int[] idx = new int[k];
-        double[] w = new double[k];
+            ShotSample s = samples[nearestIdx[0]];
+            out.rpm = s.rpm;
+            out.hoodPos = s.hoodPos;
+            out.aimX = s.aimX;
+            out.aimY = s.aimY;
+            out.sourceIdxs[0] = s.index;
+            out.weights[0] = 1.0;
+            out.sourceCount = 1;
+            return;
+        }
+
+        int[] idx = out.sourceIdxs;
+        double[] w = out.weights;
         double wSum = 0.0;
-        for (int i = 0; i < k; i++) {
-            idx[i] = entries[i].index;
-            double d = Math.max(entries[i].distance, 1e-6);
+        for (int i = 0; i < found; i++) {
+            idx[i] = nearestIdx[i];
+            double d = Math.max(nearestDist[i], 1e-6);
             double weight = 1.0 / Math.pow(d, power);
             w[i] = weight;
             wSum += weight;
         }
         double rpm = 0.0, hood = 0.0, aimX = 0.0, aimY = 0.0;
-        for (int i = 0; i < k; i++) {
+        for (int i = 0; i < found; i++) {
             double norm = w[i] / wSum;
             w[i] = norm;
             ShotSample s = samples[idx[i]];
@@ -154,16 +327,122 @@ public final class ShotCalibrationTable {
             aimX += norm * s.aimX;
             aimY += norm * s.aimY;
         }
+        out.rpm = rpm;
+        out.hoodPos = hood;
+        out.aimX = aimX;
+        out.aimY = aimY;
+        out.sourceCount = found;
+    }
+
+    private void ensureGrid() {
+        int k = Math.max(1, Math.min(CAL_IDW_K, samples.length));
+        double resolution = Math.max(0.25, CAL_GRID_RESOLUTION_IN);
+        double fieldSize = Math.max(resolution, CAL_GRID_FIELD_SIZE_IN);
+        if (grid != null
+                && bakedMode == CAL_INTERPOLATION_MODE
+                && bakedK == k
+                && bakedPower == CAL_IDW_POWER
+                && bakedSnapIn == CAL_EXACT_SNAP_IN
+                && bakedResolutionIn == resolution
+                && bakedFieldSizeIn == fieldSize
+                && bakedSamplesVersion == samplesVersion) {
+            return;
+        }
+
+        int nodes = (int) Math.ceil(fieldSize / resolution) + 1;
+        int length = nodes * nodes * GRID_CHANNELS;
+        if (grid == null || grid.length != length) {
+            grid = new double[length];
+        }
+        gridNodesPerSide = nodes;
+        gridStepIn = fieldSize / (nodes - 1);
+        gridSizeIn = fieldSize;
 
-        return new ShotSolution(rpm, hood, aimX, aimY, idx, w, extrapolated, nearestDistance);
+        MutableShotSolution node = new MutableShotSolution(k);
+        for (int ix = 0; ix < nodes; ix++) {
+            double x = ix * gridStepIn;
+            for (int iy = 0; iy < nodes; iy++) {
+                blendInto(x, iy * gridStepIn, node);
+                int base = (ix * nodes + iy) * GRID_CHANNELS;
+                grid[base + GRID_RPM] = node.rpm;
+                grid[base + GRID_HOOD] = node.hoodPos;
+                grid[base + GRID_AIM_X] = node.aimX;
+                grid[base + GRID_AIM_Y] = node.aimY;
+                grid[base + GRID_NEAREST] = node.nearestDistanceIn;
+            }
+        }
+
+        bakedMode = CAL_INTERPOLATION_MODE;
+        bakedK = k;
+        bakedPower = CAL_IDW_POWER;
+        bakedSnapIn = CAL_EXACT_SNAP_IN;
+        bakedResolutionIn = resolution;
+        bakedFieldSizeIn = fieldSize;
+        bakedSamplesVersion = samplesVersion;
+    }
+
+    private void sampleGrid(double botX, double botY, MutableShotSolution out) {
+        int last = gridNodesPerSide - 1;
+        double gx = botX / gridStepIn;
+        double gy = botY / gridStepIn;
+        int ix = Math.min((int) gx, last - 1);
+        int iy = Math.min((int) gy, last - 1);
+        double tx = gx - ix;
+        double ty = gy - iy;
+
+        int b00 = (ix * gridNodesPerSide + iy) * GRID_CHANNELS;
+        int b01 = b00 + GRID_CHANNELS;
+        int b10 = b00 + gridNodesPerSide * GRID_CHANNELS;
+        int b11 = b10 + GRID_CHANNELS;
+        double w00 = (1.0 - tx) * (1.0 - ty);
+        double w01 = (1.0 - tx) * ty;
+        double w10 = tx * (1.0 - ty);
+        double w11 = tx * ty;
+
+        out.rpm = bilinear(GRID_RPM, b00, b01, b10, b11, w00, w01, w10, w11);
+        out.hoodPos = bilinear(GRID_HOOD, b00, b01, b10, b11, w00, w01, w10, w11);
+        out.aimX = bilinear(GRID_AIM_X, b00, b01, b10, b11, w00, w01, w10, w11);
+        out.aimY = bilinear(GRID_AIM_Y, b00, b01, b10, b11, w00, w01, w10, w11);
+        out.nearestDistanceIn = bilinear(GRID_NEAREST, b00, b01, b10, b11, w00, w01, w10, w11);
+        out.extrapolated = out.nearestDistanceIn > CAL_EXTRAPOLATED_WARN_IN;
+        out.sourceCount = 0;
+    }
+
+    private double bilinear(int channel, int b00, int b01, int b10, int b11,
+                            double w00, double w01, double w10, double w11) {
+        return w00 * grid[b00 + channel]
+                + w01 * grid[b01 + channel]
+                + w10 * grid[b10 + channel]
+                + w11 * grid[b11 + channel];
+    }
+
+    /**
+     * Keeps the k smallest (distance, index) pairs in ascending order in
+     * {@link #nearestDist} / {@link #nearestIdx}. Large tables go through the
+     * bucket index; small ones (and off-field poses) use a linear scan. Both
+     * share the same insertion select, so the result is identical either way.
+     * Returns how many slots were filled.
+     */
+    private int selectNearest(double botX, double botY, int k) {
+        if (samples.length >= CAL_SPATIAL_INDEX_MIN_SAMPLES) {
+            int found = sampleIndex().nearest(botX, botY, k, nearestIdx, nearestDist);
+            if (found >= 0) {
+                return found;
+            }
+        }
+        int filled = 0;
+        for (int i = 0; i < samples.length; i++) {
+            filled = ShotSampleIndex.offer(
+                    i, samples[i].distanceTo(botX, botY), filled, k, nearestIdx, nearestDist);
+        }
+        return filled;
     }
 
-    private static final class Entry {
-        final int index;
-        final double distance;
-        Entry(int index, double distance) {
-            this.index = index;
-            this.distance = distance;
+    private ShotSampleIndex sampleIndex() {
+        if (sampleIndex == null || sampleIndexSamplesVersion != samplesVersion) {
+            sampleIndex = new ShotSampleIndex(samples, CAL_GRID_FIELD_SIZE_IN);
+            sampleIndexSamplesVersion = samplesVersion;
         }
+        return sampleIndex;
     }
 }
@@ -0,0 +1,287 @@
+package org.firstinspires.ftc.teamcode.subsystems.shot;
+
+import com.bylazar.configurables.annotations.Configurable;
+
+/**
+ * Shoot-on-the-move (SOTM) aim solver. Given the robot pose, field velocity
+ * and yaw rate, and the goal point, solves for the virtual target the turret
+ * should aim at so the ball's inherited robot velocity carries it into the
+ * real goal, plus the ballistic distance to feed RPM / hood selection.
+ *
+ * Time of flight depends on distance and the lead point depends on time of
+ * flight, so the virtual target is a fixed point: t = T(|goal - v*t - robot|).
+ * The solver iterates that to {@link #SOTM_TOF_TOLERANCE_SEC}, starting from
+ * the real-distance TOF. Setting {@link #SOTM_TOF_MAX_ITERATIONS} to 0
+ * reproduces the original single-pass behaviour (TOF from the real distance
+ * only).
+ *
+ * Flight time comes from {@link ShotBallistics} for the commanded RPM / hood
+ * when {@link #SOTM_USE_BALLISTIC_TOF} is on and both are known, otherwise
+ * from the distance lookup (or constant ball speed) below.
+ *
+ * Stateless and allocation-free: results go into a caller-owned
+ * {@link Result}, so teleop and autons can both call it every loop.
+ */
+@Configurable
+public final class ShotOnTheMoveSolver {
+
+    public static double SOTM_MIN_SPEED_IN_PER_SEC = 2.0;
+    public static double SOTM_LEAD_GAIN = 1.25;
+    public static double SOTM_MAX_LEAD_IN = 36.0;
+    public static double SOTM_ANGULAR_LEAD_GAIN = 0.6;
+    // Separate turret-lag feedforward layer (independent from SOTM lead-point math).
+    // Equivalent concept to: turretTarget += angularVelocity * kVF.
+    // Superseded by TurretSubsystem's tracking feedforward (yaw rate + target-bearing rate
+    // through the servo-lag model); off by default so the lag is not compensated twice.
+    public static boolean SOTM_TURRET_LAG_COMP_ENABLED = false;
+    public static double SOTM_TURRET_LAG_COMP_SEC = 0.15;
+    public static double SOTM_TURRET_LAG_COMP_MAX_DEG = 25.0;
+    public static boolean SOTM_USE_BALLISTIC_TOF = false;
+    public static boolean SOTM_USE_TOF_LOOKUP = true;
+    public static double SOTM_MECHANICAL_DELAY_SEC = 0.08;
+    public static double SOTM_BALL_TRANSFER_TIME_SEC = 0.0;
+    public static double SOTM_ESTIMATED_BALL_SPEED_IN_PER_SEC = 300.0;
+    public static int SOTM_TOF_MAX_ITERATIONS = 6;
+    public static double SOTM_TOF_TOLERANCE_SEC = 0.002;
+    private static final double[] SOTM_TOF_DISTANCE_IN = {60.0, 80.0, 100.0, 120.0};
+    private static final double[] SOTM_TOF_FLIGHT_TIME_SEC = {0.15, 0.20, 0.27, 0.35};
+
+    private ShotOnTheMoveSolver() {}
+
+    /** Reusable solver output. Every field is overwritten by each solve. */
+    public static final class Result {
+        public boolean valid;
+        public boolean leadApplied;
+        public boolean converged;
+        // True when every TOF in this solve came from the ballistic model.
+        public boolean ballisticTof;
+        public int iterations;
+        public double speedInPerSec;
+        public double totalTimeSeconds;
+        public double leadXInches;
+        public double leadYInches;
+        public double virtualTargetX;
+        public double virtualTargetY;
+        public double radialVelocityInPerSec;
+        public double effectiveDistanceInches;
+        public double distanceForBallisticsInches;
+        public double turretRobotRelativeAimDeg;
+        public double turretLagCompensationDeg;
+    }
+
+    /**
+     * {@link #solve(double, double, double, double, double, double, double, double, double, boolean, double, double, double, Result)}
+     * without a known RPM / hood, so flight time always comes from the
+     * distance lookup.
+     */
+    public static void solve(
+            double botX,
+            double botY,
+            double botHeadingRad,
+            double targetX,
+            double targetY,
+            double vxInPerSec,
+            double vyInPerSec,
+            double speedInPerSec,
+            double omegaRadPerSec,
+            boolean sotmControlActive,
+            double minBallisticsDistanceIn,
+            Result out
+    ) {
+        solve(botX, botY, botHeadingRad, targetX, targetY, vxInPerSec, vyInPerSec, speedInPerSec,
+                omegaRadPerSec, sotmControlActive, minBallisticsDistanceIn, Double.NaN, Double.NaN, out);
+    }
+
+    /**
+     * Solves one SOTM aim. {@code minBallisticsDistanceIn} floors the
+     * ballistic distance while leading, and is reported as-is when the robot
+     * is on top of the goal. With {@code sotmControlActive} false no lead or
+     * lag compensation is applied and the result is a plain static aim.
+     * {@code shooterRpm} / {@code hoodPos} are the shot being commanded; pass
+     * NaN when unknown.
+     */
+    public static void solve(
+            double botX,
+            double botY,
+            double botHeadingRad,
+            double targetX,
+            double targetY,
+            double vxInPerSec,
+            double vyInPerSec,
+            double speedInPerSec,
+            double omegaRadPerSec,
+            boolean sotmControlActive,
+            double minBallisticsDistanceIn,
+            double shooterRpm,
+            double hoodPos,
+            Result out
+    ) {
+        out.speedInPerSec = speedInPerSec;
+        out.iterations = 0;
+        out.converged = true;
+        out.ballisticTof = SOTM_USE_BALLISTIC_TOF && Double.isFinite(shooterRpm) && Double.isFinite(hoodPos);
+
+        double dx = targetX - botX;
+        double dy = targetY - botY;
+        double realDistance = Math.hypot(dx, dy);
+        if (!Double.isFinite(realDistance) || realDistance < 1e-6) {
+            out.valid = false;
+            out.leadApplied = false;
+            out.totalTimeSeconds = 0.0;
+            out.leadXInches = 0.0;
+            out.leadYInches = 0.0;
+            out.virtualTargetX = targetX;
+            out.virtualTargetY = targetY;
+            out.radialVelocityInPerSec = 0.0;
+            out.effectiveDistanceInches = 0.0;
+            out.distanceForBallisticsInches = minBallisticsDistanceIn;
+            out.turretRobotRelativeAimDeg = 0.0;
+            out.turretLagCompensationDeg = 0.0;
+            return;
+        }
+
+        double totalTimeSec = totalTimeSeconds(realDistance, shooterRpm, hoodPos, out);
+        out.leadXInches = 0.0;
+        out.leadYInches = 0.0;
+        boolean leadApplied = sotmControlActive && speedInPerSec > SOTM_MIN_SPEED_IN_PER_SEC;
+        if (leadApplied) {
+            int maxIterations = Math.max(0, SOTM_TOF_MAX_ITERATIONS);
+            double tolerance = Math.max(1e-6, SOTM_TOF_TOLERANCE_SEC);
+            applyLead(vxInPerSec, vyInPerSec, totalTimeSec, out);
+            out.converged = maxIterations == 0;
+            for (int i = 0; i < maxIterations; i++) {
+                double virtualDistance = Math.hypot(dx - out.leadXInches, dy - out.leadYInches);
+                double nextTimeSec = totalTimeSeconds(virtualDistance, shooterRpm, hoodPos, out);
+                double change = Math.abs(nextTimeSec - totalTimeSec);
+                totalTimeSec = nextTimeSec;
+                applyLead(vxInPerSec, vyInPerSec, totalTimeSec, out);
+                out.iterations = i + 1;
+                if (change <= tolerance) {
+                    out.converged = true;
+                    break;
+                }
+            }
+        }
+        double leadX = out.leadXInches;
+        double leadY = out.leadYInches;
+
+        double virtualTargetX = targetX - leadX;
+        double virtualTargetY = targetY - leadY;
+        double virtualFieldAngleRad = Math.atan2(virtualTargetY - botY, virtualTargetX - botX);
+        double turretRobotRelativeAimDeg = Math.toDegrees(normalizeRadians(virtualFieldAngleRad - botHeadingRad));
+        if (leadApplied) {
+            turretRobotRelativeAimDeg += Math.toDegrees(
+                    omegaRadPerSec * totalTimeSec * SOTM_ANGULAR_LEAD_GAIN
+            );
+        }
+
+        double turretLagCompensationDeg = 0.0;
+        if (sotmControlActive && SOTM_TURRET_LAG_COMP_ENABLED) {
+            turretLagCompensationDeg = Math.toDegrees(omegaRadPerSec) * SOTM_TURRET_LAG_COMP_SEC;
+            double maxLagCompDeg = Math.max(0.0, SOTM_TURRET_LAG_COMP_MAX_DEG);
+            turretLagCompensationDeg = Math.max(
+                    -maxLagCompDeg,
+                    Math.min(maxLagCompDeg, turretLagCompensationDeg)
+            );
+            turretRobotRelativeAimDeg += turretLagCompensationDeg;
+        }
+
+        // Keep effective distance tied to real target vector (Stage 3 guidance, avoids double-counting).
+        double radialVelocityInPerSec = (vxInPerSec * dx + vyInPerSec * dy) / realDistance;
+        double effectiveDistance = Math.max(0.0, realDistance - (radialVelocityInPerSec * totalTimeSec));
+        double distanceForBallistics = leadApplied
+                ? Math.max(minBallisticsDistanceIn, effectiveDistance)
+                : realDistance;
+
+        out.valid =
+                Double.isFinite(totalTimeSec) &&
+                        Double.isFinite(leadX) &&
+                        Double.isFinite(leadY) &&
+                        Double.isFinite(radialVelocityInPerSec) &&
+                        Double.isFinite(effectiveDistance) &&
+                        Double.isFinite(distanceForBallistics) &&
+                        Double.isFinite(turretRobotRelativeAimDeg);
+        out.leadApplied = leadApplied;
+        out.totalTimeSeconds = totalTimeSec;
+        out.leadXInches = leadX;
+        out.leadYInches = leadY;
+        out.virtualTargetX = virtualTargetX;
+        out.virtualTargetY = virtualTargetY;
+        out.radialVelocityInPerSec = radialVelocityInPerSec;
+        out.effectiveDistanceInches = effectiveDistance;
+        out.distanceForBallisticsInches = distanceForBallistics;
+        out.turretRobotRelativeAimDeg = turretRobotRelativeAimDeg;
+        out.turretLagCompensationDeg = turretLagCompensationDeg;
+    }
+
+    /** Lead = v * t * gain, clamped to SOTM_MAX_LEAD_IN; written into out. */
+    private static void applyLead(double vxInPerSec, double vyInPerSec, double totalTimeSec, Result out) {
+        double leadScale = totalTimeSec * SOTM_LEAD_GAIN;
+        double leadX = vxInPerSec * leadScale;
+        double leadY = vyInPerSec * leadScale;
+        double leadMagnitude = Math.hypot(leadX, leadY);
+        if (leadMagnitude > SOTM_MAX_LEAD_IN && leadMagnitude > 1e-6) {
+            double scale = SOTM_MAX_LEAD_IN / leadMagnitude;
+            leadX *= scale;
+            leadY *= scale;
+        }
+        out.leadXInches = leadX;
+        out.leadYInches = leadY;
+    }
+
+    /** Mechanical delay + transfer + flight time for a shot of the given distance. */
+    public static double totalTimeSeconds(double distanceInches) {
+        return SOTM_MECHANICAL_DELAY_SEC +
+                SOTM_BALL_TRANSFER_TIME_SEC +
+                flightTimeSeconds(distanceInches);
+    }
+
+    /**
+     * Ballistic TOF when enabled and available, else the distance lookup.
+     * Clears {@code out.ballisticTof} if it had to fall back.
+     */
+    private static double totalTimeSeconds(double distanceInches, double shooterRpm, double hoodPos, Result out) {
+        if (out.ballisticTof) {
+            double flightSec = ShotBallistics.flightTimeSeconds(distanceInches, hoodPos, shooterRpm);
+            if (Double.isFinite(flightSec)) {
+                return SOTM_MECHANICAL_DELAY_SEC + SOTM_BALL_TRANSFER_TIME_SEC + flightSec;
+            }
+            out.ballisticTof = false;
+        }
+        return totalTimeSeconds(distanceInches);
+    }
+
+    public static double flightTimeSeconds(double distanceInches) {
+        if (SOTM_USE_TOF_LOOKUP) {
+            return interpolateLookup(
+                    distanceInches,
+                    SOTM_TOF_DISTANCE_IN,
+                    SOTM_TOF_FLIGHT_TIME_SEC
+            );
+        }
+        return distanceInches / Math.max(1e-6, SOTM_ESTIMATED_BALL_SPEED_IN_PER_SEC);
+    }
+
+    private static double interpolateLookup(double x, double[] xs, double[] ys) {
+        if (xs.length == 0 || ys.length == 0 || xs.length != ys.length) return 0.0;
+        if (x <= xs[0]) return ys[0];
+        int last = xs.length - 1;
+        if (x >= xs[last]) return ys[last];
+
+        for (int i = 0; i < last; i++) {
+            double x0 = xs[i];
+            double x1 = xs[i + 1];
+            if (x >= x0 && x <= x1) {
+                double t = (x - x0) / Math.max(1e-6, x1 - x0);
+                return ys[i] + (t * (ys[i + 1] - ys[i]));
+            }
+        }
+        return ys[last];
+    }
+
+    private static double normalizeRadians(double angle) {
+        while (angle > Math.PI) angle -= 2.0 * Math.PI;
+        while (angle < -Math.PI) angle += 2.0 * Math.PI;
+        return angle;
+    }
+}
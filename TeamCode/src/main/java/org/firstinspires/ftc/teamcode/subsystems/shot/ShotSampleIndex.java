@@ -0,0 +1,151 @@
+package org.firstinspires.ftc.teamcode.subsystems.shot;
+
+/**
+ * Uniform bucket grid over the calibration samples for bounded k-nearest
+ * queries. Built once per table in flat int/double arrays (CSR layout: every
+ * cell's sample indexes are contiguous in {@link #cellItems}); queries search
+ * Chebyshev rings of cells outward from the query cell and stop as soon as the
+ * next ring cannot beat the current k-th distance. No per-query allocation.
+ *
+ * Results are identical to the linear scan in
+ * {@link ShotCalibrationTable}, including tie order, because both feed the
+ * same {@link #offer} insertion select, which breaks distance ties on the lower
+ * sample index. Queries outside the indexed extent (the field plus every
+ * sample) return -1 so the caller can fall back to the linear scan.
+ */
+final class ShotSampleIndex {
+    private final double[] xs;
+    private final double[] ys;
+    private final double minX;
+    private final double minY;
+    private final double maxX;
+    private final double maxY;
+    private final double cellSize;
+    private final int cols;
+    private final int rows;
+    private final int[] cellStart;
+    private final int[] cellItems;
+
+    ShotSampleIndex(ShotSample[] samples, double fieldSizeIn) {
+        int n = samples.length;
+        xs = new double[n];
+        ys = new double[n];
+        double loX = 0.0, loY = 0.0, hiX = fieldSizeIn, hiY = fieldSizeIn;
+        for (int i = 0; i < n; i++) {
+            xs[i] = samples[i].x;
+            ys[i] = samples[i].y;
+            loX = Math.min(loX, xs[i]);
+            loY = Math.min(loY, ys[i]);
+            hiX = Math.max(hiX, xs[i]);
+            hiY = Math.max(hiY, ys[i]);
+        }
+        minX = loX;
+        minY = loY;
+        maxX = hiX;
+        maxY = hiY;
+
+        // Aim for roughly two samples per cell.
+        double span = Math.max(Math.max(maxX - minX, maxY - minY), 1.0);
+        int perSide = Math.max(1, (int) Math.ceil(Math.sqrt(n / 2.0)));
+        cellSize = span / perSide;
+        cols = Math.max(1, (int) Math.ceil((maxX - minX) / cellSize));
+        rows = Math.max(1, (int) Math.ceil((maxY - minY) / cellSize));
+
+        cellStart = new int[cols * rows + 1];
+        int[] cellOf = new int[n];
+        for (int i = 0; i < n; i++) {
+            cellOf[i] = cellIndex(col(xs[i]), row(ys[i]));
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < cols * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        cellItems = new int[n];
+        int[] fill = new int[cols * rows];
+        // Filled in index order, so each cell's run is ascending.
+        for (int i = 0; i < n; i++) {
+            int c = cellOf[i];
+            cellItems[cellStart[c] + fill[c]++] = i;
+        }
+    }
+
+    /**
+     * Fills the k nearest samples, ascending, into {@code outIdx} /
+     * {@code outDist}. Returns how many were filled, or -1 when the query is
+     * outside the indexed extent.
+     */
+    int nearest(double px, double py, int k, int[] outIdx, double[] outDist) {
+        if (!(px >= minX && px <= maxX && py >= minY && py <= maxY)) {
+            return -1;
+        }
+        int cx = col(px);
+        int cy = row(py);
+        int maxRing = Math.max(Math.max(cx, cols - 1 - cx), Math.max(cy, rows - 1 - cy));
+        int filled = 0;
+        for (int r = 0; r <= maxRing; r++) {
+            if (filled == k && r > 0) {
+                // Everything in ring r lies outside the block of rings < r.
+                double x0 = minX + (cx - r + 1) * cellSize;
+                double x1 = minX + (cx + r) * cellSize;
+                double y0 = minY + (cy - r + 1) * cellSize;
+                double y1 = minY + (cy + r) * cellSize;
+                double bound = Math.min(Math.min(px - x0, x1 - px), Math.min(py - y0, y1 - py));
+                if (bound > outDist[k - 1]) {
+                    break;
+                }
+            }
+            for (int gy = cy - r; gy <= cy + r; gy++) {
+                if (gy < 0 || gy >= rows) continue;
+                boolean edgeRow = gy == cy - r || gy == cy + r;
+                int step = edgeRow ? 1 : 2 * r;
+                for (int gx = cx - r; gx <= cx + r; gx += Math.max(1, step)) {
+                    if (gx < 0 || gx >= cols) continue;
+                    int c = cellIndex(gx, gy);
+                    for (int j = cellStart[c]; j < cellStart[c + 1]; j++) {
+                        int i = cellItems[j];
+                        double dx = xs[i] - px;
+                        double dy = ys[i] - py;
+                        filled = offer(i, Math.sqrt(dx * dx + dy * dy), filled, k, outIdx, outDist);
+                    }
+                }
+            }
+        }
+        return filled;
+    }
+
+    /**
+     * Insertion select shared by the index and the linear scan: keeps the k
+     * smallest (distance, index) pairs ascending, ties broken on the lower
+     * index. Returns the new fill count.
+     */
+    static int offer(int idx, double d, int filled, int k, int[] outIdx, double[] outDist) {
+        if (filled == k && !precedes(d, idx, outDist[k - 1], outIdx[k - 1])) {
+            return filled;
+        }
+        int pos = filled < k ? filled++ : k - 1;
+        while (pos > 0 && precedes(d, idx, outDist[pos - 1], outIdx[pos - 1])) {
+            outDist[pos] = outDist[pos - 1];
+            outIdx[pos] = outIdx[pos - 1];
+            pos--;
+        }
+        outDist[pos] = d;
+        outIdx[pos] = idx;
+        return filled;
+    }
+
+    private static boolean precedes(double d, int idx, double otherD, int otherIdx) {
+        return d < otherD || (d == otherD && idx < otherIdx);
+    }
+
+    private int col(double x) {
+        return Math.min(cols - 1, Math.max(0, (int) ((x - minX) / cellSize)));
+    }
+
+    private int row(double y) {
+        return Math.min(rows - 1, Math.max(0, (int) ((y - minY) / cellSize)));
+    }
+
+    private int cellIndex(int gx, int gy) {
+        return gy * cols + gx;
+    }
+}
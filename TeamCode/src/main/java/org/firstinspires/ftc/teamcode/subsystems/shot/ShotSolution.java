@@ -9,6 +9,10 @@ package org.firstinspires.ftc.teamcode.subsystems.shot;
  * weighting. {@code extrapolated} is a soft flag meaning the nearest calibrated
  * sample is farther away than the warn threshold (telemetry hint only; the
  * values are still the best blend the table can produce).
+ *
+ * In barycentric mode the sources are the three corners of the containing
+ * triangle, or the two ends of the closest hull edge when the pose is outside
+ * the sampled hull, in which case {@code extrapolated} is always true.
  */
 public final class ShotSolution {
     public final double rpm;
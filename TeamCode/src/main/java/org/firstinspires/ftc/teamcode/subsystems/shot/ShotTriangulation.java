@@ -0,0 +1,367 @@
+package org.firstinspires.ftc.teamcode.subsystems.shot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delaunay triangulation of the calibration samples, used by
+ * {@link ShotCalibrationTable} when {@code CAL_INTERPOLATION_MODE} selects the
+ * barycentric backend.
+ *
+ * Built once per table (Bowyer-Watson, O(n^2), fine for hundreds of samples
+ * at init) and stored in flat int arrays. Lookups walk from the triangle that
+ * contained the previous pose, so a robot moving continuously usually lands in
+ * the same or an adjacent triangle in one or two steps. Inside the hull the
+ * result is the barycentric blend of the three corners, which is continuous
+ * across triangle edges, unlike k-nearest IDW when the neighbour set changes.
+ * Outside the hull the pose is projected onto the closest hull edge and the
+ * two edge endpoints are blended linearly, so values are held flat instead of
+ * being pulled toward whichever far samples happen to be nearest.
+ *
+ * Not thread-safe: the walk cache is mutated on every lookup.
+ */
+final class ShotTriangulation {
+    private final ShotSample[] samples;
+    // Three vertex indexes per triangle, counter-clockwise.
+    private final int[] triVerts;
+    // Neighbouring triangle across the edge opposite each vertex, -1 on hull.
+    private final int[] triAdj;
+    private final int triangleCount;
+    // Hull edges as (a, b) vertex pairs.
+    private final int[] hullEdges;
+    // Vertex adjacency in CSR form for the greedy nearest-sample walk.
+    private final int[] vertAdjStart;
+    private final int[] vertAdj;
+
+    private int lastTriangle = 0;
+
+    ShotTriangulation(ShotSample[] samples) {
+        this.samples = samples;
+
+        List<int[]> tris = triangulate(samples);
+        triangleCount = tris.size();
+        triVerts = new int[triangleCount * 3];
+        for (int t = 0; t < triangleCount; t++) {
+            int[] tri = tris.get(t);
+            triVerts[t * 3] = tri[0];
+            triVerts[t * 3 + 1] = tri[1];
+            triVerts[t * 3 + 2] = tri[2];
+        }
+
+        triAdj = new int[triangleCount * 3];
+        Map<Long, Integer> edgeOwner = new HashMap<>();
+        List<Integer> hull = new ArrayList<>();
+        for (int t = 0; t < triangleCount; t++) {
+            for (int e = 0; e < 3; e++) {
+                triAdj[t * 3 + e] = -1;
+            }
+        }
+        for (int t = 0; t < triangleCount; t++) {
+            for (int e = 0; e < 3; e++) {
+                int a = triVerts[t * 3 + (e + 1) % 3];
+                int b = triVerts[t * 3 + (e + 2) % 3];
+                Integer other = edgeOwner.remove(edgeKey(b, a));
+                if (other != null) {
+                    int t2 = other >> 2;
+                    int e2 = other & 3;
+                    triAdj[t * 3 + e] = t2;
+                    triAdj[t2 * 3 + e2] = t;
+                } else {
+                    edgeOwner.put(edgeKey(a, b), (t << 2) | e);
+                }
+            }
+        }
+        for (int packed : edgeOwner.values()) {
+            int t = packed >> 2;
+            int e = packed & 3;
+            hull.add(triVerts[t * 3 + (e + 1) % 3]);
+            hull.add(triVerts[t * 3 + (e + 2) % 3]);
+        }
+        hullEdges = new int[hull.size()];
+        for (int i = 0; i < hullEdges.length; i++) {
+            hullEdges[i] = hull.get(i);
+        }
+
+        int n = samples.length;
+        int[] degree = new int[n];
+        for (int t = 0; t < triangleCount; t++) {
+            for (int e = 0; e < 3; e++) {
+                degree[triVerts[t * 3 + e]] += 2;
+            }
+        }
+        vertAdjStart = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            vertAdjStart[v + 1] = vertAdjStart[v] + degree[v];
+        }
+        vertAdj = new int[vertAdjStart[n]];
+        int[] fill = new int[n];
+        for (int t = 0; t < triangleCount; t++) {
+            for (int e = 0; e < 3; e++) {
+                int v = triVerts[t * 3 + e];
+                // Interior edges get listed twice; harmless for the greedy walk.
+                vertAdj[vertAdjStart[v] + fill[v]++] = triVerts[t * 3 + (e + 1) % 3];
+                vertAdj[vertAdjStart[v] + fill[v]++] = triVerts[t * 3 + (e + 2) % 3];
+            }
+        }
+    }
+
+    /** False when the samples are fewer than three or all collinear. */
+    boolean isUsable() {
+        return triangleCount > 0;
+    }
+
+    void blendInto(double px, double py, MutableShotSolution out) {
+        out.ensureCapacity(3);
+        int t = locate(px, py);
+        if (t >= 0) {
+            lastTriangle = t;
+            int a = triVerts[t * 3];
+            int b = triVerts[t * 3 + 1];
+            int c = triVerts[t * 3 + 2];
+            double area = orient(samples[a], samples[b], samples[c].x, samples[c].y);
+            double wa = orient(samples[b], samples[c], px, py) / area;
+            double wb = orient(samples[c], samples[a], px, py) / area;
+            double wc = 1.0 - wa - wb;
+            writeBlend(out, a, wa, b, wb, c, wc, 3);
+            out.nearestDistanceIn = nearestDistance(px, py, a);
+            out.extrapolated = out.nearestDistanceIn > ShotCalibrationTable.CAL_EXTRAPOLATED_WARN_IN;
+            return;
+        }
+
+        // Outside the hull: clamp onto the closest hull edge.
+        double bestDistSq = Double.POSITIVE_INFINITY;
+        int bestA = hullEdges[0];
+        int bestB = hullEdges[1];
+        double bestT = 0.0;
+        for (int i = 0; i < hullEdges.length; i += 2) {
+            ShotSample sa = samples[hullEdges[i]];
+            ShotSample sb = samples[hullEdges[i + 1]];
+            double ex = sb.x - sa.x;
+            double ey = sb.y - sa.y;
+            double lenSq = ex * ex + ey * ey;
+            double u = lenSq > 0.0 ? ((px - sa.x) * ex + (py - sa.y) * ey) / lenSq : 0.0;
+            u = Math.max(0.0, Math.min(1.0, u));
+            double dx = sa.x + u * ex - px;
+            double dy = sa.y + u * ey - py;
+            double distSq = dx * dx + dy * dy;
+            if (distSq < bestDistSq) {
+                bestDistSq = distSq;
+                bestA = hullEdges[i];
+                bestB = hullEdges[i + 1];
+                bestT = u;
+            }
+        }
+        writeBlend(out, bestA, 1.0 - bestT, bestB, bestT, bestB, 0.0, 2);
+        out.nearestDistanceIn = nearestDistance(px, py, bestT < 0.5 ? bestA : bestB);
+        out.extrapolated = true;
+    }
+
+    private void writeBlend(MutableShotSolution out,
+                            int a, double wa, int b, double wb, int c, double wc,
+                            int count) {
+        ShotSample sa = samples[a];
+        ShotSample sb = samples[b];
+        ShotSample sc = samples[c];
+        out.rpm = wa * sa.rpm + wb * sb.rpm + wc * sc.rpm;
+        out.hoodPos = wa * sa.hoodPos + wb * sb.hoodPos + wc * sc.hoodPos;
+        out.aimX = wa * sa.aimX + wb * sb.aimX + wc * sc.aimX;
+        out.aimY = wa * sa.aimY + wb * sb.aimY + wc * sc.aimY;
+        out.sourceIdxs[0] = a;
+        out.weights[0] = wa;
+        out.sourceIdxs[1] = b;
+        out.weights[1] = wb;
+        if (count > 2) {
+            out.sourceIdxs[2] = c;
+            out.weights[2] = wc;
+        }
+        out.sourceCount = count;
+    }
+
+    /**
+     * Visibility walk from the cached triangle. Returns the containing
+     * triangle, or -1 when the walk steps off the hull. Walks on a Delaunay
+     * triangulation cannot cycle; the step cap only guards degenerate input.
+     */
+    private int locate(double px, double py) {
+        int t = lastTriangle < triangleCount ? lastTriangle : 0;
+        for (int steps = 0; steps <= triangleCount; steps++) {
+            int next = t;
+            for (int e = 0; e < 3; e++) {
+                ShotSample a = samples[triVerts[t * 3 + (e + 1) % 3]];
+                ShotSample b = samples[triVerts[t * 3 + (e + 2) % 3]];
+                if (orient(a, b, px, py) < 0.0) {
+                    next = triAdj[t * 3 + e];
+                    break;
+                }
+            }
+            if (next == t) {
+                return t;
+            }
+            if (next < 0) {
+                return -1;
+            }
+            t = next;
+        }
+        return -1;
+    }
+
+    /**
+     * Exact nearest sample via greedy descent over the Delaunay graph, which
+     * always terminates at the true nearest neighbour.
+     */
+    private double nearestDistance(double px, double py, int start) {
+        int v = start;
+        double best = distSq(samples[v], px, py);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = vertAdjStart[v]; i < vertAdjStart[v + 1]; i++) {
+                int w = vertAdj[i];
+                double d = distSq(samples[w], px, py);
+                if (d < best) {
+                    best = d;
+                    v = w;
+                    improved = true;
+                    break;
+                }
+            }
+        }
+        return Math.sqrt(best);
+    }
+
+    private static double distSq(ShotSample s, double px, double py) {
+        double dx = s.x - px;
+        double dy = s.y - py;
+        return dx * dx + dy * dy;
+    }
+
+    /** Twice the signed area of (a, b, p); positive when p is left of a->b. */
+    private static double orient(ShotSample a, ShotSample b, double px, double py) {
+        return (b.x - a.x) * (py - a.y) - (b.y - a.y) * (px - a.x);
+    }
+
+    private static long edgeKey(int a, int b) {
+        return ((long) a << 32) | (b & 0xffffffffL);
+    }
+
+    /** Bowyer-Watson with a large enclosing super-triangle. */
+    private static List<int[]> triangulate(ShotSample[] samples) {
+        int n = samples.length;
+        List<int[]> result = new ArrayList<>();
+        if (n < 3) {
+            return result;
+        }
+
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (ShotSample s : samples) {
+            minX = Math.min(minX, s.x);
+            minY = Math.min(minY, s.y);
+            maxX = Math.max(maxX, s.x);
+            maxY = Math.max(maxY, s.y);
+        }
+        double span = Math.max(Math.max(maxX - minX, maxY - minY), 1.0);
+        double midX = 0.5 * (minX + maxX);
+        double midY = 0.5 * (minY + maxY);
+
+        // Vertices n, n+1, n+2 are the super-triangle.
+        double[] xs = new double[n + 3];
+        double[] ys = new double[n + 3];
+        for (int i = 0; i < n; i++) {
+            xs[i] = samples[i].x;
+            ys[i] = samples[i].y;
+        }
+        xs[n] = midX - 100.0 * span;
+        ys[n] = midY - 100.0 * span;
+        xs[n + 1] = midX + 100.0 * span;
+        ys[n + 1] = midY - 100.0 * span;
+        xs[n + 2] = midX;
+        ys[n + 2] = midY + 100.0 * span;
+
+        // Each working triangle: {a, b, c} plus cached circumcircle.
+        List<int[]> tris = new ArrayList<>();
+        List<double[]> circles = new ArrayList<>();
+        tris.add(new int[]{n, n + 1, n + 2});
+        circles.add(circumcircle(xs, ys, n, n + 1, n + 2));
+
+        for (int p = 0; p < n; p++) {
+            boolean duplicate = false;
+            for (int q = 0; q < p; q++) {
+                if (Math.abs(xs[p] - xs[q]) < 1e-9 && Math.abs(ys[p] - ys[q]) < 1e-9) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (duplicate) {
+                continue;
+            }
+
+            Map<Long, int[]> boundary = new HashMap<>();
+            for (int t = tris.size() - 1; t >= 0; t--) {
+                double[] c = circles.get(t);
+                double dx = xs[p] - c[0];
+                double dy = ys[p] - c[1];
+                if (dx * dx + dy * dy < c[2]) {
+                    int[] tri = tris.get(t);
+                    for (int e = 0; e < 3; e++) {
+                        int a = tri[e];
+                        int b = tri[(e + 1) % 3];
+                        // Shared edges of the cavity cancel; what is left is its rim.
+                        if (boundary.remove(edgeKey(b, a)) == null) {
+                            boundary.put(edgeKey(a, b), new int[]{a, b});
+                        }
+                    }
+                    int last = tris.size() - 1;
+                    tris.set(t, tris.get(last));
+                    circles.set(t, circles.get(last));
+                    tris.remove(last);
+                    circles.remove(last);
+                }
+            }
+            for (int[] edge : boundary.values()) {
+                tris.add(new int[]{edge[0], edge[1], p});
+                circles.add(circumcircle(xs, ys, edge[0], edge[1], p));
+            }
+        }
+
+        for (int[] tri : tris) {
+            if (tri[0] >= n || tri[1] >= n || tri[2] >= n) {
+                continue;
+            }
+            double area = (xs[tri[1]] - xs[tri[0]]) * (ys[tri[2]] - ys[tri[0]])
+                    - (ys[tri[1]] - ys[tri[0]]) * (xs[tri[2]] - xs[tri[0]]);
+            if (Math.abs(area) < 1e-9) {
+                continue;
+            }
+            if (area < 0.0) {
+                result.add(new int[]{tri[0], tri[2], tri[1]});
+            } else {
+                result.add(tri);
+            }
+        }
+        return result;
+    }
+
+    /** Returns {centerX, centerY, radiusSquared}. */
+    private static double[] circumcircle(double[] xs, double[] ys, int a, int b, int c) {
+        double ax = xs[a], ay = ys[a];
+        double bx = xs[b], by = ys[b];
+        double cx = xs[c], cy = ys[c];
+        double d = 2.0 * (ax * (by - cy) + bx * (cy - ay) + cx * (ay - by));
+        if (Math.abs(d) < 1e-12) {
+            // Degenerate sliver: an infinite circle swallows every later point,
+            // so the triangle is always replaced.
+            return new double[]{0.0, 0.0, Double.POSITIVE_INFINITY};
+        }
+        double a2 = ax * ax + ay * ay;
+        double b2 = bx * bx + by * by;
+        double c2 = cx * cx + cy * cy;
+        double ux = (a2 * (by - cy) + b2 * (cy - ay) + c2 * (ay - by)) / d;
+        double uy = (a2 * (cx - bx) + b2 * (ax - cx) + c2 * (bx - ax)) / d;
+        double rx = ax - ux;
+        double ry = ay - uy;
+        return new double[]{ux, uy, rx * rx + ry * ry};
+    }
+}
@@ -0,0 +1,524 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import android.os.Environment;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Typed, block-columnar binary log under FIRST/turret_logs, for signals we want
+ * every loop rather than every {@code *_LOG_PERIOD_MS}.
+ *
+ * {@link CsvLogger#addRow(Object...)} boxes every value and runs
+ * {@code String.format("%.6f")} on each double, which costs more than most of
+ * the control code it is logging. Here the schema is declared once, then each
+ * loop writes raw primitives straight into a direct buffer:
+ *
+ * <pre>
+ *   log.doubleColumn("bot_x").booleanColumn("sotm_valid").enumColumn("src", "MT1", "MT2");
+ *   log.start();
+ *   ...
+ *   log.beginRow().putDouble(x).putBoolean(valid).putEnum(source).endRow();
+ * </pre>
+ *
+ * Puts are positional and must follow the declared column order and types; a
+ * row that does not is dropped whole (and reported once) instead of corrupting
+ * the file.
+ *
+ * Rows accumulate in a block of {@link #BINARY_LOG_BLOCK_ROWS} rows stored
+ * column-major. A full block is handed to a background writer thread and the
+ * logger carries on in a second buffer, so the loop never touches the disk.
+ * If the writer is still busy when the second buffer also fills, rows are
+ * dropped and counted rather than blocking. Each block is synced to storage as
+ * it is written, so a crash loses at most the block in progress.
+ *
+ * File layout (big-endian, like the other binary files in TeamCode):
+ * <pre>
+ *   int magic 'PKLB', int version, long sessionStartMs, int blockRows,
+ *   int columnCount, then per column: byte type, UTF name
+ *     (enum columns add: short valueCount, UTF value...)
+ *   repeated blocks: int 'BLK1', int rowCount,
+ *     then per column: rowCount values (double/long 8 bytes, boolean 1, enum short 2)
+ * </pre>
+ * scripts/decode_binary_log.py turns it back into the CSV the analysis
+ * scripts already read.
+ */
+@Configurable
+public class BinaryLogger {
+    private static final String TAG = "BinaryLogger";
+
+    // ~5 s per block at a 20 ms loop. Two blocks are allocated per logger.
+    public static int BINARY_LOG_BLOCK_ROWS = 256;
+
+    static final int FILE_MAGIC = 0x504B4C42; // "PKLB"
+    static final int FILE_VERSION = 1;
+    static final int BLOCK_MAGIC = 0x424C4B31; // "BLK1"
+    public static final String FILE_EXTENSION = ".pklb";
+
+    static final byte TYPE_DOUBLE = 0;
+    static final byte TYPE_LONG = 1;
+    static final byte TYPE_BOOLEAN = 2;
+    static final byte TYPE_ENUM = 3;
+
+    private static final int BLOCK_HEADER_BYTES = 8;
+    private static final long WRITER_IDLE_PARK_MS = 20L;
+    private static final long WRITER_JOIN_TIMEOUT_MS = 2000L;
+
+    private final String baseName;
+    private final List<String> columnNames = new ArrayList<>();
+    private final List<String[]> enumValuesByColumn = new ArrayList<>();
+    private byte[] columnTypes = new byte[16];
+
+    // Fixed once started.
+    private int columnCount;
+    private int blockRows;
+    private int[] columnRegionStart;
+    private int[] columnWidth;
+    private ByteBuffer[] blocks;
+
+    private boolean started = false;
+    private boolean saved = false;
+    private long sessionStartMs = 0L;
+    private File outFile;
+    private Writer writer;
+
+    // Producer (loop thread) state.
+    private ByteBuffer activeBlock;
+    private int activeRows;
+    private int cursor;
+    private boolean rowOpen;
+    private boolean rowBad;
+    private boolean reportedBadRow;
+    private long rowCount;
+    private long droppedRows;
+
+    public BinaryLogger(String baseName) {
+        this.baseName = baseName == null || baseName.isEmpty()
+                ? "log"
+                : baseName.replaceAll("[^a-zA-Z0-9._-]", "_");
+    }
+
+    public BinaryLogger doubleColumn(String name) {
+        return addColumn(name, TYPE_DOUBLE, null);
+    }
+
+    /** Also used for int columns (counts, encoder ticks); they widen losslessly. */
+    public BinaryLogger longColumn(String name) {
+        return addColumn(name, TYPE_LONG, null);
+    }
+
+    public BinaryLogger booleanColumn(String name) {
+        return addColumn(name, TYPE_BOOLEAN, null);
+    }
+
+    /**
+     * A string column with a known, small value set, stored as a 2-byte index.
+     * Values not in the set are written as -1 and decode to an empty cell.
+     */
+    public BinaryLogger enumColumn(String name, String... values) {
+        return addColumn(name, TYPE_ENUM, values.clone());
+    }
+
+    public <E extends Enum<E>> BinaryLogger enumColumn(String name, Class<E> type) {
+        E[] constants = type.getEnumConstants();
+        String[] values = new String[constants.length];
+        for (int i = 0; i < constants.length; i++) {
+            values[i] = constants[i].name();
+        }
+        return addColumn(name, TYPE_ENUM, values);
+    }
+
+    private BinaryLogger addColumn(String name, byte type, String[] enumValues) {
+        if (started) {
+            throw new IllegalStateException("columns must be declared before start()");
+        }
+        int index = columnNames.size();
+        if (index == columnTypes.length) {
+            byte[] grown = new byte[columnTypes.length * 2];
+            System.arraycopy(columnTypes, 0, grown, 0, columnTypes.length);
+            columnTypes = grown;
+        }
+        columnTypes[index] = type;
+        columnNames.add(name);
+        enumValuesByColumn.add(enumValues);
+        return this;
+    }
+
+    public int getColumnCount() {
+        return columnNames.size();
+    }
+
+    /** Opens the file, writes the schema and starts the writer thread. */
+    public boolean start() {
+        discard();
+        columnCount = columnNames.size();
+        if (columnCount == 0) {
+            RobotLog.ww(TAG, "No columns declared for " + baseName);
+            return false;
+        }
+        blockRows = Math.max(1, BINARY_LOG_BLOCK_ROWS);
+        columnRegionStart = new int[columnCount];
+        columnWidth = new int[columnCount];
+        int offset = BLOCK_HEADER_BYTES;
+        for (int c = 0; c < columnCount; c++) {
+            columnWidth[c] = widthOf(columnTypes[c]);
+            columnRegionStart[c] = offset;
+            offset += columnWidth[c] * blockRows;
+        }
+        if (blocks == null || blocks[0].capacity() != offset) {
+            blocks = new ByteBuffer[]{ByteBuffer.allocateDirect(offset), ByteBuffer.allocateDirect(offset)};
+        }
+
+        sessionStartMs = System.currentTimeMillis();
+        File dir = new File(Environment.getExternalStorageDirectory(), "FIRST/turret_logs");
+        if (!dir.exists() && !dir.mkdirs()) {
+            RobotLog.ee(TAG, "Could not create directory: " + dir.getAbsolutePath());
+            return false;
+        }
+        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date(sessionStartMs));
+        File file = new File(dir, baseName + "_" + timestamp + FILE_EXTENSION);
+
+        FileChannel channel = null;
+        try {
+            channel = new FileOutputStream(file).getChannel();
+            ByteBuffer header = ByteBuffer.wrap(buildHeader());
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        } catch (IOException e) {
+            RobotLog.ee(TAG, e, "Failed to open binary log " + file.getAbsolutePath());
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // Already failing; nothing more to report.
+                }
+            }
+            return false;
+        }
+
+        outFile = file;
+        writer = new Writer(channel);
+        Thread thread = new Thread(writer, "BinaryLogger-" + baseName);
+        thread.setDaemon(true);
+        writer.thread = thread;
+        thread.start();
+
+        activeBlock = blocks[0];
+        activeRows = 0;
+        rowOpen = false;
+        rowCount = 0L;
+        droppedRows = 0L;
+        reportedBadRow = false;
+        started = true;
+        saved = false;
+        return true;
+    }
+
+    public boolean isStarted() {
+        return started;
+    }
+
+    public long getSessionStartMs() {
+        return sessionStartMs;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getDroppedRowCount() {
+        return droppedRows;
+    }
+
+    /**
+     * Opens a row. If the logger is not running or has nowhere to put the row,
+     * the following puts and {@link #endRow()} are silently ignored.
+     */
+    public BinaryLogger beginRow() {
+        rowOpen = false;
+        if (!started || saved) {
+            return this;
+        }
+        if (activeRows == blockRows && !handOff(writer)) {
+            droppedRows++;
+            return this;
+        }
+        rowOpen = true;
+        rowBad = false;
+        cursor = 0;
+        return this;
+    }
+
+    public BinaryLogger putDouble(double value) {
+        if (checkColumn(TYPE_DOUBLE)) {
+            activeBlock.putDouble(columnRegionStart[cursor] + activeRows * 8, value);
+            cursor++;
+        }
+        return this;
+    }
+
+    public BinaryLogger putLong(long value) {
+        if (checkColumn(TYPE_LONG)) {
+            activeBlock.putLong(columnRegionStart[cursor] + activeRows * 8, value);
+            cursor++;
+        }
+        return this;
+    }
+
+    public BinaryLogger putBoolean(boolean value) {
+        if (checkColumn(TYPE_BOOLEAN)) {
+            activeBlock.put(columnRegionStart[cursor] + activeRows, value ? (byte) 1 : (byte) 0);
+            cursor++;
+        }
+        return this;
+    }
+
+    /** Index into the column's declared values; -1 for "none". */
+    public BinaryLogger putEnum(int index) {
+        if (checkColumn(TYPE_ENUM)) {
+            activeBlock.putShort(columnRegionStart[cursor] + activeRows * 2, (short) index);
+            cursor++;
+        }
+        return this;
+    }
+
+    public BinaryLogger putEnum(Enum<?> value) {
+        return putEnum(value == null ? -1 : value.ordinal());
+    }
+
+    /** Linear lookup against the declared values; meant for short value lists. */
+    public BinaryLogger putEnum(String value) {
+        int index = -1;
+        if (rowOpen && !rowBad && cursor < columnCount && columnTypes[cursor] == TYPE_ENUM && value != null) {
+            String[] values = enumValuesByColumn.get(cursor);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i].equals(value)) {
+                    index = i;
+                    break;
+                }
+            }
+        }
+        return putEnum(index);
+    }
+
+    /** Commits the row if every column was written in order. */
+    public void endRow() {
+        if (!rowOpen) {
+            return;
+        }
+        rowOpen = false;
+        if (rowBad || cursor != columnCount) {
+            droppedRows++;
+            if (!reportedBadRow) {
+                reportedBadRow = true;
+                RobotLog.ww(TAG, baseName + ": row does not match schema (wrote " + cursor
+                        + " of " + columnCount + " columns); dropping such rows");
+            }
+            return;
+        }
+        activeRows++;
+        rowCount++;
+    }
+
+    /** Flushes the partial block, stops the writer and closes the file. */
+    public File save() {
+        if (!started || saved) {
+            return null;
+        }
+        rowOpen = false;
+        saved = true;
+        Writer w = writer;
+        writer = null;
+        if (activeRows > 0) {
+            long deadlineMs = System.currentTimeMillis() + WRITER_JOIN_TIMEOUT_MS;
+            while (!handOff(w) && System.currentTimeMillis() < deadlineMs) {
+                LockSupport.parkNanos(1_000_000L);
+            }
+        }
+        stopWriter(w);
+        if (droppedRows > 0) {
+            RobotLog.ww(TAG, baseName + ": dropped " + droppedRows + " rows");
+        }
+        if (w.failed) {
+            RobotLog.ee(TAG, "Binary log had write errors: " + outFile.getAbsolutePath());
+            return null;
+        }
+        if (rowCount == 0) {
+            if (!outFile.delete()) {
+                RobotLog.ww(TAG, "Could not delete empty log: " + outFile.getAbsolutePath());
+            }
+            return null;
+        }
+        RobotLog.ii(TAG, "Saved binary log (" + rowCount + " rows): " + outFile.getAbsolutePath());
+        return outFile;
+    }
+
+    public void discard() {
+        Writer w = writer;
+        writer = null;
+        if (w != null) {
+            stopWriter(w);
+            if (outFile != null && !outFile.delete()) {
+                RobotLog.ww(TAG, "Could not delete discarded log: " + outFile.getAbsolutePath());
+            }
+        }
+        outFile = null;
+        started = false;
+        saved = false;
+        rowOpen = false;
+    }
+
+    private boolean checkColumn(byte type) {
+        if (!rowOpen || rowBad) {
+            return false;
+        }
+        if (cursor >= columnCount || columnTypes[cursor] != type) {
+            rowBad = true;
+            return false;
+        }
+        return true;
+    }
+
+    /** Gives the active block to the writer if it is idle, and switches buffers. */
+    private boolean handOff(Writer w) {
+        if (w == null || w.pending != null) {
+            return false;
+        }
+        activeBlock.putInt(0, BLOCK_MAGIC);
+        activeBlock.putInt(4, activeRows);
+        w.pendingRows = activeRows;
+        w.pending = activeBlock;
+        LockSupport.unpark(w.thread);
+        activeBlock = activeBlock == blocks[0] ? blocks[1] : blocks[0];
+        activeRows = 0;
+        return true;
+    }
+
+    private void stopWriter(Writer w) {
+        w.running = false;
+        LockSupport.unpark(w.thread);
+        try {
+            w.thread.join(WRITER_JOIN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (w.thread.isAlive()) {
+            RobotLog.ww(TAG, "Binary log writer did not finish within " + WRITER_JOIN_TIMEOUT_MS + " ms");
+        }
+    }
+
+    private byte[] buildHeader() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(FILE_MAGIC);
+        out.writeInt(FILE_VERSION);
+        out.writeLong(sessionStartMs);
+        out.writeInt(blockRows);
+        out.writeInt(columnCount);
+        for (int c = 0; c < columnCount; c++) {
+            out.writeByte(columnTypes[c]);
+            out.writeUTF(columnNames.get(c));
+            if (columnTypes[c] == TYPE_ENUM) {
+                String[] values = enumValuesByColumn.get(c);
+                out.writeShort(values.length);
+                for (String v : values) {
+                    out.writeUTF(v);
+                }
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static int widthOf(byte type) {
+        switch (type) {
+            case TYPE_BOOLEAN:
+                return 1;
+            case TYPE_ENUM:
+                return 2;
+            default:
+                return 8;
+        }
+    }
+
+    /**
+     * Writes handed-off blocks. {@code pending} is the only handshake: the
+     * producer sets it (after filling the block) only when it is null, and the
+     * writer clears it once the block is on disk.
+     */
+    private final class Writer implements Runnable {
+        private final FileChannel channel;
+        volatile ByteBuffer pending;
+        int pendingRows;
+        volatile boolean running = true;
+        volatile boolean failed = false;
+        Thread thread;
+
+        Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    boolean stopping = !running;
+                    ByteBuffer block = pending;
+                    if (block != null) {
+                        writeBlock(block, pendingRows);
+                        pending = null;
+                    } else if (stopping) {
+                        break;
+                    } else {
+                        LockSupport.parkNanos(WRITER_IDLE_PARK_MS * 1_000_000L);
+                    }
+                }
+            } catch (IOException e) {
+                failed = true;
+                RobotLog.ee(TAG, e, "Binary log writer failed");
+            } finally {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    RobotLog.ee(TAG, e, "Failed to close binary log");
+                }
+            }
+        }
+
+        private void writeBlock(ByteBuffer block, int rows) throws IOException {
+            ByteBuffer view = block.duplicate();
+            view.clear();
+            view.limit(BLOCK_HEADER_BYTES);
+            writeFully(view);
+            // Only the filled prefix of each column region, so a short final
+            // block is as compact as a full one.
+            for (int c = 0; c < columnCount; c++) {
+                view.limit(columnRegionStart[c] + rows * columnWidth[c]);
+                view.position(columnRegionStart[c]);
+                writeFully(view);
+            }
+            channel.force(false);
+        }
+
+        private void writeFully(ByteBuffer src) throws IOException {
+            while (src.hasRemaining()) {
+                channel.write(src);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.firstinspires.ftc.teamcode.util;
+
+/**
+ * Writes selected signals to a {@link BinaryLogger}; the schema is declared
+ * from the signal names and types when the sink opens. Cheap enough to run
+ * every loop.
+ */
+public class BinarySignalSink implements SignalSink {
+    private static final String TAG = "BinarySignalSink";
+
+    private final BinaryLogger logger;
+    private final String[] signalNames;
+    private int[] ids = new int[0];
+    private SignalBus.Type[] types = new SignalBus.Type[0];
+
+    /** {@code signalNames} null records every signal. */
+    public BinarySignalSink(BinaryLogger logger, String... signalNames) {
+        this.logger = logger;
+        this.signalNames = signalNames;
+    }
+
+    @Override
+    public void open(SignalBus bus) {
+        ids = bus.resolve(TAG, signalNames);
+        types = new SignalBus.Type[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            int id = ids[i];
+            String name = bus.getName(id);
+            types[i] = bus.getType(id);
+            switch (types[i]) {
+                case DOUBLE:
+                    logger.doubleColumn(name);
+                    break;
+                case LONG:
+                    logger.longColumn(name);
+                    break;
+                case BOOLEAN:
+                    logger.booleanColumn(name);
+                    break;
+                case ENUM:
+                    logger.enumColumn(name, bus.getEnumValues(id));
+                    break;
+            }
+        }
+        logger.start();
+    }
+
+    @Override
+    public void write(SignalBus bus, long nowMs) {
+        logger.beginRow();
+        for (int i = 0; i < ids.length; i++) {
+            int id = ids[i];
+            switch (types[i]) {
+                case DOUBLE:
+                    logger.putDouble(bus.getDouble(id));
+                    break;
+                case LONG:
+                    logger.putLong(bus.getLong(id));
+                    break;
+                case BOOLEAN:
+                    logger.putBoolean(bus.getBoolean(id));
+                    break;
+                case ENUM:
+                    logger.putEnum(bus.getEnumIndex(id));
+                    break;
+            }
+        }
+        logger.endRow();
+    }
+
+    @Override
+    public void close() {
+        // BinaryLogger reports the saved path / failure itself.
+        logger.save();
+    }
+}
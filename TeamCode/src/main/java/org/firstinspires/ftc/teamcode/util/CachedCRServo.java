@@ -0,0 +1,44 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import com.qualcomm.robotcore.hardware.CRServo;
+
+/**
+ * Write-caching front for a {@link CRServo}: setPower only reaches the hub
+ * when the power moved more than
+ * {@link HardwareWriteCache#CR_SERVO_POWER_WRITE_TOLERANCE}.
+ */
+public class CachedCRServo {
+    private final CRServo servo;
+    private boolean hasPower = false;
+    private double lastPower = Double.NaN;
+    private long lastWriteMs = 0L;
+
+    public CachedCRServo(CRServo servo) {
+        this.servo = servo;
+    }
+
+    public CRServo device() {
+        return servo;
+    }
+
+    public void setPower(double power) {
+        if (HardwareWriteCache.shouldWrite(hasPower, lastPower, power,
+                HardwareWriteCache.CR_SERVO_POWER_WRITE_TOLERANCE, lastWriteMs)) {
+            servo.setPower(power);
+            hasPower = true;
+            lastPower = power;
+            lastWriteMs = RobotClock.currentTimeMillis();
+        }
+    }
+
+    /** Last power actually sent (NaN before the first write). */
+    public double getLastWritten() {
+        return lastPower;
+    }
+
+    /** Forces the next write through. */
+    public void invalidate() {
+        hasPower = false;
+        lastPower = Double.NaN;
+    }
+}
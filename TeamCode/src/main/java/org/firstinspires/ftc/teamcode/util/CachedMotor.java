@@ -0,0 +1,66 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+
+/**
+ * Write-caching front for a {@link DcMotorEx}: setPower / setVelocity only
+ * reach the hub when the value moved more than the tolerance in
+ * {@link HardwareWriteCache}. Reads and configuration still go straight to
+ * {@link #device()}.
+ *
+ * Power and velocity are different commands, so switching between them always
+ * writes. Call {@link #invalidate()} after anything that changes what the
+ * motor does with the cached value (setMode, direction, ...).
+ */
+public class CachedMotor {
+    private static final int NONE = 0;
+    private static final int POWER = 1;
+    private static final int VELOCITY = 2;
+
+    private final DcMotorEx motor;
+    private int lastKind = NONE;
+    private double lastValue = Double.NaN;
+    private long lastWriteMs = 0L;
+
+    public CachedMotor(DcMotorEx motor) {
+        this.motor = motor;
+    }
+
+    public DcMotorEx device() {
+        return motor;
+    }
+
+    public void setPower(double power) {
+        if (HardwareWriteCache.shouldWrite(lastKind == POWER, lastValue, power,
+                HardwareWriteCache.MOTOR_POWER_WRITE_TOLERANCE, lastWriteMs)) {
+            motor.setPower(power);
+            remember(POWER, power);
+        }
+    }
+
+    /** Ticks per second, as {@link DcMotorEx#setVelocity(double)}. */
+    public void setVelocity(double ticksPerSecond) {
+        if (HardwareWriteCache.shouldWrite(lastKind == VELOCITY, lastValue, ticksPerSecond,
+                HardwareWriteCache.MOTOR_VELOCITY_WRITE_TOLERANCE_TPS, lastWriteMs)) {
+            motor.setVelocity(ticksPerSecond);
+            remember(VELOCITY, ticksPerSecond);
+        }
+    }
+
+    /** Last power or velocity actually sent (NaN before the first write). */
+    public double getLastWritten() {
+        return lastValue;
+    }
+
+    /** Forces the next write through. */
+    public void invalidate() {
+        lastKind = NONE;
+        lastValue = Double.NaN;
+    }
+
+    private void remember(int kind, double value) {
+        lastKind = kind;
+        lastValue = value;
+        lastWriteMs = RobotClock.currentTimeMillis();
+    }
+}
@@ -0,0 +1,82 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import com.qualcomm.robotcore.hardware.PwmControl;
+import com.qualcomm.robotcore.hardware.Servo;
+
+/**
+ * Write-caching front for a {@link Servo} (including ServoImplEx): setPosition
+ * only reaches the hub when the position moved more than
+ * {@link HardwareWriteCache#SERVO_POSITION_WRITE_TOLERANCE}. For servos with
+ * PWM control, enable/disable are cached too so a disabled servo is not
+ * disabled again every loop.
+ */
+public class CachedServo {
+    private final Servo servo;
+    private final PwmControl pwm;
+    private boolean hasPosition = false;
+    private double lastPosition = Double.NaN;
+    private long lastWriteMs = 0L;
+    // Unknown until we set it ourselves.
+    private Boolean pwmEnabled = null;
+
+    public CachedServo(Servo servo) {
+        this.servo = servo;
+        this.pwm = servo instanceof PwmControl ? (PwmControl) servo : null;
+    }
+
+    public Servo device() {
+        return servo;
+    }
+
+    public void setPosition(double position) {
+        if (HardwareWriteCache.shouldWrite(hasPosition, lastPosition, position,
+                HardwareWriteCache.SERVO_POSITION_WRITE_TOLERANCE, lastWriteMs)) {
+            servo.setPosition(position);
+            hasPosition = true;
+            lastPosition = position;
+            lastWriteMs = RobotClock.currentTimeMillis();
+            // The SDK re-enables PWM on a position write.
+            if (pwm != null) {
+                pwmEnabled = Boolean.TRUE;
+            }
+        }
+    }
+
+    public void setPwmEnable() {
+        setPwm(true);
+    }
+
+    public void setPwmDisable() {
+        setPwm(false);
+    }
+
+    private void setPwm(boolean enabled) {
+        if (pwm == null) {
+            return;
+        }
+        if (HardwareWriteCache.HARDWARE_WRITE_CACHE_ENABLED && pwmEnabled != null && pwmEnabled == enabled) {
+            HardwareWriteCache.countSkip();
+            return;
+        }
+        if (enabled) {
+            pwm.setPwmEnable();
+        } else {
+            pwm.setPwmDisable();
+            // Whatever position we sent is no longer being held.
+            hasPosition = false;
+        }
+        pwmEnabled = enabled;
+        HardwareWriteCache.countWrite();
+    }
+
+    /** Last position actually sent (NaN before the first write). */
+    public double getLastWritten() {
+        return lastPosition;
+    }
+
+    /** Forces the next write through. */
+    public void invalidate() {
+        hasPosition = false;
+        pwmEnabled = null;
+    }
+}
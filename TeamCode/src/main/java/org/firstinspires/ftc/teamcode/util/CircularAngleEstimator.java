@@ -0,0 +1,166 @@
+package org.firstinspires.ftc.teamcode.util;
+
+/**
+ * Running estimate of an angle from noisy readings that wrap at 360 deg, fed
+ * one sample at a time (e.g. one absolute-encoder read per periodic()).
+ *
+ * The estimate is the circular mean of the last {@code window} accepted
+ * samples, kept as running sin/cos sums, so a reading of 359 and one of 1
+ * average to 0 instead of 180. A sample further than the outlier limit from
+ * the window median is rejected. The median (a {@link SlidingMedian} over
+ * readings unwrapped around the first sample of the window) is used for the
+ * test because one early glitch drags the mean but not the median. If several
+ * in a row are rejected the thing being measured has really moved, so the
+ * window is restarted from the new reading instead of holding on to the old
+ * position.
+ *
+ * {@link #isConverged(int, double)} is the "has it settled" test: enough
+ * samples in the window and their circular spread below a limit. While the
+ * turret is still moving the samples spread out and it stays false.
+ */
+public class CircularAngleEstimator {
+    private double[] sinSamples = new double[0];
+    private double[] cosSamples = new double[0];
+    private SlidingMedian unwrappedMedian = new SlidingMedian(1);
+    // Angle the window's readings are unwrapped around (its first sample).
+    private double unwrapReferenceDegrees = Double.NaN;
+    private int head = 0;
+    private int count = 0;
+    private double sinSum = 0.0;
+    private double cosSum = 0.0;
+    private int consecutiveRejects = 0;
+    private int rejectedCount = 0;
+    private int restartCount = 0;
+
+    /** Clears all samples; {@code window} is how many recent samples the estimate uses. */
+    public void reset(int window) {
+        int size = Math.max(1, window);
+        if (sinSamples.length != size) {
+            sinSamples = new double[size];
+            cosSamples = new double[size];
+            unwrappedMedian = new SlidingMedian(size);
+        }
+        clearWindow();
+        rejectedCount = 0;
+        restartCount = 0;
+    }
+
+    /**
+     * Adds one reading in degrees. Returns false when it was rejected as an
+     * outlier. Outlier rejection only starts once the window holds
+     * {@code minSamplesForRejection} samples; {@code outlierDegrees} <= 0
+     * disables it.
+     */
+    public boolean add(double degrees, double outlierDegrees, int minSamplesForRejection, int maxConsecutiveRejects) {
+        if (Double.isNaN(degrees) || sinSamples.length == 0) {
+            return false;
+        }
+        if (outlierDegrees > 0.0 && count >= Math.max(1, minSamplesForRejection)
+                && Math.abs(wrappedDeltaDegrees(degrees, getMedianDegrees())) > outlierDegrees) {
+            rejectedCount++;
+            consecutiveRejects++;
+            if (consecutiveRejects <= Math.max(0, maxConsecutiveRejects)) {
+                return false;
+            }
+            // Not noise: the reading has moved. Start over from here.
+            clearWindow();
+            restartCount++;
+        }
+        consecutiveRejects = 0;
+
+        if (Double.isNaN(unwrapReferenceDegrees)) {
+            unwrapReferenceDegrees = degrees;
+        }
+        unwrappedMedian.add(unwrapReferenceDegrees + wrappedDeltaDegrees(degrees, unwrapReferenceDegrees));
+
+        double radians = Math.toRadians(degrees);
+        double s = Math.sin(radians);
+        double c = Math.cos(radians);
+        if (count == sinSamples.length) {
+            sinSum -= sinSamples[head];
+            cosSum -= cosSamples[head];
+        } else {
+            count++;
+        }
+        sinSamples[head] = s;
+        cosSamples[head] = c;
+        sinSum += s;
+        cosSum += c;
+        head = (head + 1) % sinSamples.length;
+        return true;
+    }
+
+    /** Circular mean of the window in [0, 360), NaN when empty. */
+    public double getMeanDegrees() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double mean = Math.toDegrees(Math.atan2(sinSum, cosSum)) % 360.0;
+        return mean < 0.0 ? mean + 360.0 : mean;
+    }
+
+    /** Median of the window in [0, 360), NaN when empty. */
+    public double getMedianDegrees() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double median = unwrappedMedian.getMedian() % 360.0;
+        return median < 0.0 ? median + 360.0 : median;
+    }
+
+    /**
+     * Circular standard deviation of the window in degrees (sqrt(-2 ln R),
+     * R = mean resultant length). About the ordinary standard deviation for
+     * small spreads; infinite when empty.
+     */
+    public double getSpreadDegrees() {
+        if (count == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double r = Math.hypot(sinSum, cosSum) / count;
+        if (r >= 1.0) {
+            return 0.0;
+        }
+        if (r <= 0.0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return Math.toDegrees(Math.sqrt(-2.0 * Math.log(r)));
+    }
+
+    public boolean isConverged(int minSamples, double maxSpreadDegrees) {
+        return count >= Math.max(1, Math.min(minSamples, sinSamples.length))
+                && getSpreadDegrees() <= maxSpreadDegrees;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public int getRestartCount() {
+        return restartCount;
+    }
+
+    private void clearWindow() {
+        head = 0;
+        count = 0;
+        sinSum = 0.0;
+        cosSum = 0.0;
+        consecutiveRejects = 0;
+        unwrappedMedian.clear();
+        unwrapReferenceDegrees = Double.NaN;
+    }
+
+    private static double wrappedDeltaDegrees(double a, double b) {
+        double delta = (a - b) % 360.0;
+        if (delta > 180.0) {
+            delta -= 360.0;
+        } else if (delta < -180.0) {
+            delta += 360.0;
+        }
+        return delta;
+    }
+}
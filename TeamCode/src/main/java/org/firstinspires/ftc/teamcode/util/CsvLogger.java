@@ -2,21 +2,56 @@ package org.firstinspires.ftc.teamcode.util;
 
 import android.os.Environment;
 
+import com.bylazar.configurables.annotations.Configurable;
 import com.qualcomm.robotcore.util.RobotLog;
 
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Row-oriented CSV log under FIRST/turret_logs.
+ *
+ * Two modes, picked when {@link #start(String)} is called:
+ * - buffered (legacy): rows are kept in memory and written in {@link #save()};
+ * - streaming ({@link #CSV_STREAMING_ENABLED}): the file is opened at start,
+ *   rows go into a fixed-size single-producer / single-consumer ring, and a
+ *   background thread drains the ring to a file channel. Memory stays bounded
+ *   no matter how long the session runs, and everything up to the last drain
+ *   is on disk if the app crashes or the robot browns out mid-match. A full
+ *   ring drops the row (counted in {@link #getDroppedRowCount()}) rather than
+ *   ever blocking the loop.
+ *
+ * The producer side (start/addRow/save/discard) must stay on one thread, the
+ * opmode thread, which is how every caller already uses it.
+ */
+@Configurable
 public class CsvLogger {
     private static final String TAG = "CsvLogger";
 
+    public static boolean CSV_STREAMING_ENABLED = true;
+    // Rounded up to a power of two. 4096 rows is ~100 s of one logger at 25 ms
+    // even if the writer thread stalls completely.
+    public static int CSV_STREAM_RING_CAPACITY = 4096;
+    // How often the writer forces written bytes to storage (fsync), so a power
+    // cut loses at most this much.
+    public static long CSV_STREAM_SYNC_INTERVAL_MS = 1000L;
+    public static long CSV_STREAM_IDLE_PARK_MS = 5L;
+
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+    private static final long WRITER_JOIN_TIMEOUT_MS = 2000L;
+
     private final String baseName;
     private final List<String> rows = new ArrayList<>();
 
@@ -24,18 +59,33 @@ public class CsvLogger {
     private boolean saved = false;
     private long sessionStartMs = 0L;
 
+    // Streaming mode state. Null / unused in buffered mode.
+    private boolean streaming = false;
+    private StreamWriter streamWriter;
+    private File streamFile;
+    private int rowCount = 0;
+    private long droppedRows = 0L;
+
     public CsvLogger(String baseName) {
         this.baseName = sanitizeFileName(baseName);
     }
 
     public void start(String headerLine) {
+        stopStreamWriter();
         rows.clear();
+        rowCount = 0;
+        droppedRows = 0L;
         started = true;
         saved = false;
         sessionStartMs = System.currentTimeMillis();
+        streaming = false;
+
+        if (CSV_STREAMING_ENABLED) {
+            streaming = openStream();
+        }
 
         if (headerLine != null && !headerLine.isEmpty()) {
-            rows.add(headerLine);
+            appendRow(headerLine);
         }
     }
 
@@ -43,37 +93,48 @@ public class CsvLogger {
         return started;
     }
 
+    public boolean isStreaming() {
+        return streaming;
+    }
+
     public long getSessionStartMs() {
         return sessionStartMs;
     }
 
     public void addRow(String row) {
         if (!started || saved || row == null) return;
-        rows.add(row);
+        appendRow(row);
     }
 
     public void addRow(Object... values) {
         if (!started || saved) return;
-        rows.add(buildCsvLine(values));
+        appendRow(buildCsvLine(values));
     }
 
     public int getRowCount() {
-        return rows.size();
+        return streaming ? rowCount : rows.size();
+    }
+
+    /** Rows the streaming ring had no room for. Always 0 in buffered mode. */
+    public long getDroppedRowCount() {
+        return droppedRows;
     }
 
     public File save() {
-        if (!started || saved || rows.isEmpty()) {
+        if (!started || saved) {
             return null;
         }
-
-        File dir = new File(Environment.getExternalStorageDirectory(), "FIRST/turret_logs");
-        if (!dir.exists() && !dir.mkdirs()) {
-            RobotLog.ee(TAG, "Could not create directory: " + dir.getAbsolutePath());
+        if (streaming) {
+            return finishStream();
+        }
+        if (rows.isEmpty()) {
             return null;
         }
 
-        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date(sessionStartMs));
-        File outFile = new File(dir, baseName + "_" + timestamp + ".csv");
+        File outFile = newLogFile();
+        if (outFile == null) {
+            return null;
+        }
 
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(outFile))) {
             for (String row : rows) {
@@ -93,12 +154,218 @@ public class CsvLogger {
     }
 
     public void discard() {
+        stopStreamWriter();
+        if (streamFile != null && !streamFile.delete()) {
+            RobotLog.ww(TAG, "Could not delete discarded log: " + streamFile.getAbsolutePath());
+        }
+        streamFile = null;
+        streaming = false;
         rows.clear();
+        rowCount = 0;
+        droppedRows = 0L;
         started = false;
         saved = false;
         sessionStartMs = 0L;
     }
 
+    private void appendRow(String row) {
+        if (streaming) {
+            if (streamWriter.offer(row)) {
+                rowCount++;
+            } else {
+                droppedRows++;
+            }
+        } else {
+            rows.add(row);
+        }
+    }
+
+    private File newLogFile() {
+        File dir = new File(Environment.getExternalStorageDirectory(), "FIRST/turret_logs");
+        if (!dir.exists() && !dir.mkdirs()) {
+            RobotLog.ee(TAG, "Could not create directory: " + dir.getAbsolutePath());
+            return null;
+        }
+        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date(sessionStartMs));
+        return new File(dir, baseName + "_" + timestamp + ".csv");
+    }
+
+    /** Opens the file and starts the writer. False falls back to buffered mode. */
+    private boolean openStream() {
+        File outFile = newLogFile();
+        if (outFile == null) {
+            return false;
+        }
+        try {
+            FileChannel channel = new FileOutputStream(outFile).getChannel();
+            streamFile = outFile;
+            streamWriter = new StreamWriter(channel, CSV_STREAM_RING_CAPACITY);
+            Thread thread = new Thread(streamWriter, "CsvLogger-" + baseName);
+            thread.setDaemon(true);
+            streamWriter.thread = thread;
+            thread.start();
+            return true;
+        } catch (IOException e) {
+            RobotLog.ee(TAG, e, "Failed to open streaming CSV log, buffering in memory instead");
+            streamFile = null;
+            streamWriter = null;
+            return false;
+        }
+    }
+
+    private File finishStream() {
+        StreamWriter writer = streamWriter;
+        stopStreamWriter();
+        saved = true;
+        if (writer == null || writer.failed) {
+            RobotLog.ee(TAG, "Streaming CSV log had write errors: " + streamFile);
+            return null;
+        }
+        if (rowCount == 0) {
+            if (streamFile != null && !streamFile.delete()) {
+                RobotLog.ww(TAG, "Could not delete empty log: " + streamFile.getAbsolutePath());
+            }
+            return null;
+        }
+        if (droppedRows > 0) {
+            RobotLog.ww(TAG, "Streaming CSV log dropped " + droppedRows + " rows (ring full)");
+        }
+        RobotLog.ii(TAG, "Saved CSV log: " + streamFile.getAbsolutePath());
+        return streamFile;
+    }
+
+    /** Stops the writer thread after it has drained everything queued so far. */
+    private void stopStreamWriter() {
+        StreamWriter writer = streamWriter;
+        if (writer == null) {
+            return;
+        }
+        streamWriter = null;
+        writer.running = false;
+        LockSupport.unpark(writer.thread);
+        try {
+            writer.thread.join(WRITER_JOIN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.thread.isAlive()) {
+            RobotLog.ww(TAG, "CSV writer thread did not finish within " + WRITER_JOIN_TIMEOUT_MS + " ms");
+        }
+    }
+
+    /**
+     * Lock-free SPSC ring plus the consumer loop. The producer publishes a slot
+     * by writing it and then the volatile {@code tail}; the consumer reads
+     * {@code tail}, takes the slot, clears it and publishes {@code head}.
+     */
+    private static final class StreamWriter implements Runnable {
+        private final String[] ring;
+        private final int mask;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+        private volatile long head = 0L;
+        private volatile long tail = 0L;
+        volatile boolean running = true;
+        volatile boolean failed = false;
+        Thread thread;
+
+        StreamWriter(FileChannel channel, int requestedCapacity) {
+            int capacity = Integer.highestOneBit(Math.max(16, requestedCapacity - 1)) << 1;
+            this.ring = new String[capacity];
+            this.mask = capacity - 1;
+            this.channel = channel;
+        }
+
+        boolean offer(String row) {
+            long t = tail;
+            if (t - head >= ring.length) {
+                return false;
+            }
+            ring[(int) (t & mask)] = row;
+            tail = t + 1;
+            return true;
+        }
+
+        @Override
+        public void run() {
+            long lastSyncMs = System.currentTimeMillis();
+            try {
+                while (true) {
+                    boolean stopping = !running;
+                    int drained = drain();
+                    if (drained > 0 || stopping) {
+                        flushBuffer();
+                    }
+                    long nowMs = System.currentTimeMillis();
+                    if (drained > 0 && nowMs - lastSyncMs >= CSV_STREAM_SYNC_INTERVAL_MS) {
+                        channel.force(false);
+                        lastSyncMs = nowMs;
+                    }
+                    if (stopping) {
+                        // running was already false before this drain, so every
+                        // row offered before stop is on disk now.
+                        break;
+                    }
+                    if (drained == 0) {
+                        LockSupport.parkNanos(Math.max(1L, CSV_STREAM_IDLE_PARK_MS) * 1_000_000L);
+                    }
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                failed = true;
+                RobotLog.ee(TAG, e, "CSV writer thread failed");
+            } finally {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    RobotLog.ee(TAG, e, "Failed to close CSV log");
+                }
+            }
+        }
+
+        private int drain() throws IOException {
+            long h = head;
+            long t = tail;
+            int drained = 0;
+            while (h < t) {
+                int slot = (int) (h & mask);
+                String row = ring[slot];
+                ring[slot] = null;
+                h++;
+                head = h;
+                write(row);
+                drained++;
+            }
+            return drained;
+        }
+
+        private void write(String row) throws IOException {
+            byte[] bytes = row.getBytes(StandardCharsets.UTF_8);
+            if (buffer.remaining() < bytes.length + 1) {
+                flushBuffer();
+            }
+            if (bytes.length + 1 > buffer.capacity()) {
+                writeFully(ByteBuffer.wrap(bytes));
+                writeFully(ByteBuffer.wrap(new byte[]{'\n'}));
+                return;
+            }
+            buffer.put(bytes);
+            buffer.put((byte) '\n');
+        }
+
+        private void flushBuffer() throws IOException {
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+        }
+
+        private void writeFully(ByteBuffer src) throws IOException {
+            while (src.hasRemaining()) {
+                channel.write(src);
+            }
+        }
+    }
+
     public static String buildCsvLine(Object... values) {
         StringBuilder sb = new StringBuilder();
 
@@ -135,4 +402,4 @@ public class CsvLogger {
         if (input == null || input.isEmpty()) return "log";
         return input.replaceAll("[^a-zA-Z0-9._-]", "_");
     }
-}
\ No newline at end of file
+}
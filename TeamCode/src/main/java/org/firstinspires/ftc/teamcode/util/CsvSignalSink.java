@@ -0,0 +1,72 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import com.qualcomm.robotcore.util.RobotLog;
+
+import java.io.File;
+import java.util.Locale;
+
+/**
+ * Writes selected signals to a {@link CsvLogger}, one row per write. The
+ * header is the signal names, so columns line up with the CSVs the analysis
+ * scripts already read.
+ */
+public class CsvSignalSink implements SignalSink {
+    private static final String TAG = "CsvSignalSink";
+
+    private final CsvLogger logger;
+    private final String[] signalNames;
+    private final StringBuilder row = new StringBuilder(1024);
+    private int[] ids = new int[0];
+
+    /** {@code signalNames} null records every signal. */
+    public CsvSignalSink(CsvLogger logger, String... signalNames) {
+        this.logger = logger;
+        this.signalNames = signalNames;
+    }
+
+    @Override
+    public void open(SignalBus bus) {
+        ids = bus.resolve(TAG, signalNames);
+        row.setLength(0);
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) row.append(',');
+            row.append(bus.getName(ids[i]));
+        }
+        logger.start(row.toString());
+    }
+
+    @Override
+    public void write(SignalBus bus, long nowMs) {
+        row.setLength(0);
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) row.append(',');
+            int id = ids[i];
+            switch (bus.getType(id)) {
+                case DOUBLE:
+                    // Same formatting as CsvLogger.addRow(Object...).
+                    row.append(String.format(Locale.US, "%.6f", bus.getDouble(id)));
+                    break;
+                case LONG:
+                    row.append(bus.getLong(id));
+                    break;
+                case BOOLEAN:
+                    row.append(bus.getBoolean(id));
+                    break;
+                case ENUM:
+                    row.append(bus.getEnumName(id));
+                    break;
+            }
+        }
+        logger.addRow(row.toString());
+    }
+
+    @Override
+    public void close() {
+        File saved = logger.save();
+        if (saved != null) {
+            RobotLog.ii(TAG, "CSV saved: " + saved.getAbsolutePath());
+        } else {
+            RobotLog.ww(TAG, "CSV was not saved (logger not started, empty, or save failed).");
+        }
+    }
+}
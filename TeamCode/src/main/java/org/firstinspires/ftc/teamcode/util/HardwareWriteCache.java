@@ -0,0 +1,106 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import com.bylazar.configurables.annotations.Configurable;
+
+/**
+ * Shared settings and counters for the write-caching hardware wrappers
+ * ({@link CachedMotor}, {@link CachedServo}, {@link CachedCRServo}).
+ *
+ * Every setPower / setVelocity / setPosition on a Lynx device is a blocking
+ * bus transaction (~1-2 ms over the Expansion Hub's RS-485), and the subsystems
+ * re-issue the same command every loop. The wrappers remember the last value
+ * actually sent and skip a write that is within tolerance of it, so small
+ * changes coalesce until they add up to something worth sending. A change to
+ * or from exactly zero is always sent so "stop" is never swallowed.
+ *
+ * The counters are what proves it: {@link #markLoop()} (called once per loop
+ * by the opmode) snapshots how many writes were sent and skipped since the
+ * previous call.
+ */
+@Configurable
+public final class HardwareWriteCache {
+    public static boolean HARDWARE_WRITE_CACHE_ENABLED = true;
+    public static double MOTOR_POWER_WRITE_TOLERANCE = 0.001;
+    public static double MOTOR_VELOCITY_WRITE_TOLERANCE_TPS = 1.0;
+    public static double SERVO_POSITION_WRITE_TOLERANCE = 0.0005;
+    public static double CR_SERVO_POWER_WRITE_TOLERANCE = 0.001;
+    // Re-send the cached value anyway after this long (0 = never), in case a
+    // module reset or brown-out lost the device's state.
+    public static long HARDWARE_WRITE_REFRESH_MS = 0L;
+
+    private static long writesSent = 0L;
+    private static long writesSkipped = 0L;
+    private static long loopMarkSent = 0L;
+    private static long loopMarkSkipped = 0L;
+    private static long lastLoopSent = 0L;
+    private static long lastLoopSkipped = 0L;
+
+    private HardwareWriteCache() {
+    }
+
+    /**
+     * Decides whether {@code value} has to be sent given the last value sent.
+     * Counts the outcome.
+     */
+    static boolean shouldWrite(boolean hasLast, double last, double value, double tolerance, long lastWriteMs) {
+        boolean write;
+        if (!HARDWARE_WRITE_CACHE_ENABLED || !hasLast || Double.isNaN(last)) {
+            write = true;
+        } else if (HARDWARE_WRITE_REFRESH_MS > 0L
+                && RobotClock.currentTimeMillis() - lastWriteMs >= HARDWARE_WRITE_REFRESH_MS) {
+            write = true;
+        } else if (value == 0.0 || last == 0.0) {
+            write = value != last;
+        } else {
+            write = Math.abs(value - last) > Math.max(0.0, tolerance);
+        }
+        if (write) {
+            writesSent++;
+        } else {
+            writesSkipped++;
+        }
+        return write;
+    }
+
+    /** Counts a write that bypasses the cache (mode changes, PWM enable, ...). */
+    static void countWrite() {
+        writesSent++;
+    }
+
+    static void countSkip() {
+        writesSkipped++;
+    }
+
+    /** Call once per loop; the getters below then describe the previous loop. */
+    public static void markLoop() {
+        lastLoopSent = writesSent - loopMarkSent;
+        lastLoopSkipped = writesSkipped - loopMarkSkipped;
+        loopMarkSent = writesSent;
+        loopMarkSkipped = writesSkipped;
+    }
+
+    public static long getLastLoopWritesSent() {
+        return lastLoopSent;
+    }
+
+    public static long getLastLoopWritesSkipped() {
+        return lastLoopSkipped;
+    }
+
+    public static long getTotalWritesSent() {
+        return writesSent;
+    }
+
+    public static long getTotalWritesSkipped() {
+        return writesSkipped;
+    }
+
+    public static void resetCounters() {
+        writesSent = 0L;
+        writesSkipped = 0L;
+        loopMarkSent = 0L;
+        loopMarkSkipped = 0L;
+        lastLoopSent = 0L;
+        lastLoopSkipped = 0L;
+    }
+}
@@ -0,0 +1,288 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Per-section loop timing with fixed-size log-linear histograms.
+ *
+ * Sections are registered once by name ({@link #section(String)}, usually in a
+ * static field) and timed with
+ * <pre>
+ *     long t0 = LoopProfiler.INSTANCE.start();
+ *     ...
+ *     LoopProfiler.INSTANCE.stop(SECTION, t0);
+ * </pre>
+ * Recording is a few array writes: no allocation, no locking.
+ *
+ * Histogram layout (HDR-style): values in microseconds, 16 linear sub-buckets
+ * per power of two, so every bucket is within ~6% of its value. Bucket index
+ * is {@code shift * 16 + (us >> shift)} with {@code shift = max(0, msb - 4)};
+ * 320 buckets reach ~8 s, longer spans land in the last bucket (max is still
+ * exact). Percentiles report the bucket's upper edge.
+ *
+ * The opmode brackets its own loop with {@link #beginLoop()} / {@link #endLoop()}.
+ * Everything between the end of one onUpdate and the start of the next is
+ * NextFTC's work - Pedro follower update, bulk read, subsystem periodic() - so
+ * the gap, minus the subsystem sections recorded inside it, is kept as the
+ * "follower_and_framework" section. "loop_total" is the full cycle.
+ *
+ * Single-threaded like the rest of the loop code.
+ */
+@Configurable
+public final class LoopProfiler {
+    private static final String TAG = "LoopProfiler";
+
+    public static boolean LOOP_PROFILER_ENABLED = true;
+    // Adds one "prof_<section>" line per section to the diagnostic telemetry.
+    public static boolean LOOP_PROFILER_TELEMETRY = true;
+
+    public static final LoopProfiler INSTANCE = new LoopProfiler();
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = 20 * SUB_BUCKETS;
+
+    private String[] names = new String[16];
+    private long[][] histograms = new long[16][];
+    private long[] counts = new long[16];
+    private long[] totalNs = new long[16];
+    private long[] maxNs = new long[16];
+    private int sectionCount = 0;
+
+    private final int loopTotalSection;
+    private final int frameworkSection;
+    private long lastBeginLoopNs = 0L;
+    private long lastEndLoopNs = 0L;
+    private long outsideLoopSectionNs = 0L;
+    private boolean inLoop = false;
+
+    private int[] telemetryLines = new int[0];
+    private TieredTelemetry telemetryTarget;
+
+    private LoopProfiler() {
+        loopTotalSection = section("loop_total");
+        frameworkSection = section("follower_and_framework");
+    }
+
+    // =============================================
+    // RECORDING
+    // =============================================
+
+    /** Id for a section name, registering it on first use. */
+    public int section(String name) {
+        for (int i = 0; i < sectionCount; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        if (sectionCount == names.length) {
+            int n = names.length * 2;
+            names = Arrays.copyOf(names, n);
+            histograms = Arrays.copyOf(histograms, n);
+            counts = Arrays.copyOf(counts, n);
+            totalNs = Arrays.copyOf(totalNs, n);
+            maxNs = Arrays.copyOf(maxNs, n);
+        }
+        int id = sectionCount++;
+        names[id] = name;
+        histograms[id] = new long[BUCKETS];
+        return id;
+    }
+
+    public long start() {
+        return LOOP_PROFILER_ENABLED ? System.nanoTime() : 0L;
+    }
+
+    public void stop(int section, long startNs) {
+        if (!LOOP_PROFILER_ENABLED || startNs == 0L) {
+            return;
+        }
+        long spanNs = System.nanoTime() - startNs;
+        record(section, spanNs);
+        if (!inLoop) {
+            outsideLoopSectionNs += spanNs;
+        }
+    }
+
+    public void record(int section, long spanNs) {
+        if (spanNs < 0L) {
+            return;
+        }
+        histograms[section][bucketIndex(spanNs / 1000L)]++;
+        counts[section]++;
+        totalNs[section] += spanNs;
+        if (spanNs > maxNs[section]) {
+            maxNs[section] = spanNs;
+        }
+    }
+
+    /** Top of the opmode's loop body. */
+    public void beginLoop() {
+        if (!LOOP_PROFILER_ENABLED) {
+            inLoop = true;
+            return;
+        }
+        long now = System.nanoTime();
+        if (lastBeginLoopNs != 0L) {
+            record(loopTotalSection, now - lastBeginLoopNs);
+        }
+        if (lastEndLoopNs != 0L) {
+            record(frameworkSection, Math.max(0L, now - lastEndLoopNs - outsideLoopSectionNs));
+        }
+        lastBeginLoopNs = now;
+        outsideLoopSectionNs = 0L;
+        inLoop = true;
+    }
+
+    /** Bottom of the opmode's loop body. */
+    public void endLoop() {
+        inLoop = false;
+        lastEndLoopNs = LOOP_PROFILER_ENABLED ? System.nanoTime() : 0L;
+        outsideLoopSectionNs = 0L;
+    }
+
+    /** Clears every histogram (sections stay registered), e.g. at start so init loops do not count. */
+    public void reset() {
+        for (int i = 0; i < sectionCount; i++) {
+            Arrays.fill(histograms[i], 0L);
+            counts[i] = 0L;
+            totalNs[i] = 0L;
+            maxNs[i] = 0L;
+        }
+        lastBeginLoopNs = 0L;
+        lastEndLoopNs = 0L;
+        outsideLoopSectionNs = 0L;
+        inLoop = false;
+    }
+
+    static int bucketIndex(long us) {
+        if (us < 0L) {
+            us = 0L;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(us | 1L);
+        int shift = Math.max(0, msb - SUB_BUCKET_BITS);
+        long index = (long) shift * SUB_BUCKETS + (us >> shift);
+        return (int) Math.min(index, BUCKETS - 1);
+    }
+
+    /** Largest microsecond value that lands in the bucket. */
+    static long bucketUpperUs(int index) {
+        int shift = Math.max(0, index / SUB_BUCKETS - 1);
+        long lower = (long) (index - shift * SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1L;
+    }
+
+    // =============================================
+    // READING
+    // =============================================
+
+    public int getSectionCount() {
+        return sectionCount;
+    }
+
+    public String getName(int section) {
+        return names[section];
+    }
+
+    public long getCount(int section) {
+        return counts[section];
+    }
+
+    /** Percentile (0..100) in milliseconds, NaN when nothing was recorded. */
+    public double getPercentileMs(int section, double percentile) {
+        long n = counts[section];
+        if (n == 0L) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(n * Math.min(100.0, Math.max(0.0, percentile)) / 100.0));
+        long[] h = histograms[section];
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += h[i];
+            if (seen >= rank) {
+                // Never report more than the exact max.
+                return Math.min(bucketUpperUs(i) / 1000.0, maxNs[section] / 1e6);
+            }
+        }
+        return maxNs[section] / 1e6;
+    }
+
+    public double getMaxMs(int section) {
+        return counts[section] == 0L ? Double.NaN : maxNs[section] / 1e6;
+    }
+
+    public double getMeanMs(int section) {
+        return counts[section] == 0L ? Double.NaN : totalNs[section] / 1e6 / counts[section];
+    }
+
+    public String summary(int section) {
+        return String.format(Locale.US, "p50 %.2f  p99 %.2f  max %.2f ms  (n=%d)",
+                getPercentileMs(section, 50.0),
+                getPercentileMs(section, 99.0),
+                getMaxMs(section),
+                counts[section]);
+    }
+
+    // =============================================
+    // EXPORT
+    // =============================================
+
+    /**
+     * Sets one diagnostic line per section on {@code telemetry}. Lines are
+     * registered on the first call (and again if sections were added since),
+     * so call it after every section exists; it only formats at the
+     * diagnostic rate.
+     */
+    public void updateTelemetry(TieredTelemetry telemetry) {
+        if (!LOOP_PROFILER_TELEMETRY || !telemetry.isDue(TieredTelemetry.Tier.DIAGNOSTIC)) {
+            return;
+        }
+        if (telemetryTarget != telemetry) {
+            telemetryTarget = telemetry;
+            telemetryLines = new int[0];
+        }
+        if (telemetryLines.length < sectionCount) {
+            int first = telemetryLines.length;
+            telemetryLines = Arrays.copyOf(telemetryLines, sectionCount);
+            for (int i = first; i < sectionCount; i++) {
+                telemetryLines[i] = telemetry.line(TieredTelemetry.Tier.DIAGNOSTIC, "prof_" + names[i]);
+            }
+        }
+        for (int i = 0; i < sectionCount; i++) {
+            if (counts[i] > 0L) {
+                telemetry.set(telemetryLines[i], summary(i));
+            }
+        }
+    }
+
+    /** Writes every section to the robot log and a CSV under FIRST/turret_logs. */
+    public File logSummary(String baseName) {
+        CsvLogger csv = new CsvLogger(baseName);
+        csv.start("section,count,p50_ms,p90_ms,p99_ms,max_ms,mean_ms");
+        for (int i = 0; i < sectionCount; i++) {
+            if (counts[i] == 0L) {
+                continue;
+            }
+            RobotLog.ii(TAG, names[i] + ": " + summary(i));
+            csv.addRow(
+                    names[i],
+                    counts[i],
+                    getPercentileMs(i, 50.0),
+                    getPercentileMs(i, 90.0),
+                    getPercentileMs(i, 99.0),
+                    getMaxMs(i),
+                    getMeanMs(i)
+            );
+        }
+        File saved = csv.save();
+        if (saved != null) {
+            RobotLog.ii(TAG, "Loop profile saved: " + saved.getAbsolutePath());
+        }
+        return saved;
+    }
+}
@@ -0,0 +1,290 @@
+package org.firstinspires.ftc.teamcode.util;
+
+/**
+ * Extended Kalman filter over the field pose [x, y, heading].
+ *
+ * Process model: odometry. Each {@link #predict} takes the field-frame pose
+ * change the odometry reported since the last call and applies it rotated by
+ * the current heading correction (estimate heading minus odometry heading).
+ * With no measurements the estimate therefore tracks the odometry exactly;
+ * once vision has corrected the heading, later motion follows the corrected
+ * heading. Process noise grows with the distance and angle travelled.
+ *
+ * Measurements: a vision pose (x, y, heading) or position only (x, y), given
+ * as the innovation against the estimate at the time the frame was taken (the
+ * caller looks that up, see {@link PoseHistory}) and applied to the current
+ * state. Each is gated on its Mahalanobis distance, so a frame that disagrees
+ * wildly with the estimate and its uncertainty is rejected instead of blended.
+ *
+ * Everything is 3x3 / 2x2 closed form: constant time and no allocation.
+ */
+public class PoseEkf {
+    // Chi-square 99% points for 2 and 3 degrees of freedom.
+    public static final double CHI2_99_2DOF = 9.21;
+    public static final double CHI2_99_3DOF = 11.34;
+
+    private double x;
+    private double y;
+    private double heading;
+    // Covariance, row-major 3x3 (symmetric).
+    private final double[] p = new double[9];
+
+    private double lastInnovationX = 0.0;
+    private double lastInnovationY = 0.0;
+    private double lastInnovationHeading = 0.0;
+    private double lastMahalanobisSquared = 0.0;
+
+    /** Sets the estimate and a diagonal covariance. */
+    public void reset(double x, double y, double heading, double positionVariance, double headingVariance) {
+        this.x = x;
+        this.y = y;
+        this.heading = wrapRadians(heading);
+        for (int i = 0; i < 9; i++) {
+            p[i] = 0.0;
+        }
+        p[0] = positionVariance;
+        p[4] = positionVariance;
+        p[8] = headingVariance;
+    }
+
+    /**
+     * Odometry step. {@code odoDx}, {@code odoDy}, {@code odoDHeading} are the
+     * field-frame change reported by the odometry; {@code odoHeadingBefore} is
+     * its heading at the start of the step. Process noise standard deviations
+     * are {@code positionNoisePerIn} per inch moved (plus {@code positionNoiseBase})
+     * and {@code headingNoisePerRad} per radian turned (plus {@code headingNoiseBase}).
+     */
+    public void predict(
+            double odoDx,
+            double odoDy,
+            double odoDHeading,
+            double odoHeadingBefore,
+            double positionNoiseBase,
+            double positionNoisePerIn,
+            double headingNoiseBase,
+            double headingNoisePerRad
+    ) {
+        double correction = wrapRadians(heading - odoHeadingBefore);
+        double c = Math.cos(correction);
+        double s = Math.sin(correction);
+        double dx = (c * odoDx) - (s * odoDy);
+        double dy = (s * odoDx) + (c * odoDy);
+        x += dx;
+        y += dy;
+        heading = wrapRadians(heading + odoDHeading);
+
+        // F = [[1, 0, -dy], [0, 1, dx], [0, 0, 1]]; P = F P F^T + Q.
+        double f02 = -dy;
+        double f12 = dx;
+        double p00 = p[0], p01 = p[1], p02 = p[2];
+        double p11 = p[4], p12 = p[5], p22 = p[8];
+        double n00 = p00 + (2.0 * f02 * p02) + (f02 * f02 * p22);
+        double n01 = p01 + (f02 * p12) + (f12 * p02) + (f02 * f12 * p22);
+        double n02 = p02 + (f02 * p22);
+        double n11 = p11 + (2.0 * f12 * p12) + (f12 * f12 * p22);
+        double n12 = p12 + (f12 * p22);
+
+        double moved = Math.hypot(odoDx, odoDy);
+        double positionSigma = Math.abs(positionNoiseBase) + (Math.abs(positionNoisePerIn) * moved);
+        double headingSigma = Math.abs(headingNoiseBase) + (Math.abs(headingNoisePerRad) * Math.abs(odoDHeading));
+        setSymmetric(
+                n00 + (positionSigma * positionSigma), n01, n02,
+                n11 + (positionSigma * positionSigma), n12,
+                p22 + (headingSigma * headingSigma)
+        );
+    }
+
+    /**
+     * Position-only measurement; {@code innovationX/Y} = measured - estimate
+     * at capture time. Returns false (and changes nothing) if it fails the gate.
+     */
+    public boolean correctPosition(double innovationX, double innovationY, double variance, double gate) {
+        lastInnovationX = innovationX;
+        lastInnovationY = innovationY;
+        lastInnovationHeading = 0.0;
+
+        double s00 = p[0] + variance;
+        double s01 = p[1];
+        double s11 = p[4] + variance;
+        double det = (s00 * s11) - (s01 * s01);
+        if (!(det > 1e-12)) {
+            lastMahalanobisSquared = Double.POSITIVE_INFINITY;
+            return false;
+        }
+        double i00 = s11 / det;
+        double i01 = -s01 / det;
+        double i11 = s00 / det;
+        lastMahalanobisSquared = (innovationX * ((i00 * innovationX) + (i01 * innovationY)))
+                + (innovationY * ((i01 * innovationX) + (i11 * innovationY)));
+        if (!(lastMahalanobisSquared <= gate)) {
+            return false;
+        }
+
+        // K = P H^T S^-1, H = [I2 0]; K is 3x2.
+        double k00 = (p[0] * i00) + (p[1] * i01);
+        double k01 = (p[0] * i01) + (p[1] * i11);
+        double k10 = (p[3] * i00) + (p[4] * i01);
+        double k11 = (p[3] * i01) + (p[4] * i11);
+        double k20 = (p[6] * i00) + (p[7] * i01);
+        double k21 = (p[6] * i01) + (p[7] * i11);
+
+        x += (k00 * innovationX) + (k01 * innovationY);
+        y += (k10 * innovationX) + (k11 * innovationY);
+        heading = wrapRadians(heading + (k20 * innovationX) + (k21 * innovationY));
+
+        // P = P - K H P; (H P) rows are P rows 0 and 1.
+        double p00 = p[0], p01 = p[1], p02 = p[2];
+        double p11 = p[4], p12 = p[5], p22 = p[8];
+        setSymmetric(
+                p00 - ((k00 * p00) + (k01 * p01)),
+                p01 - ((k00 * p01) + (k01 * p11)),
+                p02 - ((k00 * p02) + (k01 * p12)),
+                p11 - ((k10 * p01) + (k11 * p11)),
+                p12 - ((k10 * p02) + (k11 * p12)),
+                p22 - ((k20 * p02) + (k21 * p12))
+        );
+        return true;
+    }
+
+    /** Full-pose measurement; heading innovation is wrapped. See {@link #correctPosition}. */
+    public boolean correctPose(
+            double innovationX,
+            double innovationY,
+            double innovationHeading,
+            double positionVariance,
+            double headingVariance,
+            double gate
+    ) {
+        double innovationH = wrapRadians(innovationHeading);
+        lastInnovationX = innovationX;
+        lastInnovationY = innovationY;
+        lastInnovationHeading = innovationH;
+
+        double s00 = p[0] + positionVariance, s01 = p[1], s02 = p[2];
+        double s11 = p[4] + positionVariance, s12 = p[5];
+        double s22 = p[8] + headingVariance;
+        // Inverse of the symmetric 3x3 S by cofactors.
+        double c00 = (s11 * s22) - (s12 * s12);
+        double c01 = (s02 * s12) - (s01 * s22);
+        double c02 = (s01 * s12) - (s02 * s11);
+        double c11 = (s00 * s22) - (s02 * s02);
+        double c12 = (s01 * s02) - (s00 * s12);
+        double c22 = (s00 * s11) - (s01 * s01);
+        double det = (s00 * c00) + (s01 * c01) + (s02 * c02);
+        if (!(det > 1e-15)) {
+            lastMahalanobisSquared = Double.POSITIVE_INFINITY;
+            return false;
+        }
+        double i00 = c00 / det, i01 = c01 / det, i02 = c02 / det;
+        double i11 = c11 / det, i12 = c12 / det, i22 = c22 / det;
+
+        double w0 = (i00 * innovationX) + (i01 * innovationY) + (i02 * innovationH);
+        double w1 = (i01 * innovationX) + (i11 * innovationY) + (i12 * innovationH);
+        double w2 = (i02 * innovationX) + (i12 * innovationY) + (i22 * innovationH);
+        lastMahalanobisSquared = (innovationX * w0) + (innovationY * w1) + (innovationH * w2);
+        if (!(lastMahalanobisSquared <= gate)) {
+            return false;
+        }
+
+        // H = I: x += P S^-1 v, P = P - P S^-1 P.
+        double p00 = p[0], p01 = p[1], p02 = p[2];
+        double p11 = p[4], p12 = p[5], p22 = p[8];
+        x += (p00 * w0) + (p01 * w1) + (p02 * w2);
+        y += (p01 * w0) + (p11 * w1) + (p12 * w2);
+        heading = wrapRadians(heading + (p02 * w0) + (p12 * w1) + (p22 * w2));
+
+        // K = P S^-1 (rows of K).
+        double k00 = (p00 * i00) + (p01 * i01) + (p02 * i02);
+        double k01 = (p00 * i01) + (p01 * i11) + (p02 * i12);
+        double k02 = (p00 * i02) + (p01 * i12) + (p02 * i22);
+        double k10 = (p01 * i00) + (p11 * i01) + (p12 * i02);
+        double k11 = (p01 * i01) + (p11 * i11) + (p12 * i12);
+        double k12 = (p01 * i02) + (p11 * i12) + (p12 * i22);
+        double k20 = (p02 * i00) + (p12 * i01) + (p22 * i02);
+        double k21 = (p02 * i01) + (p12 * i11) + (p22 * i12);
+        double k22 = (p02 * i02) + (p12 * i12) + (p22 * i22);
+        setSymmetric(
+                p00 - ((k00 * p00) + (k01 * p01) + (k02 * p02)),
+                p01 - ((k00 * p01) + (k01 * p11) + (k02 * p12)),
+                p02 - ((k00 * p02) + (k01 * p12) + (k02 * p22)),
+                p11 - ((k10 * p01) + (k11 * p11) + (k12 * p12)),
+                p12 - ((k10 * p02) + (k11 * p12) + (k12 * p22)),
+                p22 - ((k20 * p02) + (k21 * p12) + (k22 * p22))
+        );
+        return true;
+    }
+
+    /** Adds to the diagonal, e.g. to let the next measurement pull the estimate. */
+    public void inflate(double positionVariance, double headingVariance) {
+        p[0] += positionVariance;
+        p[4] += positionVariance;
+        p[8] += headingVariance;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getHeading() {
+        return heading;
+    }
+
+    /** 1-sigma position uncertainty (inches for inch inputs), from the larger axis. */
+    public double getPositionSigma() {
+        double a = p[0], b = p[1], d = p[4];
+        double halfTrace = 0.5 * (a + d);
+        double largest = halfTrace + Math.sqrt(Math.max(0.0, (0.25 * (a - d) * (a - d)) + (b * b)));
+        return Math.sqrt(Math.max(0.0, largest));
+    }
+
+    public double getHeadingSigma() {
+        return Math.sqrt(Math.max(0.0, p[8]));
+    }
+
+    public double getLastInnovationX() {
+        return lastInnovationX;
+    }
+
+    public double getLastInnovationY() {
+        return lastInnovationY;
+    }
+
+    public double getLastInnovationHeading() {
+        return lastInnovationHeading;
+    }
+
+    public double getLastMahalanobisSquared() {
+        return lastMahalanobisSquared;
+    }
+
+    /** Covariance entry (row, col), 0 = x, 1 = y, 2 = heading. */
+    double getCovariance(int row, int col) {
+        return p[(3 * row) + col];
+    }
+
+    public boolean isNaN() {
+        return Double.isNaN(x) || Double.isNaN(y) || Double.isNaN(heading);
+    }
+
+    private void setSymmetric(double a00, double a01, double a02, double a11, double a12, double a22) {
+        p[0] = a00;
+        p[1] = a01;
+        p[2] = a02;
+        p[3] = a01;
+        p[4] = a11;
+        p[5] = a12;
+        p[6] = a02;
+        p[7] = a12;
+        p[8] = a22;
+    }
+
+    private static double wrapRadians(double angle) {
+        while (angle > Math.PI) angle -= 2.0 * Math.PI;
+        while (angle < -Math.PI) angle += 2.0 * Math.PI;
+        return angle;
+    }
+}
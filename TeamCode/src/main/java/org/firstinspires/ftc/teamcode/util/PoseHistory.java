@@ -0,0 +1,131 @@
+package org.firstinspires.ftc.teamcode.util;
+
+/**
+ * Timestamped ring buffer of robot poses, fed once per loop, that can be
+ * queried at any past time within its span.
+ *
+ * Vision results describe where the robot was when the frame was captured,
+ * tens of milliseconds before the loop that reads them. Comparing them with
+ * the current pose turns robot motion during that latency into fake error.
+ * Looking the pose up at the capture timestamp instead removes it, so vision
+ * can be fused while moving.
+ *
+ * Lookups interpolate linearly between the two surrounding samples (heading
+ * along the shorter arc). When a correction is applied to the live pose,
+ * {@link #shift(double, double, double)} moves the stored history by the same
+ * amount so later lookups stay in the corrected frame.
+ *
+ * Primitive arrays and a caller-owned {@link Sample}: no allocation per loop.
+ */
+public class PoseHistory {
+    /** Reusable lookup result. */
+    public static final class Sample {
+        public double x;
+        public double y;
+        public double headingRad;
+    }
+
+    private final long[] timestampsNs;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] headingsRad;
+    private int next = 0;
+    private int size = 0;
+
+    public PoseHistory(int capacity) {
+        int n = Math.max(2, capacity);
+        timestampsNs = new long[n];
+        xs = new double[n];
+        ys = new double[n];
+        headingsRad = new double[n];
+    }
+
+    /** Appends a pose. Timestamps must not go backwards (System.nanoTime()). */
+    public void add(long timestampNs, double x, double y, double headingRad) {
+        if (size > 0 && timestampNs < timestampsNs[index(size - 1)]) {
+            clear();
+        }
+        timestampsNs[next] = timestampNs;
+        xs[next] = x;
+        ys[next] = y;
+        headingsRad[next] = headingRad;
+        next = (next + 1) % timestampsNs.length;
+        size = Math.min(size + 1, timestampsNs.length);
+    }
+
+    /**
+     * Pose at {@code timestampNs}. Newer than the newest sample returns the
+     * newest; older than the oldest (or an empty buffer) returns false and
+     * leaves {@code out} untouched.
+     */
+    public boolean getAt(long timestampNs, Sample out) {
+        if (size == 0 || timestampNs < timestampsNs[index(0)]) {
+            return false;
+        }
+        int newest = index(size - 1);
+        if (timestampNs >= timestampsNs[newest]) {
+            out.x = xs[newest];
+            out.y = ys[newest];
+            out.headingRad = headingsRad[newest];
+            return true;
+        }
+        // Binary search for the last sample at or before timestampNs.
+        int lo = 0;
+        int hi = size - 1;
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            if (timestampsNs[index(mid)] <= timestampNs) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        int a = index(lo);
+        int b = index(hi);
+        long span = timestampsNs[b] - timestampsNs[a];
+        double t = span <= 0L ? 1.0 : (double) (timestampNs - timestampsNs[a]) / span;
+        out.x = xs[a] + (t * (xs[b] - xs[a]));
+        out.y = ys[a] + (t * (ys[b] - ys[a]));
+        out.headingRad = wrapRadians(headingsRad[a] + (t * wrapRadians(headingsRad[b] - headingsRad[a])));
+        return true;
+    }
+
+    /** Moves every stored pose by the given correction. */
+    public void shift(double dx, double dy, double dHeadingRad) {
+        for (int i = 0; i < size; i++) {
+            int k = index(i);
+            xs[k] += dx;
+            ys[k] += dy;
+            headingsRad[k] += dHeadingRad;
+        }
+    }
+
+    public void clear() {
+        next = 0;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Time covered by the buffer in ms (0 with fewer than two samples). */
+    public double getSpanMs() {
+        if (size < 2) {
+            return 0.0;
+        }
+        return (timestampsNs[index(size - 1)] - timestampsNs[index(0)]) / 1e6;
+    }
+
+    /** Physical slot of the i-th oldest sample. */
+    private int index(int i) {
+        int oldest = (next - size + timestampsNs.length) % timestampsNs.length;
+        return (oldest + i) % timestampsNs.length;
+    }
+
+    private static double wrapRadians(double angle) {
+        while (angle > Math.PI) angle -= 2.0 * Math.PI;
+        while (angle < -Math.PI) angle += 2.0 * Math.PI;
+        return angle;
+    }
+}
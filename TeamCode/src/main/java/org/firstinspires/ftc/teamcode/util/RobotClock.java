@@ -0,0 +1,56 @@
+package org.firstinspires.ftc.teamcode.util;
+
+/**
+ * Time source for the subsystems' control and timeout logic.
+ *
+ * On the robot this is just System.nanoTime() / currentTimeMillis(). Tests
+ * that step the subsystems against simulated hardware swap in their own
+ * source with {@link #setSource(TimeSource)}, so a 20 ms simulated step is
+ * 20 ms to the flywheel, turret and intake code no matter how fast the
+ * test runs. Profiling and logging keep measuring real time and do not go
+ * through here.
+ *
+ * The subsystems treat a timestamp of 0 as "never", so a replacement source
+ * should start at a nonzero time.
+ */
+public final class RobotClock {
+    public interface TimeSource {
+        long nanoTime();
+
+        long currentTimeMillis();
+    }
+
+    public static final TimeSource SYSTEM = new TimeSource() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    private static volatile TimeSource source = SYSTEM;
+
+    private RobotClock() {
+    }
+
+    /** Replaces the time source; null restores {@link #SYSTEM}. */
+    public static void setSource(TimeSource newSource) {
+        source = newSource != null ? newSource : SYSTEM;
+    }
+
+    public static TimeSource getSource() {
+        return source;
+    }
+
+    public static long nanoTime() {
+        return source.nanoTime();
+    }
+
+    public static long currentTimeMillis() {
+        return source.currentTimeMillis();
+    }
+}
@@ -0,0 +1,359 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import com.qualcomm.robotcore.util.RobotLog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide registry of named, typed robot signals and the sinks that
+ * record them.
+ *
+ * Two ways to publish:
+ * - suppliers (publishDouble/Long/Boolean), registered once - subsystems do
+ *   this in initialize() - and sampled exactly once per {@link #update};
+ * - slots (doubleSlot/longSlot/booleanSlot/enumSlot) that the opmode sets from
+ *   loop-local values before calling {@link #update}.
+ *
+ * Either way every signal has one value per loop in a shared snapshot of
+ * primitive arrays, and every sink (CSV, binary, WPILOG, telemetry) reads that
+ * snapshot at its own rate. Loggers no longer call the same subsystem getter
+ * (and hardware cache) again each, or carry their own hand-written column
+ * lists; a sink is just a list of signal names.
+ *
+ * Lifecycle: subsystems publish before the opmode's onInit runs; the opmode
+ * calls {@link #beginSession()}, registers its own signals and sinks, calls
+ * {@link #update} every loop and {@link #endSession()} on stop, which closes
+ * (saves) the sinks and drops the opmode's signals. Signals published outside
+ * a session persist, and publishing an existing name replaces it, so
+ * re-initialized subsystems do not pile up duplicates.
+ *
+ * Signal ids are stable within a session. Like the rest of the loop code this
+ * is single-threaded: publish, set, update and the sinks all run on the opmode
+ * thread.
+ */
+public final class SignalBus {
+    private static final String TAG = "SignalBus";
+
+    public static final SignalBus INSTANCE = new SignalBus();
+
+    public enum Type { DOUBLE, LONG, BOOLEAN, ENUM }
+
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> idsByName = new HashMap<>();
+    private Type[] types = new Type[32];
+    private DoubleSupplier[] doubleSuppliers = new DoubleSupplier[32];
+    private LongSupplier[] longSuppliers = new LongSupplier[32];
+    private BooleanSupplier[] booleanSuppliers = new BooleanSupplier[32];
+    private String[][] enumValues = new String[32][];
+    private boolean[] sessionScoped = new boolean[32];
+
+    // The per-loop snapshot. LONG, BOOLEAN (0/1) and ENUM (index, -1 = none)
+    // share the long array.
+    private double[] doubleValues = new double[32];
+    private long[] longValues = new long[32];
+
+    private final List<SignalSink> sinks = new ArrayList<>();
+    private final List<long[]> sinkTiming = new ArrayList<>(); // {periodMs, lastWriteMs, opened}
+
+    private boolean sessionActive = false;
+    private long lastUpdateMs = 0L;
+
+    private SignalBus() {
+    }
+
+    // =============================================
+    // PUBLISHING
+    // =============================================
+
+    public int publishDouble(String name, DoubleSupplier supplier) {
+        int id = register(name, Type.DOUBLE, null);
+        doubleSuppliers[id] = supplier;
+        return id;
+    }
+
+    /** Also used for int-valued signals (counts, encoder ticks). */
+    public int publishLong(String name, LongSupplier supplier) {
+        int id = register(name, Type.LONG, null);
+        longSuppliers[id] = supplier;
+        return id;
+    }
+
+    public int publishBoolean(String name, BooleanSupplier supplier) {
+        int id = register(name, Type.BOOLEAN, null);
+        booleanSuppliers[id] = supplier;
+        return id;
+    }
+
+    public int doubleSlot(String name) {
+        return register(name, Type.DOUBLE, null);
+    }
+
+    public int longSlot(String name) {
+        return register(name, Type.LONG, null);
+    }
+
+    public int booleanSlot(String name) {
+        return register(name, Type.BOOLEAN, null);
+    }
+
+    /** A string signal with a known, small value set, carried as an index. */
+    public int enumSlot(String name, String... values) {
+        return register(name, Type.ENUM, values.clone());
+    }
+
+    public void setDouble(int id, double value) {
+        doubleValues[id] = value;
+    }
+
+    public void setLong(int id, long value) {
+        longValues[id] = value;
+    }
+
+    public void setBoolean(int id, boolean value) {
+        longValues[id] = value ? 1L : 0L;
+    }
+
+    /** Linear lookup against the declared values; unknown values become -1. */
+    public void setEnum(int id, String value) {
+        int index = -1;
+        String[] values = enumValues[id];
+        if (value != null && values != null) {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i].equals(value)) {
+                    index = i;
+                    break;
+                }
+            }
+        }
+        longValues[id] = index;
+    }
+
+    private int register(String name, Type type, String[] values) {
+        Integer existing = idsByName.get(name);
+        int id;
+        if (existing != null) {
+            id = existing;
+        } else {
+            id = names.size();
+            ensureCapacity(id + 1);
+            names.add(name);
+            idsByName.put(name, id);
+        }
+        types[id] = type;
+        enumValues[id] = values;
+        doubleSuppliers[id] = null;
+        longSuppliers[id] = null;
+        booleanSuppliers[id] = null;
+        sessionScoped[id] = sessionActive;
+        doubleValues[id] = Double.NaN;
+        longValues[id] = type == Type.ENUM ? -1L : 0L;
+        return id;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= types.length) {
+            return;
+        }
+        int n = Math.max(needed, types.length * 2);
+        types = Arrays.copyOf(types, n);
+        doubleSuppliers = Arrays.copyOf(doubleSuppliers, n);
+        longSuppliers = Arrays.copyOf(longSuppliers, n);
+        booleanSuppliers = Arrays.copyOf(booleanSuppliers, n);
+        enumValues = Arrays.copyOf(enumValues, n);
+        sessionScoped = Arrays.copyOf(sessionScoped, n);
+        doubleValues = Arrays.copyOf(doubleValues, n);
+        longValues = Arrays.copyOf(longValues, n);
+    }
+
+    // =============================================
+    // READING (for sinks)
+    // =============================================
+
+    public int size() {
+        return names.size();
+    }
+
+    /** Id for a name, or -1. */
+    public int find(String name) {
+        Integer id = idsByName.get(name);
+        return id == null ? -1 : id;
+    }
+
+    public String getName(int id) {
+        return names.get(id);
+    }
+
+    public Type getType(int id) {
+        return types[id];
+    }
+
+    public String[] getEnumValues(int id) {
+        return enumValues[id];
+    }
+
+    public double getDouble(int id) {
+        return doubleValues[id];
+    }
+
+    public long getLong(int id) {
+        return longValues[id];
+    }
+
+    public boolean getBoolean(int id) {
+        return longValues[id] != 0L;
+    }
+
+    public int getEnumIndex(int id) {
+        return (int) longValues[id];
+    }
+
+    /** The enum value's name, or "" for none. */
+    public String getEnumName(int id) {
+        int index = (int) longValues[id];
+        String[] values = enumValues[id];
+        return values != null && index >= 0 && index < values.length ? values[index] : "";
+    }
+
+    /** Timestamp passed to the most recent {@link #update}. */
+    public long getLastUpdateMs() {
+        return lastUpdateMs;
+    }
+
+    /**
+     * Resolves names to ids for a sink, in order; null means every signal.
+     * Unknown names are reported and left out.
+     */
+    public int[] resolve(String sinkName, String[] wanted) {
+        if (wanted == null) {
+            int[] all = new int[names.size()];
+            for (int i = 0; i < all.length; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        int[] ids = new int[wanted.length];
+        int count = 0;
+        for (String name : wanted) {
+            int id = find(name);
+            if (id < 0) {
+                RobotLog.ww(TAG, sinkName + ": no signal named '" + name + "', skipping it");
+                continue;
+            }
+            ids[count++] = id;
+        }
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    // =============================================
+    // SESSION / LOOP
+    // =============================================
+
+    /** Marks the start of an opmode; signals published from here on are dropped by endSession. */
+    public void beginSession() {
+        if (sessionActive) {
+            endSession();
+        }
+        sessionActive = true;
+        lastUpdateMs = 0L;
+    }
+
+    /**
+     * Adds a sink that is written at most every {@code periodMs} (0 = every
+     * update). Sinks are opened on the first update, after all signals exist.
+     */
+    public void addSink(SignalSink sink, long periodMs) {
+        sinks.add(sink);
+        sinkTiming.add(new long[]{Math.max(0L, periodMs), Long.MIN_VALUE / 2, 0L});
+    }
+
+    /** Samples every supplier once, then writes each sink that is due. */
+    public void update(long nowMs) {
+        lastUpdateMs = nowMs;
+        int n = names.size();
+        for (int i = 0; i < n; i++) {
+            switch (types[i]) {
+                case DOUBLE:
+                    if (doubleSuppliers[i] != null) doubleValues[i] = doubleSuppliers[i].getAsDouble();
+                    break;
+                case LONG:
+                    if (longSuppliers[i] != null) longValues[i] = longSuppliers[i].getAsLong();
+                    break;
+                case BOOLEAN:
+                    if (booleanSuppliers[i] != null) longValues[i] = booleanSuppliers[i].getAsBoolean() ? 1L : 0L;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        for (int s = 0; s < sinks.size(); s++) {
+            SignalSink sink = sinks.get(s);
+            long[] timing = sinkTiming.get(s);
+            if (timing[2] == 0L) {
+                timing[2] = 1L;
+                sink.open(this);
+            }
+            if (nowMs - timing[1] >= timing[0]) {
+                timing[1] = nowMs;
+                sink.write(this, nowMs);
+            } else {
+                sink.skip(this, nowMs);
+            }
+        }
+    }
+
+    /** Closes (saves) every sink and forgets the opmode's signals. */
+    public void endSession() {
+        for (int s = 0; s < sinks.size(); s++) {
+            if (sinkTiming.get(s)[2] != 0L) {
+                sinks.get(s).close();
+            }
+        }
+        sinks.clear();
+        sinkTiming.clear();
+
+        if (sessionActive) {
+            dropSessionSignals();
+        }
+        sessionActive = false;
+    }
+
+    private void dropSessionSignals() {
+        List<String> keptNames = new ArrayList<>();
+        int kept = 0;
+        for (int i = 0; i < names.size(); i++) {
+            if (sessionScoped[i]) {
+                continue;
+            }
+            types[kept] = types[i];
+            doubleSuppliers[kept] = doubleSuppliers[i];
+            longSuppliers[kept] = longSuppliers[i];
+            booleanSuppliers[kept] = booleanSuppliers[i];
+            enumValues[kept] = enumValues[i];
+            sessionScoped[kept] = false;
+            doubleValues[kept] = doubleValues[i];
+            longValues[kept] = longValues[i];
+            keptNames.add(names.get(i));
+            kept++;
+        }
+        for (int i = kept; i < names.size(); i++) {
+            doubleSuppliers[i] = null;
+            longSuppliers[i] = null;
+            booleanSuppliers[i] = null;
+            enumValues[i] = null;
+        }
+        names.clear();
+        names.addAll(keptNames);
+        idsByName.clear();
+        for (int i = 0; i < names.size(); i++) {
+            idsByName.put(names.get(i), i);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.firstinspires.ftc.teamcode.util;
+
+/**
+ * Something that records {@link SignalBus} snapshots. Added with
+ * {@link SignalBus#addSink}; all calls come from the opmode thread.
+ */
+public interface SignalSink {
+    /** First update of the session; every signal is registered by now. */
+    void open(SignalBus bus);
+
+    /** The sink's period has elapsed; record the current snapshot. */
+    void write(SignalBus bus, long nowMs);
+
+    /** An update where this sink was not due. */
+    default void skip(SignalBus bus, long nowMs) {
+    }
+
+    /** End of the session: flush and save. */
+    void close();
+}
@@ -0,0 +1,188 @@
+package org.firstinspires.ftc.teamcode.util;
+
+/**
+ * Median and median absolute deviation (MAD) of the last N samples, updated
+ * one sample at a time, plus Hampel-style outlier scoring against them.
+ *
+ * The window is kept twice: a ring in arrival order (to know which sample
+ * leaves) and a sorted copy (for the order statistics). A sample is inserted
+ * or removed by binary search plus one System.arraycopy. For the windows used
+ * here (5-16 samples) that shift is a few dozen bytes, cheaper than the
+ * bookkeeping of a two-heap or skiplist median. The median is O(1); the MAD is
+ * one O(N) merge over the sorted window (the deviations below and above the
+ * median are each already sorted). Nothing allocates after construction.
+ *
+ * Hampel score: |x - median| / (1.4826 * MAD), i.e. distance from the median
+ * in robust standard deviations. A floor on the sigma keeps a window of
+ * identical readings (MAD = 0) from flagging every tiny change.
+ */
+public class SlidingMedian {
+    // MAD -> standard deviation for normally distributed data.
+    public static final double MAD_TO_SIGMA = 1.4826;
+
+    private final double[] ring;
+    private final double[] sorted;
+    private int oldest = 0;
+    private int count = 0;
+    private int window;
+
+    public SlidingMedian(int capacity) {
+        int n = Math.max(1, capacity);
+        ring = new double[n];
+        sorted = new double[n];
+        window = n;
+    }
+
+    /** Number of recent samples used, clamped to [1, capacity]; drops the oldest if shrinking. */
+    public void setWindow(int window) {
+        this.window = Math.max(1, Math.min(ring.length, window));
+        while (count > this.window) {
+            removeOldest();
+        }
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    /** Adds a sample, evicting the oldest when the window is full. NaN is ignored. */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (count >= window) {
+            removeOldest();
+        }
+        int pos = lowerBound(value);
+        System.arraycopy(sorted, pos, sorted, pos + 1, count - pos);
+        sorted[pos] = value;
+        ring[(oldest + count) % ring.length] = value;
+        count++;
+    }
+
+    /**
+     * Hampel filter step: scores {@code value} against the current window,
+     * then adds it. Returns the value itself, or the window median if the
+     * window holds at least {@code minSamples} samples and the score exceeds
+     * {@code threshold}. {@code threshold} <= 0 disables the replacement.
+     */
+    public double filter(double value, double threshold, double minSigma, int minSamples) {
+        double out = value;
+        if (threshold > 0.0 && count >= Math.max(1, minSamples)
+                && score(value, minSigma) > threshold) {
+            out = getMedian();
+        }
+        add(value);
+        return out;
+    }
+
+    public void clear() {
+        oldest = 0;
+        count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /** Median of the window, NaN when empty. */
+    public double getMedian() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        int mid = count >> 1;
+        if ((count & 1) == 1) {
+            return sorted[mid];
+        }
+        return 0.5 * (sorted[mid - 1] + sorted[mid]);
+    }
+
+    /** Median absolute deviation from the median, NaN when empty. */
+    public double getMad() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double median = getMedian();
+        // Deviations below the median, walking down, and above it, walking up,
+        // are each ascending; merge them until the middle one(s).
+        int below = lowerBound(median) - 1;
+        int above = below + 1;
+        int lowRank = (count - 1) >> 1;
+        int highRank = count >> 1;
+        double low = 0.0;
+        double high = 0.0;
+        for (int rank = 0; rank <= highRank; rank++) {
+            double next;
+            if (below < 0) {
+                next = sorted[above++] - median;
+            } else if (above >= count) {
+                next = median - sorted[below--];
+            } else {
+                double downDev = median - sorted[below];
+                double upDev = sorted[above] - median;
+                if (downDev <= upDev) {
+                    next = downDev;
+                    below--;
+                } else {
+                    next = upDev;
+                    above++;
+                }
+            }
+            if (rank == lowRank) {
+                low = next;
+            }
+            if (rank == highRank) {
+                high = next;
+            }
+        }
+        return 0.5 * (low + high);
+    }
+
+    /** Robust standard deviation estimate, 1.4826 * MAD. */
+    public double getSigma() {
+        return MAD_TO_SIGMA * getMad();
+    }
+
+    /**
+     * Hampel score of {@code value}: distance from the median in robust sigmas,
+     * with the sigma floored at {@code minSigma}. 0 when the window is empty.
+     */
+    public double score(double value, double minSigma) {
+        if (count == 0) {
+            return 0.0;
+        }
+        double sigma = Math.max(Math.max(0.0, minSigma), getSigma());
+        double distance = Math.abs(value - getMedian());
+        if (sigma <= 0.0) {
+            return distance > 0.0 ? Double.POSITIVE_INFINITY : 0.0;
+        }
+        return distance / sigma;
+    }
+
+    private void removeOldest() {
+        double value = ring[oldest];
+        int pos = lowerBound(value);
+        System.arraycopy(sorted, pos + 1, sorted, pos, count - pos - 1);
+        oldest = (oldest + 1) % ring.length;
+        count--;
+    }
+
+    /** First index in the sorted window whose value is >= {@code value}. */
+    private int lowerBound(double value) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,156 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import com.bylazar.configurables.annotations.Configurable;
+
+import java.util.Arrays;
+
+/**
+ * Rate and priority gate for work done in subsystem periodic().
+ *
+ * NextFTC's SubsystemComponent calls every periodic() once per loop, so cheap
+ * housekeeping (LED strobe, battery voltage sampling) costs as much as the
+ * flywheel and turret loops. Each piece of work registers a task with a
+ * priority, then asks {@link #shouldRun(int, long, long)} with its target
+ * period and deadline (read from its tunables) at the top of its periodic():
+ * - a task runs at most once per period (0 = every loop);
+ * - when the previous loop ran over {@link #LOOP_BUDGET_MS}, LOW tasks are
+ *   deferred, and NORMAL tasks too if it ran over budget by
+ *   {@link #NORMAL_PRIORITY_OVERRUN_FACTOR}; CRITICAL tasks never are;
+ * - a deferred task still runs once it has waited its deadline
+ *   ({@code maxDeferMs} since its last run), so nothing starves.
+ *
+ * The loop time comes from {@link #beginLoop()}, which the opmode calls at the
+ * top of its loop. Opmodes that do not call it only get the rate limiting.
+ *
+ * The interval between runs of each task is recorded in {@link LoopProfiler}
+ * as "period_&lt;task&gt;", which is where the tighter flywheel / turret
+ * period shows up.
+ */
+@Configurable
+public final class SubsystemScheduler {
+    public static boolean SCHEDULER_ENABLED = true;
+    public static double LOOP_BUDGET_MS = 20.0;
+    public static double NORMAL_PRIORITY_OVERRUN_FACTOR = 1.5;
+
+    public static final SubsystemScheduler INSTANCE = new SubsystemScheduler();
+
+    public enum Priority { CRITICAL, NORMAL, LOW }
+
+    private String[] names = new String[8];
+    private Priority[] priorities = new Priority[8];
+    private long[] lastRunNs = new long[8];
+    private long[] runCounts = new long[8];
+    private long[] deferCounts = new long[8];
+    private int[] periodSections = new int[8];
+    private int taskCount = 0;
+
+    private long lastBeginLoopNs = 0L;
+    private double lastLoopMs = 0.0;
+    private long totalDeferred = 0L;
+
+    private SubsystemScheduler() {
+    }
+
+    /** Id for a task name, registering it on first use. */
+    public int register(String name, Priority priority) {
+        for (int i = 0; i < taskCount; i++) {
+            if (names[i].equals(name)) {
+                priorities[i] = priority;
+                return i;
+            }
+        }
+        if (taskCount == names.length) {
+            int n = names.length * 2;
+            names = Arrays.copyOf(names, n);
+            priorities = Arrays.copyOf(priorities, n);
+            lastRunNs = Arrays.copyOf(lastRunNs, n);
+            runCounts = Arrays.copyOf(runCounts, n);
+            deferCounts = Arrays.copyOf(deferCounts, n);
+            periodSections = Arrays.copyOf(periodSections, n);
+        }
+        int id = taskCount++;
+        names[id] = name;
+        priorities[id] = priority;
+        periodSections[id] = LoopProfiler.INSTANCE.section("period_" + name);
+        return id;
+    }
+
+    /** Top of the opmode's loop; measures the loop that just finished. */
+    public void beginLoop() {
+        long now = RobotClock.nanoTime();
+        lastLoopMs = lastBeginLoopNs == 0L ? 0.0 : (now - lastBeginLoopNs) / 1e6;
+        lastBeginLoopNs = now;
+    }
+
+    /**
+     * True when the task should do its work now; records the run. Call once
+     * per periodic() with the task's current target period (0 = every loop)
+     * and deadline (longest it may be deferred; ignored for CRITICAL).
+     */
+    public boolean shouldRun(int task, long periodMs, long maxDeferMs) {
+        long now = RobotClock.nanoTime();
+        long last = lastRunNs[task];
+        if (SCHEDULER_ENABLED && last != 0L) {
+            long sinceLastNs = now - last;
+            if (sinceLastNs < Math.max(0L, periodMs) * 1_000_000L) {
+                return false;
+            }
+            if (isOverBudgetFor(priorities[task]) && sinceLastNs < Math.max(0L, maxDeferMs) * 1_000_000L) {
+                deferCounts[task]++;
+                totalDeferred++;
+                return false;
+            }
+        }
+        if (last != 0L) {
+            LoopProfiler.INSTANCE.record(periodSections[task], now - last);
+        }
+        lastRunNs[task] = now;
+        runCounts[task]++;
+        return true;
+    }
+
+    private boolean isOverBudgetFor(Priority priority) {
+        switch (priority) {
+            case LOW:
+                return lastLoopMs > LOOP_BUDGET_MS;
+            case NORMAL:
+                return lastLoopMs > LOOP_BUDGET_MS * Math.max(1.0, NORMAL_PRIORITY_OVERRUN_FACTOR);
+            default:
+                return false;
+        }
+    }
+
+    /** Forgets run times and counters, e.g. at start; tasks stay registered. */
+    public void reset() {
+        Arrays.fill(lastRunNs, 0L);
+        Arrays.fill(runCounts, 0L);
+        Arrays.fill(deferCounts, 0L);
+        lastBeginLoopNs = 0L;
+        lastLoopMs = 0.0;
+        totalDeferred = 0L;
+    }
+
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    public String getName(int task) {
+        return names[task];
+    }
+
+    public long getRunCount(int task) {
+        return runCounts[task];
+    }
+
+    public long getDeferCount(int task) {
+        return deferCounts[task];
+    }
+
+    public long getTotalDeferred() {
+        return totalDeferred;
+    }
+
+    public double getLastLoopMs() {
+        return lastLoopMs;
+    }
+}
@@ -0,0 +1,11 @@
+package org.firstinspires.ftc.teamcode.util;
+
+/**
+ * Where {@link TieredTelemetry} and {@link TelemetrySignalSink} send their
+ * lines. Both the Driver Station telemetry and Panels' TelemetryManager fit
+ * as {@code telemetry::addData} / {@code telemetryM::addData}; keep the
+ * adapter in a field so the loop does not allocate one per call.
+ */
+public interface TelemetryOutput {
+    void addData(String caption, Object value);
+}
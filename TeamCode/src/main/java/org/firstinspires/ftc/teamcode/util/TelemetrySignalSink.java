@@ -0,0 +1,72 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import java.util.Locale;
+
+/**
+ * Shows selected signals as telemetry lines. Values are formatted only when
+ * the sink is due; on the loops in between the cached text is re-added, so
+ * the lines do not flicker when the driver station or Panels telemetry is
+ * cleared every loop.
+ *
+ * Works with either telemetry: {@code new TelemetrySignalSink(telemetry::addData, ...)}
+ * or {@code new TelemetrySignalSink(telemetryM::addData, ...)}.
+ */
+public class TelemetrySignalSink implements SignalSink {
+    private static final String TAG = "TelemetrySignalSink";
+
+    private final TelemetryOutput output;
+    private final String[] signalNames;
+    private int[] ids = new int[0];
+    private String[] captions = new String[0];
+    private String[] text = new String[0];
+
+    /** {@code signalNames} null shows every signal. */
+    public TelemetrySignalSink(TelemetryOutput output, String... signalNames) {
+        this.output = output;
+        this.signalNames = signalNames;
+    }
+
+    @Override
+    public void open(SignalBus bus) {
+        ids = bus.resolve(TAG, signalNames);
+        captions = new String[ids.length];
+        text = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            captions[i] = bus.getName(ids[i]);
+            text[i] = "";
+        }
+    }
+
+    @Override
+    public void write(SignalBus bus, long nowMs) {
+        for (int i = 0; i < ids.length; i++) {
+            int id = ids[i];
+            switch (bus.getType(id)) {
+                case DOUBLE:
+                    text[i] = String.format(Locale.US, "%.3f", bus.getDouble(id));
+                    break;
+                case LONG:
+                    text[i] = Long.toString(bus.getLong(id));
+                    break;
+                case BOOLEAN:
+                    text[i] = bus.getBoolean(id) ? "true" : "false";
+                    break;
+                case ENUM:
+                    text[i] = bus.getEnumName(id);
+                    break;
+            }
+        }
+        skip(bus, nowMs);
+    }
+
+    @Override
+    public void skip(SignalBus bus, long nowMs) {
+        for (int i = 0; i < ids.length; i++) {
+            output.addData(captions[i], text[i]);
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,241 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import com.bylazar.configurables.annotations.Configurable;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Driver Station telemetry with priority tiers and per-line change tracking.
+ *
+ * Lines are registered once (caption + optional format) and refer to each
+ * other by int id afterwards, so the loop never builds keys. Each line belongs
+ * to a tier:
+ * - CRITICAL: refreshed every loop (gates, ball count, loop time);
+ * - DIAGNOSTIC: refreshed every {@link #TELEMETRY_DIAGNOSTIC_PERIOD_MS};
+ * - DEBUG: only while {@link #SHOW_DEBUG_TELEMETRY} is on, at
+ *   {@link #TELEMETRY_DEBUG_PERIOD_MS}; otherwise not sent at all.
+ *
+ * Per loop: {@link #beginLoop(long)}, then set(...) the lines, then
+ * {@link #flush(TelemetryOutput)}. set() on a tier that is not due this loop returns
+ * immediately, and guarding a block with {@link #isDue(Tier)} also skips the
+ * getters feeding it. A line is only re-formatted when its value actually
+ * changed; otherwise the cached text is re-added, which is what keeps the
+ * lines steady on the auto-clearing Driver Station telemetry.
+ *
+ * Visibility follows the last refresh of the tier: a line that was not set
+ * during its tier's most recent refresh is hidden, so conditional lines
+ * (no Limelight target, shot-tuning-only lines, ...) simply are not set.
+ */
+@Configurable
+public final class TieredTelemetry {
+    public static long TELEMETRY_DIAGNOSTIC_PERIOD_MS = 200L;
+    public static long TELEMETRY_DEBUG_PERIOD_MS = 200L;
+    public static boolean SHOW_DEBUG_TELEMETRY = false;
+
+    public enum Tier { CRITICAL, DIAGNOSTIC, DEBUG }
+
+    private static final int KIND_NONE = 0;
+    private static final int KIND_DOUBLE = 1;
+    private static final int KIND_PAIR = 2;
+    private static final int KIND_LONG = 3;
+    private static final int KIND_BOOLEAN = 4;
+    private static final int KIND_OBJECT = 5;
+
+    private int count = 0;
+    private String[] captions = new String[64];
+    private String[] formats = new String[64];
+    private Tier[] tiers = new Tier[64];
+    private String[] text = new String[64];
+    private int[] kinds = new int[64];
+    private long[] lastBitsA = new long[64];
+    private long[] lastBitsB = new long[64];
+    private Object[] lastObjects = new Object[64];
+    private boolean[] visible = new boolean[64];
+
+    private final boolean[] due = new boolean[Tier.values().length];
+    private final long[] lastRefreshMs = new long[Tier.values().length];
+    private long formatCount = 0L;
+
+    public TieredTelemetry() {
+        Arrays.fill(lastRefreshMs, Long.MIN_VALUE / 2);
+    }
+
+    // =============================================
+    // REGISTRATION
+    // =============================================
+
+    /** A line shown with the value's own toString(). */
+    public int line(Tier tier, String caption) {
+        return line(tier, caption, null);
+    }
+
+    /**
+     * A line whose numeric values go through {@code format} (String.format,
+     * US locale), e.g. "%.1f" or "(%.1f, %.1f)" for {@link #set(int, double, double)}.
+     */
+    public int line(Tier tier, String caption, String format) {
+        ensureCapacity(count + 1);
+        int id = count++;
+        captions[id] = caption;
+        formats[id] = format;
+        tiers[id] = tier;
+        text[id] = "";
+        kinds[id] = KIND_NONE;
+        lastObjects[id] = null;
+        visible[id] = false;
+        return id;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= captions.length) {
+            return;
+        }
+        int n = Math.max(needed, captions.length * 2);
+        captions = Arrays.copyOf(captions, n);
+        formats = Arrays.copyOf(formats, n);
+        tiers = Arrays.copyOf(tiers, n);
+        text = Arrays.copyOf(text, n);
+        kinds = Arrays.copyOf(kinds, n);
+        lastBitsA = Arrays.copyOf(lastBitsA, n);
+        lastBitsB = Arrays.copyOf(lastBitsB, n);
+        lastObjects = Arrays.copyOf(lastObjects, n);
+        visible = Arrays.copyOf(visible, n);
+    }
+
+    // =============================================
+    // LOOP
+    // =============================================
+
+    /** Decides which tiers refresh this loop. Call before any set(). */
+    public void beginLoop(long nowMs) {
+        markDue(Tier.CRITICAL, nowMs, 0L, true);
+        markDue(Tier.DIAGNOSTIC, nowMs, TELEMETRY_DIAGNOSTIC_PERIOD_MS, true);
+        markDue(Tier.DEBUG, nowMs, TELEMETRY_DEBUG_PERIOD_MS, SHOW_DEBUG_TELEMETRY);
+
+        for (int i = 0; i < count; i++) {
+            if (due[tiers[i].ordinal()]) {
+                visible[i] = false;
+            }
+        }
+        if (!SHOW_DEBUG_TELEMETRY) {
+            // Turning debug back on starts from a clean refresh.
+            lastRefreshMs[Tier.DEBUG.ordinal()] = Long.MIN_VALUE / 2;
+            for (int i = 0; i < count; i++) {
+                if (tiers[i] == Tier.DEBUG) {
+                    visible[i] = false;
+                }
+            }
+        }
+    }
+
+    private void markDue(Tier tier, long nowMs, long periodMs, boolean enabled) {
+        int t = tier.ordinal();
+        due[t] = enabled && nowMs - lastRefreshMs[t] >= Math.max(0L, periodMs);
+        if (due[t]) {
+            lastRefreshMs[t] = nowMs;
+        }
+    }
+
+    /** True when lines of this tier are refreshed this loop. */
+    public boolean isDue(Tier tier) {
+        return due[tier.ordinal()];
+    }
+
+    public void set(int id, double value) {
+        if (!due[tiers[id].ordinal()]) {
+            return;
+        }
+        visible[id] = true;
+        long bits = Double.doubleToLongBits(value);
+        if (kinds[id] == KIND_DOUBLE && lastBitsA[id] == bits) {
+            return;
+        }
+        kinds[id] = KIND_DOUBLE;
+        lastBitsA[id] = bits;
+        text[id] = formats[id] != null
+                ? String.format(Locale.US, formats[id], value)
+                : String.valueOf(value);
+        formatCount++;
+    }
+
+    public void set(int id, double a, double b) {
+        if (!due[tiers[id].ordinal()]) {
+            return;
+        }
+        visible[id] = true;
+        long bitsA = Double.doubleToLongBits(a);
+        long bitsB = Double.doubleToLongBits(b);
+        if (kinds[id] == KIND_PAIR && lastBitsA[id] == bitsA && lastBitsB[id] == bitsB) {
+            return;
+        }
+        kinds[id] = KIND_PAIR;
+        lastBitsA[id] = bitsA;
+        lastBitsB[id] = bitsB;
+        text[id] = formats[id] != null
+                ? String.format(Locale.US, formats[id], a, b)
+                : "(" + a + ", " + b + ")";
+        formatCount++;
+    }
+
+    public void set(int id, long value) {
+        if (!due[tiers[id].ordinal()]) {
+            return;
+        }
+        visible[id] = true;
+        if (kinds[id] == KIND_LONG && lastBitsA[id] == value) {
+            return;
+        }
+        kinds[id] = KIND_LONG;
+        lastBitsA[id] = value;
+        text[id] = formats[id] != null
+                ? String.format(Locale.US, formats[id], value)
+                : Long.toString(value);
+        formatCount++;
+    }
+
+    public void set(int id, boolean value) {
+        if (!due[tiers[id].ordinal()]) {
+            return;
+        }
+        visible[id] = true;
+        long bits = value ? 1L : 0L;
+        if (kinds[id] == KIND_BOOLEAN && lastBitsA[id] == bits) {
+            return;
+        }
+        kinds[id] = KIND_BOOLEAN;
+        lastBitsA[id] = bits;
+        text[id] = value ? "true" : "false";
+        formatCount++;
+    }
+
+    /** Strings, enums and anything else shown via toString(); compared with equals(). */
+    public void set(int id, Object value) {
+        if (!due[tiers[id].ordinal()]) {
+            return;
+        }
+        visible[id] = true;
+        if (kinds[id] == KIND_OBJECT
+                && (lastObjects[id] == value || (value != null && value.equals(lastObjects[id])))) {
+            return;
+        }
+        kinds[id] = KIND_OBJECT;
+        lastObjects[id] = value;
+        text[id] = String.valueOf(value);
+        formatCount++;
+    }
+
+    /** Adds every visible line, in registration order. Cheap on loops where nothing changed. */
+    public void flush(TelemetryOutput out) {
+        for (int i = 0; i < count; i++) {
+            if (visible[i]) {
+                out.addData(captions[i], text[i]);
+            }
+        }
+    }
+
+    /** Lines re-formatted since creation; a flat count means values are not changing. */
+    public long getFormatCount() {
+        return formatCount;
+    }
+}
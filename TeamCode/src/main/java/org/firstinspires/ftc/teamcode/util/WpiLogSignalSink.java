@@ -0,0 +1,82 @@
+package org.firstinspires.ftc.teamcode.util;
+
+/**
+ * Mirrors selected signals into a {@link WpiLogWriter} as
+ * {@code prefix + name} entries (enums as string entries, which like booleans
+ * are only written on change). The writer must already be started; the
+ * opmode may append its own entries (poses) to it as well. Closing the sink
+ * saves the writer.
+ */
+public class WpiLogSignalSink implements SignalSink {
+    private static final String TAG = "WpiLogSignalSink";
+
+    private final WpiLogWriter log;
+    private final String prefix;
+    private final String[] signalNames;
+    private int[] ids = new int[0];
+    private int[] entries = new int[0];
+    private SignalBus.Type[] types = new SignalBus.Type[0];
+
+    /** {@code signalNames} null records every signal. */
+    public WpiLogSignalSink(WpiLogWriter log, String prefix, String... signalNames) {
+        this.log = log;
+        this.prefix = prefix == null ? "" : prefix;
+        this.signalNames = signalNames;
+    }
+
+    @Override
+    public void open(SignalBus bus) {
+        ids = bus.resolve(TAG, signalNames);
+        entries = new int[ids.length];
+        types = new SignalBus.Type[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            int id = ids[i];
+            types[i] = bus.getType(id);
+            String type;
+            switch (types[i]) {
+                case LONG:
+                    type = WpiLogWriter.TYPE_INT64;
+                    break;
+                case BOOLEAN:
+                    type = WpiLogWriter.TYPE_BOOLEAN;
+                    break;
+                case ENUM:
+                    type = WpiLogWriter.TYPE_STRING;
+                    break;
+                default:
+                    type = WpiLogWriter.TYPE_DOUBLE;
+                    break;
+            }
+            entries[i] = log.startEntry(prefix + bus.getName(id), type);
+        }
+    }
+
+    @Override
+    public void write(SignalBus bus, long nowMs) {
+        long t = log.nowMicros();
+        for (int i = 0; i < ids.length; i++) {
+            int id = ids[i];
+            switch (types[i]) {
+                case DOUBLE:
+                    log.appendDouble(entries[i], t, bus.getDouble(id));
+                    break;
+                case LONG:
+                    log.appendInt64(entries[i], t, bus.getLong(id));
+                    break;
+                case BOOLEAN:
+                    log.appendBoolean(entries[i], t, bus.getBoolean(id));
+                    break;
+                case ENUM:
+                    log.appendString(entries[i], t, bus.getEnumName(id));
+                    break;
+            }
+        }
+        log.periodicFlush();
+    }
+
+    @Override
+    public void close() {
+        // WpiLogWriter reports the saved path / failure itself.
+        log.save();
+    }
+}
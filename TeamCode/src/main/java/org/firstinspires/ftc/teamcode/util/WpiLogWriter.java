@@ -0,0 +1,452 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import android.os.Environment;
+
+import com.bylazar.configurables.annotations.Configurable;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes the WPILib data log format (.wpilog, v1.0) under FIRST/turret_logs,
+ * which AdvantageScope opens directly, so a log pulled off the Control Hub no
+ * longer needs scripts/convert_logs_to_advantagescope.py.
+ *
+ * Usage: declare entries once (start*Entry returns the entry id), then append
+ * values each loop with a microsecond timestamp from {@link #nowMicros()}.
+ * Poses use the WPILib struct encodings AdvantageScope understands natively
+ * (struct:Pose2d / struct:Translation2d, meters and radians); the schemas are
+ * published automatically the first time a struct type is used.
+ *
+ * Boolean and string entries are only written when the value changes; the
+ * viewer holds the last value, and it keeps breakbeam and gate-state entries
+ * tiny.
+ *
+ * Records go into a direct little-endian buffer. A full buffer (or one older
+ * than {@link #WPILOG_FLUSH_INTERVAL_MS}) is handed to a writer thread while
+ * logging continues in a second buffer, the same scheme as {@link BinaryLogger}.
+ * If both are busy the record is dropped and counted; the loop never waits on
+ * the disk.
+ */
+@Configurable
+public class WpiLogWriter {
+    private static final String TAG = "WpiLogWriter";
+
+    public static int WPILOG_BUFFER_BYTES = 64 * 1024;
+    // Upper bound on how much is lost if the app dies.
+    public static long WPILOG_FLUSH_INTERVAL_MS = 1000L;
+
+    public static final String FILE_EXTENSION = ".wpilog";
+
+    public static final String TYPE_DOUBLE = "double";
+    public static final String TYPE_INT64 = "int64";
+    public static final String TYPE_BOOLEAN = "boolean";
+    public static final String TYPE_STRING = "string";
+    public static final String TYPE_POSE2D = "struct:Pose2d";
+    public static final String TYPE_TRANSLATION2D = "struct:Translation2d";
+
+    private static final int CONTROL_START = 0;
+    private static final int MAX_ENTRIES = 256;
+    private static final int MAX_RECORD_HEADER_BYTES = 1 + 4 + 4 + 8;
+    private static final long WRITER_IDLE_PARK_MS = 20L;
+    private static final long WRITER_JOIN_TIMEOUT_MS = 2000L;
+
+    private final String baseName;
+
+    private boolean started = false;
+    private boolean saved = false;
+    private long sessionStartMs = 0L;
+    private long startNanos = 0L;
+    private File outFile;
+    private Writer writer;
+
+    private ByteBuffer[] buffers;
+    private ByteBuffer active;
+    private long activeSinceMs;
+
+    private int nextEntryId = 1;
+    // Change detection for boolean/string entries, indexed by entry id.
+    private final byte[] lastBoolean = new byte[MAX_ENTRIES];
+    private final String[] lastString = new String[MAX_ENTRIES];
+    private boolean translationSchemaPublished;
+    private boolean poseSchemaPublished;
+
+    private long recordCount;
+    private long droppedRecords;
+
+    public WpiLogWriter(String baseName) {
+        this.baseName = baseName == null || baseName.isEmpty()
+                ? "log"
+                : baseName.replaceAll("[^a-zA-Z0-9._-]", "_");
+    }
+
+    /** Opens the file and writes the WPILOG header. Entries are declared after this. */
+    public boolean start(String extraHeader) {
+        discard();
+        sessionStartMs = System.currentTimeMillis();
+        startNanos = System.nanoTime();
+
+        File dir = new File(Environment.getExternalStorageDirectory(), "FIRST/turret_logs");
+        if (!dir.exists() && !dir.mkdirs()) {
+            RobotLog.ee(TAG, "Could not create directory: " + dir.getAbsolutePath());
+            return false;
+        }
+        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date(sessionStartMs));
+        File file = new File(dir, baseName + "_" + timestamp + FILE_EXTENSION);
+
+        int capacity = Math.max(4096, WPILOG_BUFFER_BYTES);
+        if (buffers == null || buffers[0].capacity() != capacity) {
+            buffers = new ByteBuffer[]{
+                    ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN),
+                    ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN)
+            };
+        }
+        buffers[0].clear();
+        buffers[1].clear();
+        active = buffers[0];
+        activeSinceMs = sessionStartMs;
+
+        byte[] extra = (extraHeader == null ? "" : extraHeader).getBytes(StandardCharsets.UTF_8);
+        active.put((byte) 'W').put((byte) 'P').put((byte) 'I').put((byte) 'L').put((byte) 'O').put((byte) 'G');
+        active.putShort((short) 0x0100);
+        active.putInt(extra.length);
+        active.put(extra);
+
+        try {
+            FileChannel channel = new FileOutputStream(file).getChannel();
+            outFile = file;
+            writer = new Writer(channel);
+        } catch (IOException e) {
+            RobotLog.ee(TAG, e, "Failed to open WPILOG " + file.getAbsolutePath());
+            return false;
+        }
+        Thread thread = new Thread(writer, "WpiLogWriter-" + baseName);
+        thread.setDaemon(true);
+        writer.thread = thread;
+        thread.start();
+
+        nextEntryId = 1;
+        Arrays.fill(lastBoolean, (byte) -1);
+        Arrays.fill(lastString, null);
+        translationSchemaPublished = false;
+        poseSchemaPublished = false;
+        recordCount = 0L;
+        droppedRecords = 0L;
+        started = true;
+        saved = false;
+        return true;
+    }
+
+    public boolean isStarted() {
+        return started && !saved;
+    }
+
+    public long getSessionStartMs() {
+        return sessionStartMs;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public long getDroppedRecordCount() {
+        return droppedRecords;
+    }
+
+    /** Microseconds since {@link #start}, the timestamp every append takes. */
+    public long nowMicros() {
+        return (System.nanoTime() - startNanos) / 1000L;
+    }
+
+    /** Declares an entry and returns its id, or -1 if the log is not running. */
+    public int startEntry(String name, String type) {
+        return startEntry(name, type, "");
+    }
+
+    public int startEntry(String name, String type, String metadata) {
+        if (!isStarted() || nextEntryId >= MAX_ENTRIES) {
+            return -1;
+        }
+        if (TYPE_POSE2D.equals(type)) {
+            publishPoseSchema();
+        } else if (TYPE_TRANSLATION2D.equals(type)) {
+            publishTranslationSchema();
+        }
+        int id = nextEntryId++;
+        writeStartRecord(id, name, type, metadata);
+        return id;
+    }
+
+    public void appendDouble(int entry, long timestampMicros, double value) {
+        if (!reserve(entry, timestampMicros, 8)) return;
+        active.putDouble(value);
+        recordCount++;
+    }
+
+    public void appendInt64(int entry, long timestampMicros, long value) {
+        if (!reserve(entry, timestampMicros, 8)) return;
+        active.putLong(value);
+        recordCount++;
+    }
+
+    /** Written only when the value differs from the last one for this entry. */
+    public void appendBoolean(int entry, long timestampMicros, boolean value) {
+        if (entry <= 0 || entry >= MAX_ENTRIES) return;
+        byte b = value ? (byte) 1 : (byte) 0;
+        if (lastBoolean[entry] == b) return;
+        if (!reserve(entry, timestampMicros, 1)) return;
+        active.put(b);
+        lastBoolean[entry] = b;
+        recordCount++;
+    }
+
+    /** Written only when the value differs from the last one for this entry. */
+    public void appendString(int entry, long timestampMicros, String value) {
+        if (entry <= 0 || entry >= MAX_ENTRIES) return;
+        String v = value == null ? "" : value;
+        if (v.equals(lastString[entry])) return;
+        byte[] bytes = v.getBytes(StandardCharsets.UTF_8);
+        if (!reserve(entry, timestampMicros, bytes.length)) return;
+        active.put(bytes);
+        lastString[entry] = v;
+        recordCount++;
+    }
+
+    /** struct:Pose2d, meters and radians. */
+    public void appendPose2d(int entry, long timestampMicros, double xM, double yM, double headingRad) {
+        if (!reserve(entry, timestampMicros, 24)) return;
+        active.putDouble(xM).putDouble(yM).putDouble(headingRad);
+        recordCount++;
+    }
+
+    /** struct:Translation2d, meters. */
+    public void appendTranslation2d(int entry, long timestampMicros, double xM, double yM) {
+        if (!reserve(entry, timestampMicros, 16)) return;
+        active.putDouble(xM).putDouble(yM);
+        recordCount++;
+    }
+
+    /**
+     * Call once per loop after appending. Hands a partly filled buffer to the
+     * writer once it is older than {@link #WPILOG_FLUSH_INTERVAL_MS}.
+     */
+    public void periodicFlush() {
+        if (!isStarted() || active.position() == 0) return;
+        if (System.currentTimeMillis() - activeSinceMs >= WPILOG_FLUSH_INTERVAL_MS) {
+            handOff(writer);
+        }
+    }
+
+    /** Flushes what is buffered, stops the writer and closes the file. */
+    public File save() {
+        if (!started || saved) {
+            return null;
+        }
+        saved = true;
+        Writer w = writer;
+        writer = null;
+        if (active.position() > 0) {
+            long deadlineMs = System.currentTimeMillis() + WRITER_JOIN_TIMEOUT_MS;
+            while (!handOff(w) && System.currentTimeMillis() < deadlineMs) {
+                LockSupport.parkNanos(1_000_000L);
+            }
+        }
+        stopWriter(w);
+        if (droppedRecords > 0) {
+            RobotLog.ww(TAG, baseName + ": dropped " + droppedRecords + " records");
+        }
+        if (w.failed) {
+            RobotLog.ee(TAG, "WPILOG had write errors: " + outFile.getAbsolutePath());
+            return null;
+        }
+        RobotLog.ii(TAG, "Saved WPILOG (" + recordCount + " records): " + outFile.getAbsolutePath());
+        return outFile;
+    }
+
+    public void discard() {
+        Writer w = writer;
+        writer = null;
+        if (w != null) {
+            stopWriter(w);
+            if (outFile != null && !outFile.delete()) {
+                RobotLog.ww(TAG, "Could not delete discarded log: " + outFile.getAbsolutePath());
+            }
+        }
+        outFile = null;
+        started = false;
+        saved = false;
+    }
+
+    private void publishTranslationSchema() {
+        if (translationSchemaPublished) return;
+        translationSchemaPublished = true;
+        publishSchema("Translation2d", "double x;double y");
+    }
+
+    private void publishPoseSchema() {
+        if (poseSchemaPublished) return;
+        poseSchemaPublished = true;
+        publishTranslationSchema();
+        publishSchema("Rotation2d", "double value");
+        publishSchema("Pose2d", "Translation2d translation;Rotation2d rotation");
+    }
+
+    private void publishSchema(String structName, String schema) {
+        int id = nextEntryId++;
+        writeStartRecord(id, "/.schema/struct:" + structName, "structschema", "");
+        byte[] bytes = schema.getBytes(StandardCharsets.UTF_8);
+        if (reserveBlocking(id, nowMicros(), bytes.length)) {
+            active.put(bytes);
+        }
+    }
+
+    private void writeStartRecord(int id, String name, String type, String metadata) {
+        byte[] n = name.getBytes(StandardCharsets.UTF_8);
+        byte[] t = type.getBytes(StandardCharsets.UTF_8);
+        byte[] m = metadata == null ? new byte[0] : metadata.getBytes(StandardCharsets.UTF_8);
+        int size = 1 + 4 + 4 + n.length + 4 + t.length + 4 + m.length;
+        if (!reserveBlocking(0, nowMicros(), size)) {
+            return;
+        }
+        active.put((byte) CONTROL_START);
+        active.putInt(id);
+        active.putInt(n.length).put(n);
+        active.putInt(t.length).put(t);
+        active.putInt(m.length).put(m);
+    }
+
+    /** Entry declarations must not be lost, so these wait for buffer space. */
+    private boolean reserveBlocking(int entry, long timestampMicros, int payloadBytes) {
+        long deadlineMs = System.currentTimeMillis() + WRITER_JOIN_TIMEOUT_MS;
+        while (!reserve(entry, timestampMicros, payloadBytes)) {
+            if (System.currentTimeMillis() >= deadlineMs) {
+                return false;
+            }
+            LockSupport.parkNanos(1_000_000L);
+        }
+        return true;
+    }
+
+    /**
+     * Ensures room for one record and writes its header; the caller then puts
+     * exactly {@code payloadBytes}. Returns false (and counts a drop) if there
+     * is no room.
+     */
+    private boolean reserve(int entry, long timestampMicros, int payloadBytes) {
+        if (!isStarted() || entry < 0) {
+            return false;
+        }
+        int needed = MAX_RECORD_HEADER_BYTES + payloadBytes;
+        if (needed > active.capacity()) {
+            droppedRecords++;
+            return false;
+        }
+        if (active.remaining() < needed && !handOff(writer)) {
+            droppedRecords++;
+            return false;
+        }
+        int idLen = byteLength(entry & 0xFFFFFFFFL, 4);
+        int sizeLen = byteLength(payloadBytes & 0xFFFFFFFFL, 4);
+        int tsLen = byteLength(timestampMicros, 8);
+        active.put((byte) ((idLen - 1) | ((sizeLen - 1) << 2) | ((tsLen - 1) << 4)));
+        putLittleEndian(entry, idLen);
+        putLittleEndian(payloadBytes, sizeLen);
+        putLittleEndian(timestampMicros, tsLen);
+        return true;
+    }
+
+    private void putLittleEndian(long value, int bytes) {
+        for (int i = 0; i < bytes; i++) {
+            active.put((byte) (value >>> (8 * i)));
+        }
+    }
+
+    private static int byteLength(long value, int max) {
+        int len = 1;
+        while (len < max && (value >>> (8 * len)) != 0) {
+            len++;
+        }
+        return len;
+    }
+
+    /** Gives the active buffer to the writer if it is idle, and switches buffers. */
+    private boolean handOff(Writer w) {
+        if (w == null || w.pending != null) {
+            return false;
+        }
+        active.flip();
+        w.pending = active;
+        LockSupport.unpark(w.thread);
+        active = active == buffers[0] ? buffers[1] : buffers[0];
+        active.clear();
+        activeSinceMs = System.currentTimeMillis();
+        return true;
+    }
+
+    private void stopWriter(Writer w) {
+        w.running = false;
+        LockSupport.unpark(w.thread);
+        try {
+            w.thread.join(WRITER_JOIN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (w.thread.isAlive()) {
+            RobotLog.ww(TAG, "WPILOG writer did not finish within " + WRITER_JOIN_TIMEOUT_MS + " ms");
+        }
+    }
+
+    /** Same handshake as BinaryLogger's writer: {@code pending} is set by the loop, cleared here. */
+    private static final class Writer implements Runnable {
+        private final FileChannel channel;
+        volatile ByteBuffer pending;
+        volatile boolean running = true;
+        volatile boolean failed = false;
+        Thread thread;
+
+        Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    boolean stopping = !running;
+                    ByteBuffer buffer = pending;
+                    if (buffer != null) {
+                        while (buffer.hasRemaining()) {
+                            channel.write(buffer);
+                        }
+                        channel.force(false);
+                        pending = null;
+                    } else if (stopping) {
+                        break;
+                    } else {
+                        LockSupport.parkNanos(WRITER_IDLE_PARK_MS * 1_000_000L);
+                    }
+                }
+            } catch (IOException e) {
+                failed = true;
+                RobotLog.ee(TAG, e, "WPILOG writer failed");
+            } finally {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    RobotLog.ee(TAG, e, "Failed to close WPILOG");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+/**
+ * Balls moving through the intake as points on a one-dimensional track,
+ * from the mouth (0) to the shooter, past the breakbeams.
+ *
+ * The track is split into zones, each driven by one roller stage. A ball
+ * moves at the surface speed of the zone it is in, and balls queue
+ * diameter-to-diameter instead of passing each other. A breakbeam is broken
+ * while any ball's center is within half a diameter of it, and it reports
+ * what the subsystem's DigitalChannel would: {@code false} while broken. A
+ * ball that reaches the shooter end is counted as a shot and removed, as is
+ * one pushed back out of the mouth.
+ *
+ * Balls waiting outside the mouth ({@link #offerBalls}) enter one at a time
+ * while the first zone is pulling in and there is room behind the last ball.
+ */
+public class BallTransitModel {
+    private final double[] zoneEndsIn;
+    private final double[] sensorPositionsIn;
+    private final double shooterPositionIn;
+    private final double ballDiameterIn;
+
+    private final double[] zoneSpeedsInPerSec;
+    // Front (closest to the shooter) first.
+    private final double[] ballPositionsIn;
+    private int ballCount = 0;
+    private int waitingBalls = 0;
+    private int shotCount = 0;
+    private int ejectedCount = 0;
+
+    /**
+     * @param zoneEndsIn        ascending far edge of every zone but the last, which runs to the shooter
+     * @param sensorPositionsIn breakbeam positions along the track
+     * @param capacity          most balls that fit on the track at once
+     */
+    public BallTransitModel(double[] zoneEndsIn, double[] sensorPositionsIn, double shooterPositionIn,
+                            double ballDiameterIn, int capacity) {
+        this.zoneEndsIn = zoneEndsIn.clone();
+        this.sensorPositionsIn = sensorPositionsIn.clone();
+        this.shooterPositionIn = shooterPositionIn;
+        this.ballDiameterIn = ballDiameterIn;
+        zoneSpeedsInPerSec = new double[zoneEndsIn.length + 1];
+        ballPositionsIn = new double[Math.max(1, capacity)];
+    }
+
+    /** Surface speed of zone {@code zone}, inches/s; positive moves toward the shooter. */
+    public void setZoneSpeed(int zone, double inPerSec) {
+        zoneSpeedsInPerSec[zone] = inPerSec;
+    }
+
+    public int getZoneCount() {
+        return zoneSpeedsInPerSec.length;
+    }
+
+    /** Queues {@code count} balls at the mouth, to be pulled in as the first zone allows. */
+    public void offerBalls(int count) {
+        waitingBalls += Math.max(0, count);
+    }
+
+    /** Places a ball directly on the track, e.g. a preload. Returns false if it would overlap one. */
+    public boolean placeBall(double positionIn) {
+        if (ballCount == ballPositionsIn.length) {
+            return false;
+        }
+        int insertAt = 0;
+        while (insertAt < ballCount && ballPositionsIn[insertAt] > positionIn) {
+            insertAt++;
+        }
+        if ((insertAt > 0 && ballPositionsIn[insertAt - 1] - positionIn < ballDiameterIn)
+                || (insertAt < ballCount && positionIn - ballPositionsIn[insertAt] < ballDiameterIn)) {
+            return false;
+        }
+        System.arraycopy(ballPositionsIn, insertAt, ballPositionsIn, insertAt + 1, ballCount - insertAt);
+        ballPositionsIn[insertAt] = positionIn;
+        ballCount++;
+        return true;
+    }
+
+    /** Advances {@code dtSec}. Returns how many balls reached the shooter during it. */
+    public int step(double dtSec) {
+        if (dtSec <= 0.0) {
+            return 0;
+        }
+        int shotsThisStep = 0;
+        for (int i = 0; i < ballCount; i++) {
+            double target = ballPositionsIn[i] + speedAt(ballPositionsIn[i]) * dtSec;
+            if (i > 0) {
+                target = Math.min(target, ballPositionsIn[i - 1] - ballDiameterIn);
+            }
+            ballPositionsIn[i] = target;
+        }
+        // Leaving the track: shots off the front, ejections off the back.
+        while (ballCount > 0 && ballPositionsIn[0] >= shooterPositionIn) {
+            System.arraycopy(ballPositionsIn, 1, ballPositionsIn, 0, ballCount - 1);
+            ballCount--;
+            shotsThisStep++;
+        }
+        while (ballCount > 0 && ballPositionsIn[ballCount - 1] < -ballDiameterIn) {
+            ballCount--;
+            ejectedCount++;
+        }
+        if (waitingBalls > 0 && ballCount < ballPositionsIn.length && zoneSpeedsInPerSec[0] > 0.0
+                && (ballCount == 0 || ballPositionsIn[ballCount - 1] >= ballDiameterIn)) {
+            ballPositionsIn[ballCount++] = 0.0;
+            waitingBalls--;
+        }
+        shotCount += shotsThisStep;
+        return shotsThisStep;
+    }
+
+    private double speedAt(double positionIn) {
+        int zone = 0;
+        while (zone < zoneEndsIn.length && positionIn >= zoneEndsIn[zone]) {
+            zone++;
+        }
+        return zoneSpeedsInPerSec[zone];
+    }
+
+    /** What a breakbeam DigitalChannel reads: {@code false} while a ball is in the beam. */
+    public boolean getSensorState(int sensor) {
+        return !isSensorBroken(sensor);
+    }
+
+    public boolean isSensorBroken(int sensor) {
+        double beam = sensorPositionsIn[sensor];
+        double halfDiameter = 0.5 * ballDiameterIn;
+        for (int i = 0; i < ballCount; i++) {
+            if (Math.abs(ballPositionsIn[i] - beam) < halfDiameter) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getSensorCount() {
+        return sensorPositionsIn.length;
+    }
+
+    public int getBallCount() {
+        return ballCount;
+    }
+
+    /** Position of ball {@code index}, front first. */
+    public double getBallPosition(int index) {
+        return ballPositionsIn[index];
+    }
+
+    public int getWaitingBalls() {
+        return waitingBalls;
+    }
+
+    public int getShotCount() {
+        return shotCount;
+    }
+
+    public int getEjectedCount() {
+        return ejectedCount;
+    }
+
+    public void clear() {
+        ballCount = 0;
+        waitingBalls = 0;
+        shotCount = 0;
+        ejectedCount = 0;
+        for (int i = 0; i < zoneSpeedsInPerSec.length; i++) {
+            zoneSpeedsInPerSec[i] = 0.0;
+        }
+    }
+}
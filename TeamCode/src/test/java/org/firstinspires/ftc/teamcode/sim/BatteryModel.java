@@ -0,0 +1,89 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+/**
+ * 12 V battery as an open-circuit voltage behind a series resistance.
+ *
+ * Terminal voltage is OCV - R * I for the current drawn in the previous step,
+ * which is what makes the flywheel sag when the intake and drive start at the
+ * same time. The hub's reported voltage is a first-order filtered copy of the
+ * terminal voltage, like the real sensor's averaging. R lumps the cell,
+ * connector, fuse and wiring resistance; 0.05 ohm is a healthy competition
+ * pack, an old one is closer to 0.1.
+ */
+public class BatteryModel {
+    public static final double DEFAULT_OPEN_CIRCUIT_VOLTS = 12.8;
+    public static final double DEFAULT_INTERNAL_RESISTANCE_OHM = 0.05;
+    public static final double DEFAULT_SENSOR_TIME_CONSTANT_SEC = 0.02;
+
+    private double openCircuitVolts;
+    private double internalResistanceOhm;
+    private double sensorTimeConstantSec;
+
+    private double loadCurrentA = 0.0;
+    private double terminalVolts;
+    private double sensedVolts;
+
+    public BatteryModel() {
+        this(DEFAULT_OPEN_CIRCUIT_VOLTS, DEFAULT_INTERNAL_RESISTANCE_OHM, DEFAULT_SENSOR_TIME_CONSTANT_SEC);
+    }
+
+    public BatteryModel(double openCircuitVolts, double internalResistanceOhm, double sensorTimeConstantSec) {
+        this.openCircuitVolts = openCircuitVolts;
+        this.internalResistanceOhm = Math.max(0.0, internalResistanceOhm);
+        this.sensorTimeConstantSec = Math.max(0.0, sensorTimeConstantSec);
+        terminalVolts = openCircuitVolts;
+        sensedVolts = openCircuitVolts;
+    }
+
+    /**
+     * Updates the terminal voltage for a total draw of {@code loadCurrentA}
+     * (negative while regenerating) held for {@code dtSec}.
+     */
+    public void step(double loadCurrentA, double dtSec) {
+        this.loadCurrentA = loadCurrentA;
+        terminalVolts = Math.max(0.0, openCircuitVolts - internalResistanceOhm * loadCurrentA);
+        if (sensorTimeConstantSec <= 0.0 || dtSec <= 0.0) {
+            sensedVolts = terminalVolts;
+        } else {
+            sensedVolts += (terminalVolts - sensedVolts) * (1.0 - Math.exp(-dtSec / sensorTimeConstantSec));
+        }
+    }
+
+    /** Voltage at the hub's motor bus right now. */
+    public double getTerminalVoltage() {
+        return terminalVolts;
+    }
+
+    /** What the hub's VoltageSensor reports. */
+    public double getSensedVoltage() {
+        return sensedVolts;
+    }
+
+    public double getLoadCurrent() {
+        return loadCurrentA;
+    }
+
+    public double getOpenCircuitVoltage() {
+        return openCircuitVolts;
+    }
+
+    /** Sets the resting voltage, e.g. to run the same scenario on a tired battery. */
+    public void setOpenCircuitVoltage(double volts) {
+        openCircuitVolts = volts;
+    }
+
+    public double getInternalResistance() {
+        return internalResistanceOhm;
+    }
+
+    public void setInternalResistance(double ohms) {
+        internalResistanceOhm = Math.max(0.0, ohms);
+    }
+
+    /** Back to rest at the current open-circuit voltage. */
+    public void reset() {
+        loadCurrentA = 0.0;
+        terminalVolts = openCircuitVolts;
+        sensedVolts = openCircuitVolts;
+    }
+}
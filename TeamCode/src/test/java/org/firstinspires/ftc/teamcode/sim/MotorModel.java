@@ -0,0 +1,69 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+/**
+ * Brushed DC motor from its datasheet numbers: the usual linear model
+ * V = I * R + omega / Kv and torque = Kt * I.
+ *
+ * R comes from the stall current, Kt from stall torque over stall current,
+ * and Kv from the free speed once the free-current drop is taken off. The
+ * free current itself is returned as a friction torque so an unloaded motor
+ * settles at its rated free speed. Stateless; {@link RotorModel} owns the
+ * speed and integrates it.
+ */
+public class MotorModel {
+    private static final double RPM_TO_RAD_PER_SEC = 2.0 * Math.PI / 60.0;
+
+    public final double nominalVolts;
+    public final double stallTorqueNm;
+    public final double stallCurrentA;
+    public final double freeCurrentA;
+    public final double freeSpeedRadPerSec;
+
+    private final double resistanceOhm;
+    private final double torquePerAmp;
+    private final double radPerSecPerVolt;
+
+    public MotorModel(double nominalVolts, double stallTorqueNm, double stallCurrentA,
+                      double freeCurrentA, double freeSpeedRpm) {
+        this.nominalVolts = nominalVolts;
+        this.stallTorqueNm = stallTorqueNm;
+        this.stallCurrentA = stallCurrentA;
+        this.freeCurrentA = freeCurrentA;
+        this.freeSpeedRadPerSec = freeSpeedRpm * RPM_TO_RAD_PER_SEC;
+        resistanceOhm = nominalVolts / stallCurrentA;
+        torquePerAmp = stallTorqueNm / stallCurrentA;
+        radPerSecPerVolt = freeSpeedRadPerSec / (nominalVolts - resistanceOhm * freeCurrentA);
+    }
+
+    /** goBILDA 5203 Yellow Jacket bare motor (the "6000 rpm" 1:1 version). */
+    public static MotorModel goBilda5203Bare() {
+        return new MotorModel(12.0, 0.144, 9.2, 0.25, 6000.0);
+    }
+
+    /** Armature current for an average applied voltage at a given shaft speed. */
+    public double currentA(double appliedVolts, double shaftRadPerSec) {
+        return (appliedVolts - shaftRadPerSec / radPerSecPerVolt) / resistanceOhm;
+    }
+
+    /** Shaft torque produced by an armature current. */
+    public double torqueNm(double currentA) {
+        return torquePerAmp * currentA;
+    }
+
+    /** Internal friction torque magnitude (the torque the free current overcomes). */
+    public double frictionTorqueNm() {
+        return torquePerAmp * freeCurrentA;
+    }
+
+    public double getResistanceOhm() {
+        return resistanceOhm;
+    }
+
+    public double getTorquePerAmp() {
+        return torquePerAmp;
+    }
+
+    public double getRadPerSecPerVolt() {
+        return radPerSecPerVolt;
+    }
+}
@@ -0,0 +1,163 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+/**
+ * One rotating mass driven by one or more identical motors on a common
+ * shaft: the shooter flywheel (two motors), an intake roller (one).
+ *
+ * Everything is referred to the motor shaft: {@code inertiaKgM2} is the
+ * flywheel's inertia times the square of its speed ratio to the motor, and the
+ * speed and angle are the motor's, which is what its encoder sees. Each motor
+ * gets a duty cycle in [-1, 1] times the bus voltage. At zero duty a BRAKE
+ * motor shorts its windings, so back-EMF drives a braking current. A FLOAT
+ * motor opens them and contributes nothing.
+ *
+ * Integration is explicit Euler on fixed 0.5 ms substeps. That is well under
+ * the few-tens-of-milliseconds mechanical time constant of anything on this
+ * robot, so a caller can step at loop rate without going unstable.
+ */
+public class RotorModel {
+    private static final double MAX_SUBSTEP_SEC = 0.0005;
+    // Below this speed Coulomb friction is treated as static friction.
+    private static final double STICTION_SPEED_RAD_PER_SEC = 1e-3;
+
+    private final MotorModel motor;
+    private final double inertiaKgM2;
+    private final double viscousNmPerRadPerSec;
+    private final double coulombNm;
+
+    private final double[] duty;
+    private final boolean[] brake;
+    private final double[] armatureCurrentA;
+
+    private double speedRadPerSec = 0.0;
+    private double angleRad = 0.0;
+    private double loadTorqueNm = 0.0;
+    private double supplyCurrentA = 0.0;
+
+    /**
+     * @param viscousNmPerRadPerSec bearing/belt drag proportional to speed
+     * @param coulombNm             constant drag beyond the motors' own friction
+     */
+    public RotorModel(MotorModel motor, int motorCount, double inertiaKgM2,
+                      double viscousNmPerRadPerSec, double coulombNm) {
+        this.motor = motor;
+        int n = Math.max(1, motorCount);
+        this.inertiaKgM2 = Math.max(1e-9, inertiaKgM2);
+        this.viscousNmPerRadPerSec = Math.max(0.0, viscousNmPerRadPerSec);
+        this.coulombNm = Math.max(0.0, coulombNm);
+        duty = new double[n];
+        brake = new boolean[n];
+        armatureCurrentA = new double[n];
+    }
+
+    /** Sets motor {@code index}'s duty cycle (clipped to [-1, 1]) and zero-power behavior. */
+    public void setInput(int index, double dutyCycle, boolean brakeAtZero) {
+        duty[index] = Math.max(-1.0, Math.min(1.0, dutyCycle));
+        brake[index] = brakeAtZero;
+    }
+
+    /** External torque on the motor shaft, e.g. a ball being squeezed through a roller. */
+    public void setLoadTorque(double torqueNm) {
+        loadTorqueNm = torqueNm;
+    }
+
+    /**
+     * Advances {@code dtSec} at a fixed bus voltage. Returns the current drawn
+     * from the bus, summed over the motors (negative while regenerating).
+     */
+    public double step(double busVolts, double dtSec) {
+        if (dtSec <= 0.0) {
+            return supplyCurrentA;
+        }
+        int substeps = (int) Math.ceil(dtSec / MAX_SUBSTEP_SEC);
+        double h = dtSec / substeps;
+        double supplyChargeC = 0.0;
+        for (int s = 0; s < substeps; s++) {
+            double motorTorqueNm = 0.0;
+            double supplyA = 0.0;
+            for (int i = 0; i < duty.length; i++) {
+                double current;
+                if (duty[i] == 0.0 && !brake[i]) {
+                    current = 0.0;
+                } else {
+                    current = motor.currentA(duty[i] * busVolts, speedRadPerSec);
+                }
+                armatureCurrentA[i] = current;
+                motorTorqueNm += motor.torqueNm(current);
+                // The H-bridge only connects the bus for the on-fraction of each PWM period.
+                supplyA += duty[i] * current;
+            }
+            double frictionNm = coulombNm + motor.frictionTorqueNm() * duty.length;
+            double drivingNm = motorTorqueNm + loadTorqueNm - viscousNmPerRadPerSec * speedRadPerSec;
+            double netNm;
+            if (Math.abs(speedRadPerSec) < STICTION_SPEED_RAD_PER_SEC && Math.abs(drivingNm) <= frictionNm) {
+                netNm = 0.0;
+                speedRadPerSec = 0.0;
+            } else {
+                double direction = speedRadPerSec != 0.0 ? Math.signum(speedRadPerSec) : Math.signum(drivingNm);
+                netNm = drivingNm - frictionNm * direction;
+            }
+            double nextSpeed = speedRadPerSec + (netNm / inertiaKgM2) * h;
+            // Friction alone must not reverse the rotor.
+            if (speedRadPerSec != 0.0 && Math.signum(nextSpeed) != Math.signum(speedRadPerSec)
+                    && Math.abs(drivingNm) <= frictionNm) {
+                nextSpeed = 0.0;
+            }
+            angleRad += 0.5 * (speedRadPerSec + nextSpeed) * h;
+            speedRadPerSec = nextSpeed;
+            supplyChargeC += supplyA * h;
+        }
+        supplyCurrentA = supplyChargeC / dtSec;
+        return supplyCurrentA;
+    }
+
+    /**
+     * Takes {@code joules} of kinetic energy out of the rotor, as a ball does
+     * when the flywheel launches it. Never reverses the rotor.
+     */
+    public void removeEnergy(double joules) {
+        if (joules <= 0.0) {
+            return;
+        }
+        double energy = 0.5 * inertiaKgM2 * speedRadPerSec * speedRadPerSec;
+        double remaining = Math.max(0.0, energy - joules);
+        speedRadPerSec = Math.signum(speedRadPerSec) * Math.sqrt(2.0 * remaining / inertiaKgM2);
+    }
+
+    public double getSpeedRadPerSec() {
+        return speedRadPerSec;
+    }
+
+    public double getAngleRad() {
+        return angleRad;
+    }
+
+    /** Armature current of motor {@code index} in the last substep, signed. */
+    public double getArmatureCurrent(int index) {
+        return armatureCurrentA[index];
+    }
+
+    public double getSupplyCurrent() {
+        return supplyCurrentA;
+    }
+
+    public double getInertia() {
+        return inertiaKgM2;
+    }
+
+    public int getMotorCount() {
+        return duty.length;
+    }
+
+    public void reset() {
+        speedRadPerSec = 0.0;
+        angleRad = 0.0;
+        loadTorqueNm = 0.0;
+        supplyCurrentA = 0.0;
+        for (int i = 0; i < duty.length; i++) {
+            duty[i] = 0.0;
+            brake[i] = false;
+            armatureCurrentA[i] = 0.0;
+        }
+    }
+}
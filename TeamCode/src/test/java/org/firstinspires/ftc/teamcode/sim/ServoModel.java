@@ -0,0 +1,126 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+/**
+ * Position servo response: the command takes effect after a dead time, then
+ * the output follows it with a first-order lag whose rate is capped at the
+ * servo's slew limit.
+ *
+ * Positions are in the servo's own [0, 1] command units; whoever owns the
+ * model maps them to degrees. The defaults are the dead time and time constant
+ * TurretSubsystem's servo-lag feedforward assumes (0.05 s and 0.08 s), so the
+ * simulated turret lags the way the real one was measured to. Also reused for
+ * continuous-rotation servos, where the "position" is the power.
+ *
+ * Commands are kept in a small ring keyed by model time so the dead time
+ * works at any step size.
+ */
+public class ServoModel {
+    public static final double DEFAULT_DEAD_TIME_SEC = 0.05;
+    public static final double DEFAULT_TIME_CONSTANT_SEC = 0.08;
+    // About 0.2 s per 60 degrees over a 300 degree range.
+    public static final double DEFAULT_MAX_SLEW_PER_SEC = 1.0;
+
+    private static final int HISTORY_CAPACITY = 64;
+
+    private double deadTimeSec;
+    private double timeConstantSec;
+    private double maxSlewPerSec;
+
+    private final double[] commandTimesSec = new double[HISTORY_CAPACITY];
+    private final double[] commandValues = new double[HISTORY_CAPACITY];
+    private int oldest = 0;
+    private int count = 0;
+
+    private double timeSec = 0.0;
+    private double position;
+    private double appliedCommand;
+    private boolean enabled = true;
+
+    public ServoModel(double initialPosition) {
+        this(initialPosition, DEFAULT_DEAD_TIME_SEC, DEFAULT_TIME_CONSTANT_SEC, DEFAULT_MAX_SLEW_PER_SEC);
+    }
+
+    public ServoModel(double initialPosition, double deadTimeSec, double timeConstantSec, double maxSlewPerSec) {
+        this.deadTimeSec = Math.max(0.0, deadTimeSec);
+        this.timeConstantSec = Math.max(0.0, timeConstantSec);
+        this.maxSlewPerSec = maxSlewPerSec;
+        position = initialPosition;
+        appliedCommand = initialPosition;
+    }
+
+    /** Records a new command at the current model time. Repeats of the last command are dropped. */
+    public void setCommand(double command) {
+        double last = count > 0 ? commandValues[(oldest + count - 1) % HISTORY_CAPACITY] : appliedCommand;
+        if (command == last) {
+            return;
+        }
+        if (count == HISTORY_CAPACITY) {
+            // Commands faster than the ring can hold: the oldest has to take effect early.
+            appliedCommand = commandValues[oldest];
+            oldest = (oldest + 1) % HISTORY_CAPACITY;
+            count--;
+        }
+        int slot = (oldest + count) % HISTORY_CAPACITY;
+        commandTimesSec[slot] = timeSec;
+        commandValues[slot] = command;
+        count++;
+    }
+
+    /** An unpowered servo (PWM disabled) stops driving and stays where it is. */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void step(double dtSec) {
+        if (dtSec <= 0.0) {
+            return;
+        }
+        timeSec += dtSec;
+        double effectiveTime = timeSec - deadTimeSec;
+        while (count > 0 && commandTimesSec[oldest] <= effectiveTime) {
+            appliedCommand = commandValues[oldest];
+            oldest = (oldest + 1) % HISTORY_CAPACITY;
+            count--;
+        }
+        if (!enabled) {
+            return;
+        }
+        double error = appliedCommand - position;
+        double move = timeConstantSec > 0.0 ? error * (1.0 - Math.exp(-dtSec / timeConstantSec)) : error;
+        if (maxSlewPerSec > 0.0) {
+            double maxMove = maxSlewPerSec * dtSec;
+            move = Math.max(-maxMove, Math.min(maxMove, move));
+        }
+        position += move;
+    }
+
+    public double getPosition() {
+        return position;
+    }
+
+    /** The command the servo is currently acting on (the dead time behind the latest one). */
+    public double getAppliedCommand() {
+        return appliedCommand;
+    }
+
+    public void setDeadTime(double seconds) {
+        deadTimeSec = Math.max(0.0, seconds);
+    }
+
+    public void setTimeConstant(double seconds) {
+        timeConstantSec = Math.max(0.0, seconds);
+    }
+
+    /** Slew limit in command units per second; <= 0 removes it. */
+    public void setMaxSlew(double perSecond) {
+        maxSlewPerSec = perSecond;
+    }
+
+    /** Jumps straight to {@code position} with no pending commands. */
+    public void reset(double position) {
+        this.position = position;
+        appliedCommand = position;
+        oldest = 0;
+        count = 0;
+    }
+}
@@ -0,0 +1,63 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import com.qualcomm.robotcore.hardware.AnalogInput;
+
+/**
+ * AnalogInput whose voltage is set by {@link SimRobot}. It extends the SDK
+ * class rather than implementing an interface because TurretSubsystem asks
+ * the hardware map for AnalogInput itself. Every method that would reach the
+ * (absent) controller is overridden.
+ */
+public class SimAnalogInput extends AnalogInput {
+    private final String name;
+    private final double maxVoltage;
+    private volatile double voltage = 0.0;
+
+    public SimAnalogInput(String name, double maxVoltage) {
+        super(null, 0);
+        this.name = name;
+        this.maxVoltage = maxVoltage;
+    }
+
+    public void setVoltage(double volts) {
+        voltage = Math.max(0.0, Math.min(maxVoltage, volts));
+    }
+
+    @Override
+    public double getVoltage() {
+        return voltage;
+    }
+
+    @Override
+    public double getMaxVoltage() {
+        return maxVoltage;
+    }
+
+    @Override
+    public Manufacturer getManufacturer() {
+        return Manufacturer.Other;
+    }
+
+    @Override
+    public String getDeviceName() {
+        return "Simulated analog input";
+    }
+
+    @Override
+    public String getConnectionInfo() {
+        return "sim; " + name;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void resetDeviceConfigurationForOpMode() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
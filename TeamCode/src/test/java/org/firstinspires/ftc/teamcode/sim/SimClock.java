@@ -0,0 +1,36 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import org.firstinspires.ftc.teamcode.util.RobotClock;
+
+/**
+ * Simulated time for {@link RobotClock}: only moves when advanced, which
+ * {@link SimRobot#step(double)} does by each step's dt.
+ *
+ * Starts at a nonzero epoch because the subsystems and the scheduler use a
+ * timestamp of 0 to mean "never ran".
+ */
+public class SimClock implements RobotClock.TimeSource {
+    public static final long EPOCH_NANOS = 1_000_000_000L;
+
+    private long nanos = EPOCH_NANOS;
+
+    public void advance(double dtSec) {
+        if (dtSec > 0.0) {
+            nanos += Math.round(dtSec * 1e9);
+        }
+    }
+
+    public void reset() {
+        nanos = EPOCH_NANOS;
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanos;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return nanos / 1_000_000L;
+    }
+}
@@ -0,0 +1,79 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import com.qualcomm.robotcore.hardware.DigitalChannel;
+import com.qualcomm.robotcore.hardware.DigitalChannelController;
+
+/**
+ * DigitalChannel whose input state is set by {@link SimRobot} (the intake
+ * breakbeams). In OUTPUT mode it reads back whatever was last written.
+ */
+public class SimDigitalChannel implements DigitalChannel {
+    private final String name;
+    private Mode mode = Mode.INPUT;
+    private volatile boolean inputState = true;
+    private boolean outputState = false;
+
+    public SimDigitalChannel(String name) {
+        this.name = name;
+    }
+
+    public void setInputState(boolean state) {
+        inputState = state;
+    }
+
+    @Override
+    public Mode getMode() {
+        return mode;
+    }
+
+    @Override
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    // Deprecated in DigitalChannel; left without @Override so this compiles
+    // whether or not the SDK in use still declares it.
+    @Deprecated
+    public void setMode(DigitalChannelController.Mode mode) {
+        this.mode = mode == DigitalChannelController.Mode.OUTPUT ? Mode.OUTPUT : Mode.INPUT;
+    }
+
+    @Override
+    public boolean getState() {
+        return mode == Mode.OUTPUT ? outputState : inputState;
+    }
+
+    @Override
+    public void setState(boolean state) {
+        outputState = state;
+    }
+
+    @Override
+    public Manufacturer getManufacturer() {
+        return Manufacturer.Other;
+    }
+
+    @Override
+    public String getDeviceName() {
+        return "Simulated digital channel";
+    }
+
+    @Override
+    public String getConnectionInfo() {
+        return "sim; " + name;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void resetDeviceConfigurationForOpMode() {
+        mode = Mode.INPUT;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,381 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import com.qualcomm.robotcore.hardware.DcMotorController;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.PIDCoefficients;
+import com.qualcomm.robotcore.hardware.PIDFCoefficients;
+import com.qualcomm.robotcore.hardware.configuration.typecontainers.MotorConfigurationType;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit;
+
+/**
+ * DcMotorEx with no hub behind it. Subsystems drive it exactly like a real
+ * motor; {@link SimRobot} reads the duty cycle it would put on the wires and
+ * writes back the encoder and current the physics produced.
+ *
+ * Direction, STOP_AND_RESET_ENCODER and zero-power behavior match the SDK.
+ * The hub's closed-loop modes are approximated, not reproduced: RUN_USING_ENCODER
+ * (setVelocity, or setPower as a fraction of {@code maxTicksPerSecond}) runs a
+ * feedforward + PI loop, RUN_TO_POSITION a proportional one capped at |power|.
+ * Enough to exercise subsystem logic, not to tune the hub's PIDF against.
+ */
+public class SimMotor implements DcMotorEx {
+    // The hub closes its loop at ~1 kHz; these run once per sim step, so they
+    // are kept soft enough to stay stable at 20 ms steps on a light roller.
+    private static final double VELOCITY_KP = 0.5;
+    private static final double VELOCITY_KI = 2.0;
+    private static final double POSITION_KP_PER_TICK = 0.01;
+
+    private final String name;
+    private final int portNumber;
+    private final double maxTicksPerSecond;
+
+    private Direction direction = Direction.FORWARD;
+    private RunMode mode = RunMode.RUN_WITHOUT_ENCODER;
+    private ZeroPowerBehavior zeroPowerBehavior = ZeroPowerBehavior.FLOAT;
+    private MotorConfigurationType motorType = MotorConfigurationType.getUnspecifiedMotorType();
+    private boolean enabled = true;
+
+    private double power = 0.0;
+    private double targetTicksPerSecond = Double.NaN;
+    private int targetPosition = 0;
+    private int targetPositionTolerance = 5;
+    private double velocityIntegral = 0.0;
+    private double dutyCycle = 0.0;
+
+    private PIDFCoefficients velocityPidf = new PIDFCoefficients(10.0, 3.0, 0.0, 0.0);
+    private PIDFCoefficients positionPidf = new PIDFCoefficients(10.0, 0.0, 0.0, 0.0);
+    private double currentAlertAmps = 5.0;
+
+    // Physical encoder state, in the motor's FORWARD frame.
+    private double physicalTicks = 0.0;
+    private double physicalTicksPerSecond = 0.0;
+    private double encoderZeroTicks = 0.0;
+    private double currentAmps = 0.0;
+
+    /**
+     * @param maxTicksPerSecond encoder rate at free speed; scales setPower in
+     *                          RUN_USING_ENCODER and the velocity loop's feedforward
+     */
+    public SimMotor(String name, int portNumber, double maxTicksPerSecond) {
+        this.name = name;
+        this.portNumber = portNumber;
+        this.maxTicksPerSecond = Math.max(1.0, maxTicksPerSecond);
+    }
+
+    // ---- called by SimRobot ----
+
+    /**
+     * Runs the emulated hub controller for {@code dtSec} and returns the duty
+     * cycle on the motor terminals, in the FORWARD frame (direction applied).
+     */
+    public double updateController(double dtSec) {
+        double command;
+        if (!enabled) {
+            command = 0.0;
+        } else if (mode == RunMode.STOP_AND_RESET_ENCODER) {
+            command = 0.0;
+        } else if (mode == RunMode.RUN_TO_POSITION) {
+            double error = targetPosition - getCurrentPosition();
+            double limit = Math.abs(power);
+            command = Math.abs(error) <= targetPositionTolerance
+                    ? 0.0
+                    : clip(POSITION_KP_PER_TICK * error, -limit, limit);
+        } else if (mode == RunMode.RUN_USING_ENCODER && Double.isFinite(targetTicksPerSecond)) {
+            double error = (targetTicksPerSecond - getVelocity()) / maxTicksPerSecond;
+            velocityIntegral = clip(velocityIntegral + error * dtSec, -1.0 / VELOCITY_KI, 1.0 / VELOCITY_KI);
+            command = clip(
+                    targetTicksPerSecond / maxTicksPerSecond + VELOCITY_KP * error + VELOCITY_KI * velocityIntegral,
+                    -1.0,
+                    1.0
+            );
+        } else {
+            command = power;
+        }
+        dutyCycle = directionSign() * command;
+        return dutyCycle;
+    }
+
+    /** Duty cycle from the last {@link #updateController}, FORWARD frame. */
+    public double getDutyCycle() {
+        return dutyCycle;
+    }
+
+    public boolean isBrakeAtZero() {
+        return zeroPowerBehavior == ZeroPowerBehavior.BRAKE;
+    }
+
+    /** Encoder state in the FORWARD frame, before direction and encoder reset are applied. */
+    public void setPhysicalState(double ticks, double ticksPerSecond, double amps) {
+        physicalTicks = ticks;
+        physicalTicksPerSecond = ticksPerSecond;
+        currentAmps = Math.abs(amps);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // ---- DcMotorSimple ----
+
+    @Override
+    public void setDirection(Direction direction) {
+        this.direction = direction;
+    }
+
+    @Override
+    public Direction getDirection() {
+        return direction;
+    }
+
+    @Override
+    public void setPower(double power) {
+        this.power = clip(power, -1.0, 1.0);
+        if (mode == RunMode.RUN_USING_ENCODER) {
+            targetTicksPerSecond = this.power * maxTicksPerSecond;
+        }
+    }
+
+    @Override
+    public double getPower() {
+        return power;
+    }
+
+    // ---- DcMotor ----
+
+    @Override
+    public MotorConfigurationType getMotorType() {
+        return motorType;
+    }
+
+    @Override
+    public void setMotorType(MotorConfigurationType motorType) {
+        this.motorType = motorType;
+    }
+
+    @Override
+    public DcMotorController getController() {
+        // No controller to hand out; nothing in TeamCode asks for one.
+        return null;
+    }
+
+    @Override
+    public int getPortNumber() {
+        return portNumber;
+    }
+
+    @Override
+    public void setZeroPowerBehavior(ZeroPowerBehavior zeroPowerBehavior) {
+        this.zeroPowerBehavior = zeroPowerBehavior;
+    }
+
+    @Override
+    public ZeroPowerBehavior getZeroPowerBehavior() {
+        return zeroPowerBehavior;
+    }
+
+    @Override
+    @Deprecated
+    public void setPowerFloat() {
+        zeroPowerBehavior = ZeroPowerBehavior.FLOAT;
+        setPower(0.0);
+    }
+
+    @Override
+    public boolean getPowerFloat() {
+        return zeroPowerBehavior == ZeroPowerBehavior.FLOAT && power == 0.0;
+    }
+
+    @Override
+    public void setTargetPosition(int position) {
+        targetPosition = position;
+    }
+
+    @Override
+    public int getTargetPosition() {
+        return targetPosition;
+    }
+
+    @Override
+    public boolean isBusy() {
+        return mode == RunMode.RUN_TO_POSITION
+                && Math.abs(targetPosition - getCurrentPosition()) > targetPositionTolerance;
+    }
+
+    @Override
+    public int getCurrentPosition() {
+        return (int) Math.round(directionSign() * (physicalTicks - encoderZeroTicks));
+    }
+
+    @Override
+    public void setMode(RunMode mode) {
+        if (mode == RunMode.STOP_AND_RESET_ENCODER) {
+            encoderZeroTicks = physicalTicks;
+            power = 0.0;
+        }
+        if (mode != RunMode.RUN_USING_ENCODER) {
+            targetTicksPerSecond = Double.NaN;
+        }
+        velocityIntegral = 0.0;
+        this.mode = mode;
+    }
+
+    @Override
+    public RunMode getMode() {
+        return mode;
+    }
+
+    // ---- DcMotorEx ----
+
+    @Override
+    public void setMotorEnable() {
+        enabled = true;
+    }
+
+    @Override
+    public void setMotorDisable() {
+        enabled = false;
+    }
+
+    @Override
+    public boolean isMotorEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setVelocity(double angularRate) {
+        targetTicksPerSecond = angularRate;
+        power = clip(angularRate / maxTicksPerSecond, -1.0, 1.0);
+    }
+
+    @Override
+    public void setVelocity(double angularRate, AngleUnit unit) {
+        double ticksPerRev = motorType.getTicksPerRev() > 0.0 ? motorType.getTicksPerRev() : 28.0;
+        setVelocity(unit.toDegrees(angularRate) / 360.0 * ticksPerRev);
+    }
+
+    @Override
+    public double getVelocity() {
+        return directionSign() * physicalTicksPerSecond;
+    }
+
+    @Override
+    public double getVelocity(AngleUnit unit) {
+        double ticksPerRev = motorType.getTicksPerRev() > 0.0 ? motorType.getTicksPerRev() : 28.0;
+        return unit.fromDegrees(getVelocity() / ticksPerRev * 360.0);
+    }
+
+    @Override
+    @Deprecated
+    public void setPIDCoefficients(RunMode mode, PIDCoefficients pidCoefficients) {
+        setPIDFCoefficients(mode, new PIDFCoefficients(pidCoefficients.p, pidCoefficients.i, pidCoefficients.d, 0.0));
+    }
+
+    @Override
+    public void setPIDFCoefficients(RunMode mode, PIDFCoefficients pidfCoefficients) {
+        // Stored for readback only; the emulated loops above use fixed gains.
+        if (mode == RunMode.RUN_TO_POSITION) {
+            positionPidf = new PIDFCoefficients(pidfCoefficients);
+        } else {
+            velocityPidf = new PIDFCoefficients(pidfCoefficients);
+        }
+    }
+
+    @Override
+    public void setVelocityPIDFCoefficients(double p, double i, double d, double f) {
+        velocityPidf = new PIDFCoefficients(p, i, d, f);
+    }
+
+    @Override
+    public void setPositionPIDFCoefficients(double p) {
+        positionPidf = new PIDFCoefficients(p, 0.0, 0.0, 0.0);
+    }
+
+    @Override
+    @Deprecated
+    public PIDCoefficients getPIDCoefficients(RunMode mode) {
+        PIDFCoefficients pidf = getPIDFCoefficients(mode);
+        return new PIDCoefficients(pidf.p, pidf.i, pidf.d);
+    }
+
+    @Override
+    public PIDFCoefficients getPIDFCoefficients(RunMode mode) {
+        return new PIDFCoefficients(mode == RunMode.RUN_TO_POSITION ? positionPidf : velocityPidf);
+    }
+
+    @Override
+    public void setTargetPositionTolerance(int tolerance) {
+        targetPositionTolerance = Math.max(0, tolerance);
+    }
+
+    @Override
+    public int getTargetPositionTolerance() {
+        return targetPositionTolerance;
+    }
+
+    @Override
+    public double getCurrent(CurrentUnit unit) {
+        return unit == CurrentUnit.MILLIAMPS ? currentAmps * 1000.0 : currentAmps;
+    }
+
+    @Override
+    public double getCurrentAlert(CurrentUnit unit) {
+        return unit == CurrentUnit.MILLIAMPS ? currentAlertAmps * 1000.0 : currentAlertAmps;
+    }
+
+    @Override
+    public void setCurrentAlert(double current, CurrentUnit unit) {
+        currentAlertAmps = unit == CurrentUnit.MILLIAMPS ? current / 1000.0 : current;
+    }
+
+    @Override
+    public boolean isOverCurrent() {
+        return currentAmps > currentAlertAmps;
+    }
+
+    // ---- HardwareDevice ----
+
+    @Override
+    public Manufacturer getManufacturer() {
+        return Manufacturer.Other;
+    }
+
+    @Override
+    public String getDeviceName() {
+        return "Simulated motor";
+    }
+
+    @Override
+    public String getConnectionInfo() {
+        return "sim; port " + portNumber;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void resetDeviceConfigurationForOpMode() {
+        direction = Direction.FORWARD;
+        mode = RunMode.RUN_WITHOUT_ENCODER;
+        zeroPowerBehavior = ZeroPowerBehavior.FLOAT;
+        power = 0.0;
+        targetTicksPerSecond = Double.NaN;
+        velocityIntegral = 0.0;
+        enabled = true;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private double directionSign() {
+        return direction == Direction.REVERSE ? -1.0 : 1.0;
+    }
+
+    private static double clip(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
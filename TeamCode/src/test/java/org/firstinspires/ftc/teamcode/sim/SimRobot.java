@@ -0,0 +1,403 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import android.content.Context;
+
+import com.qualcomm.robotcore.hardware.CRServoImplEx;
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.hardware.ServoImplEx;
+import com.qualcomm.robotcore.hardware.configuration.typecontainers.ServoConfigurationType;
+
+import org.firstinspires.ftc.teamcode.subsystems.TurretSubsystem;
+
+/**
+ * The robot's hardware, simulated: a HardwareMap populated under the same
+ * names the subsystems look up, backed by physics models that
+ * {@link #step(double)} advances.
+ *
+ * What each step couples, in order:
+ * <ul>
+ *   <li>battery bus voltage -> shooter and intake motor duty cycles -> rotor speeds -> encoders and currents;</li>
+ *   <li>turret servo commands -> servo lag -> turret angle -> quadrature and absolute encoders;</li>
+ *   <li>intake roller speeds -> ball positions -> breakbeams, and balls reaching the
+ *       flywheel take their launch energy out of it;</li>
+ *   <li>total current -> battery sag, seen by the next step and by the VoltageSensor.</li>
+ * </ul>
+ *
+ * Time only moves when {@link #step(double)} is called, so a test can run
+ * a match faster than real time. The subsystems read time through
+ * RobotClock; install {@link #getClock()} there and their dt and timeouts
+ * follow the simulated time instead of the wall clock.
+ *
+ * Not simulated: drivetrain motion (the drive motors accept power and their
+ * encoders stay put, except back_left, which carries the turret encoder as
+ * on the robot), the Pinpoint and the Limelight.
+ */
+public class SimRobot {
+    // Mechanism constants. Measured where we had numbers, estimated where we
+    // did not; good enough for logic tests, not for tuning.
+    public static double SHOOTER_FLYWHEEL_INERTIA_KG_M2 = 3.0e-4;
+    // ShooterSubsystem counts 28 * 17/23 motor ticks per flywheel rev.
+    public static double SHOOTER_FLYWHEEL_REVS_PER_MOTOR_REV = 23.0 / 17.0;
+    public static double SHOOTER_FLYWHEEL_RADIUS_M = 0.048;
+    public static double SHOOTER_VISCOUS_NM_PER_RAD_PER_SEC = 1.0e-5;
+    // At the motor shaft: what the robot's kS (0.183 of 12 V just to turn
+    // the flywheel) works out to for two 5203 motors.
+    public static double SHOOTER_DRAG_NM = 0.045;
+    // Ball exit speed as a fraction of flywheel surface speed, and how much
+    // more energy a launch costs than the ball carries away (slip, compression).
+    public static double BALL_EXIT_SPEED_RATIO = 0.5;
+    public static double BALL_LAUNCH_LOSS_FACTOR = 1.4;
+    public static double BALL_MASS_KG = 0.075;
+    public static double BALL_DIAMETER_IN = 5.0;
+
+    public static double INTAKE_MOTOR_GEAR_RATIO = 41.0 / 14.0;
+    public static double INTAKE_ROLLER_INERTIA_KG_M2 = 2.0e-5;
+    public static double INTAKE_ROLLER_RADIUS_IN = 1.0;
+    // Ball speed as a fraction of roller surface speed (compliant wheels slip).
+    public static double INTAKE_BALL_SPEED_RATIO = 0.5;
+    public static double CR_SERVO_FREE_SURFACE_IN_PER_SEC = 20.0;
+    public static double CR_SERVO_TIME_CONSTANT_SEC = 0.05;
+
+    // Track layout, inches from the intake mouth.
+    // The last beam sits just short of the flywheel: the subsystem takes a
+    // ball clearing it as shot.
+    public static double[] INTAKE_ZONE_ENDS_IN = {5.0, 11.0, 15.0};
+    public static double[] BREAKBEAM_POSITIONS_IN = {3.0, 9.0, 15.0};
+    public static double SHOOTER_CONTACT_IN = 17.0;
+    public static int INTAKE_CAPACITY = 4;
+
+    public static double HOOD_SERVO_MAX_SLEW_PER_SEC = 2.0;
+
+    private static final double MOTOR_TICKS_PER_REV = 28.0;
+    private static final double TWO_PI = 2.0 * Math.PI;
+
+    // Physical mounting: +1 if positive FORWARD duty moves the mechanism in
+    // its useful direction. The subsystems' setDirection calls undo these.
+    private static final double SHOOTER2_MOUNT_SIGN = -1.0;
+    private static final double M1_MOUNT_SIGN = -1.0;
+    private static final double M3_MOUNT_SIGN = 1.0;
+    private static final double S2_MOUNT_SIGN = -1.0;
+    private static final double S3_MOUNT_SIGN = 1.0;
+
+    private static final int LEFT_TURRET_PORT = 0;
+    private static final int RIGHT_TURRET_PORT = 1;
+
+    private final HardwareMap hardwareMap;
+    private final SimClock clock = new SimClock();
+
+    private final BatteryModel battery = new BatteryModel();
+    private final MotorModel motorModel = MotorModel.goBilda5203Bare();
+
+    private final SimMotor shooter1;
+    private final SimMotor shooter2;
+    private final RotorModel flywheel;
+    private final SimServoController hoodController = new SimServoController("shooter_hood", 1);
+    private final ServoModel hood = new ServoModel(0.0);
+
+    private final SimMotor m1;
+    private final SimMotor m3;
+    private final RotorModel m1Roller;
+    private final RotorModel m3Roller;
+    private final SimServoController intakeServoController = new SimServoController("intake_servos", 2);
+    private final ServoModel s2Speed;
+    private final ServoModel s3Speed;
+    private final BallTransitModel transit;
+    private final SimDigitalChannel[] breakbeams = new SimDigitalChannel[3];
+
+    private final SimServoController turretController = new SimServoController("turret_servos", 2);
+    private final ServoModel turretServo;
+    private final SimAnalogInput absoluteTurretEncoder;
+
+    private final SimMotor frontLeft;
+    private final SimMotor frontRight;
+    private final SimMotor backLeft;
+    private final SimMotor backRight;
+
+    private final SimServoController ledController = new SimServoController("leds", 2);
+
+    private double timeSec = 0.0;
+    private double lastTotalCurrentA = 0.0;
+
+    public SimRobot() {
+        hardwareMap = new HardwareMap((Context) null, null);
+        ServoConfigurationType servoType = ServoConfigurationType.getStandardServoType();
+
+        double motorFreeTicksPerSec = motorModel.freeSpeedRadPerSec / TWO_PI * MOTOR_TICKS_PER_REV;
+
+        // Shooter: two motors on one flywheel.
+        double flywheelRatio = SHOOTER_FLYWHEEL_REVS_PER_MOTOR_REV;
+        flywheel = new RotorModel(
+                motorModel,
+                2,
+                SHOOTER_FLYWHEEL_INERTIA_KG_M2 * flywheelRatio * flywheelRatio,
+                SHOOTER_VISCOUS_NM_PER_RAD_PER_SEC,
+                SHOOTER_DRAG_NM
+        );
+        shooter1 = new SimMotor("shooter_motor1", 0, motorFreeTicksPerSec);
+        shooter2 = new SimMotor("shooter_motor2", 1, motorFreeTicksPerSec);
+        hardwareMap.put("shooter_motor1", shooter1);
+        hardwareMap.put("shooter_motor2", shooter2);
+        hood.setMaxSlew(HOOD_SERVO_MAX_SLEW_PER_SEC);
+        hardwareMap.put("shooter_hood", new ServoImplEx(hoodController, 0, servoType));
+
+        // Intake: geared roller motors at both ends, CR servos in the middle.
+        double gearRatio = INTAKE_MOTOR_GEAR_RATIO;
+        double rollerInertiaAtMotor = INTAKE_ROLLER_INERTIA_KG_M2 / (gearRatio * gearRatio);
+        m1Roller = new RotorModel(motorModel, 1, rollerInertiaAtMotor, 0.0, 0.0);
+        m3Roller = new RotorModel(motorModel, 1, rollerInertiaAtMotor, 0.0, 0.0);
+        m1 = new SimMotor("intake_motor", 2, motorFreeTicksPerSec);
+        m3 = new SimMotor("intake_motor2", 3, motorFreeTicksPerSec);
+        hardwareMap.put("intake_motor", m1);
+        hardwareMap.put("intake_motor2", m3);
+        s2Speed = new ServoModel(0.0, 0.0, CR_SERVO_TIME_CONSTANT_SEC, 0.0);
+        s3Speed = new ServoModel(0.0, 0.0, CR_SERVO_TIME_CONSTANT_SEC, 0.0);
+        hardwareMap.put("intake_servo1", new CRServoImplEx(intakeServoController, 0, servoType));
+        hardwareMap.put("intake_servo2", new CRServoImplEx(intakeServoController, 1, servoType));
+        transit = new BallTransitModel(
+                INTAKE_ZONE_ENDS_IN,
+                BREAKBEAM_POSITIONS_IN,
+                SHOOTER_CONTACT_IN,
+                BALL_DIAMETER_IN,
+                INTAKE_CAPACITY
+        );
+        for (int i = 0; i < breakbeams.length; i++) {
+            breakbeams[i] = new SimDigitalChannel("breakbeam" + i);
+            hardwareMap.put("breakbeam" + i, breakbeams[i]);
+        }
+
+        // Turret: two servos on one gear, read back by the quadrature encoder
+        // on the back_left port and the analog absolute encoder.
+        turretServo = new ServoModel(TurretSubsystem.SERVO_CENTER_POSITION);
+        hardwareMap.put(TurretSubsystem.LEFT_TURRET_SERVO_NAME,
+                new ServoImplEx(turretController, LEFT_TURRET_PORT, servoType));
+        hardwareMap.put(TurretSubsystem.RIGHT_TURRET_SERVO_NAME,
+                new ServoImplEx(turretController, RIGHT_TURRET_PORT, servoType));
+        absoluteTurretEncoder = new SimAnalogInput(
+                TurretSubsystem.ABSOLUTE_TURRET_ENCODER_NAME,
+                TurretSubsystem.ABSOLUTE_TURRET_ENCODER_MAX_VOLTAGE
+        );
+        hardwareMap.put(TurretSubsystem.ABSOLUTE_TURRET_ENCODER_NAME, absoluteTurretEncoder);
+
+        // Drive motors (Constants.driveConstants names).
+        frontLeft = new SimMotor("front_left", 0, motorFreeTicksPerSec);
+        frontRight = new SimMotor("front_right", 1, motorFreeTicksPerSec);
+        backLeft = new SimMotor("back_left", 2, motorFreeTicksPerSec);
+        backRight = new SimMotor("back_right", 3, motorFreeTicksPerSec);
+        hardwareMap.put("front_left", frontLeft);
+        hardwareMap.put("front_right", frontRight);
+        hardwareMap.put("back_left", backLeft);
+        hardwareMap.put("back_right", backRight);
+
+        hardwareMap.put("rgb_color_PWM1", new ServoImplEx(ledController, 0, servoType));
+        hardwareMap.put("rgb_color_PWM2", new ServoImplEx(ledController, 1, servoType));
+
+        hardwareMap.voltageSensor.put("Control Hub", new SimVoltageSensor(battery));
+
+        updateSensors();
+    }
+
+    /** The map to hand to the subsystems in place of the op mode's. */
+    public HardwareMap getHardwareMap() {
+        return hardwareMap;
+    }
+
+    /** Advances the simulation by {@code dtSec}. */
+    public void step(double dtSec) {
+        if (dtSec <= 0.0) {
+            return;
+        }
+        double busVolts = battery.getTerminalVoltage();
+        double totalCurrentA = 0.0;
+
+        // Shooter.
+        flywheel.setInput(0, shooter1.updateController(dtSec), shooter1.isBrakeAtZero());
+        flywheel.setInput(1, SHOOTER2_MOUNT_SIGN * shooter2.updateController(dtSec), shooter2.isBrakeAtZero());
+        totalCurrentA += flywheel.step(busVolts, dtSec);
+        hood.setEnabled(hoodController.isServoPwmEnabled(0));
+        commandIfWritten(hood, hoodController, 0);
+        hood.step(dtSec);
+
+        // Intake rollers.
+        m1Roller.setInput(0, M1_MOUNT_SIGN * m1.updateController(dtSec), m1.isBrakeAtZero());
+        m3Roller.setInput(0, M3_MOUNT_SIGN * m3.updateController(dtSec), m3.isBrakeAtZero());
+        totalCurrentA += m1Roller.step(busVolts, dtSec);
+        totalCurrentA += m3Roller.step(busVolts, dtSec);
+        s2Speed.setCommand(S2_MOUNT_SIGN * crServoPower(0));
+        s3Speed.setCommand(S3_MOUNT_SIGN * crServoPower(1));
+        s2Speed.step(dtSec);
+        s3Speed.step(dtSec);
+
+        // Balls: zone speeds in the order the track passes the stages.
+        transit.setZoneSpeed(0, rollerBallSpeedInPerSec(m1Roller));
+        transit.setZoneSpeed(1, s2Speed.getPosition() * CR_SERVO_FREE_SURFACE_IN_PER_SEC * INTAKE_BALL_SPEED_RATIO);
+        transit.setZoneSpeed(2, s3Speed.getPosition() * CR_SERVO_FREE_SURFACE_IN_PER_SEC * INTAKE_BALL_SPEED_RATIO);
+        transit.setZoneSpeed(3, rollerBallSpeedInPerSec(m3Roller));
+        int shots = transit.step(dtSec);
+        for (int i = 0; i < shots; i++) {
+            flywheel.removeEnergy(launchEnergyJoules());
+        }
+
+        // Turret: both servos drive one gear, so they move together.
+        turretServo.setEnabled(turretController.isServoPwmEnabled(LEFT_TURRET_PORT)
+                || turretController.isServoPwmEnabled(RIGHT_TURRET_PORT));
+        double left = turretController.getCommandedPosition(LEFT_TURRET_PORT);
+        double right = turretController.getCommandedPosition(RIGHT_TURRET_PORT);
+        if (!Double.isNaN(left) || !Double.isNaN(right)) {
+            turretServo.setCommand(Double.isNaN(left) ? right : (Double.isNaN(right) ? left : 0.5 * (left + right)));
+        }
+        turretServo.step(dtSec);
+
+        // Drive motors draw nothing: the drivetrain is not simulated.
+        frontLeft.updateController(dtSec);
+        frontRight.updateController(dtSec);
+        backLeft.updateController(dtSec);
+        backRight.updateController(dtSec);
+
+        battery.step(totalCurrentA, dtSec);
+        lastTotalCurrentA = totalCurrentA;
+        timeSec += dtSec;
+        clock.advance(dtSec);
+        updateSensors();
+    }
+
+    private void updateSensors() {
+        double motorTicksPerRad = MOTOR_TICKS_PER_REV / TWO_PI;
+        shooter1.setPhysicalState(
+                flywheel.getAngleRad() * motorTicksPerRad,
+                flywheel.getSpeedRadPerSec() * motorTicksPerRad,
+                flywheel.getArmatureCurrent(0)
+        );
+        shooter2.setPhysicalState(
+                SHOOTER2_MOUNT_SIGN * flywheel.getAngleRad() * motorTicksPerRad,
+                SHOOTER2_MOUNT_SIGN * flywheel.getSpeedRadPerSec() * motorTicksPerRad,
+                flywheel.getArmatureCurrent(1)
+        );
+        m1.setPhysicalState(
+                M1_MOUNT_SIGN * m1Roller.getAngleRad() * motorTicksPerRad,
+                M1_MOUNT_SIGN * m1Roller.getSpeedRadPerSec() * motorTicksPerRad,
+                m1Roller.getArmatureCurrent(0)
+        );
+        m3.setPhysicalState(
+                M3_MOUNT_SIGN * m3Roller.getAngleRad() * motorTicksPerRad,
+                M3_MOUNT_SIGN * m3Roller.getSpeedRadPerSec() * motorTicksPerRad,
+                m3Roller.getArmatureCurrent(0)
+        );
+
+        for (int i = 0; i < breakbeams.length; i++) {
+            breakbeams[i].setInputState(transit.getSensorState(i));
+        }
+
+        double turretDegrees = getTurretAngleDegrees();
+        double absoluteRawDegrees = (turretDegrees - TurretSubsystem.ABSOLUTE_ENCODER_TURRET_OFFSET_DEGREES)
+                * TurretSubsystem.ENCODER_TO_TURRET_RATIO;
+        absoluteRawDegrees %= 360.0;
+        if (absoluteRawDegrees < 0.0) {
+            absoluteRawDegrees += 360.0;
+        }
+        absoluteTurretEncoder.setVoltage(
+                (absoluteRawDegrees / 360.0) * TurretSubsystem.ABSOLUTE_TURRET_ENCODER_MAX_VOLTAGE);
+        // Whatever direction the drive code gave back_left, the turret must
+        // read ticks = angle * counts/deg * QUAD_DIRECTION_SIGN through it.
+        double quadTicks = turretDegrees * TurretSubsystem.TURRET_ENCODER_COUNTS_PER_DEGREE
+                * TurretSubsystem.QUAD_DIRECTION_SIGN;
+        double backLeftSign = backLeft.getDirection() == DcMotorSimple.Direction.REVERSE ? -1.0 : 1.0;
+        backLeft.setPhysicalState(backLeftSign * quadTicks, 0.0, 0.0);
+    }
+
+    private static void commandIfWritten(ServoModel model, SimServoController controller, int port) {
+        double commanded = controller.getCommandedPosition(port);
+        if (!Double.isNaN(commanded)) {
+            model.setCommand(commanded);
+        }
+    }
+
+    /** CRServoImpl sends power p as position (p + 1) / 2; a port that is off or never written is stopped. */
+    private double crServoPower(int port) {
+        double position = intakeServoController.getCommandedPosition(port);
+        if (Double.isNaN(position) || !intakeServoController.isServoPwmEnabled(port)) {
+            return 0.0;
+        }
+        return 2.0 * position - 1.0;
+    }
+
+    private static double rollerBallSpeedInPerSec(RotorModel roller) {
+        double outputRadPerSec = roller.getSpeedRadPerSec() / INTAKE_MOTOR_GEAR_RATIO;
+        return outputRadPerSec * INTAKE_ROLLER_RADIUS_IN * INTAKE_BALL_SPEED_RATIO;
+    }
+
+    private double launchEnergyJoules() {
+        double flywheelRadPerSec = flywheel.getSpeedRadPerSec() * SHOOTER_FLYWHEEL_REVS_PER_MOTOR_REV;
+        double exitSpeed = BALL_EXIT_SPEED_RATIO * Math.abs(flywheelRadPerSec) * SHOOTER_FLYWHEEL_RADIUS_M;
+        return BALL_LAUNCH_LOSS_FACTOR * 0.5 * BALL_MASS_KG * exitSpeed * exitSpeed;
+    }
+
+    // ---- scenario controls ----
+
+    /** Balls waiting at the intake mouth; they enter as the front roller pulls. */
+    public void offerBalls(int count) {
+        transit.offerBalls(count);
+    }
+
+    /** Puts a ball straight onto the intake track (preloads). */
+    public boolean placeBall(double positionIn) {
+        boolean placed = transit.placeBall(positionIn);
+        updateSensors();
+        return placed;
+    }
+
+    /** Moves the turret to an angle instantly, e.g. to test calibration from an odd start. */
+    public void setTurretAngleDegrees(double angleDegrees) {
+        turretServo.reset(TurretSubsystem.SERVO_CENTER_POSITION - angleDegrees / TurretSubsystem.TURRET_TRAVEL_DEGREES);
+        updateSensors();
+    }
+
+    // ---- readback ----
+
+    public double getTimeSeconds() {
+        return timeSec;
+    }
+
+    /** Time source that advances with {@link #step(double)}. */
+    public SimClock getClock() {
+        return clock;
+    }
+
+    public BatteryModel getBattery() {
+        return battery;
+    }
+
+    public double getTotalCurrent() {
+        return lastTotalCurrentA;
+    }
+
+    public double getFlywheelRpm() {
+        return flywheel.getSpeedRadPerSec() * SHOOTER_FLYWHEEL_REVS_PER_MOTOR_REV * 60.0 / TWO_PI;
+    }
+
+    public double getHoodPosition() {
+        return hood.getPosition();
+    }
+
+    /** Turret angle in TurretSubsystem's convention (servo center = 0). */
+    public double getTurretAngleDegrees() {
+        return (TurretSubsystem.SERVO_CENTER_POSITION - turretServo.getPosition())
+                * TurretSubsystem.TURRET_TRAVEL_DEGREES;
+    }
+
+    public BallTransitModel getIntakeTrack() {
+        return transit;
+    }
+
+    public int getShotCount() {
+        return transit.getShotCount();
+    }
+
+    public RotorModel getFlywheel() {
+        return flywheel;
+    }
+
+    public ServoModel getTurretServo() {
+        return turretServo;
+    }
+}
@@ -0,0 +1,150 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.subsystems.IntakeWithSensorsSubsystem;
+import org.firstinspires.ftc.teamcode.subsystems.ShooterSubsystem;
+import org.firstinspires.ftc.teamcode.subsystems.TurretSubsystem;
+import org.firstinspires.ftc.teamcode.util.RobotClock;
+import org.firstinspires.ftc.teamcode.util.SubsystemScheduler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs the real subsystems against {@link SimRobot}, one 20 ms loop at a
+ * time on simulated time: init, the subsystem's periodic(), then a physics
+ * step, the same order the opmode runs them in.
+ */
+public class SimRobotSubsystemTest {
+    private static final double LOOP_SEC = 0.020;
+
+    private SimRobot sim;
+    private boolean savedLoadPersistedFeedforward;
+
+    @Before
+    public void setUp() {
+        savedLoadPersistedFeedforward = ShooterSubsystem.LOAD_PERSISTED_FEEDFORWARD;
+        // No robot storage off the robot.
+        ShooterSubsystem.LOAD_PERSISTED_FEEDFORWARD = false;
+        sim = new SimRobot();
+        RobotClock.setSource(sim.getClock());
+        SubsystemScheduler.INSTANCE.reset();
+    }
+
+    @After
+    public void tearDown() {
+        RobotClock.setSource(null);
+        ShooterSubsystem.LOAD_PERSISTED_FEEDFORWARD = savedLoadPersistedFeedforward;
+    }
+
+    @Test
+    public void shooterSpinsUpToTarget() {
+        ShooterSubsystem shooter = ShooterSubsystem.INSTANCE;
+        // The shooter's feed boost reads the intake's breakbeams.
+        IntakeWithSensorsSubsystem.INSTANCE.initialize(sim.getHardwareMap());
+        shooter.initialize(sim.getHardwareMap());
+        double targetRpm = 3000.0;
+        shooter.spinUp(targetRpm);
+
+        double atSpeedSec = Double.NaN;
+        for (int i = 0; i < 200; i++) {
+            shooter.periodic();
+            sim.step(LOOP_SEC);
+            if (Double.isNaN(atSpeedSec) && Math.abs(sim.getFlywheelRpm() - targetRpm) < 100.0) {
+                atSpeedSec = sim.getTimeSeconds();
+            }
+        }
+
+        assertFalse("flywheel never reached target", Double.isNaN(atSpeedSec));
+        assertTrue("spin-up took " + atSpeedSec + " s", atSpeedSec < 2.5);
+        assertEquals(targetRpm, sim.getFlywheelRpm(), 100.0);
+        assertEquals(sim.getFlywheelRpm(), shooter.getCurrentRpm(), 100.0);
+        assertTrue(shooter.isAtSpeed(150.0));
+
+        shooter.stop();
+        for (int i = 0; i < 5; i++) {
+            shooter.periodic();
+            sim.step(LOOP_SEC);
+        }
+        assertTrue("flywheel still driven after stop", sim.getFlywheelRpm() < targetRpm);
+    }
+
+    @Test
+    public void turretCalibratesFromOffCenterStart() {
+        TurretSubsystem turret = TurretSubsystem.INSTANCE;
+        sim.setTurretAngleDegrees(25.0);
+        turret.initialize(sim.getHardwareMap());
+        turret.beginStartupCentering();
+
+        boolean calibrated = false;
+        for (int i = 0; i < 200 && !calibrated; i++) {
+            sim.step(LOOP_SEC);
+            calibrated = turret.updateStartupCalibrationFromExpected(TurretSubsystem.INITIAL_ANGLE_DEGREES);
+        }
+
+        assertTrue("calibration never completed", calibrated);
+        assertTrue(turret.isStartupCalibrationComplete());
+        assertEquals(TurretSubsystem.INITIAL_ANGLE_DEGREES, sim.getTurretAngleDegrees(), 1.0);
+        assertEquals(sim.getTurretAngleDegrees(), turret.getMeasuredAngleDegrees(), 1.0);
+
+        // Once calibrated the measured angle follows the turret through a move.
+        turret.setTargetAngleDegrees(45.0);
+        for (int i = 0; i < 100; i++) {
+            turret.periodic();
+            sim.step(LOOP_SEC);
+        }
+        assertEquals(45.0, sim.getTurretAngleDegrees(), 3.0);
+        assertEquals(sim.getTurretAngleDegrees(), turret.getMeasuredAngleDegrees(), 1.0);
+    }
+
+    @Test
+    public void intakeCountsBallsAndFeedsOneToShooter() {
+        ShooterSubsystem shooter = ShooterSubsystem.INSTANCE;
+        IntakeWithSensorsSubsystem intake = IntakeWithSensorsSubsystem.INSTANCE;
+        shooter.initialize(sim.getHardwareMap());
+        intake.initialize(sim.getHardwareMap());
+
+        sim.offerBalls(3);
+        intake.intakeForward();
+        for (int i = 0; i < 250 && intake.getBallCount() < 3; i++) {
+            intake.periodic();
+            sim.step(LOOP_SEC);
+        }
+        // Let the last ball settle against its stopped stage.
+        for (int i = 0; i < 25; i++) {
+            intake.periodic();
+            sim.step(LOOP_SEC);
+        }
+
+        assertEquals(3, intake.getBallCount());
+        assertEquals(3, sim.getIntakeTrack().getBallCount());
+        assertEquals(0, sim.getShotCount());
+        for (int beam = 0; beam < 3; beam++) {
+            assertTrue("beam " + beam + " clear", sim.getIntakeTrack().isSensorBroken(beam));
+        }
+
+        shooter.spinUp(3000.0);
+        for (int i = 0; i < 100; i++) {
+            shooter.periodic();
+            sim.step(LOOP_SEC);
+        }
+        double rpmBeforeShot = sim.getFlywheelRpm();
+
+        assertTrue(intake.feedSingleBallFullPower());
+        double minRpm = rpmBeforeShot;
+        for (int i = 0; i < 100 && intake.isSingleBallFeedActive(); i++) {
+            intake.periodic();
+            shooter.periodic();
+            sim.step(LOOP_SEC);
+            minRpm = Math.min(minRpm, sim.getFlywheelRpm());
+        }
+
+        assertFalse(intake.isSingleBallFeedActive());
+        assertTrue("no ball reached the flywheel", sim.getShotCount() >= 1);
+        assertEquals(2, intake.getBallCount());
+        assertTrue("launch took no energy out of the flywheel", minRpm < rpmBeforeShot - 50.0);
+    }
+}
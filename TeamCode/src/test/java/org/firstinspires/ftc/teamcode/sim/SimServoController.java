@@ -0,0 +1,138 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import com.qualcomm.robotcore.hardware.PwmControl;
+import com.qualcomm.robotcore.hardware.ServoControllerEx;
+import com.qualcomm.robotcore.hardware.configuration.typecontainers.ServoConfigurationType;
+
+/**
+ * Stand-in for a hub's servo ports, so the SDK's own ServoImplEx and
+ * CRServoImplEx can sit on top of it. The subsystems ask the hardware map for
+ * those concrete classes, and they apply direction, scaleRange and the CR
+ * power mapping themselves. This class only has to remember the last
+ * position and PWM state per port, which {@link SimRobot} feeds to the
+ * servo models.
+ */
+public class SimServoController implements ServoControllerEx {
+    private final String name;
+    private final double[] positions;
+    private final boolean[] pwmEnabled;
+    private final PwmControl.PwmRange[] pwmRanges;
+
+    public SimServoController(String name, int portCount) {
+        this.name = name;
+        int n = Math.max(1, portCount);
+        positions = new double[n];
+        pwmEnabled = new boolean[n];
+        pwmRanges = new PwmControl.PwmRange[n];
+        for (int i = 0; i < n; i++) {
+            positions[i] = Double.NaN;
+            pwmRanges[i] = PwmControl.PwmRange.defaultRange;
+        }
+    }
+
+    /** Last position written to {@code port}, NaN until the first write. */
+    public double getCommandedPosition(int port) {
+        return positions[port];
+    }
+
+    // ---- ServoController ----
+
+    @Override
+    public void pwmEnable() {
+        for (int i = 0; i < pwmEnabled.length; i++) {
+            pwmEnabled[i] = true;
+        }
+    }
+
+    @Override
+    public void pwmDisable() {
+        for (int i = 0; i < pwmEnabled.length; i++) {
+            pwmEnabled[i] = false;
+        }
+    }
+
+    @Override
+    public PwmStatus getPwmStatus() {
+        boolean any = false;
+        boolean all = true;
+        for (boolean enabled : pwmEnabled) {
+            any |= enabled;
+            all &= enabled;
+        }
+        return all ? PwmStatus.ENABLED : (any ? PwmStatus.MIXED : PwmStatus.DISABLED);
+    }
+
+    @Override
+    public void setServoPosition(int servo, double position) {
+        positions[servo] = Math.max(0.0, Math.min(1.0, position));
+        // Like the hub: the first position write turns the port on.
+        pwmEnabled[servo] = true;
+    }
+
+    @Override
+    public double getServoPosition(int servo) {
+        return Double.isNaN(positions[servo]) ? 0.0 : positions[servo];
+    }
+
+    // ---- ServoControllerEx ----
+
+    @Override
+    public void setServoPwmRange(int servo, PwmControl.PwmRange range) {
+        pwmRanges[servo] = range;
+    }
+
+    @Override
+    public PwmControl.PwmRange getServoPwmRange(int servo) {
+        return pwmRanges[servo];
+    }
+
+    @Override
+    public void setServoPwmEnable(int servo) {
+        pwmEnabled[servo] = true;
+    }
+
+    @Override
+    public void setServoPwmDisable(int servo) {
+        pwmEnabled[servo] = false;
+    }
+
+    @Override
+    public boolean isServoPwmEnabled(int servo) {
+        return pwmEnabled[servo];
+    }
+
+    @Override
+    public void setServoType(int servo, ServoConfigurationType servoType) {
+    }
+
+    // ---- HardwareDevice ----
+
+    @Override
+    public Manufacturer getManufacturer() {
+        return Manufacturer.Other;
+    }
+
+    @Override
+    public String getDeviceName() {
+        return "Simulated servo controller";
+    }
+
+    @Override
+    public String getConnectionInfo() {
+        return "sim; " + name;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void resetDeviceConfigurationForOpMode() {
+        pwmDisable();
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,45 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+
+/** Hub battery voltage sensor reading a {@link BatteryModel}. */
+public class SimVoltageSensor implements VoltageSensor {
+    private final BatteryModel battery;
+
+    public SimVoltageSensor(BatteryModel battery) {
+        this.battery = battery;
+    }
+
+    @Override
+    public double getVoltage() {
+        return battery.getSensedVoltage();
+    }
+
+    @Override
+    public Manufacturer getManufacturer() {
+        return Manufacturer.Other;
+    }
+
+    @Override
+    public String getDeviceName() {
+        return "Simulated battery voltage";
+    }
+
+    @Override
+    public String getConnectionInfo() {
+        return "sim";
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void resetDeviceConfigurationForOpMode() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
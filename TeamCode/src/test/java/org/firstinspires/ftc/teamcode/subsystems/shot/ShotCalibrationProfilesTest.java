@@ -0,0 +1,82 @@
+package org.firstinspires.ftc.teamcode.subsystems.shot;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Checks profile CSV parsing against rows written the way Python's csv
+ * module quotes them, with the quoted columns in the middle of the row.
+ */
+public class ShotCalibrationProfilesTest {
+
+    @After
+    public void tearDown() {
+        ShotCalibrationProfiles.ACTIVE_PROFILE = ShotCalibrationProfiles.BUILT_IN_PROFILE;
+        ShotCalibrationProfiles.active();
+    }
+
+    @Test
+    public void quotedCommasDoNotShiftLaterColumns() throws IOException {
+        ShotSample[] samples = parse(
+                "idx,notes,zone,x,y,rpm,hood,aim_x,aim_y\n"
+                + "# comment\n"
+                + "\n"
+                + "0,\"median of 4, KEEP\",\"A,near\",72,108,3400,0.44,0.5,132\n"
+                + "1,\"says \"\"hi\"\", twice\",B,54,10,4150,0.525,1.5,129\n");
+
+        assertEquals(2, samples.length);
+        assertEquals("median of 4, KEEP", samples[0].notes);
+        assertEquals("A,near", samples[0].zone);
+        assertEquals(72.0, samples[0].x, 0.0);
+        assertEquals(108.0, samples[0].y, 0.0);
+        assertEquals(3400.0, samples[0].rpm, 0.0);
+        assertEquals(0.44, samples[0].hoodPos, 0.0);
+        assertEquals(0.5, samples[0].aimX, 0.0);
+        assertEquals(132.0, samples[0].aimY, 0.0);
+
+        assertEquals(1, samples[1].index);
+        assertEquals("says \"hi\", twice", samples[1].notes);
+        assertEquals("B", samples[1].zone);
+        assertEquals(129.0, samples[1].aimY, 0.0);
+    }
+
+    @Test
+    public void splitRowHandlesEmptyAndQuotedFields() {
+        List<String> fields = new ArrayList<>();
+        ShotCalibrationProfiles.splitRow(" a , \"b, c\" ,,\"\",\"d\"\"\"", fields);
+        assertEquals(Arrays.asList("a", "b, c", "", "", "d\""), fields);
+
+        ShotCalibrationProfiles.splitRow("x", fields);
+        assertEquals(Arrays.asList("x"), fields);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingRequiredColumnIsRejected() throws IOException {
+        parse("idx,x,y,rpm,hood,aim_x\n0,1,2,3,4,5\n");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shortRowIsRejected() throws IOException {
+        parse("x,y,rpm,hood,aim_x,aim_y\n1,2,3,4,5\n");
+    }
+
+    @Test
+    public void unknownProfileNameWithPercentKeepsActive() {
+        ShotCalibrationProfiles.ACTIVE_PROFILE = "blue 100%";
+        ShotCalibrationProfiles.active();
+        assertEquals(ShotCalibrationProfiles.BUILT_IN_PROFILE, ShotCalibrationProfiles.activeName());
+    }
+
+    private static ShotSample[] parse(String csv) throws IOException {
+        return ShotCalibrationProfiles.parse(new BufferedReader(new StringReader(csv)));
+    }
+}
@@ -0,0 +1,299 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks PoseEkf's closed-form 3x3 / 2x2 algebra against a textbook EKF
+ * written with general matrices (products, transposes, Gauss-Jordan
+ * inverse), and that the gate rejects innovations far outside the
+ * covariance.
+ */
+public class PoseEkfTest {
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    public void matchesBruteForceOverRandomSequence() {
+        Random random = new Random(22);
+        PoseEkf ekf = new PoseEkf();
+        Reference ref = new Reference();
+        ekf.reset(10.0, -5.0, 0.3, 2.0, 0.01);
+        ref.reset(10.0, -5.0, 0.3, 2.0, 0.01);
+        double odoHeading = 0.25;
+
+        int positionUpdates = 0;
+        int poseUpdates = 0;
+        for (int step = 0; step < 500; step++) {
+            double dx = random.nextGaussian() * 0.8;
+            double dy = random.nextGaussian() * 0.8;
+            double dHeading = random.nextGaussian() * 0.05;
+            ekf.predict(dx, dy, dHeading, odoHeading, 0.01, 0.02, 0.001, 0.01);
+            ref.predict(dx, dy, dHeading, odoHeading, 0.01, 0.02, 0.001, 0.01);
+            odoHeading += dHeading;
+            assertSame(ref, ekf, "predict " + step);
+
+            if (step % 3 == 0) {
+                double ix = random.nextGaussian();
+                double iy = random.nextGaussian();
+                boolean accepted = ekf.correctPosition(ix, iy, 1.5, 1e9);
+                ref.correct(new double[] {ix, iy}, new double[] {1.5, 1.5});
+                assertTrue(accepted);
+                assertSame(ref, ekf, "correctPosition " + step);
+                positionUpdates++;
+            } else if (step % 7 == 0) {
+                double ix = random.nextGaussian();
+                double iy = random.nextGaussian();
+                double ih = random.nextGaussian() * 0.05;
+                boolean accepted = ekf.correctPose(ix, iy, ih, 1.5, 0.004, 1e9);
+                ref.correct(new double[] {ix, iy, ih}, new double[] {1.5, 1.5, 0.004});
+                assertTrue(accepted);
+                assertSame(ref, ekf, "correctPose " + step);
+                poseUpdates++;
+            }
+        }
+        assertTrue(positionUpdates > 100);
+        assertTrue(poseUpdates > 20);
+    }
+
+    @Test
+    public void mahalanobisMatchesBruteForce() {
+        PoseEkf ekf = new PoseEkf();
+        Reference ref = new Reference();
+        ekf.reset(0.0, 0.0, 0.0, 3.0, 0.02);
+        ref.reset(0.0, 0.0, 0.0, 3.0, 0.02);
+        // Turn and drive so the covariance picks up x-y-heading correlation.
+        ekf.predict(5.0, 2.0, 0.4, 0.0, 0.05, 0.02, 0.002, 0.01);
+        ref.predict(5.0, 2.0, 0.4, 0.0, 0.05, 0.02, 0.002, 0.01);
+
+        ekf.correctPose(1.0, -2.0, 0.1, 0.5, 0.003, 1e9);
+        assertEquals(ref.mahalanobisSquared(new double[] {1.0, -2.0, 0.1}, new double[] {0.5, 0.5, 0.003}),
+                ekf.getLastMahalanobisSquared(), TOLERANCE);
+    }
+
+    @Test
+    public void gateRejectsFiveSigmaPositionInnovation() {
+        PoseEkf ekf = new PoseEkf();
+        ekf.reset(1.0, 2.0, 0.5, 4.0, 0.01);
+        double measurementVariance = 5.0;
+        double sigma = Math.sqrt(4.0 + measurementVariance);
+
+        assertFalse(ekf.correctPosition(5.0 * sigma, 0.0, measurementVariance, PoseEkf.CHI2_99_2DOF));
+        assertEquals(25.0, ekf.getLastMahalanobisSquared(), 1e-9);
+        assertEquals(1.0, ekf.getX(), 0.0);
+        assertEquals(2.0, ekf.getY(), 0.0);
+        assertEquals(0.5, ekf.getHeading(), 0.0);
+        assertEquals(2.0, ekf.getPositionSigma(), 1e-12);
+
+        // The same direction at 2 sigma is blended.
+        assertTrue(ekf.correctPosition(2.0 * sigma, 0.0, measurementVariance, PoseEkf.CHI2_99_2DOF));
+        assertTrue(ekf.getX() > 1.0);
+    }
+
+    @Test
+    public void gateRejectsFiveSigmaHeadingInnovation() {
+        PoseEkf ekf = new PoseEkf();
+        ekf.reset(1.0, 2.0, 0.5, 4.0, 0.01);
+        double headingVariance = 0.0025;
+        double sigma = Math.sqrt(0.01 + headingVariance);
+
+        assertFalse(ekf.correctPose(0.0, 0.0, 5.0 * sigma, 1.0, headingVariance, PoseEkf.CHI2_99_3DOF));
+        assertEquals(25.0, ekf.getLastMahalanobisSquared(), 1e-9);
+        assertEquals(0.5, ekf.getHeading(), 0.0);
+        assertEquals(Math.sqrt(0.01), ekf.getHeadingSigma(), 1e-12);
+
+        assertTrue(ekf.correctPose(0.0, 0.0, 2.0 * sigma, 1.0, headingVariance, PoseEkf.CHI2_99_3DOF));
+        assertTrue(ekf.getHeading() > 0.5);
+    }
+
+    private static void assertSame(Reference ref, PoseEkf ekf, String where) {
+        assertEquals(where + " x", ref.state[0], ekf.getX(), TOLERANCE);
+        assertEquals(where + " y", ref.state[1], ekf.getY(), TOLERANCE);
+        assertEquals(where + " heading", ref.state[2], ekf.getHeading(), TOLERANCE);
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 3; c++) {
+                assertEquals(where + " P" + r + c, ref.p[r][c], ekf.getCovariance(r, c), TOLERANCE);
+            }
+        }
+    }
+
+    /** The same filter, spelled out with general matrix operations. */
+    private static final class Reference {
+        final double[] state = new double[3];
+        double[][] p = new double[3][3];
+
+        void reset(double x, double y, double heading, double positionVariance, double headingVariance) {
+            state[0] = x;
+            state[1] = y;
+            state[2] = wrap(heading);
+            p = diagonal(positionVariance, positionVariance, headingVariance);
+        }
+
+        void predict(double odoDx, double odoDy, double odoDHeading, double odoHeadingBefore,
+                     double positionBase, double positionPerIn, double headingBase, double headingPerRad) {
+            double correction = state[2] - odoHeadingBefore;
+            double[][] rotation = {
+                    {Math.cos(correction), -Math.sin(correction)},
+                    {Math.sin(correction), Math.cos(correction)}
+            };
+            double[][] delta = multiply(rotation, new double[][] {{odoDx}, {odoDy}});
+            state[0] += delta[0][0];
+            state[1] += delta[1][0];
+            state[2] = wrap(state[2] + odoDHeading);
+
+            // Jacobian of the rotated step with respect to heading.
+            double[][] f = {
+                    {1.0, 0.0, -delta[1][0]},
+                    {0.0, 1.0, delta[0][0]},
+                    {0.0, 0.0, 1.0}
+            };
+            double positionSigma = positionBase + (positionPerIn * Math.hypot(odoDx, odoDy));
+            double headingSigma = headingBase + (headingPerRad * Math.abs(odoDHeading));
+            double[][] q = diagonal(positionSigma * positionSigma, positionSigma * positionSigma,
+                    headingSigma * headingSigma);
+            p = add(multiply(multiply(f, p), transpose(f)), q);
+        }
+
+        /** Measures the first innovation.length states (H = [I 0]). */
+        void correct(double[] innovation, double[] measurementVariance) {
+            int m = innovation.length;
+            double[][] h = observation(m);
+            double[][] sInverse = invert(add(multiply(multiply(h, p), transpose(h)), diagonal(measurementVariance)));
+            double[][] k = multiply(multiply(p, transpose(h)), sInverse);
+            double[][] v = new double[m][1];
+            for (int i = 0; i < m; i++) {
+                v[i][0] = i == 2 ? wrap(innovation[i]) : innovation[i];
+            }
+            double[][] dx = multiply(k, v);
+            state[0] += dx[0][0];
+            state[1] += dx[1][0];
+            state[2] = wrap(state[2] + dx[2][0]);
+            p = multiply(add(identity(3), scale(multiply(k, h), -1.0)), p);
+        }
+
+        double mahalanobisSquared(double[] innovation, double[] measurementVariance) {
+            int m = innovation.length;
+            double[][] h = observation(m);
+            double[][] sInverse = invert(add(multiply(multiply(h, p), transpose(h)), diagonal(measurementVariance)));
+            double[][] v = new double[m][1];
+            for (int i = 0; i < m; i++) {
+                v[i][0] = innovation[i];
+            }
+            return multiply(multiply(transpose(v), sInverse), v)[0][0];
+        }
+
+        private static double[][] observation(int m) {
+            double[][] h = new double[m][3];
+            for (int i = 0; i < m; i++) {
+                h[i][i] = 1.0;
+            }
+            return h;
+        }
+    }
+
+    private static double[][] multiply(double[][] a, double[][] b) {
+        double[][] out = new double[a.length][b[0].length];
+        for (int i = 0; i < a.length; i++) {
+            for (int j = 0; j < b[0].length; j++) {
+                double sum = 0.0;
+                for (int k = 0; k < b.length; k++) {
+                    sum += a[i][k] * b[k][j];
+                }
+                out[i][j] = sum;
+            }
+        }
+        return out;
+    }
+
+    private static double[][] transpose(double[][] a) {
+        double[][] out = new double[a[0].length][a.length];
+        for (int i = 0; i < a.length; i++) {
+            for (int j = 0; j < a[0].length; j++) {
+                out[j][i] = a[i][j];
+            }
+        }
+        return out;
+    }
+
+    private static double[][] add(double[][] a, double[][] b) {
+        double[][] out = new double[a.length][a[0].length];
+        for (int i = 0; i < a.length; i++) {
+            for (int j = 0; j < a[0].length; j++) {
+                out[i][j] = a[i][j] + b[i][j];
+            }
+        }
+        return out;
+    }
+
+    private static double[][] scale(double[][] a, double factor) {
+        double[][] out = new double[a.length][a[0].length];
+        for (int i = 0; i < a.length; i++) {
+            for (int j = 0; j < a[0].length; j++) {
+                out[i][j] = a[i][j] * factor;
+            }
+        }
+        return out;
+    }
+
+    private static double[][] identity(int n) {
+        double[][] out = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            out[i][i] = 1.0;
+        }
+        return out;
+    }
+
+    private static double[][] diagonal(double... values) {
+        double[][] out = new double[values.length][values.length];
+        for (int i = 0; i < values.length; i++) {
+            out[i][i] = values[i];
+        }
+        return out;
+    }
+
+    /** Gauss-Jordan with partial pivoting. */
+    private static double[][] invert(double[][] a) {
+        int n = a.length;
+        double[][] work = new double[n][2 * n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(a[i], 0, work[i], 0, n);
+            work[i][n + i] = 1.0;
+        }
+        for (int col = 0; col < n; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < n; row++) {
+                if (Math.abs(work[row][col]) > Math.abs(work[pivot][col])) {
+                    pivot = row;
+                }
+            }
+            double[] swap = work[col];
+            work[col] = work[pivot];
+            work[pivot] = swap;
+            double divisor = work[col][col];
+            for (int j = 0; j < 2 * n; j++) {
+                work[col][j] /= divisor;
+            }
+            for (int row = 0; row < n; row++) {
+                if (row != col) {
+                    double factor = work[row][col];
+                    for (int j = 0; j < 2 * n; j++) {
+                        work[row][j] -= factor * work[col][j];
+                    }
+                }
+            }
+        }
+        double[][] out = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(work[i], n, out[i], 0, n);
+        }
+        return out;
+    }
+
+    private static double wrap(double angle) {
+        return Math.atan2(Math.sin(angle), Math.cos(angle));
+    }
+}
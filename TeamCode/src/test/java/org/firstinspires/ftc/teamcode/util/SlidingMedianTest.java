@@ -0,0 +1,171 @@
+package org.firstinspires.ftc.teamcode.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks SlidingMedian's incremental sorted window and MAD merge against
+ * sorting the last N samples from scratch.
+ */
+public class SlidingMedianTest {
+    private static final double TOLERANCE = 1e-12;
+
+    @Test
+    public void matchesSortedReferenceWithWindowChanges() {
+        Random random = new Random(24);
+        SlidingMedian median = new SlidingMedian(16);
+        ArrayDeque<Double> recent = new ArrayDeque<>();
+        int window = 16;
+        boolean sawShrink = false;
+
+        for (int step = 0; step < 20000; step++) {
+            if (step % 97 == 0) {
+                int next = 1 + random.nextInt(16);
+                sawShrink |= next < recent.size();
+                window = next;
+                median.setWindow(window);
+                while (recent.size() > window) {
+                    recent.removeFirst();
+                }
+                assertReferenceMatches(recent, median, "setWindow " + window + " at " + step);
+            }
+
+            // Half the samples come from a few levels so the window is full
+            // of duplicates; the rest are spread out.
+            double value = random.nextBoolean()
+                    ? random.nextInt(4)
+                    : random.nextGaussian() * 10.0;
+            median.add(value);
+            recent.addLast(value);
+            if (recent.size() > window) {
+                recent.removeFirst();
+            }
+            assertReferenceMatches(recent, median, "add at " + step);
+        }
+        assertTrue(sawShrink);
+    }
+
+    @Test
+    public void oddWindow() {
+        SlidingMedian median = new SlidingMedian(5);
+        for (double value : new double[] {4.0, 1.0, 100.0, 3.0, 2.0}) {
+            median.add(value);
+        }
+        // Deviations from 3: 1, 2, 97, 0, 1 -> sorted 0, 1, 1, 2, 97.
+        assertEquals(3.0, median.getMedian(), TOLERANCE);
+        assertEquals(1.0, median.getMad(), TOLERANCE);
+        assertEquals(SlidingMedian.MAD_TO_SIGMA, median.getSigma(), TOLERANCE);
+    }
+
+    @Test
+    public void evenWindow() {
+        SlidingMedian median = new SlidingMedian(4);
+        for (double value : new double[] {1.0, 4.0, 2.0, 3.0}) {
+            median.add(value);
+        }
+        // Deviations from 2.5: 1.5, 1.5, 0.5, 0.5.
+        assertEquals(2.5, median.getMedian(), TOLERANCE);
+        assertEquals(1.0, median.getMad(), TOLERANCE);
+
+        // Eviction keeps it even: 4, 2, 3, 10.
+        median.add(10.0);
+        assertEquals(4, median.size());
+        assertEquals(3.5, median.getMedian(), TOLERANCE);
+        assertEquals(1.0, median.getMad(), TOLERANCE);
+    }
+
+    @Test
+    public void duplicatesGiveZeroMadAndFlooredScore() {
+        SlidingMedian median = new SlidingMedian(8);
+        for (int i = 0; i < 4; i++) {
+            median.add(5.0);
+        }
+        median.add(9.0);
+        assertEquals(5.0, median.getMedian(), TOLERANCE);
+        assertEquals(0.0, median.getMad(), TOLERANCE);
+        assertEquals(8.0, median.score(9.0, 0.5), TOLERANCE);
+        assertEquals(Double.POSITIVE_INFINITY, median.score(9.0, 0.0), 0.0);
+        assertEquals(0.0, median.score(5.0, 0.0), 0.0);
+    }
+
+    @Test
+    public void shrinkingWindowKeepsNewestSamples() {
+        SlidingMedian median = new SlidingMedian(10);
+        for (int i = 1; i <= 10; i++) {
+            median.add(i);
+        }
+        median.setWindow(3);
+        assertEquals(3, median.size());
+        assertEquals(9.0, median.getMedian(), TOLERANCE);
+        assertEquals(1.0, median.getMad(), TOLERANCE);
+
+        median.add(100.0);
+        assertEquals(3, median.size());
+        assertEquals(10.0, median.getMedian(), TOLERANCE);
+
+        // Growing again does not bring evicted samples back.
+        median.setWindow(10);
+        assertEquals(3, median.size());
+        median.add(0.0);
+        assertEquals(4, median.size());
+        assertEquals(9.5, median.getMedian(), TOLERANCE);
+    }
+
+    @Test
+    public void nanIsIgnoredAndEmptyIsNaN() {
+        SlidingMedian median = new SlidingMedian(4);
+        assertTrue(Double.isNaN(median.getMedian()));
+        assertTrue(Double.isNaN(median.getMad()));
+        median.add(Double.NaN);
+        assertEquals(0, median.size());
+        median.add(2.0);
+        median.clear();
+        assertEquals(0, median.size());
+        assertEquals(0.0, median.score(1.0, 0.1), 0.0);
+    }
+
+    @Test
+    public void filterReplacesOutlierWithMedian() {
+        SlidingMedian median = new SlidingMedian(5);
+        for (double value : new double[] {10.0, 11.0, 9.0, 10.0}) {
+            assertEquals(value, median.filter(value, 3.0, 0.1, 3), 0.0);
+        }
+        assertEquals(10.0, median.filter(50.0, 3.0, 0.1, 3), TOLERANCE);
+        // The outlier still enters the window.
+        assertEquals(5, median.size());
+        // Threshold <= 0 never replaces.
+        assertEquals(-40.0, median.filter(-40.0, 0.0, 0.1, 3), 0.0);
+    }
+
+    private static void assertReferenceMatches(ArrayDeque<Double> recent, SlidingMedian median, String where) {
+        assertEquals(where + " size", recent.size(), median.size());
+        if (recent.isEmpty()) {
+            return;
+        }
+        double[] values = new double[recent.size()];
+        int i = 0;
+        for (double value : recent) {
+            values[i++] = value;
+        }
+        double expectedMedian = sortedMedian(values);
+        double[] deviations = new double[values.length];
+        for (i = 0; i < values.length; i++) {
+            deviations[i] = Math.abs(values[i] - expectedMedian);
+        }
+        assertEquals(where + " median", expectedMedian, median.getMedian(), TOLERANCE);
+        assertEquals(where + " MAD", sortedMedian(deviations), median.getMad(), TOLERANCE);
+    }
+
+    private static double sortedMedian(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int mid = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[mid] : 0.5 * (sorted[mid - 1] + sorted[mid]);
+    }
+}
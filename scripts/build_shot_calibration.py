@@ -18,8 +18,13 @@ groups by `cal_point_index`, computes the median `target_rpm_fire`,
        parked at the target when the shot was labeled KEEP, and the value
        should be treated with suspicion or re-tested).
 
+    3. Optionally (`--profile-out`), the same rows as a profile CSV that the
+       robot loads at init from FIRST/shot_profiles/ (see
+       ShotCalibrationProfiles.java). Copy it to the Control Hub and select it
+       by file name from Panels; no recompile needed.
+
 Usage:
-    python scripts/build_shot_calibration.py [--log-dir path] [--out out.java]
+    python scripts/build_shot_calibration.py [--log-dir path] [--profile-out blue.csv]
 
 The script does not modify the Java source directly; it prints the new
 ShotSample block to stdout and leaves integration (copy/paste) to the
@@ -157,6 +162,45 @@ def emit_java_block(buckets: Dict[int, SampleBucket]) -> str:
     return "\n".join(lines)
 
 
+def merged_rows(buckets: Dict[int, SampleBucket]) -> List[Dict[str, object]]:
+    rows = []
+    for seed in SEED_ROWS:
+        idx = int(seed["idx"])
+        bucket = buckets.get(idx)
+        if bucket and bucket.count > 0:
+            rows.append({
+                "idx": idx, "x": float(seed["x"]), "y": float(seed["y"]),
+                "rpm": median_or(bucket.rpms, float(seed["rpm"])),
+                "hood": median_or(bucket.hoods, float(seed["hood"])),
+                "aim_x": median_or(bucket.aim_xs, float(seed["aimX"])),
+                "aim_y": median_or(bucket.aim_ys, float(seed["aimY"])),
+                "zone": seed["zone"], "notes": f"median of {bucket.count} KEEP",
+            })
+        else:
+            rows.append({
+                "idx": idx, "x": float(seed["x"]), "y": float(seed["y"]),
+                "rpm": float(seed["rpm"]), "hood": float(seed["hood"]),
+                "aim_x": float(seed["aimX"]), "aim_y": float(seed["aimY"]),
+                "zone": seed["zone"], "notes": "seed fallback (no KEEP yet)",
+            })
+    return rows
+
+
+def write_profile_csv(buckets: Dict[int, SampleBucket], path: Path) -> None:
+    """Profile format read by ShotCalibrationProfiles on the robot."""
+    path.parent.mkdir(parents=True, exist_ok=True)
+    with path.open("w", newline="", encoding="utf-8") as fh:
+        fh.write("# AUTO-GENERATED BY scripts/build_shot_calibration.py\n")
+        writer = csv.writer(fh, lineterminator="\n")
+        writer.writerow(["idx", "x", "y", "rpm", "hood", "aim_x", "aim_y", "zone", "notes"])
+        for row in merged_rows(buckets):
+            writer.writerow([
+                row["idx"], f"{row['x']:.2f}", f"{row['y']:.2f}", f"{row['rpm']:.0f}",
+                f"{row['hood']:.3f}", f"{row['aim_x']:.2f}", f"{row['aim_y']:.2f}",
+                row["zone"], row["notes"],
+            ])
+
+
 def emit_report(buckets: Dict[int, SampleBucket]) -> str:
     out = ["# Shot calibration aggregation report",
            "",
@@ -198,6 +242,8 @@ def main(argv: Optional[List[str]] = None) -> int:
                         help=f"directory to scan for shot-tuning CSVs (default: {default_log_dir})")
     parser.add_argument("--report", type=Path, default=Path("scripts/shot_calibration_report.md"),
                         help="markdown report output path")
+    parser.add_argument("--profile-out", type=Path, default=None,
+                        help="also write a robot-loadable profile CSV (copy to FIRST/shot_profiles/)")
     args = parser.parse_args(argv)
 
     if not args.log_dir.exists():
@@ -216,6 +262,9 @@ def main(argv: Optional[List[str]] = None) -> int:
     args.report.parent.mkdir(parents=True, exist_ok=True)
     args.report.write_text(emit_report(buckets), encoding="utf-8")
     print(f"\n[ok] report written: {args.report}", file=sys.stderr)
+    if args.profile_out is not None:
+        write_profile_csv(buckets, args.profile_out)
+        print(f"[ok] profile written: {args.profile_out}", file=sys.stderr)
     return 0
 
 
@@ -2,6 +2,10 @@
 """
 Convert existing Pickles CSV logs to AdvantageScope-compatible CSV.
 
+Pickles2025Teleop now also writes FIRST/turret_logs/pickles2025_*.wpilog on the
+robot (WpiLogWriter), which AdvantageScope opens directly. This script is only
+needed for older CSV-only logs or for the field3d artifact-shot reconstruction.
+
 Usage examples:
   python scripts/convert_logs_to_advantagescope.py --input Data/pickles2025_turret_20260328_125859.csv
   python scripts/convert_logs_to_advantagescope.py --input Data/*.csv --merge --output Data/pickles2025_all_ascope.csv
@@ -0,0 +1,188 @@
+#!/usr/bin/env python3
+"""
+Decode BinaryLogger (.pklb) files from the robot into CSV.
+
+The output matches what CsvLogger would have written for the same columns
+(doubles as %.6f, booleans as true/false, enums as their names), so every
+other script in this folder can read it unchanged.
+
+Usage examples:
+  python scripts/decode_binary_log.py --input Data/pickles2025_sotm_20260418_101500.pklb
+  python scripts/decode_binary_log.py --input "Data/*.pklb" --output-dir Data/decoded
+  python scripts/decode_binary_log.py --input Data/x.pklb --schema
+"""
+
+from __future__ import annotations
+
+import argparse
+import csv
+import glob
+import math
+import os
+import struct
+import sys
+from dataclasses import dataclass, field
+from typing import BinaryIO, List, Optional
+
+FILE_MAGIC = 0x504B4C42  # "PKLB"
+BLOCK_MAGIC = 0x424C4B31  # "BLK1"
+SUPPORTED_VERSION = 1
+
+TYPE_DOUBLE = 0
+TYPE_LONG = 1
+TYPE_BOOLEAN = 2
+TYPE_ENUM = 3
+
+TYPE_NAMES = {TYPE_DOUBLE: "double", TYPE_LONG: "long", TYPE_BOOLEAN: "boolean", TYPE_ENUM: "enum"}
+# struct format (big-endian, count prefixed at read time) and width in bytes
+TYPE_FORMATS = {TYPE_DOUBLE: ("d", 8), TYPE_LONG: ("q", 8), TYPE_BOOLEAN: ("b", 1), TYPE_ENUM: ("h", 2)}
+
+
+@dataclass
+class Column:
+    name: str
+    type: int
+    enum_values: List[str] = field(default_factory=list)
+
+
+@dataclass
+class Header:
+    version: int
+    session_start_ms: int
+    block_rows: int
+    columns: List[Column]
+
+
+class TruncatedFile(Exception):
+    pass
+
+
+def read_exact(f: BinaryIO, n: int) -> bytes:
+    data = f.read(n)
+    if len(data) != n:
+        raise TruncatedFile()
+    return data
+
+
+def read_utf(f: BinaryIO) -> str:
+    # Java DataOutputStream.writeUTF: unsigned short length + modified UTF-8.
+    # Column names are plain ASCII, for which both encodings agree.
+    (length,) = struct.unpack(">H", read_exact(f, 2))
+    return read_exact(f, length).decode("utf-8", errors="replace")
+
+
+def read_header(f: BinaryIO) -> Header:
+    magic, version = struct.unpack(">ii", read_exact(f, 8))
+    if magic != FILE_MAGIC:
+        raise ValueError("not a BinaryLogger file")
+    if version != SUPPORTED_VERSION:
+        raise ValueError(f"unsupported BinaryLogger version {version}")
+    session_start_ms, block_rows, column_count = struct.unpack(">qii", read_exact(f, 16))
+    columns: List[Column] = []
+    for _ in range(column_count):
+        (col_type,) = struct.unpack(">b", read_exact(f, 1))
+        if col_type not in TYPE_FORMATS:
+            raise ValueError(f"unknown column type {col_type}")
+        name = read_utf(f)
+        enum_values: List[str] = []
+        if col_type == TYPE_ENUM:
+            (count,) = struct.unpack(">H", read_exact(f, 2))
+            enum_values = [read_utf(f) for _ in range(count)]
+        columns.append(Column(name, col_type, enum_values))
+    return Header(version, session_start_ms, block_rows, columns)
+
+
+def format_value(column: Column, value) -> str:
+    if column.type == TYPE_DOUBLE:
+        # Match Java's String.format("%.6f") for the non-finite cases too.
+        if math.isnan(value):
+            return "NaN"
+        if math.isinf(value):
+            return "Infinity" if value > 0 else "-Infinity"
+        return f"{value:.6f}"
+    if column.type == TYPE_BOOLEAN:
+        return "true" if value else "false"
+    if column.type == TYPE_ENUM:
+        return column.enum_values[value] if 0 <= value < len(column.enum_values) else ""
+    return str(value)
+
+
+def decode_file(path: str, out_path: str) -> int:
+    rows_written = 0
+    with open(path, "rb") as f, open(out_path, "w", newline="") as out:
+        header = read_header(f)
+        writer = csv.writer(out, lineterminator="\n")
+        writer.writerow([c.name for c in header.columns])
+        while True:
+            try:
+                block_header = f.read(8)
+                if not block_header:
+                    break
+                if len(block_header) != 8:
+                    raise TruncatedFile()
+                magic, row_count = struct.unpack(">ii", block_header)
+                if magic != BLOCK_MAGIC or row_count < 0 or row_count > header.block_rows:
+                    print(f"{path}: corrupt block after {rows_written} rows, stopping", file=sys.stderr)
+                    break
+                columns_data = []
+                for column in header.columns:
+                    fmt, width = TYPE_FORMATS[column.type]
+                    raw = read_exact(f, width * row_count)
+                    columns_data.append(struct.unpack(f">{row_count}{fmt}", raw))
+            except TruncatedFile:
+                # The robot lost power or crashed mid-block; keep what was complete.
+                print(f"{path}: truncated final block ignored after {rows_written} rows", file=sys.stderr)
+                break
+            for r in range(row_count):
+                writer.writerow([format_value(c, columns_data[i][r]) for i, c in enumerate(header.columns)])
+            rows_written += row_count
+    return rows_written
+
+
+def print_schema(path: str) -> None:
+    with open(path, "rb") as f:
+        header = read_header(f)
+    print(f"{path}: version {header.version}, session start {header.session_start_ms} ms, "
+          f"{header.block_rows} rows/block")
+    for c in header.columns:
+        extra = f" {c.enum_values}" if c.type == TYPE_ENUM else ""
+        print(f"  {c.name:40s} {TYPE_NAMES[c.type]}{extra}")
+
+
+def output_path_for(path: str, output_dir: Optional[str]) -> str:
+    base = os.path.splitext(os.path.basename(path))[0] + ".csv"
+    return os.path.join(output_dir if output_dir else os.path.dirname(path), base)
+
+
+def main() -> int:
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument("--input", nargs="+", required=True, help="Input .pklb file(s) or glob(s)")
+    parser.add_argument("--output-dir", help="Directory for CSVs (default: next to each input)")
+    parser.add_argument("--schema", action="store_true", help="Print the column schema instead of decoding")
+    args = parser.parse_args()
+
+    paths: List[str] = []
+    for pattern in args.input:
+        matches = sorted(glob.glob(pattern))
+        paths.extend(matches if matches else [pattern])
+
+    if args.output_dir:
+        os.makedirs(args.output_dir, exist_ok=True)
+
+    status = 0
+    for path in paths:
+        try:
+            if args.schema:
+                print_schema(path)
+                continue
+            out_path = output_path_for(path, args.output_dir)
+            rows = decode_file(path, out_path)
+            print(f"{path} -> {out_path} ({rows} rows)")
+        except (OSError, ValueError, TruncatedFile) as e:
+            print(f"{path}: {str(e) or 'truncated header'}", file=sys.stderr)
+            status = 1
+    return status
+
+
+if __name__ == "__main__":
+    sys.exit(main())
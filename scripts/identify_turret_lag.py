@@ -0,0 +1,164 @@
+#!/usr/bin/env python3
+"""
+Fit the turret servo-lag model used by TurretSubsystem's tracking feedforward
+from a turret CSV log (pickles2025_turret_*.csv, ENABLE_TURRET_LOGGING = true).
+
+Model: the measured turret angle follows the servo command through a pure
+transport delay followed by a first-order lag,
+
+    d(measured)/dt = (command(t - delay) - measured) / tau
+
+For a command ramping at a constant rate the turret settles (delay + tau)
+behind it, which is exactly how far TurretSubsystem leads the command.
+
+The fit simulates the model over the logged command (with the log's own
+timestamps) for a grid of (delay, tau), keeps the best RMSE, then refines the
+grid around it. Segments are split at gaps in t_ms so a paused log does not
+smear the fit. Log some fast spins / sweeps for a useful result: a turret
+that only holds still tells you nothing about lag.
+
+Usage examples:
+  python scripts/identify_turret_lag.py Data/pickles2025_turret_20260418_101500.csv
+  python scripts/identify_turret_lag.py "Data/pickles2025_turret_*.csv" --max-gap-ms 150
+"""
+
+from __future__ import annotations
+
+import argparse
+import bisect
+import csv
+import glob
+import math
+import sys
+from typing import List, Tuple
+
+TIME_COLUMN = "t_ms"
+COMMAND_COLUMN = "turret_servo_command_deg"
+MEASURED_COLUMN = "turret_measured_deg"
+
+
+def to_float(v, default=float("nan")):
+    try:
+        if v == "" or v is None:
+            return default
+        return float(v)
+    except (TypeError, ValueError):
+        return default
+
+
+def load_segments(paths: List[str], max_gap_ms: float) -> List[Tuple[List[float], List[float], List[float]]]:
+    """Returns [(t_sec, command_deg, measured_deg)] split wherever the log has a gap."""
+    segments = []
+    for path in paths:
+        with open(path, newline="") as f:
+            reader = csv.DictReader(f)
+            missing = [c for c in (TIME_COLUMN, COMMAND_COLUMN, MEASURED_COLUMN) if c not in reader.fieldnames]
+            if missing:
+                print(f"{path}: missing columns {missing}, skipped", file=sys.stderr)
+                continue
+            t, u, y = [], [], []
+            last_ms = None
+            for row in reader:
+                ms = to_float(row[TIME_COLUMN])
+                cmd = to_float(row[COMMAND_COLUMN])
+                meas = to_float(row[MEASURED_COLUMN])
+                if not (math.isfinite(ms) and math.isfinite(cmd) and math.isfinite(meas)):
+                    continue
+                if last_ms is not None and (ms <= last_ms or ms - last_ms > max_gap_ms):
+                    if len(t) > 2:
+                        segments.append((t, u, y))
+                    t, u, y = [], [], []
+                t.append(ms / 1000.0)
+                u.append(cmd)
+                y.append(meas)
+                last_ms = ms
+            if len(t) > 2:
+                segments.append((t, u, y))
+    return segments
+
+
+def command_at(t: List[float], u: List[float], when: float) -> float:
+    if when <= t[0]:
+        return u[0]
+    i = bisect.bisect_right(t, when) - 1
+    if i >= len(t) - 1:
+        return u[-1]
+    frac = (when - t[i]) / max(1e-9, t[i + 1] - t[i])
+    return u[i] + frac * (u[i + 1] - u[i])
+
+
+def simulate_sse(segments, delay: float, tau: float) -> Tuple[float, int]:
+    sse = 0.0
+    n = 0
+    for t, u, y in segments:
+        model = y[0]
+        for i in range(1, len(t)):
+            dt = t[i] - t[i - 1]
+            target = command_at(t, u, t[i - 1] - delay)
+            # Exact discretisation of the first-order lag for a held input.
+            model = target + (model - target) * math.exp(-dt / max(1e-4, tau))
+            err = model - y[i]
+            sse += err * err
+            n += 1
+    return sse, n
+
+
+def grid(lo: float, hi: float, step: float) -> List[float]:
+    count = int(round((hi - lo) / step))
+    return [max(0.0, lo + k * step) for k in range(count + 1)]
+
+
+def fit(segments, delay_max: float, tau_max: float):
+    best = (float("inf"), 0.0, 0.0)
+    delays = grid(0.0, delay_max, 0.02)
+    taus = grid(0.01, tau_max, 0.02)
+    for d in delays:
+        for tau in taus:
+            sse, _ = simulate_sse(segments, d, tau)
+            if sse < best[0]:
+                best = (sse, d, tau)
+    _, d0, tau0 = best
+    for d in grid(max(0.0, d0 - 0.02), d0 + 0.02, 0.0025):
+        for tau in grid(max(0.0025, tau0 - 0.02), tau0 + 0.02, 0.0025):
+            sse, _ = simulate_sse(segments, d, tau)
+            if sse < best[0]:
+                best = (sse, d, tau)
+    return best
+
+
+def main() -> int:
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument("inputs", nargs="+", help="turret CSV log(s); globs allowed")
+    parser.add_argument("--max-gap-ms", type=float, default=200.0, help="split segments at larger gaps")
+    parser.add_argument("--delay-max", type=float, default=0.20, help="largest delay searched (s)")
+    parser.add_argument("--tau-max", type=float, default=0.30, help="largest time constant searched (s)")
+    args = parser.parse_args()
+
+    paths = []
+    for pattern in args.inputs:
+        paths.extend(sorted(glob.glob(pattern)) or [pattern])
+    segments = load_segments(paths, args.max_gap_ms)
+    if not segments:
+        print("no usable rows", file=sys.stderr)
+        return 1
+
+    baseline_sse, baseline_n = simulate_sse(segments, 0.0, 1e-4)
+    sse, delay, tau = fit(segments, args.delay_max, args.tau_max)
+    rmse = math.sqrt(sse / max(1, baseline_n))
+    baseline_rmse = math.sqrt(baseline_sse / max(1, baseline_n))
+
+    print(f"segments={len(segments)} samples={baseline_n}")
+    print(f"no-lag RMSE      : {baseline_rmse:.3f} deg")
+    print(f"fitted RMSE      : {rmse:.3f} deg")
+    print(f"delay            : {delay:.4f} s")
+    print(f"time constant    : {tau:.4f} s")
+    print(f"total lag (lead) : {delay + tau:.4f} s")
+    print()
+    print("TurretSubsystem tunables:")
+    print(f"  SERVO_LAG_DELAY_SEC = {delay:.3f}")
+    print(f"  SERVO_LAG_TIME_CONSTANT_SEC = {tau:.3f}")
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())